@@ -34,6 +34,7 @@ import fr.cnes.regards.framework.modules.plugins.dao.IPluginConfigurationReposit
 import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
 import fr.cnes.regards.framework.modules.plugins.dto.parameter.parameter.IPluginParam;
 import fr.cnes.regards.framework.modules.plugins.service.IPluginService;
+import fr.cnes.regards.framework.modules.session.agent.client.ISessionAgentClient;
 import fr.cnes.regards.framework.modules.session.agent.dao.IStepPropertyUpdateRequestRepository;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
@@ -103,7 +104,9 @@ import java.util.stream.Collectors;
 @ActiveProfiles({ "indexer-service", "noscheduler" })
 @TestPropertySource(locations = { "classpath:test-indexer.properties" },
                     properties = { "regards.tenant=entity_indexer",
-                                   "spring.jpa.properties.hibernate.default_schema=entity_indexer" })
+                                   "spring.jpa.properties.hibernate.default_schema=entity_indexer",
+                                   // Step events are flushed by each test
+                                   "regards.session.agent.client.flush.delay.ms=3600000" })
 public class EntityIndexerServiceIT extends AbstractRegardsIT {
 
     private static final String SESSION_OWNER = "SOURCE 1";
@@ -159,6 +162,9 @@ public class EntityIndexerServiceIT extends AbstractRegardsIT {
     @Autowired
     private IPublisher publisher;
 
+    @Autowired
+    private ISessionAgentClient sessionAgentClient;
+
     @Autowired
     private SessionAgentHandlerService stepHandlerService;
 
@@ -729,25 +735,13 @@ public class EntityIndexerServiceIT extends AbstractRegardsIT {
         UniformResourceName objectId = objects.get(0).getIpId();
         Assert.assertNotNull("Object should exist", searchService.get(objectId));
 
-        // check the stepEvents indexation were correctly sent
-        ArgumentCaptor<ISubscribable> argumentCaptor = ArgumentCaptor.forClass(ISubscribable.class);
-        Mockito.verify(publisher, Mockito.atLeastOnce()).publish(argumentCaptor.capture());
-        List<StepPropertyUpdateRequestEvent> stepEvents = argumentCaptor.getAllValues()
-                                                                        .stream()
-                                                                        .filter(event -> event instanceof StepPropertyUpdateRequestEvent)
-                                                                        .map(event -> (StepPropertyUpdateRequestEvent) event)
-                                                                        .collect(Collectors.toList());
+        // check the stepEvents indexation were correctly sent, both indexations are summed up in a single event
+        List<StepPropertyUpdateRequestEvent> stepEvents = getFlushedStepEvents();
         Assert.assertEquals("Unexpected number of step events created. Check the workflow of "
-                            + "StepPropertyUpdateRequestEvent sent.", 2, stepEvents.size());
+                            + "StepPropertyUpdateRequestEvent sent.", 1, stepEvents.size());
         checkStepEvent(stepEvents.get(0),
                        SessionNotifierPropertyEnum.PROPERTY_AIP_INDEXED.getName(),
-                       "3",
-                       StepPropertyEventTypeEnum.INC,
-                       SESSION_OWNER,
-                       SESSION);
-        checkStepEvent(stepEvents.get(1),
-                       SessionNotifierPropertyEnum.PROPERTY_AIP_INDEXED.getName(),
-                       "3",
+                       "6",
                        StepPropertyEventTypeEnum.INC,
                        SESSION_OWNER,
                        SESSION);
@@ -758,13 +752,7 @@ public class EntityIndexerServiceIT extends AbstractRegardsIT {
 
         // check the deletion of the first object and event sent
         Assert.assertNull("Object should have been deleted", searchService.get(objectId));
-        argumentCaptor = ArgumentCaptor.forClass(ISubscribable.class);
-        Mockito.verify(publisher, Mockito.atLeastOnce()).publish(argumentCaptor.capture());
-        stepEvents = argumentCaptor.getAllValues()
-                                   .stream()
-                                   .filter(event -> event instanceof StepPropertyUpdateRequestEvent)
-                                   .map(event -> (StepPropertyUpdateRequestEvent) event)
-                                   .collect(Collectors.toList());
+        stepEvents = getFlushedStepEvents();
         Assert.assertEquals("Unexpected number of step events created. Check the workflow of "
                             + "StepPropertyUpdateRequestEvent sent.", 1, stepEvents.size());
         checkStepEvent(stepEvents.get(0),
@@ -781,13 +769,7 @@ public class EntityIndexerServiceIT extends AbstractRegardsIT {
         // --- PREPARE TEST ---
         // Generate the process of creating sessionSteps manually
         // first save steps to database by capturing them
-        ArgumentCaptor<ISubscribable> argumentCaptor = ArgumentCaptor.forClass(ISubscribable.class);
-        Mockito.verify(publisher, Mockito.atLeastOnce()).publish(argumentCaptor.capture());
-        List<StepPropertyUpdateRequestEvent> stepEventsInit = argumentCaptor.getAllValues()
-                                                                            .stream()
-                                                                            .filter(event -> event instanceof StepPropertyUpdateRequestEvent)
-                                                                            .map(event -> (StepPropertyUpdateRequestEvent) event)
-                                                                            .collect(Collectors.toList());
+        List<StepPropertyUpdateRequestEvent> stepEventsInit = getFlushedStepEvents();
         Set<String> sources = stepHandlerService.createStepRequests(stepEventsInit);
         stepHandlerService.createMissingSnapshotProcesses(sources);
         // then generate sessionSteps from steps
@@ -815,6 +797,22 @@ public class EntityIndexerServiceIT extends AbstractRegardsIT {
                        SESSION);
     }
 
+    /**
+     * Increments and decrements are summed up by step property until they are flushed, flush them and get the
+     * published step events
+     */
+    private List<StepPropertyUpdateRequestEvent> getFlushedStepEvents() {
+        sessionAgentClient.flush();
+        ArgumentCaptor<List<? extends ISubscribable>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(publisher, Mockito.atLeastOnce()).publish(argumentCaptor.capture());
+        return argumentCaptor.getAllValues()
+                             .stream()
+                             .flatMap(List::stream)
+                             .filter(event -> event instanceof StepPropertyUpdateRequestEvent)
+                             .map(event -> (StepPropertyUpdateRequestEvent) event)
+                             .collect(Collectors.toList());
+    }
+
     /**
      * Method to check properties of StepPropertyUpdateRequestEvents
      */
@@ -18,6 +18,8 @@
  */
 package fr.cnes.regards.modules.model.service.validation;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import fr.cnes.regards.framework.geojson.AbstractFeature;
 import fr.cnes.regards.modules.model.domain.ComputationMode;
 import fr.cnes.regards.modules.model.domain.ModelAttrAssoc;
@@ -33,6 +35,8 @@ import org.springframework.validation.MapBindingResult;
 import org.springframework.validation.Validator;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 /**
  * Override this class to validate feature properties
@@ -45,10 +49,28 @@ public abstract class AbstractFeatureValidationService<F extends AbstractFeature
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractFeatureValidationService.class);
 
+    /**
+     * Compiled validators by model attribute list.<br/>
+     * Keys are the lists cached by the {@link IModelFinder}, compared by identity and weakly referenced : when a model
+     * changes, the finder loads a new list, so the outdated compiled validators are never used again and get collected.
+     */
+    private final Cache<List<ModelAttrAssoc>, CompiledModelValidator> compiledValidators = CacheBuilder.newBuilder()
+                                                                                                       .weakKeys()
+                                                                                                       .build();
+
     public AbstractFeatureValidationService(IModelFinder modelFinder) {
         super(modelFinder);
     }
 
+    /**
+     * Override to return true to build validators once per model instead of once per validated feature.
+     * Only allowed if {@link #getValidators(ModelAttrAssoc, String, ValidationMode, AbstractFeature)} neither depends on
+     * the validation mode nor on the feature, as they are given as null when compiling the model.
+     */
+    protected boolean useCompiledValidators() {
+        return false;
+    }
+
     @Override
     public Errors validate(String model, F feature, ValidationMode mode, String objectName) {
 
@@ -69,13 +91,24 @@ public abstract class AbstractFeatureValidationService<F extends AbstractFeature
         Set<String> toCheckProperties = new HashSet<>(pptyMap.keySet());
 
         // Loop over model attributes ... to validate each properties
-        for (ModelAttrAssoc modelAttrAssoc : modAtts) {
-            errors.addAllErrors(checkModelAttribute(modelAttrAssoc,
-                                                    objectName,
-                                                    mode,
-                                                    feature,
-                                                    pptyMap,
-                                                    toCheckProperties));
+        if (useCompiledValidators()) {
+            for (CompiledModelValidator.CompiledAttribute attribute : getCompiledValidator(modAtts).getAttributes()) {
+                errors.addAllErrors(checkModelAttribute(attribute.modelAttrAssoc(),
+                                                        objectName,
+                                                        mode,
+                                                        pptyMap,
+                                                        toCheckProperties,
+                                                        attribute::validators));
+            }
+        } else {
+            for (ModelAttrAssoc modelAttrAssoc : modAtts) {
+                errors.addAllErrors(checkModelAttribute(modelAttrAssoc,
+                                                        objectName,
+                                                        mode,
+                                                        feature,
+                                                        pptyMap,
+                                                        toCheckProperties));
+            }
         }
 
         // If properties isn't empty it means some properties are unexpected by the model
@@ -104,6 +137,23 @@ public abstract class AbstractFeatureValidationService<F extends AbstractFeature
                                          F feature,
                                          Map<String, IProperty<?>> pptyMap,
                                          Set<String> toCheckProperties) {
+        return checkModelAttribute(modelAttrAssoc,
+                                   objectName,
+                                   mode,
+                                   pptyMap,
+                                   toCheckProperties,
+                                   () -> getValidators(modelAttrAssoc,
+                                                       modelAttrAssoc.getAttribute().getJsonPropertyPath(),
+                                                       mode,
+                                                       feature));
+    }
+
+    private Errors checkModelAttribute(ModelAttrAssoc modelAttrAssoc,
+                                       String objectName,
+                                       ValidationMode mode,
+                                       Map<String, IProperty<?>> pptyMap,
+                                       Set<String> toCheckProperties,
+                                       Supplier<List<Validator>> validators) {
 
         Errors errors = new MapBindingResult(new HashMap<>(), objectName);
 
@@ -133,7 +183,7 @@ public abstract class AbstractFeatureValidationService<F extends AbstractFeature
 
                     if (!errors.hasErrors()) {
 
-                        doValidation(errors, modelAttrAssoc, mode, feature, attPath, att);
+                        doValidation(errors, validators.get(), attPath, att);
                     }
                 }
             }
@@ -143,14 +193,9 @@ public abstract class AbstractFeatureValidationService<F extends AbstractFeature
         return errors;
     }
 
-    private void doValidation(Errors errors,
-                              ModelAttrAssoc modelAttrAssoc,
-                              ValidationMode mode,
-                              F feature,
-                              String attPath,
-                              IProperty<?> att) {
+    private void doValidation(Errors errors, List<Validator> validators, String attPath, IProperty<?> att) {
         // Do validation
-        for (Validator validator : getValidators(modelAttrAssoc, attPath, mode, feature)) {
+        for (Validator validator : validators) {
             if (validator.supports(att.getClass())) {
                 validator.validate(att, errors);
             } else {
@@ -162,6 +207,23 @@ public abstract class AbstractFeatureValidationService<F extends AbstractFeature
         }
     }
 
+    private CompiledModelValidator getCompiledValidator(List<ModelAttrAssoc> modAtts) {
+        try {
+            return compiledValidators.get(modAtts, () -> compileValidators(modAtts));
+        } catch (ExecutionException e) {
+            // Compilation does not throw any checked exception
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private CompiledModelValidator compileValidators(List<ModelAttrAssoc> modAtts) {
+        return CompiledModelValidator.compile(modAtts,
+                                              (modelAttrAssoc, attPath) -> getValidators(modelAttrAssoc,
+                                                                                         attPath,
+                                                                                         null,
+                                                                                         null));
+    }
+
     /**
      * Get validators
      */
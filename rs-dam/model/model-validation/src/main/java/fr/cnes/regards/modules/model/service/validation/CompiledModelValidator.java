@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.model.service.validation;
+
+import fr.cnes.regards.modules.model.domain.ComputationMode;
+import fr.cnes.regards.modules.model.domain.ModelAttrAssoc;
+import org.springframework.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Validators of a model built once for all its attributes.<br/>
+ * Each attribute keeps its json property path and its validators so that validating a feature does not rebuild any
+ * restriction checker.
+ * An instance is bound to a model attribute list, so it must be dropped when the model changes.
+ */
+public final class CompiledModelValidator {
+
+    /**
+     * Compiled attributes in model order
+     */
+    private final List<CompiledAttribute> attributes;
+
+    private CompiledModelValidator(List<CompiledAttribute> attributes) {
+        this.attributes = Collections.unmodifiableList(attributes);
+    }
+
+    /**
+     * Build validators of given model attributes
+     *
+     * @param modelAttrAssocs   model attributes
+     * @param validatorsBuilder function building validators of a model attribute from its json property path
+     */
+    public static CompiledModelValidator compile(List<ModelAttrAssoc> modelAttrAssocs,
+                                                 BiFunction<ModelAttrAssoc, String, List<Validator>> validatorsBuilder) {
+        List<CompiledAttribute> attributes = new ArrayList<>(modelAttrAssocs.size());
+        for (ModelAttrAssoc modelAttrAssoc : modelAttrAssocs) {
+            String path = modelAttrAssoc.getAttribute().getJsonPropertyPath();
+            // Only GIVEN attributes are validated
+            List<Validator> validators = modelAttrAssoc.getMode() == ComputationMode.GIVEN ?
+                List.copyOf(validatorsBuilder.apply(modelAttrAssoc, path)) :
+                List.of();
+            attributes.add(new CompiledAttribute(modelAttrAssoc, path, validators));
+        }
+        return new CompiledModelValidator(attributes);
+    }
+
+    public List<CompiledAttribute> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Model attribute with its prebuilt validators
+     */
+    public record CompiledAttribute(ModelAttrAssoc modelAttrAssoc,
+                                    String path,
+                                    List<Validator> validators) {
+
+    }
+}
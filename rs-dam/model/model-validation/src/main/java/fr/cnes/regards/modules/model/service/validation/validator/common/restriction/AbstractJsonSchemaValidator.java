@@ -52,6 +52,11 @@ public abstract class AbstractJsonSchemaValidator extends AbstractValidator {
      */
     private final JsonSchemaRestriction restriction;
 
+    /**
+     * Restriction schema, loaded on first use as validators are reused for many values
+     */
+    private volatile JsonSchema jsonSchema;
+
     public AbstractJsonSchemaValidator(JsonSchemaRestriction pRestriction, String pAttributeKey) {
         super(pAttributeKey);
         this.restriction = pRestriction;
@@ -96,7 +101,12 @@ public abstract class AbstractJsonSchemaValidator extends AbstractValidator {
     }
 
     protected JsonSchema getJsonSchema() throws JsonSchemaException {
-        return factory.getSchema(this.restriction.getJsonSchema());
+        JsonSchema schema = jsonSchema;
+        if (schema == null) {
+            schema = factory.getSchema(this.restriction.getJsonSchema());
+            jsonSchema = schema;
+        }
+        return schema;
     }
 
     protected JsonNode getJsonNode(String content) throws IOException {
@@ -36,6 +36,11 @@ public abstract class AbstractPatternValidator extends AbstractValidator {
      */
     private final PatternRestriction restriction;
 
+    /**
+     * Restriction pattern, compiled on first use as validators are reused for many values
+     */
+    private volatile Pattern compiledPattern;
+
     public AbstractPatternValidator(PatternRestriction pRestriction, String pAttributeKey) {
         super(pAttributeKey);
         this.restriction = pRestriction;
@@ -66,19 +71,28 @@ public abstract class AbstractPatternValidator extends AbstractValidator {
     }
 
     public void validate(String pTarget, Errors pErrors) {
-        if (!Pattern.matches(restriction.getPattern(), pTarget)) {
+        if (!getPattern().matcher(pTarget).matches()) {
             reject(pErrors);
         }
     }
 
     public void validate(String[] pTarget, Errors pErrors) {
         for (String val : pTarget) {
-            if (!Pattern.matches(restriction.getPattern(), val)) {
+            if (!getPattern().matcher(val).matches()) {
                 reject(pErrors);
             }
         }
     }
 
+    private Pattern getPattern() {
+        Pattern pattern = compiledPattern;
+        if (pattern == null) {
+            pattern = Pattern.compile(restriction.getPattern());
+            compiledPattern = pattern;
+        }
+        return pattern;
+    }
+
     private void reject(Errors pErrors) {
         pErrors.reject("error.value.not.conform.to.pattern",
                        String.format("Value of attribute %s is not conform to pattern %s.",
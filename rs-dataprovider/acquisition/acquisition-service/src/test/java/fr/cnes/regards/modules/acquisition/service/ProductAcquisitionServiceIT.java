@@ -28,6 +28,7 @@ import fr.cnes.regards.framework.modules.jobs.service.IJobInfoService;
 import fr.cnes.regards.framework.modules.plugins.dao.IPluginConfigurationRepository;
 import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
 import fr.cnes.regards.framework.modules.plugins.dto.parameter.parameter.IPluginParam;
+import fr.cnes.regards.framework.modules.session.agent.client.ISessionAgentClient;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
 import fr.cnes.regards.framework.notification.client.INotificationClient;
@@ -106,6 +107,9 @@ public class ProductAcquisitionServiceIT extends AbstractMultitenantServiceIT {
     @Autowired
     private IJobInfoService jobInfoService;
 
+    @Autowired
+    private ISessionAgentClient sessionAgentClient;
+
     @Before
     public void before() throws ModuleException {
         simulateApplicationReadyEvent();
@@ -383,41 +387,32 @@ public class ProductAcquisitionServiceIT extends AbstractMultitenantServiceIT {
         Thread.sleep(5000);
 
         // Let's test SessionNotifier
-        ArgumentCaptor<StepPropertyUpdateRequestEvent> grantedInfo = ArgumentCaptor.forClass(
-            StepPropertyUpdateRequestEvent.class);
+        // Increments and decrements are summed up by step property, flush the ones not sent yet
+        sessionAgentClient.flush();
+        ArgumentCaptor<List<? extends ISubscribable>> grantedInfo = ArgumentCaptor.forClass(List.class);
         Mockito.verify(publisher, Mockito.atLeastOnce()).publish(grantedInfo.capture());
-        // Capture how many notif of each type have been sent
-        Map<String, Integer> callByProperty = new HashMap<>();
-        for (ISubscribable event : grantedInfo.getAllValues()) {
+        // Compute the value of each property from all notifs sent
+        Map<String, Long> valueByProperty = new HashMap<>();
+        for (ISubscribable event : grantedInfo.getAllValues().stream().flatMap(List::stream).toList()) {
             // We ignore all others types of events
-            if (event instanceof StepPropertyUpdateRequestEvent) {
-                StepPropertyUpdateRequestEvent monitoringEvent = (StepPropertyUpdateRequestEvent) event;
-                String key = monitoringEvent.getStepProperty().getStepPropertyInfo().getProperty()
-                             + "_"
-                             + monitoringEvent.getType().toString();
-                if (callByProperty.containsKey(key)) {
-                    callByProperty.put(key, callByProperty.get(key) + 1);
-                } else {
-                    callByProperty.put(key, 1);
+            if (event instanceof StepPropertyUpdateRequestEvent monitoringEvent
+                && monitoringEvent.getType() != StepPropertyEventTypeEnum.VALUE) {
+                long value = Long.parseLong(monitoringEvent.getStepProperty().getStepPropertyInfo().getValue());
+                if (monitoringEvent.getType() == StepPropertyEventTypeEnum.DEC) {
+                    value = -value;
                 }
+                valueByProperty.merge(monitoringEvent.getStepProperty().getStepPropertyInfo().getProperty(),
+                                      value,
+                                      Long::sum);
             }
         }
-        Integer incCompleted = callByProperty.get(SessionProductPropertyEnum.PROPERTY_COMPLETED.getName()
-                                                  + "_"
-                                                  + StepPropertyEventTypeEnum.INC);
-        Assert.assertNotNull(incCompleted);
-        Assert.assertEquals(nbFiles, incCompleted.intValue());
-
-        Integer decCompleted = callByProperty.get(SessionProductPropertyEnum.PROPERTY_COMPLETED.getName()
-                                                  + "_"
-                                                  + StepPropertyEventTypeEnum.DEC);
-        Assert.assertNotNull(decCompleted);
-        Assert.assertEquals(nbFiles, decCompleted.intValue());
-
-        Integer incGenerated = callByProperty.get(SessionProductPropertyEnum.PROPERTY_GENERATED_PRODUCTS.getName()
-                                                  + "_"
-                                                  + StepPropertyEventTypeEnum.INC);
-        Assert.assertNotNull(incGenerated);
-        Assert.assertEquals(nbFiles, incGenerated.intValue());
+        // Every product has been completed, then generated
+        Long completed = valueByProperty.get(SessionProductPropertyEnum.PROPERTY_COMPLETED.getName());
+        Assert.assertNotNull(completed);
+        Assert.assertEquals(0, completed.longValue());
+
+        Long generated = valueByProperty.get(SessionProductPropertyEnum.PROPERTY_GENERATED_PRODUCTS.getName());
+        Assert.assertNotNull(generated);
+        Assert.assertEquals(nbFiles, generated.longValue());
     }
 }
\ No newline at end of file
@@ -26,6 +26,11 @@ import java.util.Set;
 public interface IAbstractFeatureRequestRepository<T extends AbstractFeatureRequest>
     extends JpaRepository<T, Long>, JpaSpecificationExecutor<T> {
 
+    /**
+     * Scheduling cursor to read requests ready to be scheduled from the first one
+     */
+    long SCHEDULE_FROM_START = 0L;
+
     Page<T> findByStepAndGroupIdIn(FeatureRequestStep step, Collection<String> groupIds, Pageable page);
 
     @Query("select distinct afr.requestId from AbstractFeatureRequest afr")
@@ -48,6 +53,44 @@ public interface IAbstractFeatureRequestRepository<T extends AbstractFeatureRequ
      */
     Page<T> findByStepAndRequestDateLessThanEqual(FeatureRequestStep step, OffsetDateTime requestDate, Pageable page);
 
+    /**
+     * Claim ids of a limited number of requests to notify, ordered by priority, date and id.
+     * Requests are claimed with FOR UPDATE SKIP LOCKED : they are locked until the end of the current transaction
+     * and are skipped by concurrent schedulers.
+     *
+     * @param cursor id of the last request read by the previous round, {@link #SCHEDULE_FROM_START} to read from the
+     *               first request
+     * @param size   maximum number of request to return
+     */
+    default List<Long> findRequestIdsToNotify(long cursor, int size) {
+        return doFindRequestIdsToNotify(FeatureRequestStep.LOCAL_TO_BE_NOTIFIED.name(),
+                                          OffsetDateTime.now(),
+                                          cursor,
+                                          size);
+    }
+
+    @Query(value = """
+        WITH cursor_request AS (
+            SELECT cr.priority, cr.request_date, cr.id FROM t_feature_request cr WHERE cr.id = :cursor
+        )
+        SELECT request.id
+        FROM t_feature_request request
+        WHERE request.step = :step
+          AND request.request_date <= :now
+          AND (:cursor = 0 OR EXISTS(
+            SELECT 1 FROM cursor_request c
+            WHERE request.priority < c.priority
+               OR (request.priority = c.priority AND (request.request_date, request.id) > (c.request_date, c.id))
+          ))
+        ORDER BY request.priority DESC, request.request_date, request.id
+        LIMIT :size
+        FOR UPDATE OF request SKIP LOCKED
+        """, nativeQuery = true)
+    List<Long> doFindRequestIdsToNotify(@Param("step") String step,
+                                        @Param("now") OffsetDateTime now,
+                                        @Param("cursor") long cursor,
+                                        @Param("size") int size);
+
     /**
      * Update {@link AbstractFeatureRequest} step. <b>WARNING: this method acts on {@link AbstractFeatureRequest}
      * so, for example, even using a {@link IFeatureCopyRequestRepository} you can update a {@link fr.cnes.regards.modules.feature.domain.request.FeatureUpdateRequest}</b>
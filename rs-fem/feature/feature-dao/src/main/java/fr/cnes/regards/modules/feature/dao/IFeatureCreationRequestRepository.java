@@ -25,7 +25,6 @@ import fr.cnes.regards.modules.feature.domain.request.ILightFeatureCreationReque
 import fr.cnes.regards.modules.feature.dto.FeatureRequestStep;
 import fr.cnes.regards.modules.feature.dto.urn.FeatureUniformResourceName;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -57,40 +56,56 @@ public interface IFeatureCreationRequestRepository extends IAbstractFeatureReque
      * @param delayInSeconds delay in seconds from now of returned requests
      */
     default List<IFeatureRequestToSchedule> findRequestsToSchedule(int delayInSeconds, int size) {
+        return findRequestsToSchedule(delayInSeconds, SCHEDULE_FROM_START, size);
+    }
+
+    /**
+     * Claim a limited number of creation requests ready to be handled by a job, ordered by priority, date and id.
+     * Requests are claimed with FOR UPDATE SKIP LOCKED : they are locked until the end of the current transaction
+     * and are skipped by concurrent schedulers.<br/>
+     * Requests are read in scheduling order from the given cursor, so that a scheduling round does not read again
+     * blocked requests already read by previous rounds. See {@link #SCHEDULE_FROM_START}.
+     *
+     * @param delayInSeconds delay in seconds from now of returned requests
+     * @param cursor         id of the last request read by the previous round, {@link #SCHEDULE_FROM_START} to read
+     *                       from the first request
+     * @param size           maximum number of request to return
+     */
+    default List<IFeatureRequestToSchedule> findRequestsToSchedule(int delayInSeconds, long cursor, int size) {
         OffsetDateTime now = OffsetDateTime.now();
         return doFindRequestsToSchedule(FeatureRequestStep.LOCAL_DELAYED.toString(),
                                         now,
                                         now.minusSeconds(delayInSeconds),
-                                        PageRequest.ofSize(size));
+                                        cursor,
+                                        size);
 
     }
 
     /**
-     * Native query to retrieve creation requests information with :
+     * Native query to claim creation requests information with :
      * - No other creation request with the same providerId at the given step
      * Those verification are made to avoid processing two create request on the same product at the same time.
      */
     @Query(value = """
+        WITH cursor_request AS (
+            SELECT cr.priority, cr.request_date, cr.id FROM t_feature_request cr WHERE cr.id = :cursor
+        )
         SELECT request.id AS id,
                request.provider_id AS providerId,
                request.priority AS priorityLevel,
                request.session_name AS session,
                request.session_owner AS sessionOwner
-        FROM (
-            SELECT request2.id,
-                   request2.provider_id,
-                   request2.priority,
-                   request2.session_name,
-                   request2.session_owner
-            FROM t_feature_request request2
-            WHERE request2.step = :step
-            AND request2.request_type = 'CREATION'
-            AND request2.request_date < :now
-            AND request2.registration_date <= :delay
-            ORDER BY request2.priority desc, request2.request_date
-        ) request
-        WHERE
-          NOT EXISTS(
+        FROM t_feature_request request
+        WHERE request.step = :step
+          AND request.request_type = 'CREATION'
+          AND request.request_date < :now
+          AND request.registration_date <= :delay
+          AND (:cursor = 0 OR EXISTS(
+            SELECT 1 FROM cursor_request c
+            WHERE request.priority < c.priority
+               OR (request.priority = c.priority AND (request.request_date, request.id) > (c.request_date, c.id))
+          ))
+          AND NOT EXISTS(
             SELECT 1 FROM t_feature_request req
             WHERE
               req.step != :step
@@ -98,11 +113,15 @@ public interface IFeatureCreationRequestRepository extends IAbstractFeatureReque
               AND req.request_type = 'CREATION'
             LIMIT 1
           )
+        ORDER BY request.priority DESC, request.request_date, request.id
+        LIMIT :size
+        FOR UPDATE OF request SKIP LOCKED
         """, nativeQuery = true)
     List<IFeatureRequestToSchedule> doFindRequestsToSchedule(@Param("step") String step,
                                                              @Param("now") OffsetDateTime now,
                                                              @Param("delay") OffsetDateTime delay,
-                                                             Pageable pageLimit);
+                                                             @Param("cursor") long cursor,
+                                                             @Param("size") int size);
 
     @Modifying
     @Query(value = "UPDATE t_feature SET feature = jsonb_set(feature, CAST('{last}' AS text[]), CAST(CAST(:last AS text) AS jsonb)), last_update = :now  WHERE urn IN :urns",
@@ -21,16 +21,15 @@ package fr.cnes.regards.modules.feature.dao;
 import fr.cnes.regards.modules.feature.domain.request.FeatureDeletionRequest;
 import fr.cnes.regards.modules.feature.dto.FeatureRequestStep;
 import fr.cnes.regards.modules.feature.dto.urn.FeatureUniformResourceName;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
-import java.util.Collection;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author Kevin Marchois
@@ -65,11 +64,36 @@ public interface IFeatureDeletionRequestRepository extends IAbstractFeatureReque
      * @param delayInSeconds delay in seconds from now of returned requests
      */
     default List<FeatureDeletionRequest> findRequestsToSchedule(int delayInSeconds, int size) {
+        return findRequestsToSchedule(delayInSeconds, SCHEDULE_FROM_START, size);
+    }
+
+    /**
+     * Claim a limited number of {@link FeatureDeletionRequest} ready to be scheduled, ordered by priority, date and id.
+     * Requests are claimed with FOR UPDATE SKIP LOCKED : they are locked until the end of the current transaction
+     * and are skipped by concurrent schedulers.<br/>
+     * Requests are read in scheduling order from the given cursor, so that a scheduling round does not read again
+     * blocked requests already read by previous rounds. See {@link #SCHEDULE_FROM_START}.
+     *
+     * @param delayInSeconds delay in seconds from now of returned requests
+     * @param cursor         id of the last request read by the previous round, {@link #SCHEDULE_FROM_START} to read
+     *                       from the first request
+     * @param size           maximum number of request to return
+     */
+    default List<FeatureDeletionRequest> findRequestsToSchedule(int delayInSeconds, long cursor, int size) {
         OffsetDateTime now = OffsetDateTime.now();
-        return doFindRequestsToSchedule(FeatureRequestStep.LOCAL_DELAYED,
-                                        now,
-                                        now.minusSeconds(delayInSeconds),
-                                        Pageable.ofSize(size));
+        List<Long> ids = doFindRequestIdsToSchedule(FeatureRequestStep.LOCAL_DELAYED.name(),
+                                                    now,
+                                                    now.minusSeconds(delayInSeconds),
+                                                    cursor,
+                                                    size);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Keep scheduling order of claimed ids as findAllById does not
+        Map<Long, FeatureDeletionRequest> requestsById = findAllById(ids).stream()
+                                                                         .collect(Collectors.toMap(FeatureDeletionRequest::getId,
+                                                                                                   Function.identity()));
+        return ids.stream().map(requestsById::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     /**
@@ -79,25 +103,41 @@ public interface IFeatureDeletionRequestRepository extends IAbstractFeatureReque
      * deleted and the dissemination update requested are created. Product is fully created when dissemination info
      * update are done.
      */
-    @Query("""
-        SELECT request FROM FeatureDeletionRequest request
-        WHERE NOT EXISTS (
-            SELECT fcr.urn FROM FeatureCreationRequest fcr
-            WHERE fcr.urn = request.urn
+    @Query(value = """
+        WITH cursor_request AS (
+            SELECT cr.priority, cr.request_date, cr.id FROM t_feature_request cr WHERE cr.id = :cursor
         )
-        AND NOT EXISTS (
-            SELECT fudr.urn FROM FeatureUpdateDisseminationRequest fudr
-            WHERE fudr.urn = request.urn
-        )
-        AND request.step = :step
-        AND request.registrationDate <= :delay
-        AND request.requestDate <= :now
-        ORDER BY request.priority desc, request.requestDate
-        """)
-    List<FeatureDeletionRequest> doFindRequestsToSchedule(@Param("step") FeatureRequestStep step,
-                                                          @Param("now") OffsetDateTime now,
-                                                          @Param("delay") OffsetDateTime delay,
-                                                          Pageable pageLimit);
+        SELECT request.id
+        FROM t_feature_request request
+        WHERE request.step = :step
+          AND request.request_type = 'DELETION'
+          AND request.registration_date <= :delay
+          AND request.request_date <= :now
+          AND (:cursor = 0 OR EXISTS(
+            SELECT 1 FROM cursor_request c
+            WHERE request.priority < c.priority
+               OR (request.priority = c.priority AND (request.request_date, request.id) > (c.request_date, c.id))
+          ))
+          AND NOT EXISTS(
+            SELECT 1 FROM t_feature_request fcr
+            WHERE fcr.urn = request.urn
+              AND fcr.request_type = 'CREATION'
+            LIMIT 1
+          )
+          AND NOT EXISTS(
+            SELECT 1 FROM t_feature_update_dissemination fudr
+            WHERE fudr.feature_urn = request.urn
+            LIMIT 1
+          )
+        ORDER BY request.priority DESC, request.request_date, request.id
+        LIMIT :size
+        FOR UPDATE OF request SKIP LOCKED
+        """, nativeQuery = true)
+    List<Long> doFindRequestIdsToSchedule(@Param("step") String step,
+                                          @Param("now") OffsetDateTime now,
+                                          @Param("delay") OffsetDateTime delay,
+                                          @Param("cursor") long cursor,
+                                          @Param("size") int size);
 
     @Modifying
     @Query("""
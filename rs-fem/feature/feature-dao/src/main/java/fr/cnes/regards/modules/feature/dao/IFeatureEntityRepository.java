@@ -20,6 +20,7 @@ package fr.cnes.regards.modules.feature.dao;
 
 import fr.cnes.regards.modules.feature.domain.AbstractFeatureEntity;
 import fr.cnes.regards.modules.feature.domain.FeatureEntity;
+import fr.cnes.regards.modules.feature.domain.ILatestVersionByProvider;
 import fr.cnes.regards.modules.feature.domain.ILightFeatureEntity;
 import fr.cnes.regards.modules.feature.domain.IUrnVersionByProvider;
 import fr.cnes.regards.modules.feature.dto.urn.FeatureUniformResourceName;
@@ -34,8 +35,11 @@ import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -67,11 +71,50 @@ public interface IFeatureEntityRepository
     List<IUrnVersionByProvider> findByProviderIdInOrderByVersionDesc(@Param("providerIds") List<String> providerIds);
 
     /**
-     * For dump purposes
+     * Retrieve only the latest version of each specified provider identifier, in one query whatever the number of
+     * versions
      */
-    Page<FeatureEntity> findByLastUpdateBetween(OffsetDateTime lastDumpDate, OffsetDateTime now, Pageable pageable);
+    @Query(value = """
+        SELECT latest.urn AS urn, latest.provider_id AS "providerId", latest.version AS version
+        FROM (
+          SELECT f.urn, f.provider_id, f.version,
+                 ROW_NUMBER() OVER (PARTITION BY f.provider_id ORDER BY f.version DESC) AS version_rank
+          FROM t_feature f
+          WHERE f.provider_id IN (:providerIds)
+        ) latest
+        WHERE latest.version_rank = 1
+        """, nativeQuery = true)
+    List<ILatestVersionByProvider> findLatestVersionByProviderIdIn(@Param("providerIds") Collection<String> providerIds);
 
-    Page<FeatureEntity> findByLastUpdateLessThan(OffsetDateTime now, Pageable pageable);
+    /**
+     * Latest version of each specified provider identifier, indexed by provider identifier. Unknown provider
+     * identifiers are not in the result.
+     */
+    default Map<String, ILatestVersionByProvider> findLatestVersionByProviderId(Collection<String> providerIds) {
+        if (providerIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return findLatestVersionByProviderIdIn(providerIds).stream()
+                                                           .collect(Collectors.toMap(ILatestVersionByProvider::getProviderId,
+                                                                                     Function.identity()));
+    }
+
+    /**
+     * For dump purposes : find next features updated before the dump date, from the given (last update, id) keyset
+     * cursor excluded, ordered by last update and id.
+     * To read the first features, cursor must be the date of previous dump (or any date before the first feature) and
+     * an id lower than all feature ids.
+     */
+    @Query("""
+        SELECT f FROM FeatureEntity f
+        WHERE f.lastUpdate < :dumpDate
+        AND (f.lastUpdate > :lastUpdate OR (f.lastUpdate = :lastUpdate AND f.id > :lastId))
+        ORDER BY f.lastUpdate, f.id
+        """)
+    List<FeatureEntity> findNextToDump(@Param("dumpDate") OffsetDateTime dumpDate,
+                                       @Param("lastUpdate") OffsetDateTime lastUpdate,
+                                       @Param("lastId") long lastId,
+                                       Pageable pageLimit);
 
     List<ILightFeatureEntity> findLightByUrnIn(Collection<FeatureUniformResourceName> uniformResourceNames);
 
@@ -0,0 +1,10 @@
+-- Partial indexes of requests ready to be scheduled, in scheduling order (priority, request date, id).
+-- They only contain schedulable requests so they stay small whatever the number of running or errored requests.
+CREATE INDEX IF NOT EXISTS idx_feature_request_creation_ready ON t_feature_request USING btree
+    (priority DESC, request_date, id) WHERE step = 'LOCAL_DELAYED' AND request_type = 'CREATION';
+CREATE INDEX IF NOT EXISTS idx_feature_request_update_ready ON t_feature_request USING btree
+    (priority DESC, request_date, id) WHERE step = 'LOCAL_DELAYED' AND request_type = 'UPDATE';
+CREATE INDEX IF NOT EXISTS idx_feature_request_deletion_ready ON t_feature_request USING btree
+    (priority DESC, request_date, id) WHERE step = 'LOCAL_DELAYED' AND request_type = 'DELETION';
+CREATE INDEX IF NOT EXISTS idx_feature_request_to_notify ON t_feature_request USING btree
+    (priority DESC, request_date, id) WHERE step = 'LOCAL_TO_BE_NOTIFIED';
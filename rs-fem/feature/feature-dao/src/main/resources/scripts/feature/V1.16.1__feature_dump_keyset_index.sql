@@ -0,0 +1,2 @@
+-- Index to read features to dump in (last update, id) order
+CREATE INDEX IF NOT EXISTS idx_feature_last_update_id ON t_feature USING btree (last_update, id);
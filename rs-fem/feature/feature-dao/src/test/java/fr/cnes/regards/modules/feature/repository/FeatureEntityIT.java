@@ -23,6 +23,7 @@ import fr.cnes.regards.framework.jpa.multitenant.test.AbstractDaoIT;
 import fr.cnes.regards.framework.urn.EntityType;
 import fr.cnes.regards.modules.feature.dao.IFeatureEntityRepository;
 import fr.cnes.regards.modules.feature.domain.FeatureEntity;
+import fr.cnes.regards.modules.feature.domain.ILatestVersionByProvider;
 import fr.cnes.regards.modules.feature.dto.Feature;
 import fr.cnes.regards.modules.feature.dto.urn.FeatureIdentifier;
 import fr.cnes.regards.modules.feature.dto.urn.FeatureUniformResourceName;
@@ -33,6 +34,7 @@ import fr.cnes.regards.modules.model.dto.properties.ObjectProperty;
 import fr.cnes.regards.modules.model.gson.MultitenantFlattenedAttributeAdapterFactory;
 import fr.cnes.regards.modules.model.service.exception.ImportException;
 import fr.cnes.regards.modules.model.service.xml.XmlImportHelper;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -47,6 +49,8 @@ import java.io.InputStream;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -142,13 +146,51 @@ public class FeatureEntityIT extends AbstractDaoIT {
                     System.currentTimeMillis() - creationStart);
     }
 
+    @Test
+    public void test_find_latest_version_by_provider_id() {
+        // Given
+        entityRepo.saveAll(List.of(buildVersion("P1", 1),
+                                   buildVersion("P1", 3),
+                                   buildVersion("P1", 2),
+                                   buildVersion("P2", 1),
+                                   buildVersion("P3", 1)));
+
+        // When
+        Map<String, ILatestVersionByProvider> latestVersions = entityRepo.findLatestVersionByProviderId(List.of("P1",
+                                                                                                                "P2",
+                                                                                                                "UNKNOWN"));
+
+        // Then only the latest version of each known provider id is returned
+        Assert.assertEquals(Set.of("P1", "P2"), latestVersions.keySet());
+        Assert.assertEquals(3, latestVersions.get("P1").getVersion().intValue());
+        Assert.assertEquals(getURN("P1", 3).toString(), latestVersions.get("P1").getUrn());
+        Assert.assertEquals("P1", latestVersions.get("P1").getProviderId());
+        Assert.assertEquals(1, latestVersions.get("P2").getVersion().intValue());
+        Assert.assertEquals(getURN("P2", 1).toString(), latestVersions.get("P2").getUrn());
+        Assert.assertTrue(entityRepo.findLatestVersionByProviderId(List.of()).isEmpty());
+    }
+
+    private FeatureEntity buildVersion(String providerId, int version) {
+        Feature feature = Feature.build(providerId,
+                                        "owner",
+                                        getURN(providerId, version),
+                                        IGeometry.unlocated(),
+                                        EntityType.DATA,
+                                        "model");
+        return FeatureEntity.build("sessionOwner", "session", feature, null, "model");
+    }
+
     private FeatureUniformResourceName getURN(String id) {
+        return getURN(id, 1);
+    }
+
+    private FeatureUniformResourceName getURN(String id, int version) {
         UUID uuid = UUID.nameUUIDFromBytes(id.getBytes());
         return FeatureUniformResourceName.build(FeatureIdentifier.FEATURE,
                                                 EntityType.DATA,
                                                 getDefaultTenant(),
                                                 uuid,
-                                                1);
+                                                version);
     }
 
     private void addGeodeProperties(Feature feature) {
@@ -56,6 +56,8 @@ public class FeatureControllerIT extends AbstractFeatureIT {
     @Before
     public void init() {
         runtimeTenantResolver.forceTenant(this.getDefaultTenant());
+        // Batch validation delegates to the mocked single feature validation
+        Mockito.when(validationMock.validateAll(Mockito.anyList(), Mockito.any())).thenCallRealMethod();
     }
 
     @Test
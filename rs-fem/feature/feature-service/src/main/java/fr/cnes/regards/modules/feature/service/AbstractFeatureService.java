@@ -21,6 +21,7 @@ package fr.cnes.regards.modules.feature.service;
 import com.google.common.collect.Sets;
 import fr.cnes.regards.framework.amqp.IPublisher;
 import fr.cnes.regards.framework.amqp.event.AbstractRequestEvent;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.modules.feature.dao.IAbstractFeatureRequestRepository;
 import fr.cnes.regards.modules.feature.dao.IFeatureEntityRepository;
 import fr.cnes.regards.modules.feature.domain.ILightFeatureEntity;
@@ -47,6 +48,9 @@ import org.springframework.validation.Errors;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -74,6 +78,11 @@ public abstract class AbstractFeatureService<R extends AbstractFeatureRequest> i
     @Autowired
     protected IFeatureEntityRepository featureEntityRepository;
 
+    @Autowired
+    private IRuntimeTenantResolver tenantResolver;
+
+    private final FeatureScheduleCursor scheduleCursor = new FeatureScheduleCursor();
+
     @Override
     public void validateRequest(AbstractRequestEvent event, Errors errors) {
         if (!event.hasRequestId()) {
@@ -152,6 +161,33 @@ public abstract class AbstractFeatureService<R extends AbstractFeatureRequest> i
         return RequestHandledResponse.build(total, nbHandled, message);
     }
 
+    /**
+     * Claim at most size requests to schedule for the current tenant, from the last request read by the previous
+     * scheduling round. See {@link FeatureScheduleCursor}.
+     *
+     * @param claimFrom      claims at most size requests after the given cursor
+     * @param idGetter       request id accessor
+     * @param priorityGetter request priority level accessor
+     * @param size           maximum number of requests to claim
+     */
+    protected <T> List<T> claimRequestsToSchedule(LongFunction<List<T>> claimFrom,
+                                                  ToLongFunction<T> idGetter,
+                                                  ToIntFunction<T> priorityGetter,
+                                                  int size) {
+        return scheduleCursor.claim(tenantResolver.getTenant(), claimFrom, idGetter, priorityGetter, size);
+    }
+
+    /**
+     * Restart the scheduling cursor of the current tenant if the given new requests have a higher priority than the
+     * cursor one. See {@link FeatureScheduleCursor#onRequestsInserted(String, int)}.
+     */
+    protected void onRequestsToScheduleInserted(Collection<R> requests) {
+        requests.stream()
+                .mapToInt(request -> request.getPriority().getPriorityLevel())
+                .max()
+                .ifPresent(maxPriority -> scheduleCursor.onRequestsInserted(tenantResolver.getTenant(), maxPriority));
+    }
+
     /**
      * Specific action to do after deletion of a list of requests.
      */
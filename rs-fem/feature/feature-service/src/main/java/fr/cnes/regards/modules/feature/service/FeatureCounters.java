@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.feature.service;
+
+import fr.cnes.regards.modules.feature.domain.IFeatureRequestToSchedule;
+import fr.cnes.regards.modules.feature.domain.ILightFeatureEntity;
+import fr.cnes.regards.modules.feature.service.FeatureMetrics.FeatureCreationState;
+import fr.cnes.regards.modules.feature.service.FeatureMetrics.FeatureUpdateState;
+import fr.cnes.regards.modules.feature.service.session.FeatureSessionNotifier;
+import fr.cnes.regards.modules.feature.service.session.FeatureSessionProperty;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metrics and session properties counted during a bulk processing, such as a scheduling round or a registration
+ * batch.<br/>
+ * Counts are aggregated by state for metrics and by (source, session, property) for sessions, then {@link #flush()}
+ * sends one increment or decrement per counter instead of one per request.<br/>
+ * Not thread safe, an instance is meant to be used by a single bulk processing.
+ */
+public class FeatureCounters {
+
+    private final FeatureMetrics metrics;
+
+    private final FeatureSessionNotifier sessionNotifier;
+
+    private final Map<FeatureCreationState, Long> creationStates = new EnumMap<>(FeatureCreationState.class);
+
+    private final Map<FeatureUpdateState, Long> updateStates = new EnumMap<>(FeatureUpdateState.class);
+
+    private final Map<SessionCounter, Long> sessionDeltas = new LinkedHashMap<>();
+
+    public FeatureCounters(FeatureMetrics metrics, FeatureSessionNotifier sessionNotifier) {
+        this.metrics = metrics;
+        this.sessionNotifier = sessionNotifier;
+    }
+
+    public void count(FeatureCreationState state) {
+        creationStates.merge(state, 1L, Long::sum);
+    }
+
+    public void count(FeatureUpdateState state) {
+        updateStates.merge(state, 1L, Long::sum);
+    }
+
+    public void incrementCount(ILightFeatureEntity featureEntity, FeatureSessionProperty property) {
+        if (featureEntity != null) {
+            incrementCount(featureEntity.getSessionOwner(), featureEntity.getSession(), property);
+        }
+    }
+
+    public void incrementCount(IFeatureRequestToSchedule request, FeatureSessionProperty property) {
+        incrementCount(request.getSessionOwner(), request.getSession(), property);
+    }
+
+    public void incrementCount(String source, String session, FeatureSessionProperty property) {
+        sessionDeltas.merge(new SessionCounter(source, session, property), 1L, Long::sum);
+    }
+
+    public void decrementCount(String source, String session, FeatureSessionProperty property) {
+        sessionDeltas.merge(new SessionCounter(source, session, property), -1L, Long::sum);
+    }
+
+    /**
+     * Send aggregated counts and reset them
+     */
+    public void flush() {
+        creationStates.forEach(metrics::count);
+        updateStates.forEach(metrics::count);
+        sessionDeltas.forEach((counter, delta) -> {
+            if (delta > 0) {
+                sessionNotifier.incrementCount(counter.source(), counter.session(), counter.property(), delta);
+            } else if (delta < 0) {
+                sessionNotifier.decrementCount(counter.source(), counter.session(), counter.property(), -delta);
+            }
+        });
+        creationStates.clear();
+        updateStates.clear();
+        sessionDeltas.clear();
+    }
+
+    private record SessionCounter(String source,
+                                  String session,
+                                  FeatureSessionProperty property) {
+
+    }
+}
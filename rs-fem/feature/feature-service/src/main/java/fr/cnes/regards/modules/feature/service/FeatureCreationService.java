@@ -36,8 +36,8 @@ import fr.cnes.regards.modules.feature.dao.IAbstractFeatureRequestRepository;
 import fr.cnes.regards.modules.feature.dao.IFeatureCreationRequestRepository;
 import fr.cnes.regards.modules.feature.domain.FeatureEntity;
 import fr.cnes.regards.modules.feature.domain.IFeatureRequestToSchedule;
+import fr.cnes.regards.modules.feature.domain.ILatestVersionByProvider;
 import fr.cnes.regards.modules.feature.domain.ILightFeatureEntity;
-import fr.cnes.regards.modules.feature.domain.IUrnVersionByProvider;
 import fr.cnes.regards.modules.feature.domain.request.AbstractFeatureRequest;
 import fr.cnes.regards.modules.feature.domain.request.FeatureCreationMetadataEntity;
 import fr.cnes.regards.modules.feature.domain.request.FeatureCreationRequest;
@@ -144,44 +144,34 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
 
         long registrationStart = System.currentTimeMillis();
 
-        List<FeatureCreationRequest> grantedRequests = new ArrayList<>();
-        List<FeatureUpdateRequestEvent> newUpdateRequests = new ArrayList<>();
         RequestInfo<String> requestInfo = new RequestInfo<>();
+        RegistrationBatch batch = initRegistrationBatch(events);
 
-        // Only retrieve from database requestIds matching the events to check if requests already exists.
-        Set<String> existingRequestIds = featureCreationRequestRepo.findRequestIdByRequestIdIn(events.stream()
-                                                                                                     .map(
-                                                                                                         FeatureCreationRequestEvent::getRequestId)
-                                                                                                     .collect(Collectors.toList()));
-
-        Set<FeatureUniformResourceName> eventsUrn = events.stream()
-                                                          .map(event -> event.getFeature().getUrn())
-                                                          .collect(Collectors.toSet());
-        Set<FeatureUniformResourceName> existingRequestUrns = featureCreationRequestRepo.findUrnByUrnIn(eventsUrn);
-        Set<FeatureUniformResourceName> existingEntityUrns = featureEntityRepository.findLightByUrnIn(eventsUrn)
-                                                                                    .stream()
-                                                                                    .map(ILightFeatureEntity::getUrn)
-                                                                                    .collect(Collectors.toSet());
-
-        events.forEach(item -> prepareFeatureCreationRequest(item,
-                                                             grantedRequests,
-                                                             requestInfo,
-                                                             existingRequestIds,
-                                                             existingRequestUrns,
-                                                             existingEntityUrns,
-                                                             newUpdateRequests));
+        // Validate features against their data model concurrently, other checks depend on the batch state
+        List<Feature> features = events.stream().map(FeatureCreationRequestEvent::getFeature).toList();
+        List<Errors> modelErrors = validationService.validateAll(features, ValidationMode.CREATION);
+        for (int i = 0; i < events.size(); i++) {
+            prepareFeatureCreationRequest(events.get(i), modelErrors.get(i), batch, requestInfo);
+        }
         LOGGER.trace("------------->>> {} creation requests prepared in {} ms",
-                     grantedRequests.size(),
+                     batch.grantedRequests.size(),
                      System.currentTimeMillis() - registrationStart);
 
         // Save a list of validated FeatureCreationRequest from a list of FeatureCreationRequestEvent
-        featureCreationRequestRepo.saveAll(grantedRequests);
+        featureCreationRequestRepo.saveAll(batch.grantedRequests);
+        onRequestsToScheduleInserted(batch.grantedRequests);
         LOGGER.trace("------------->>> {} creation requests registered in {} ms",
-                     grantedRequests.size(),
+                     batch.grantedRequests.size(),
                      System.currentTimeMillis() - registrationStart);
 
-        if (!newUpdateRequests.isEmpty()) {
-            RequestInfo<FeatureUniformResourceName> updateInfo = updateService.registerRequests(newUpdateRequests);
+        // Publish GRANTED and DENIED requests all at once
+        if (!batch.requestEvents.isEmpty()) {
+            publisher.publish(batch.requestEvents);
+        }
+        batch.counters.flush();
+
+        if (!batch.newUpdateRequests.isEmpty()) {
+            RequestInfo<FeatureUniformResourceName> updateInfo = updateService.registerRequests(batch.newUpdateRequests);
             updateInfo.getGranted()
                       .forEach((urn, requestId) -> requestInfo.addGrantedRequest(urn.toString(), requestId));
             updateInfo.getDenied().forEach((urn, requestId) -> requestInfo.addDeniedRequest(urn.toString(), requestId));
@@ -203,24 +193,55 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
     }
 
     /**
-     * Validate a list of {@link FeatureCreationRequestEvent}
-     * and if validated create a list of {@link FeatureCreationRequest}
+     * Retrieve at once from database everything needed to check the whole batch of events :
+     * existing request ids and urns, existing features and latest version of each provider id.
+     */
+    private RegistrationBatch initRegistrationBatch(List<FeatureCreationRequestEvent> events) {
+        // Only retrieve from database requestIds matching the events to check if requests already exists.
+        Set<String> existingRequestIds = featureCreationRequestRepo.findRequestIdByRequestIdIn(events.stream()
+                                                                                                     .map(
+                                                                                                         FeatureCreationRequestEvent::getRequestId)
+                                                                                                     .collect(Collectors.toList()));
+
+        Set<FeatureUniformResourceName> eventsUrn = events.stream()
+                                                          .map(event -> event.getFeature().getUrn())
+                                                          .collect(Collectors.toSet());
+        Set<FeatureUniformResourceName> existingRequestUrns = featureCreationRequestRepo.findUrnByUrnIn(eventsUrn);
+        Set<FeatureUniformResourceName> existingEntityUrns = featureEntityRepository.findLightByUrnIn(eventsUrn)
+                                                                                    .stream()
+                                                                                    .map(ILightFeatureEntity::getUrn)
+                                                                                    .collect(Collectors.toSet());
+
+        // Versions are only checked for features with a provided URN
+        Set<String> providerIdsWithUrn = events.stream()
+                                               .map(FeatureCreationRequestEvent::getFeature)
+                                               .filter(feature -> feature.getUrn() != null
+                                                                  && feature.getId() != null)
+                                               .map(Feature::getId)
+                                               .collect(Collectors.toSet());
+        Map<String, ILatestVersionByProvider> latestVersions = featureEntityRepository.findLatestVersionByProviderId(
+            providerIdsWithUrn);
+
+        return new RegistrationBatch(existingRequestIds,
+                                     existingRequestUrns,
+                                     existingEntityUrns,
+                                     latestVersions,
+                                     new FeatureCounters(metrics, featureSessionNotifier));
+    }
+
+    /**
+     * Validate a {@link FeatureCreationRequestEvent}
+     * and if validated create a {@link FeatureCreationRequest} in given batch
      *
-     * @param item                request to manage
-     * @param grantedRequests     collection of granted requests to populate
-     * @param requestInfo         store request registration state
-     * @param existingRequestIds  list of existing request ids in database (its a unique constraint)
-     * @param existingEntityUrns  list of URNs from existing feature entities
-     * @param existingRequestUrns list of URNs from existing feature creation requests
-     * @param newUpdateRequests   list of update requests already prepared
+     * @param item        request to manage
+     * @param modelErrors errors of the feature validation against its data model
+     * @param batch       batch being registered, with database state and already handled requests
+     * @param requestInfo store request registration state
      */
     private void prepareFeatureCreationRequest(FeatureCreationRequestEvent item,
-                                               List<FeatureCreationRequest> grantedRequests,
-                                               RequestInfo<String> requestInfo,
-                                               Set<String> existingRequestIds,
-                                               Set<FeatureUniformResourceName> existingRequestUrns,
-                                               Set<FeatureUniformResourceName> existingEntityUrns,
-                                               List<FeatureUpdateRequestEvent> newUpdateRequests) {
+                                               Errors modelErrors,
+                                               RegistrationBatch batch,
+                                               RequestInfo<String> requestInfo) {
 
         // Validate event
         Errors errors = new MapBindingResult(new HashMap<>(), Feature.class.getName());
@@ -236,44 +257,41 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
         String sessionOwner = sessionMetadata.getSessionOwner();
         String session = sessionMetadata.getSession();
 
-        if (existingRequestIds.contains(requestId) || grantedRequests.stream()
-                                                                     .anyMatch(request -> request.getRequestId()
-                                                                                                 .equals(requestId))) {
+        if (batch.existingRequestIds.contains(requestId) || batch.grantedRequestIds.contains(requestId)) {
             errors.rejectValue("requestId", "request.requestId.exists.error.message", "Request id already exists");
         }
 
-        // Validate feature according to the data model
-        errors.addAllErrors(validationService.validate(feature, ValidationMode.CREATION));
+        // Feature validation according to the data model
+        errors.addAllErrors(modelErrors);
 
         // Validate provided URN
         if (urn != null) {
             String rejectField = "urn";
             String errorCode = "feature.request.urn.already.exists.error.message";
             String defaultMessageTemplate = "Creation request with this URN already exists in %s";
-            if (existingRequestUrns.contains(urn)) {
+            if (batch.existingRequestUrns.contains(urn)) {
                 errors.rejectValue(rejectField, errorCode, String.format(defaultMessageTemplate, "existing requests"));
-            } else if (grantedRequests.stream()
-                                      .anyMatch(request -> request.getUrn() != null && request.getUrn().equals(urn))) {
+            } else if (batch.grantedUrns.contains(urn)) {
                 errors.rejectValue(rejectField, errorCode, String.format(defaultMessageTemplate, "granted requests"));
-            } else if (newUpdateRequests.stream().anyMatch(request -> request.getFeature().getUrn().equals(urn))) {
+            } else if (batch.newUpdateUrns.contains(urn)) {
                 errors.rejectValue(rejectField,
                                    errorCode,
                                    String.format(defaultMessageTemplate, "new update requests"));
             } else {
                 // Check if provided URN match an existing feature
-                if (existingEntityUrns.contains(urn)) {
+                if (batch.existingEntityUrns.contains(urn)) {
                     if (sessionMetadata.isUpdateIfExists()) {
                         // if updateIfExists option is enabled, register an update request instead of a creation one.
-                        newUpdateRequests.add(buildUpdateEventFromCreationEvent(item));
+                        batch.newUpdateRequests.add(buildUpdateEventFromCreationEvent(item));
+                        batch.newUpdateUrns.add(urn);
                         return;
                     } else {
                         errors.rejectValue("urn", "feature.urn.already.exists.error.message", "URN already exists");
                     }
                 } else {
                     // New version should be greater than previous one
-                    List<IUrnVersionByProvider> previousVersions = featureEntityRepository.findByProviderIdInOrderByVersionDesc(
-                        Collections.singletonList(feature.getId()));
-                    if (!previousVersions.isEmpty() && previousVersions.get(0).getVersion() >= urn.getVersion()) {
+                    ILatestVersionByProvider previousVersion = batch.latestVersions.get(featureId);
+                    if (previousVersion != null && previousVersion.getVersion() >= urn.getVersion()) {
                         errors.rejectValue("urn", "feature.urn.version.invalid.error.message", "Version is invalid");
                     }
                 }
@@ -290,19 +308,17 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
             requestInfo.addDeniedRequest(requestId, ErrorTranslator.getErrors(errors));
             // Monitoring log
             FeatureLogger.creationDenied(requestOwner, requestId, featureId, ErrorTranslator.getErrors(errors));
-            // Publish DENIED request
-            publisher.publish(FeatureRequestEvent.build(FeatureRequestType.CREATION,
-                                                        requestId,
-                                                        requestOwner,
-                                                        featureId,
-                                                        urn,
-                                                        RequestState.DENIED,
-                                                        ErrorTranslator.getErrors(errors)));
-            metrics.count(featureId, FeatureCreationState.CREATION_REQUEST_DENIED);
+            // DENIED request to publish
+            batch.requestEvents.add(FeatureRequestEvent.build(FeatureRequestType.CREATION,
+                                                              requestId,
+                                                              requestOwner,
+                                                              featureId,
+                                                              urn,
+                                                              RequestState.DENIED,
+                                                              ErrorTranslator.getErrors(errors)));
+            batch.counters.count(FeatureCreationState.CREATION_REQUEST_DENIED);
             // Update session properties
-            featureSessionNotifier.incrementCount(sessionOwner,
-                                                  session,
-                                                  FeatureSessionProperty.DENIED_REFERENCING_REQUESTS);
+            batch.counters.incrementCount(sessionOwner, session, FeatureSessionProperty.DENIED_REFERENCING_REQUESTS);
 
         } else {
 
@@ -323,20 +339,20 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
             request.setUrn(urn);
             // Monitoring log
             FeatureLogger.creationGranted(request.getRequestOwner(), request.getRequestId(), request.getProviderId());
-            // Publish GRANTED request
-            publisher.publish(FeatureRequestEvent.build(FeatureRequestType.CREATION,
-                                                        requestId,
-                                                        requestOwner,
-                                                        featureId,
-                                                        urn,
-                                                        RequestState.GRANTED,
-                                                        null));
+            // GRANTED request to publish
+            batch.requestEvents.add(FeatureRequestEvent.build(FeatureRequestType.CREATION,
+                                                              requestId,
+                                                              requestOwner,
+                                                              featureId,
+                                                              urn,
+                                                              RequestState.GRANTED,
+                                                              null));
             // Add to granted request collection
-            metrics.count(request.getProviderId(), FeatureCreationState.CREATION_REQUEST_GRANTED);
-            grantedRequests.add(request);
+            batch.counters.count(FeatureCreationState.CREATION_REQUEST_GRANTED);
+            batch.addGranted(request);
             requestInfo.addGrantedRequest(request.getProviderId(), request.getRequestId());
             // Update session properties
-            featureSessionNotifier.incrementCount(sessionOwner, session, FeatureSessionProperty.REFERENCING_REQUESTS);
+            batch.counters.incrementCount(sessionOwner, session, FeatureSessionProperty.REFERENCING_REQUESTS);
         }
     }
 
@@ -370,25 +386,30 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
         Set<String> featureIdsScheduled = new HashSet<>();
         Set<Long> requestIds = new HashSet<>();
 
-        List<IFeatureRequestToSchedule> dbRequests = featureCreationRequestRepo.findRequestsToSchedule(0,
-                                                                                                       properties.getMaxBulkSize());
+        int maxBulkSize = properties.getMaxBulkSize();
+        List<IFeatureRequestToSchedule> dbRequests = claimRequestsToSchedule(cursor -> featureCreationRequestRepo.findRequestsToSchedule(
+            0,
+            cursor,
+            maxBulkSize), IFeatureRequestToSchedule::getId, IFeatureRequestToSchedule::getPriorityLevel, maxBulkSize);
         Optional<Integer> highestPriorityLevel = dbRequests.stream()
                                                            .max((p1, p2) -> Math.max(p1.getPriorityLevel(),
                                                                                      p2.getPriorityLevel()))
                                                            .map(IFeatureRequestToSchedule::getPriorityLevel);
 
         if (!dbRequests.isEmpty()) {
+            FeatureCounters counters = new FeatureCounters(metrics, featureSessionNotifier);
             for (IFeatureRequestToSchedule request : dbRequests) {
                 // we will schedule only one feature request for a feature id
                 if (!featureIdsScheduled.contains(request.getProviderId())) {
-                    metrics.count(request.getProviderId(), FeatureCreationState.CREATION_REQUEST_SCHEDULED);
+                    counters.count(FeatureCreationState.CREATION_REQUEST_SCHEDULED);
                     requestIds.add(request.getId());
                     featureIdsScheduled.add(request.getProviderId());
                     // Update session properties
-                    featureSessionNotifier.incrementCount(request, FeatureSessionProperty.RUNNING_REFERENCING_REQUESTS);
+                    counters.incrementCount(request, FeatureSessionProperty.RUNNING_REFERENCING_REQUESTS);
                 }
             }
             featureCreationRequestRepo.updateStep(FeatureRequestStep.LOCAL_SCHEDULED, requestIds);
+            counters.flush();
 
             jobParameters.add(new JobParameter(FeatureCreationJob.IDS_PARAMETER, requestIds));
 
@@ -509,23 +530,18 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
         long start = System.currentTimeMillis();
 
         // Fetch the latest versions and URNs for each provider
-        List<String> providerIds = requests.stream()
-                                           .map(FeatureCreationRequest::getProviderId)
-                                           .collect(Collectors.toList());
-        Map<String, Integer> versionByProviders = new HashMap<>();
-        Map<String, FeatureUniformResourceName> urnByProviders = new HashMap<>();
-        featureEntityRepository.findByProviderIdInOrderByVersionDesc(providerIds).forEach(versionAndUrnByProvider -> {
-            String providerId = versionAndUrnByProvider.getProviderId();
-            // Since we fetch by version DESC, the first one is the latest version
-            if (!versionByProviders.containsKey(providerId)) {
-                versionByProviders.put(providerId, versionAndUrnByProvider.getVersion());
-                urnByProviders.put(providerId, versionAndUrnByProvider.getUrn());
-            }
-        });
+        Set<String> providerIds = requests.stream()
+                                          .map(FeatureCreationRequest::getProviderId)
+                                          .collect(Collectors.toSet());
+        Map<String, ILatestVersionByProvider> latestVersions = featureEntityRepository.findLatestVersionByProviderId(
+            providerIds);
 
         Set<FeatureEntity> entities = requests.stream().map(request -> {
-            Integer previousVersion = versionByProviders.get(request.getProviderId());
-            FeatureUniformResourceName previousUrn = urnByProviders.get(request.getProviderId());
+            ILatestVersionByProvider latestVersion = latestVersions.get(request.getProviderId());
+            Integer previousVersion = latestVersion != null ? latestVersion.getVersion() : null;
+            FeatureUniformResourceName previousUrn = latestVersion != null ?
+                FeatureUniformResourceName.fromString(latestVersion.getUrn()) :
+                null;
             return initFeatureEntity(request, previousVersion, previousUrn, featureCreationJob);
         }).collect(Collectors.toSet());
         featureEntityRepository.saveAll(entities);
@@ -753,4 +769,52 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
         });
     }
 
+    /**
+     * State of a batch of creation requests being registered. In-batch duplicates are detected with hash sets
+     * instead of scanning already handled requests.
+     */
+    private static final class RegistrationBatch {
+
+        private final Set<String> existingRequestIds;
+
+        private final Set<FeatureUniformResourceName> existingRequestUrns;
+
+        private final Set<FeatureUniformResourceName> existingEntityUrns;
+
+        private final Map<String, ILatestVersionByProvider> latestVersions;
+
+        private final List<FeatureCreationRequest> grantedRequests = new ArrayList<>();
+
+        private final Set<String> grantedRequestIds = new HashSet<>();
+
+        private final Set<FeatureUniformResourceName> grantedUrns = new HashSet<>();
+
+        private final List<FeatureUpdateRequestEvent> newUpdateRequests = new ArrayList<>();
+
+        private final Set<FeatureUniformResourceName> newUpdateUrns = new HashSet<>();
+
+        private final List<FeatureRequestEvent> requestEvents = new ArrayList<>();
+
+        private final FeatureCounters counters;
+
+        private RegistrationBatch(Set<String> existingRequestIds,
+                                  Set<FeatureUniformResourceName> existingRequestUrns,
+                                  Set<FeatureUniformResourceName> existingEntityUrns,
+                                  Map<String, ILatestVersionByProvider> latestVersions,
+                                  FeatureCounters counters) {
+            this.existingRequestIds = existingRequestIds;
+            this.existingRequestUrns = existingRequestUrns;
+            this.existingEntityUrns = existingEntityUrns;
+            this.latestVersions = latestVersions;
+            this.counters = counters;
+        }
+
+        private void addGranted(FeatureCreationRequest request) {
+            grantedRequests.add(request);
+            grantedRequestIds.add(request.getRequestId());
+            if (request.getUrn() != null) {
+                grantedUrns.add(request.getUrn());
+            }
+        }
+    }
 }
@@ -109,6 +109,9 @@ public class FeatureDeletionService extends AbstractFeatureService<FeatureDeleti
     @Autowired
     private FeatureSessionNotifier featureSessionNotifier;
 
+    @Autowired
+    private FeatureMetrics metrics;
+
     @Autowired
     private FeatureService featureService;
 
@@ -126,17 +129,21 @@ public class FeatureDeletionService extends AbstractFeatureService<FeatureDeleti
                                                                                                           .collect(
                                                                                                               Collectors.toSet()));
 
+        FeatureCounters counters = new FeatureCounters(metrics, featureSessionNotifier);
         events.forEach(item -> prepareFeatureDeletionRequest(item,
                                                              sessionInfoByUrn.get(item.getUrn()),
                                                              grantedRequests,
                                                              requestInfo,
-                                                             existingRequestIds));
+                                                             existingRequestIds,
+                                                             counters));
         LOGGER.trace("------------->>> {} deletion requests prepared in {} ms",
                      grantedRequests.size(),
                      System.currentTimeMillis() - registrationStart);
 
         // Save a list of validated FeatureDeletionRequest from a list of
         featureDeletionRequestRepository.saveAll(grantedRequests);
+        onRequestsToScheduleInserted(grantedRequests);
+        counters.flush();
         LOGGER.debug("------------->>> {} deletion requests registered in {} ms",
                      grantedRequests.size(),
                      System.currentTimeMillis() - registrationStart);
@@ -147,7 +154,8 @@ public class FeatureDeletionService extends AbstractFeatureService<FeatureDeleti
                                                ILightFeatureEntity sessionInfo,
                                                List<FeatureDeletionRequest> grantedRequests,
                                                RequestInfo<FeatureUniformResourceName> requestInfo,
-                                               Set<String> existingRequestIds) {
+                                               Set<String> existingRequestIds,
+                                               FeatureCounters counters) {
         // Validate event
         Errors errors = new MapBindingResult(new HashMap<>(), FeatureDeletionRequest.class.getName());
         validator.validate(item, errors);
@@ -176,7 +184,7 @@ public class FeatureDeletionService extends AbstractFeatureService<FeatureDeleti
                                                         RequestState.DENIED,
                                                         ErrorTranslator.getErrors(errors)));
             // Update session properties
-            featureSessionNotifier.incrementCount(sessionInfo, FeatureSessionProperty.DENIED_DELETE_REQUESTS);
+            counters.incrementCount(sessionInfo, FeatureSessionProperty.DENIED_DELETE_REQUESTS);
         } else {
 
             FeatureDeletionRequest request = FeatureDeletionRequest.build(item.getRequestId(),
@@ -202,7 +210,7 @@ public class FeatureDeletionService extends AbstractFeatureService<FeatureDeleti
             grantedRequests.add(request);
             requestInfo.addGrantedRequest(item.getUrn(), request.getRequestId());
             // Update session properties
-            featureSessionNotifier.incrementCount(sessionInfo, FeatureSessionProperty.DELETE_REQUESTS);
+            counters.incrementCount(sessionInfo, FeatureSessionProperty.DELETE_REQUESTS);
         }
     }
 
@@ -214,9 +222,11 @@ public class FeatureDeletionService extends AbstractFeatureService<FeatureDeleti
         Set<Long> requestIds = new HashSet<>();
         List<FeatureDeletionRequest> requestsToSchedule = new ArrayList<>();
 
-        Collection<FeatureDeletionRequest> deletionRequestsToSchedule = featureDeletionRequestRepository.findRequestsToSchedule(
+        int maxBulkSize = properties.getMaxBulkSize();
+        Collection<FeatureDeletionRequest> deletionRequestsToSchedule = claimRequestsToSchedule(cursor -> featureDeletionRequestRepository.findRequestsToSchedule(
             0,
-            properties.getMaxBulkSize());
+            cursor,
+            maxBulkSize), FeatureDeletionRequest::getId, request -> request.getPriority().getPriorityLevel(), maxBulkSize);
         // Check blocked ones
         deletionRequestsToSchedule = updateBlockedRequestAndReturnNotBlockedRequests(deletionRequestsToSchedule);
 
@@ -231,14 +241,16 @@ public class FeatureDeletionService extends AbstractFeatureService<FeatureDeleti
                                                                                                                  .getPriorityLevel()))
                                                                                      .map(AbstractRequest::getPriority);
 
+            FeatureCounters counters = new FeatureCounters(metrics, featureSessionNotifier);
             for (FeatureDeletionRequest request : deletionRequestsToSchedule) {
                 requestsToSchedule.add(request);
                 requestIds.add(request.getId());
                 // Update session properties
-                featureSessionNotifier.incrementCount(sessionInfoByUrn.get(request.getUrn()),
-                                                      FeatureSessionProperty.RUNNING_DELETE_REQUESTS);
+                counters.incrementCount(sessionInfoByUrn.get(request.getUrn()),
+                                        FeatureSessionProperty.RUNNING_DELETE_REQUESTS);
             }
             featureDeletionRequestRepository.updateStep(FeatureRequestStep.LOCAL_SCHEDULED, requestIds);
+            counters.flush();
 
             jobParameters.add(new JobParameter(FeatureDeletionJob.IDS_PARAMETER, requestIds));
 
@@ -49,6 +49,8 @@ public class FeatureMetrics implements InitializingBean {
 
     private static final String METRICS_FORMAT = "Feature ID {} - State {}";
 
+    private static final String BULK_METRICS_FORMAT = "{} features - State {}";
+
     private static final String METRICS_PREFIX = "regards.";
 
     //private static final String METRICS_FORMAT = "Feature ID [{}] - URN [{}] - State [{}]";
@@ -147,4 +149,23 @@ public class FeatureMetrics implements InitializingBean {
             LOGGER.debug(METRICS_MARKER, METRICS_FORMAT, providerId, state);
         }
     }
+
+    /**
+     * Count several features reaching the same state at once
+     */
+    public void count(FeatureCreationState state, long nbFeatures) {
+        if (properties.isMetricsEnabled() && nbFeatures > 0) {
+            LOGGER.debug(METRICS_MARKER, BULK_METRICS_FORMAT, nbFeatures, state);
+            counters.get(state.getName()).increment(nbFeatures);
+        }
+    }
+
+    /**
+     * Count several features reaching the same state at once
+     */
+    public void count(FeatureUpdateState state, long nbFeatures) {
+        if (properties.isMetricsEnabled() && nbFeatures > 0) {
+            LOGGER.debug(METRICS_MARKER, BULK_METRICS_FORMAT, nbFeatures, state);
+        }
+    }
 }
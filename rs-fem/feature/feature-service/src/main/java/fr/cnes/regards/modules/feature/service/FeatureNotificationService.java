@@ -46,16 +46,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.Sort.Order;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.Errors;
 import org.springframework.validation.MapBindingResult;
 import org.springframework.validation.Validator;
 
-import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -98,6 +94,9 @@ public class FeatureNotificationService extends AbstractFeatureService<FeatureNo
     @Autowired
     private FeatureSessionNotifier featureSessionNotifier;
 
+    @Autowired
+    private FeatureMetrics metrics;
+
     @Autowired
     public IFeatureCreationService featureCreationService;
 
@@ -123,16 +122,19 @@ public class FeatureNotificationService extends AbstractFeatureService<FeatureNo
                                                                                  .collect(Collectors.toMap(FeatureEntity::getUrn,
                                                                                                            Function.identity()));
 
+        FeatureCounters counters = new FeatureCounters(metrics, featureSessionNotifier);
         events.forEach(item -> prepareNotificationRequest(item,
                                                           featureByUrn.get(item.getUrn()),
                                                           notificationsRequest,
-                                                          existingRequestIds));
+                                                          existingRequestIds,
+                                                          counters));
         LOGGER.trace("------------->>> {} Notification requests prepared in {} ms",
                      notificationsRequest.size(),
                      System.currentTimeMillis() - registrationStart);
 
         // Save a list of validated FeatureNotificationRequest from a list of FeatureNotificationRequestEvent
         featureNotificationRequestRepository.saveAll(notificationsRequest);
+        counters.flush();
         LOGGER.debug("------------->>> {} Notification requests registered in {} ms",
                      notificationsRequest.size(),
                      System.currentTimeMillis() - registrationStart);
@@ -146,11 +148,13 @@ public class FeatureNotificationService extends AbstractFeatureService<FeatureNo
      * @param featureToNotify      {@link FeatureEntity} feature to notify
      * @param notificationsRequest list of {@link FeatureNotificationRequest} granted
      * @param existingRequestIds   list of existing request in database
+     * @param counters             session counters of the registration
      */
     private void prepareNotificationRequest(FeatureNotificationRequestEvent item,
                                             FeatureEntity featureToNotify,
                                             List<FeatureNotificationRequest> notificationsRequest,
-                                            Set<String> existingRequestIds) {
+                                            Set<String> existingRequestIds,
+                                            FeatureCounters counters) {
         // Validate event
         Errors errors = new MapBindingResult(new HashMap<>(), FeatureNotificationRequestEvent.class.getName());
         validator.validate(item, errors);
@@ -183,7 +187,9 @@ public class FeatureNotificationService extends AbstractFeatureService<FeatureNo
                                                         ErrorTranslator.getErrors(errors)));
             // Update session properties
             if (featureToNotify != null) {
-                featureSessionNotifier.incrementCount(featureToNotify, FeatureSessionProperty.DENIED_NOTIFY_REQUESTS);
+                counters.incrementCount(featureToNotify.getSessionOwner(),
+                                        featureToNotify.getSession(),
+                                        FeatureSessionProperty.DENIED_NOTIFY_REQUESTS);
             }
         } else {
             FeatureNotificationRequest request = FeatureNotificationRequest.build(item.getRequestId(),
@@ -212,18 +218,27 @@ public class FeatureNotificationService extends AbstractFeatureService<FeatureNo
             // Add new request id to existing ones
             existingRequestIds.add(request.getRequestId());
             // Update session properties
-            featureSessionNotifier.incrementCount(featureToNotify, FeatureSessionProperty.NOTIFY_REQUESTS);
+            counters.incrementCount(featureToNotify.getSessionOwner(),
+                                    featureToNotify.getSession(),
+                                    FeatureSessionProperty.NOTIFY_REQUESTS);
         }
     }
 
     @Override
     public int sendToNotifier() {
         long sendingStart = System.currentTimeMillis();
-        List<AbstractFeatureRequest> requestsToSend = abstractFeatureRequestRepo.findByStepAndRequestDateLessThanEqual(
-                                                                                    FeatureRequestStep.LOCAL_TO_BE_NOTIFIED,
-                                                                                    OffsetDateTime.now(),
-                                                                                    PageRequest.of(0, properties.getMaxBulkSize(), Sort.by(Order.desc("priority"), Order.asc("requestDate"))))
-                                                                                .getContent();
+        // All requests to notify are sent, so each round claims requests from the head of the queue
+        List<Long> requestIds = abstractFeatureRequestRepo.findRequestIdsToNotify(
+            IAbstractFeatureRequestRepository.SCHEDULE_FROM_START,
+            properties.getMaxBulkSize());
+        // Requests are loaded in any order, so send them in the claim order (priority, date)
+        Map<Long, Integer> claimOrder = new HashMap<>();
+        requestIds.forEach(id -> claimOrder.put(id, claimOrder.size()));
+        List<AbstractFeatureRequest> requestsToSend = abstractFeatureRequestRepo.findAllById(requestIds)
+                                                                                .stream()
+                                                                                .sorted(Comparator.comparing(request -> claimOrder.get(
+                                                                                    request.getId())))
+                                                                                .toList();
         Set<AbstractFeatureRequest> visitorErrorRequests = new HashSet<>();
         CreateNotificationRequestEventVisitor createNotificationRequestEventVisitor = new CreateNotificationRequestEventVisitor(
             gson,
@@ -256,12 +271,14 @@ public class FeatureNotificationService extends AbstractFeatureService<FeatureNo
             // handle notification error for visitor error requests
             handleNotificationError(visitorErrorRequests, FeatureRequestStep.LOCAL_NOTIFICATION_ERROR);
 
+            FeatureCounters counters = new FeatureCounters(metrics, featureSessionNotifier);
             getSessionInfoByUrn(requestsToSend.stream()
                                               .filter(FeatureNotificationRequest.class::isInstance)
                                               .map(AbstractFeatureRequest::getUrn)
-                                              .collect(Collectors.toList())).forEach((urn, entity) -> featureSessionNotifier.incrementCount(
+                                              .collect(Collectors.toList())).forEach((urn, entity) -> counters.incrementCount(
                 entity,
                 FeatureSessionProperty.RUNNING_NOTIFY_REQUESTS));
+            counters.flush();
         }
         return requestsToSend.size();
     }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.feature.service;
+
+import fr.cnes.regards.modules.feature.dao.IAbstractFeatureRequestRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keyset cursor of a request scheduler, by tenant.<br/>
+ * Each scheduling round claims requests from the last request read by the previous round, so that requests that
+ * could not be scheduled (blocked by another request on the same product, in error, ...) are not read again at each
+ * round. The cursor goes back to the first request when the end of the queue is reached, so skipped requests and
+ * requests inserted before the cursor (older date) are read by the next round.<br/>
+ * The cursor also goes back to the first request as soon as requests of a higher priority than the cursor one are
+ * inserted, so they do not wait for the end of the queue to be reached.
+ */
+public class FeatureScheduleCursor {
+
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    /**
+     * Last request read by a scheduling round
+     */
+    private record Cursor(long requestId, int priority) {
+
+    }
+
+    /**
+     * Claim at most size requests of the given tenant from the current cursor and move the cursor to the last claimed
+     * request.
+     *
+     * @param tenant    tenant of the requests
+     * @param claimFrom claims at most size requests after the given cursor, see
+     *                  {@link IAbstractFeatureRequestRepository#SCHEDULE_FROM_START}
+     * @param idGetter       request id accessor
+     * @param priorityGetter request priority level accessor
+     * @param size           maximum number of requests claimed by claimFrom
+     */
+    public <T> List<T> claim(String tenant,
+                             LongFunction<List<T>> claimFrom,
+                             ToLongFunction<T> idGetter,
+                             ToIntFunction<T> priorityGetter,
+                             int size) {
+        Cursor current = cursors.get(tenant);
+        long cursor = current == null ? IAbstractFeatureRequestRepository.SCHEDULE_FROM_START : current.requestId();
+        List<T> requests = claimFrom.apply(cursor);
+        if (requests.isEmpty() && cursor != IAbstractFeatureRequestRepository.SCHEDULE_FROM_START) {
+            // End of queue reached (or cursor request deleted), restart from the first request
+            requests = claimFrom.apply(IAbstractFeatureRequestRepository.SCHEDULE_FROM_START);
+        }
+        if (requests.size() < size) {
+            cursors.remove(tenant);
+        } else {
+            T last = requests.get(requests.size() - 1);
+            cursors.put(tenant, new Cursor(idGetter.applyAsLong(last), priorityGetter.applyAsInt(last)));
+        }
+        return requests;
+    }
+
+    /**
+     * Restart the cursor of the given tenant from the first request if the inserted requests have a higher priority
+     * than the cursor one, as they are before the cursor in the queue.
+     *
+     * @param tenant      tenant of the inserted requests
+     * @param maxPriority highest priority level of the inserted requests
+     */
+    public void onRequestsInserted(String tenant, int maxPriority) {
+        cursors.computeIfPresent(tenant, (t, cursor) -> maxPriority > cursor.priority() ? null : cursor);
+    }
+
+}
@@ -141,15 +141,25 @@ public class FeatureUpdateService extends AbstractFeatureService<FeatureUpdateRe
         Map<FeatureUniformResourceName, ILightFeatureEntity> sessionInfoByUrn = getSessionInfoByUrn(
             featureUpdateRequestEvts.stream().map(event -> event.getFeature().getUrn()).collect(Collectors.toSet()));
 
-        featureUpdateRequestEvts.forEach(event -> prepareFeatureUpdateRequest(event,
-                                                                              sessionInfoByUrn.get(event.getFeature()
-                                                                                                        .getUrn()),
-                                                                              grantedRequests,
-                                                                              requestInfo,
-                                                                              existingRequestIds));
+        // Validate features against their data model concurrently
+        List<Feature> features = featureUpdateRequestEvts.stream().map(FeatureUpdateRequestEvent::getFeature).toList();
+        List<Errors> modelErrors = validationService.validateAll(features, ValidationMode.PATCH);
+        FeatureCounters counters = new FeatureCounters(metrics, featureSessionNotifier);
+        for (int i = 0; i < featureUpdateRequestEvts.size(); i++) {
+            FeatureUpdateRequestEvent event = featureUpdateRequestEvts.get(i);
+            prepareFeatureUpdateRequest(event,
+                                        modelErrors.get(i),
+                                        sessionInfoByUrn.get(event.getFeature().getUrn()),
+                                        grantedRequests,
+                                        requestInfo,
+                                        existingRequestIds,
+                                        counters);
+        }
 
         // Batch save in database
         featureUpdateRequestRepository.saveAll(grantedRequests);
+        onRequestsToScheduleInserted(grantedRequests);
+        counters.flush();
 
         LOGGER.trace("------------->>> {} update requests registered in {} ms",
                      grantedRequests.size(),
@@ -175,10 +185,12 @@ public class FeatureUpdateService extends AbstractFeatureService<FeatureUpdateRe
      * Validate, save and publish a new request
      */
     private void prepareFeatureUpdateRequest(FeatureUpdateRequestEvent featureUpdateRequestEvt,
+                                             Errors modelErrors,
                                              ILightFeatureEntity sessionInfo,
                                              List<FeatureUpdateRequest> grantedRequests,
                                              RequestInfo<FeatureUniformResourceName> requestInfo,
-                                             Set<String> existingRequestIds) {
+                                             Set<String> existingRequestIds,
+                                             FeatureCounters counters) {
 
         // Validate event
         Errors errors = new MapBindingResult(new HashMap<>(), Feature.class.getName());
@@ -198,11 +210,11 @@ public class FeatureUpdateService extends AbstractFeatureService<FeatureUpdateRe
             errors.rejectValue("requestId", "request.requestId.exists.error.message", "Request id already exists");
         }
 
-        // Validate feature according to the data model
-        errors.addAllErrors(validationService.validate(featureUpdateRequestEvt.getFeature(), ValidationMode.PATCH));
+        // Feature validation according to the data model
+        errors.addAllErrors(modelErrors);
 
         if (errors.hasErrors()) {
-            denyRequest(featureUpdateRequestEvt, requestInfo, sessionInfo, featureId, urn, errors);
+            denyRequest(featureUpdateRequestEvt, requestInfo, sessionInfo, featureId, urn, errors, counters);
         } else {
             // Manage granted request
             FeatureUpdateRequest request = createFeatureUpdateRequest(featureUpdateRequestEvt);
@@ -224,11 +236,11 @@ public class FeatureUpdateService extends AbstractFeatureService<FeatureUpdateRe
                                                         RequestState.GRANTED,
                                                         null));
             // Add to granted request collection
-            metrics.count(request.getProviderId(), FeatureUpdateState.UPDATE_REQUEST_GRANTED);
+            counters.count(FeatureUpdateState.UPDATE_REQUEST_GRANTED);
             grantedRequests.add(request);
             requestInfo.addGrantedRequest(request.getUrn(), request.getRequestId());
             // Update session properties
-            featureSessionNotifier.incrementCount(sessionInfo, FeatureSessionProperty.UPDATE_REQUESTS);
+            counters.incrementCount(sessionInfo, FeatureSessionProperty.UPDATE_REQUESTS);
         }
     }
 
@@ -255,7 +267,8 @@ public class FeatureUpdateService extends AbstractFeatureService<FeatureUpdateRe
                              ILightFeatureEntity sessionInfo,
                              String featureId,
                              FeatureUniformResourceName urn,
-                             Errors errors) {
+                             Errors errors,
+                             FeatureCounters counters) {
         // Monitoring log
         FeatureLogger.updateDenied(request.getRequestOwner(),
                                    request.getRequestId(),
@@ -276,17 +289,19 @@ public class FeatureUpdateService extends AbstractFeatureService<FeatureUpdateRe
         } else {
             requestInfo.addDeniedRequest(request.getFeature().getUrn(), ErrorTranslator.getErrors(errors));
         }
-        metrics.count(featureId, FeatureUpdateState.UPDATE_REQUEST_DENIED);
+        counters.count(FeatureUpdateState.UPDATE_REQUEST_DENIED);
         // Update session properties
-        featureSessionNotifier.incrementCount(sessionInfo, FeatureSessionProperty.DENIED_UPDATE_REQUESTS);
+        counters.incrementCount(sessionInfo, FeatureSessionProperty.DENIED_UPDATE_REQUESTS);
     }
 
     @Override
     public int scheduleRequests() {
         long scheduleStart = System.currentTimeMillis();
-        List<IFeatureRequestToSchedule> requestsToSchedule = this.featureUpdateRequestRepository.findRequestsToSchedule(
+        int maxBulkSize = this.properties.getMaxBulkSize();
+        List<IFeatureRequestToSchedule> requestsToSchedule = claimRequestsToSchedule(cursor -> this.featureUpdateRequestRepository.findRequestsToSchedule(
             this.properties.getDelayBeforeProcessing(),
-            this.properties.getMaxBulkSize());
+            cursor,
+            maxBulkSize), IFeatureRequestToSchedule::getId, IFeatureRequestToSchedule::getPriorityLevel, maxBulkSize);
 
         if (!requestsToSchedule.isEmpty()) {
 
@@ -305,16 +320,18 @@ public class FeatureUpdateService extends AbstractFeatureService<FeatureUpdateRe
 
                 // Compute request ids
                 Set<Long> requestIds = new HashSet<>();
+                FeatureCounters counters = new FeatureCounters(metrics, featureSessionNotifier);
                 requestsToSchedule.forEach(r -> {
                     requestIds.add(r.getId());
-                    metrics.count(r.getProviderId(), FeatureUpdateState.UPDATE_REQUEST_SCHEDULED);
+                    counters.count(FeatureUpdateState.UPDATE_REQUEST_SCHEDULED);
                     // Update session properties
-                    featureSessionNotifier.incrementCount(sessionInfoByUrn.get(FeatureUniformResourceName.fromString(r.getUrn())),
-                                                          FeatureSessionProperty.RUNNING_UPDATE_REQUESTS);
+                    counters.incrementCount(sessionInfoByUrn.get(FeatureUniformResourceName.fromString(r.getUrn())),
+                                            FeatureSessionProperty.RUNNING_UPDATE_REQUESTS);
                 });
 
                 // Switch to next step
                 featureUpdateRequestRepository.updateStep(FeatureRequestStep.LOCAL_SCHEDULED, requestIds);
+                counters.flush();
 
                 // Schedule job
                 Set<JobParameter> jobParameters = Sets.newHashSet();
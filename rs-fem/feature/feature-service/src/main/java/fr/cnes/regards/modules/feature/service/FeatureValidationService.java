@@ -19,10 +19,13 @@
 package fr.cnes.regards.modules.feature.service;
 
 import fr.cnes.regards.framework.module.validation.ErrorTranslator;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import fr.cnes.regards.framework.utils.RsRuntimeException;
 import fr.cnes.regards.modules.feature.dto.Feature;
 import fr.cnes.regards.modules.feature.dto.FeatureFile;
 import fr.cnes.regards.modules.feature.dto.FeatureFileLocation;
 import fr.cnes.regards.modules.feature.dto.urn.FeatureUniformResourceName;
+import fr.cnes.regards.modules.feature.service.conf.FeatureConfigurationProperties;
 import fr.cnes.regards.modules.filecatalog.amqp.input.FilesReferenceEvent;
 import fr.cnes.regards.modules.model.service.validation.AbstractFeatureValidationService;
 import fr.cnes.regards.modules.model.service.validation.IModelFinder;
@@ -30,6 +33,7 @@ import fr.cnes.regards.modules.model.service.validation.IValidationService;
 import fr.cnes.regards.modules.model.service.validation.ValidationMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.validation.Errors;
@@ -38,7 +42,13 @@ import org.springframework.validation.Validator;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -49,7 +59,7 @@ import java.util.stream.Collectors;
  */
 @Service
 public class FeatureValidationService extends AbstractFeatureValidationService<Feature>
-    implements IFeatureValidationService, IValidationService<Feature> {
+    implements IFeatureValidationService, IValidationService<Feature>, DisposableBean {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FeatureValidationService.class);
 
@@ -70,9 +80,75 @@ public class FeatureValidationService extends AbstractFeatureValidationService<F
      */
     private final Validator validator;
 
-    public FeatureValidationService(IModelFinder modelFinder, Validator validator) {
+    private final IRuntimeTenantResolver runtimeTenantResolver;
+
+    /**
+     * Pool bounding the number of features validated at the same time, null if features are validated sequentially
+     */
+    private final ExecutorService validationExecutor;
+
+    public FeatureValidationService(IModelFinder modelFinder,
+                                    Validator validator,
+                                    IRuntimeTenantResolver runtimeTenantResolver,
+                                    FeatureConfigurationProperties properties) {
         super(modelFinder);
         this.validator = validator;
+        this.runtimeTenantResolver = runtimeTenantResolver;
+        int parallelism = properties.getValidationParallelism();
+        this.validationExecutor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+    }
+
+    /**
+     * Feature validators only depend on model attributes so they are built once per model
+     */
+    @Override
+    protected boolean useCompiledValidators() {
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        if (validationExecutor != null) {
+            validationExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Validate given features with at most {@link FeatureConfigurationProperties#getValidationParallelism()} features
+     * at the same time
+     */
+    @Override
+    public List<Errors> validateAll(List<Feature> features, ValidationMode mode) {
+        if (validationExecutor == null || features.size() <= 1) {
+            return IFeatureValidationService.super.validateAll(features, mode);
+        }
+        // Model finder is tenant aware so tenant must be propagated to validation threads
+        String tenant = runtimeTenantResolver.getTenant();
+        List<Future<Errors>> validations = new ArrayList<>(features.size());
+        for (Feature feature : features) {
+            validations.add(validationExecutor.submit(() -> {
+                runtimeTenantResolver.forceTenant(tenant);
+                try {
+                    return validate(feature, mode);
+                } finally {
+                    runtimeTenantResolver.clearTenant();
+                }
+            }));
+        }
+        List<Errors> errors = new ArrayList<>(features.size());
+        try {
+            for (Future<Errors> validation : validations) {
+                errors.add(validation.get());
+            }
+        } catch (InterruptedException e) {
+            validations.forEach(validation -> validation.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RsRuntimeException(e);
+        } catch (ExecutionException e) {
+            validations.forEach(validation -> validation.cancel(true));
+            throw new RsRuntimeException(e.getCause());
+        }
+        return errors;
     }
 
     @Override
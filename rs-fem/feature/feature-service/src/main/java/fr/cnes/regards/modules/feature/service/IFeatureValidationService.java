@@ -22,6 +22,8 @@ import fr.cnes.regards.modules.feature.dto.Feature;
 import fr.cnes.regards.modules.model.service.validation.ValidationMode;
 import org.springframework.validation.Errors;
 
+import java.util.List;
+
 /**
  * Validate a feature according to validation annotation plus dynamic model validation.
  *
@@ -30,4 +32,13 @@ import org.springframework.validation.Errors;
 public interface IFeatureValidationService {
 
     Errors validate(Feature feature, ValidationMode mode);
+
+    /**
+     * Validate several features, concurrently if the implementation allows it.
+     *
+     * @return validation errors of each feature, in the order of given features
+     */
+    default List<Errors> validateAll(List<Feature> features, ValidationMode mode) {
+        return features.stream().map(feature -> validate(feature, mode)).toList();
+    }
 }
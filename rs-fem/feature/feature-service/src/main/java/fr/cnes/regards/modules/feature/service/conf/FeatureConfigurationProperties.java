@@ -56,6 +56,12 @@ public class FeatureConfigurationProperties {
     @Value("${regards.feature.metrics.enabled:false}")
     private Boolean metricsEnabled;
 
+    /**
+     * Max number of features validated at the same time against their data model
+     */
+    @Value("${regards.feature.validation.parallelism:4}")
+    private Integer validationParallelism;
+
     public Boolean isMetricsEnabled() {
         return metricsEnabled;
     }
@@ -95,4 +101,12 @@ public class FeatureConfigurationProperties {
     public void setBatchReceiveTimeout(Long batchReceiveTimeout) {
         this.batchReceiveTimeout = batchReceiveTimeout;
     }
+
+    public Integer getValidationParallelism() {
+        return validationParallelism;
+    }
+
+    public void setValidationParallelism(Integer validationParallelism) {
+        this.validationParallelism = validationParallelism;
+    }
 }
@@ -46,16 +46,20 @@ import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.util.Collection;
-import java.util.List;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -77,10 +81,19 @@ public class FeatureMetadataService implements IFeatureMetadataService {
 
     private static final int MAX_PAGE_TO_RETRY = 50;
 
+    /**
+     * Keyset cursor date of a full dump, before any feature
+     */
+    private static final OffsetDateTime FIRST_DUMP_DATE = OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+
     // Limit number of features to retrieve in one page
     @Value("${regards.feature.dump.zip-limit:1000}")
     private int zipLimit;
 
+    // Number of zips written in parallel
+    @Value("${regards.feature.dump.parallelism:4}")
+    private int dumpParallelism;
+
     private final IFeatureSaveMetadataRequestRepository featureSaveMetadataRepository;
 
     private final IFeatureEntityRepository featureRepository;
@@ -114,47 +127,68 @@ public class FeatureMetadataService implements IFeatureMetadataService {
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void writeZips(FeatureSaveMetadataRequest metadataRequest, Path tmpZipLocation)
         throws NothingToDoException, IOException {
-        Pageable pageToRequest = PageRequest.of(0, zipLimit, Sort.by(Sort.Order.asc("creationDate")));
+        OffsetDateTime previousDumpDate = metadataRequest.getPreviousDumpDate();
+        OffsetDateTime dumpDate = metadataRequest.getRequestDate();
+        // Keyset cursor : (last update, id) of the last read feature.
+        // If previousDumpDate is null, dump all features with lastUpdate < dumpDate
+        // else dump all features with previousDumpDate <= lastUpdate < dumpDate
+        OffsetDateTime lastUpdate = previousDumpDate == null ? FIRST_DUMP_DATE : previousDumpDate;
+        long lastId = 0L;
+        long nbDumped = 0L;
+        // Features are read page by page in the caller thread, each page being written in its own zip by a worker
+        ExecutorService zipExecutor = Executors.newFixedThreadPool(dumpParallelism);
+        Deque<Future<?>> zipTasks = new ArrayDeque<>();
         try {
+            List<FeatureEntity> featuresToDump;
             do {
-                // zip json files generated from features
-                pageToRequest = self.dumpOnePage(metadataRequest, pageToRequest, tmpZipLocation);
-            } while (pageToRequest != null);
+                featuresToDump = self.findFeaturesToDump(dumpDate, lastUpdate, lastId);
+                if (!featuresToDump.isEmpty()) {
+                    FeatureEntity lastFeature = featuresToDump.get(featuresToDump.size() - 1);
+                    lastUpdate = lastFeature.getLastUpdate();
+                    lastId = lastFeature.getId();
+                    nbDumped += featuresToDump.size();
+                    List<ObjectDump> objectDumps = checkObjectDumps(convertFeatureToObjectDump(featuresToDump));
+                    // Limit the number of pages waiting to be written
+                    while (zipTasks.size() >= dumpParallelism * 2) {
+                        waitFor(zipTasks.poll());
+                    }
+                    zipTasks.add(zipExecutor.submit(() -> {
+                        dumpService.generateJsonZip(objectDumps, tmpZipLocation);
+                        return null;
+                    }));
+                }
+            } while (featuresToDump.size() == zipLimit);
+            while (!zipTasks.isEmpty()) {
+                waitFor(zipTasks.poll());
+            }
         } catch (DuplicateUniqueNameException e) {
             self.handleError(metadataRequest, e.getMessage());
             throw new RsRuntimeException(e);
+        } finally {
+            zipExecutor.shutdownNow();
         }
-    }
-
-    @Override
-    public Pageable dumpOnePage(FeatureSaveMetadataRequest metadataRequest, Pageable pageToRequest, Path tmpZipLocation)
-        throws IOException, DuplicateUniqueNameException, NothingToDoException {
-        // Find features to zip
-        Page<FeatureEntity> featureToDump;
-        OffsetDateTime previousDumpDate = metadataRequest.getPreviousDumpDate();
-        OffsetDateTime dumpDate = metadataRequest.getRequestDate();
-        // If previousDumpDate is null, find all features with lastUpdate < previousDumpDate
-        if (previousDumpDate == null) {
-            featureToDump = featureRepository.findByLastUpdateLessThan(dumpDate, pageToRequest);
-        } else {
-            // else find all features with previousDumpDate < lastUpdate < dumpDate
-            featureToDump = featureRepository.findByLastUpdateBetween(previousDumpDate, dumpDate, pageToRequest);
-        }
-
-        // If some features were found, convert them into ObjectDump
-        List<ObjectDump> objectDumps = convertFeatureToObjectDump(featureToDump.getContent());
 
         // If no feature was found, throw NothingToDoException
-        if (objectDumps.isEmpty()) {
+        if (nbDumped == 0) {
             throw new NothingToDoException(String.format("There is nothing to dump between %s and %s",
                                                          previousDumpDate,
                                                          dumpDate));
         }
+    }
+
+    @Override
+    @MultitenantTransactional(readOnly = true)
+    public List<FeatureEntity> findFeaturesToDump(OffsetDateTime dumpDate, OffsetDateTime lastUpdate, long lastId) {
+        return featureRepository.findNextToDump(dumpDate, lastUpdate, lastId, PageRequest.ofSize(zipLimit));
+    }
 
-        // Check if json names <id_feature>-<version> are unique in the collection
-        // If yes, throw DuplicateUniqueNameException
-        List<ObjectDump> duplicatedJsonNames;
-        duplicatedJsonNames = dumpService.checkUniqueJsonNames(objectDumps);
+    /**
+     * Check if json names <id_feature>-<version> are unique in the collection
+     *
+     * @throws DuplicateUniqueNameException if some json names are not unique
+     */
+    private List<ObjectDump> checkObjectDumps(List<ObjectDump> objectDumps) throws DuplicateUniqueNameException {
+        List<ObjectDump> duplicatedJsonNames = dumpService.checkUniqueJsonNames(objectDumps);
         if (!duplicatedJsonNames.isEmpty()) {
             String errorMessage = duplicatedJsonNames.stream()
                                                      .map(ObjectDump::getJsonName)
@@ -162,18 +196,29 @@ public class FeatureMetadataService implements IFeatureMetadataService {
                                                                                  "Some features to dump had the same generated names "
                                                                                  + "(providerId-version.json) should be unique: ",
                                                                                  ". Please edit your features so there is no duplicates."));
-            handleError(metadataRequest, errorMessage);
             throw new DuplicateUniqueNameException(errorMessage);
         }
+        return objectDumps;
+    }
 
-        // If no error was detected, create zip that contains json files generated from features
+    /**
+     * Wait for a zip to be written
+     *
+     * @throws IOException zip could not be written
+     */
+    private void waitFor(Future<?> zipTask) throws IOException {
         try {
-            dumpService.generateJsonZip(objectDumps, tmpZipLocation);
-        } catch (IOException e) {
-            LOGGER.error("Error while dumping one page of feature", e);
-            throw e;
+            zipTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RsRuntimeException(e);
+        } catch (ExecutionException e) {
+            LOGGER.error("Error while dumping one page of feature", e.getCause());
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new RsRuntimeException(e.getCause());
         }
-        return featureToDump.hasNext() ? featureToDump.nextPageable() : null;
     }
 
     private List<ObjectDump> convertFeatureToObjectDump(Collection<FeatureEntity> featureEntities) {
@@ -19,8 +19,7 @@
 
 package fr.cnes.regards.modules.feature.service.dump;
 
-import fr.cnes.regards.framework.utils.RsRuntimeException;
-import fr.cnes.regards.modules.feature.domain.exception.DuplicateUniqueNameException;
+import fr.cnes.regards.modules.feature.domain.FeatureEntity;
 import fr.cnes.regards.modules.feature.domain.exception.NothingToDoException;
 import fr.cnes.regards.modules.feature.domain.request.FeatureSaveMetadataRequest;
 import fr.cnes.regards.modules.feature.domain.request.SearchFeatureRequestParameters;
@@ -31,6 +30,8 @@ import org.springframework.data.domain.Pageable;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
 
 /**
  * Service to dump features, which consists in creating zip of zip from feature formatted as aips
@@ -51,13 +52,14 @@ public interface IFeatureMetadataService {
         throws NothingToDoException, IOException;
 
     /**
-     * Util to write zips
+     * Util to write zips : find next features to dump, ordered by last update date and id
      *
-     * @return next pageable if exist null otherwise
-     * @throws RsRuntimeException when there is an issue while trying to dump this page(for example, duplicate names or IOException)
+     * @param dumpDate   features updated from this date are not dumped
+     * @param lastUpdate last update date of the last feature read by the previous call
+     * @param lastId     id of the last feature read by the previous call
+     * @return at most one zip of features
      */
-    Pageable dumpOnePage(FeatureSaveMetadataRequest metadataRequest, Pageable pageToRequest, Path tmpZipLocation)
-        throws IOException, DuplicateUniqueNameException, NothingToDoException;
+    List<FeatureEntity> findFeaturesToDump(OffsetDateTime dumpDate, OffsetDateTime lastUpdate, long lastId);
 
     /**
      * Dump feature contents (in aip format) by zipping all zips previously generated from feature contents
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.feature.service;
+
+import fr.cnes.regards.modules.feature.service.FeatureMetrics.FeatureCreationState;
+import fr.cnes.regards.modules.feature.service.session.FeatureSessionNotifier;
+import fr.cnes.regards.modules.feature.service.session.FeatureSessionProperty;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class FeatureCountersTest {
+
+    private FeatureMetrics metrics;
+
+    private FeatureSessionNotifier sessionNotifier;
+
+    private FeatureCounters counters;
+
+    @Before
+    public void setUp() {
+        metrics = Mockito.mock(FeatureMetrics.class);
+        sessionNotifier = Mockito.mock(FeatureSessionNotifier.class);
+        counters = new FeatureCounters(metrics, sessionNotifier);
+    }
+
+    @Test
+    public void test_flush_aggregated_counts() {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            counters.count(FeatureCreationState.CREATION_REQUEST_SCHEDULED);
+            counters.incrementCount("source", "session1", FeatureSessionProperty.RUNNING_REFERENCING_REQUESTS);
+            counters.incrementCount("source", "session2", FeatureSessionProperty.RUNNING_REFERENCING_REQUESTS);
+        }
+        counters.decrementCount("source", "session1", FeatureSessionProperty.REFERENCING_REQUESTS);
+        counters.decrementCount("source", "session1", FeatureSessionProperty.REFERENCING_REQUESTS);
+        // Balanced counts are not notified
+        counters.incrementCount("source", "session1", FeatureSessionProperty.IN_ERROR_REFERENCING_REQUESTS);
+        counters.decrementCount("source", "session1", FeatureSessionProperty.IN_ERROR_REFERENCING_REQUESTS);
+
+        // When
+        counters.flush();
+
+        // Then
+        Mockito.verify(metrics).count(FeatureCreationState.CREATION_REQUEST_SCHEDULED, 100L);
+        Mockito.verify(sessionNotifier)
+               .incrementCount("source", "session1", FeatureSessionProperty.RUNNING_REFERENCING_REQUESTS, 100L);
+        Mockito.verify(sessionNotifier)
+               .incrementCount("source", "session2", FeatureSessionProperty.RUNNING_REFERENCING_REQUESTS, 100L);
+        Mockito.verify(sessionNotifier)
+               .decrementCount("source", "session1", FeatureSessionProperty.REFERENCING_REQUESTS, 2L);
+        Mockito.verifyNoMoreInteractions(metrics, sessionNotifier);
+
+        // Counts are reset once flushed
+        counters.flush();
+        Mockito.verifyNoMoreInteractions(metrics, sessionNotifier);
+    }
+}
@@ -888,6 +888,36 @@ public class FeatureCreationIT extends AbstractFeatureMultitenantServiceIT {
         waitForFeatures(1);
     }
 
+    @Test
+    public void testCreationWithURNsInSameBatch() {
+        // Given
+        FeatureCreationRequestEvent event2 = createFeatureCreationRequestEvent(2, false);
+        event2.setRequestId("event2");
+        featureCreationService.registerRequests(Collections.singletonList(event2));
+        featureCreationService.scheduleRequests();
+        waitForFeatures(1);
+        Assert.assertEquals(Integer.valueOf(2),
+                            featureRepo.findLatestVersionByProviderId(List.of(event2.getFeature().getId()))
+                                       .get(event2.getFeature().getId())
+                                       .getVersion());
+
+        // When a whole batch is checked against latest versions and against itself
+        FeatureCreationRequestEvent event1 = createFeatureCreationRequestEvent(1, false);
+        event1.setRequestId("event1");
+        FeatureCreationRequestEvent event3 = createFeatureCreationRequestEvent(3, false);
+        event3.setRequestId("event3");
+        FeatureCreationRequestEvent event3Duplicate = createFeatureCreationRequestEvent(3, false);
+        event3Duplicate.setRequestId("event3_duplicate");
+        RequestInfo<String> requestInfo = featureCreationService.registerRequests(List.of(event1,
+                                                                                          event3,
+                                                                                          event3Duplicate));
+
+        // Then only the new version, not duplicated in the batch, is granted
+        assertEquals(1, requestInfo.getGranted().size());
+        assertEquals(2, requestInfo.getDenied().size());
+        Assert.assertTrue(requestInfo.getGranted().containsValue("event3"));
+    }
+
     private FeatureCreationRequestEvent createFeatureCreationRequestEvent(int version, boolean updateIfExists) {
         FeatureCreationRequestEvent featureCreationRequestEvent = initFeatureCreationRequestEvent(1,
                                                                                                   false,
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.feature.service;
+
+import fr.cnes.regards.modules.feature.dao.IAbstractFeatureRequestRepository;
+import fr.cnes.regards.modules.feature.dto.PriorityLevel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.LongStream;
+
+public class FeatureScheduleCursorTest {
+
+    private static final String TENANT = "tenant";
+
+    /**
+     * Priority level of all requests of the queue
+     */
+    private static final ToIntFunction<Long> NORMAL = id -> PriorityLevel.NORMAL.getPriorityLevel();
+
+    /**
+     * Queue of request ids, claiming at most size ids after the given cursor
+     */
+    private static LongFunction<List<Long>> queue(List<Long> ids, int size, List<Long> cursors) {
+        return cursor -> {
+            cursors.add(cursor);
+            return ids.stream().filter(id -> id > cursor).limit(size).toList();
+        };
+    }
+
+    @Test
+    public void test_claim_moves_cursor_then_restarts_from_start() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 5).boxed().toList();
+        List<Long> cursors = new ArrayList<>();
+        FeatureScheduleCursor cursor = new FeatureScheduleCursor();
+
+        // When
+        List<Long> first = cursor.claim(TENANT, queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+        List<Long> second = cursor.claim(TENANT, queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+        List<Long> third = cursor.claim(TENANT, queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+        List<Long> fourth = cursor.claim(TENANT, queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+
+        // Then
+        Assert.assertEquals(List.of(1L, 2L), first);
+        Assert.assertEquals(List.of(3L, 4L), second);
+        // End of queue reached : cursor is reset
+        Assert.assertEquals(List.of(5L), third);
+        Assert.assertEquals(List.of(1L, 2L), fourth);
+        Assert.assertEquals(List.of(IAbstractFeatureRequestRepository.SCHEDULE_FROM_START,
+                                    2L,
+                                    4L,
+                                    IAbstractFeatureRequestRepository.SCHEDULE_FROM_START), cursors);
+    }
+
+    @Test
+    public void test_claim_restarts_from_start_when_nothing_after_cursor() {
+        // Given
+        List<Long> cursors = new ArrayList<>();
+        FeatureScheduleCursor cursor = new FeatureScheduleCursor();
+        cursor.claim(TENANT, queue(List.of(1L, 2L), 2, cursors), Long::longValue, NORMAL, 2);
+
+        // When : requests after cursor have been handled by an other scheduler
+        List<Long> claimed = cursor.claim(TENANT, queue(List.of(1L, 2L), 2, cursors), Long::longValue, NORMAL, 2);
+
+        // Then
+        Assert.assertEquals(List.of(1L, 2L), claimed);
+        Assert.assertEquals(List.of(IAbstractFeatureRequestRepository.SCHEDULE_FROM_START,
+                                    2L,
+                                    IAbstractFeatureRequestRepository.SCHEDULE_FROM_START), cursors);
+    }
+
+    @Test
+    public void test_cursors_by_tenant() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 5).boxed().toList();
+        List<Long> cursors = new ArrayList<>();
+        FeatureScheduleCursor cursor = new FeatureScheduleCursor();
+        cursor.claim(TENANT, queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+
+        // When
+        List<Long> claimed = cursor.claim("other", queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+
+        // Then
+        Assert.assertEquals(List.of(1L, 2L), claimed);
+    }
+
+    @Test
+    public void test_claim_restarts_from_start_when_higher_priority_inserted() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 5).boxed().toList();
+        List<Long> cursors = new ArrayList<>();
+        FeatureScheduleCursor cursor = new FeatureScheduleCursor();
+        cursor.claim(TENANT, queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+
+        // When : requests of same priority are inserted, they are after the cursor
+        cursor.onRequestsInserted(TENANT, PriorityLevel.NORMAL.getPriorityLevel());
+        List<Long> sameAsCursor = cursor.claim(TENANT, queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+        // When : requests of higher priority are inserted, they are before the cursor
+        cursor.onRequestsInserted(TENANT, PriorityLevel.HIGH.getPriorityLevel());
+        List<Long> higherThanCursor = cursor.claim(TENANT, queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+
+        // Then
+        Assert.assertEquals(List.of(3L, 4L), sameAsCursor);
+        Assert.assertEquals(List.of(1L, 2L), higherThanCursor);
+        Assert.assertEquals(List.of(IAbstractFeatureRequestRepository.SCHEDULE_FROM_START,
+                                    2L,
+                                    IAbstractFeatureRequestRepository.SCHEDULE_FROM_START), cursors);
+    }
+
+    @Test
+    public void test_higher_priority_inserted_for_other_tenant() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 5).boxed().toList();
+        List<Long> cursors = new ArrayList<>();
+        FeatureScheduleCursor cursor = new FeatureScheduleCursor();
+        cursor.claim(TENANT, queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+
+        // When
+        cursor.onRequestsInserted("other", PriorityLevel.HIGH.getPriorityLevel());
+        List<Long> claimed = cursor.claim(TENANT, queue(ids, 2, cursors), Long::longValue, NORMAL, 2);
+
+        // Then
+        Assert.assertEquals(List.of(3L, 4L), claimed);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.feature.service;
+
+import fr.cnes.regards.framework.jpa.multitenant.properties.MultitenantDaoProperties;
+import fr.cnes.regards.modules.feature.dao.IAbstractFeatureRequestRepository;
+import fr.cnes.regards.modules.feature.domain.IFeatureRequestToSchedule;
+import jakarta.persistence.EntityManager;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Benchmark of creation requests claiming with a large backlog of pending requests.<br/>
+ * The head of the queue is blocked by requests on the same products already scheduled, so a scheduler reading always
+ * from the first request reads again the same blocked requests at each round.
+ */
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.default_schema=feature_sched_perf" },
+                    locations = { "classpath:regards_perf.properties",
+                                  "classpath:batch.properties",
+                                  "classpath:metrics.properties" })
+@ActiveProfiles(value = { "noscheduler", "noFemHandler" })
+@Ignore("Benchmark : inserts millions of requests")
+public class FeatureSchedulingPerformanceIT extends AbstractFeatureMultitenantServiceIT {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeatureSchedulingPerformanceIT.class);
+
+    private static final int NB_PENDING_REQUESTS = 5_000_000;
+
+    private static final int NB_BLOCKED_REQUESTS = 100_000;
+
+    private static final int NB_ROUNDS = 20;
+
+    private static final int BULK_SIZE = 1_000;
+
+    private static final long PENDING_ID_OFFSET = 1_000_000_000L;
+
+    private static final long SCHEDULED_ID_OFFSET = 2_000_000_000L;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    @Qualifier(MultitenantDaoProperties.MULTITENANT_TRANSACTION_MANAGER)
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void claimCreationRequests() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            insertRequests(PENDING_ID_OFFSET, NB_PENDING_REQUESTS, "LOCAL_DELAYED");
+            insertRequests(SCHEDULED_ID_OFFSET, NB_BLOCKED_REQUESTS, "LOCAL_SCHEDULED");
+            entityManager.createNativeQuery("ANALYZE t_feature_request").executeUpdate();
+        });
+        LOGGER.info(">>>>>>>>>>>>>>>>> {} pending requests inserted in {} ms",
+                    NB_PENDING_REQUESTS,
+                    System.currentTimeMillis() - start);
+
+        // Read always from the first request
+        start = System.currentTimeMillis();
+        for (int round = 0; round < NB_ROUNDS; round++) {
+            List<IFeatureRequestToSchedule> requests = transactionTemplate.execute(status -> featureCreationRequestRepo.findRequestsToSchedule(
+                0,
+                IAbstractFeatureRequestRepository.SCHEDULE_FROM_START,
+                BULK_SIZE));
+            Assert.assertEquals(BULK_SIZE, requests.size());
+        }
+        long fromStartDuration = System.currentTimeMillis() - start;
+
+        // Read from the last request of previous round
+        FeatureScheduleCursor cursor = new FeatureScheduleCursor();
+        start = System.currentTimeMillis();
+        for (int round = 0; round < NB_ROUNDS; round++) {
+            List<IFeatureRequestToSchedule> requests = transactionTemplate.execute(status -> cursor.claim(
+                getDefaultTenant(),
+                c -> featureCreationRequestRepo.findRequestsToSchedule(0, c, BULK_SIZE),
+                IFeatureRequestToSchedule::getId,
+                IFeatureRequestToSchedule::getPriorityLevel,
+                BULK_SIZE));
+            Assert.assertEquals(BULK_SIZE, requests.size());
+        }
+        long fromCursorDuration = System.currentTimeMillis() - start;
+
+        LOGGER.info(">>>>>>>>>>>>>>>>> {} claims of {} requests : {} ms from start, {} ms from cursor",
+                    NB_ROUNDS,
+                    BULK_SIZE,
+                    fromStartDuration,
+                    fromCursorDuration);
+    }
+
+    private void insertRequests(long idOffset, int count, String step) {
+        entityManager.createNativeQuery("""
+                                            INSERT INTO t_feature_request (id, request_type, provider_id, session_owner,
+                                                session_name, request_id, request_owner, state, registration_date,
+                                                request_date, step, priority)
+                                            SELECT :offset + g, 'CREATION', 'P' || g, 'owner', 'session',
+                                                   md5(CAST(:offset + g AS text)), 'owner', 'GRANTED',
+                                                   now() - interval '1 hour', now() - interval '1 hour', :step, 1
+                                            FROM generate_series(1, :count) g
+                                            """)
+                     .setParameter("offset", idOffset)
+                     .setParameter("count", count)
+                     .setParameter("step", step)
+                     .executeUpdate();
+    }
+}
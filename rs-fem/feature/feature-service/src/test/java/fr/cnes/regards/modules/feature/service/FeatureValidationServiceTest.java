@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.feature.service;
+
+import fr.cnes.regards.framework.geojson.geometry.IGeometry;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import fr.cnes.regards.framework.urn.EntityType;
+import fr.cnes.regards.modules.feature.dto.Feature;
+import fr.cnes.regards.modules.feature.service.conf.FeatureConfigurationProperties;
+import fr.cnes.regards.modules.model.domain.Model;
+import fr.cnes.regards.modules.model.domain.ModelAttrAssoc;
+import fr.cnes.regards.modules.model.domain.attributes.AttributeModel;
+import fr.cnes.regards.modules.model.domain.attributes.AttributeModelBuilder;
+import fr.cnes.regards.modules.model.dto.properties.IProperty;
+import fr.cnes.regards.modules.model.dto.properties.PropertyType;
+import fr.cnes.regards.modules.model.service.validation.ValidationMode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FeatureValidationServiceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeatureValidationServiceTest.class);
+
+    private static final String MODEL_NAME = "model";
+
+    private FeatureValidationService validationService;
+
+    @After
+    public void tearDown() {
+        if (validationService != null) {
+            validationService.destroy();
+        }
+    }
+
+    @Test
+    public void test_validate_with_compiled_validators() {
+        // Given
+        validationService = buildValidationService(buildModel(2), 1);
+        Feature valid = buildFeature("valid", 2, "abc");
+        Feature invalid = buildFeature("invalid", 2, "ABC");
+        Feature unexpected = buildFeature("unexpected", 2, "abc");
+        unexpected.addProperty(IProperty.buildString("unknown", "abc"));
+
+        // When, validators are reused from one feature to another
+        Errors validErrors = validationService.validate(valid, ValidationMode.CREATION);
+        Errors invalidErrors = validationService.validate(invalid, ValidationMode.CREATION);
+        Errors unexpectedErrors = validationService.validate(unexpected, ValidationMode.CREATION);
+
+        // Then
+        Assert.assertFalse(validErrors.hasErrors());
+        Assert.assertEquals("Pattern restriction should be rejected", 1, invalidErrors.getErrorCount());
+        Assert.assertEquals("Unknown property should be rejected", 1, unexpectedErrors.getErrorCount());
+    }
+
+    @Test
+    public void test_validate_all_in_features_order() {
+        // Given
+        validationService = buildValidationService(buildModel(5), 4);
+        List<Feature> features = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            features.add(buildFeature("feature_" + i, 5, i % 2 == 0 ? "abc" : "ABC"));
+        }
+
+        // When
+        List<Errors> errors = validationService.validateAll(features, ValidationMode.CREATION);
+
+        // Then
+        Assert.assertEquals(features.size(), errors.size());
+        for (int i = 0; i < features.size(); i++) {
+            Assert.assertEquals("Unexpected validation result for feature " + i,
+                                i % 2 != 0,
+                                errors.get(i).hasErrors());
+        }
+    }
+
+    /**
+     * Compare sequential and parallel validation of synthetic features with 10, 100 and 1000 properties
+     */
+    @Ignore("Microbenchmark to run manually")
+    @Test
+    public void benchmark_validation() {
+        int nbFeatures = 2_000;
+        for (int nbProperties : new int[] { 10, 100, 1000 }) {
+            List<ModelAttrAssoc> model = buildModel(nbProperties);
+            List<Feature> features = new ArrayList<>(nbFeatures);
+            for (int i = 0; i < nbFeatures; i++) {
+                features.add(buildFeature("feature_" + i, nbProperties, "abc"));
+            }
+            for (int parallelism : new int[] { 1, Runtime.getRuntime().availableProcessors() }) {
+                validationService = buildValidationService(model, parallelism);
+                // Warm up
+                validationService.validateAll(features, ValidationMode.CREATION);
+                long start = System.nanoTime();
+                validationService.validateAll(features, ValidationMode.CREATION);
+                long durationMs = (System.nanoTime() - start) / 1_000_000;
+                LOGGER.info("{} features of {} properties validated in {} ms with parallelism {}",
+                            nbFeatures,
+                            nbProperties,
+                            durationMs,
+                            parallelism);
+                validationService.destroy();
+            }
+        }
+        validationService = null;
+    }
+
+    private FeatureValidationService buildValidationService(List<ModelAttrAssoc> model, int parallelism) {
+        FeatureConfigurationProperties properties = new FeatureConfigurationProperties();
+        properties.setValidationParallelism(parallelism);
+        // Model finder always returns the same attribute list, as the cached model finder does
+        return new FeatureValidationService(modelName -> MODEL_NAME.equals(modelName) ? model : null,
+                                            Mockito.mock(Validator.class),
+                                            Mockito.mock(IRuntimeTenantResolver.class),
+                                            properties);
+    }
+
+    /**
+     * Build a model alternating pattern restricted string attributes and range restricted integer attributes
+     */
+    private static List<ModelAttrAssoc> buildModel(int nbAttributes) {
+        Model model = Model.build(MODEL_NAME, "Synthetic model", EntityType.DATA);
+        List<ModelAttrAssoc> modelAttrAssocs = new ArrayList<>(nbAttributes);
+        for (int i = 0; i < nbAttributes; i++) {
+            AttributeModel attribute = i % 2 == 0 ?
+                new AttributeModelBuilder("attr_" + i, PropertyType.STRING, "attr_" + i).setPatternRestriction(
+                    "[a-z]+").build() :
+                new AttributeModelBuilder("attr_" + i, PropertyType.INTEGER, "attr_" + i).setIntegerRangeRestriction(0,
+                                                                                                                     100,
+                                                                                                                     false,
+                                                                                                                     false)
+                                                                                         .build();
+            modelAttrAssocs.add(new ModelAttrAssoc(attribute, model));
+        }
+        return modelAttrAssocs;
+    }
+
+    private static Feature buildFeature(String id, int nbProperties, String stringValue) {
+        Feature feature = Feature.build(id,
+                                        "owner",
+                                        null,
+                                        IGeometry.point(IGeometry.position(10.0, 20.0)),
+                                        EntityType.DATA,
+                                        MODEL_NAME);
+        for (int i = 0; i < nbProperties; i++) {
+            feature.addProperty(i % 2 == 0 ?
+                                    IProperty.buildString("attr_" + i, stringValue) :
+                                    IProperty.buildInteger("attr_" + i, i));
+        }
+        return feature;
+    }
+}
@@ -38,6 +38,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
@@ -47,6 +48,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.LinkedList;
@@ -168,6 +170,45 @@ public class FeatureMetadataServiceIT extends AbstractFeatureMultitenantServiceI
                             readZipEntryNames(dumpFolder[0]).size());
     }
 
+    @Test
+    @Purpose("Test features to dump are read page by page with a keyset cursor, even with the same last update dates")
+    public void findFeaturesToDumpByKeysetTest() {
+        // Given features updated at the same date across pages, at the previous dump date, before the previous dump
+        // date and after the dump date
+        initData(10);
+        OffsetDateTime dumpDate = this.lastDumpReqDate.plusDays(2);
+        List<FeatureEntity> features = featureRepo.findAll(Sort.by("id"));
+        for (FeatureEntity feature : features) {
+            feature.setLastUpdate(this.lastDumpReqDate.plusDays(1));
+        }
+        features.get(0).setLastUpdate(this.lastDumpReqDate);
+        features.get(1).setLastUpdate(this.lastDumpReqDate.minusSeconds(1));
+        features.get(2).setLastUpdate(dumpDate);
+        featureRepo.saveAll(features);
+        List<Long> expectedIds = new ArrayList<>();
+        expectedIds.add(features.get(0).getId());
+        features.subList(3, features.size()).forEach(feature -> expectedIds.add(feature.getId()));
+
+        // When
+        List<Long> dumpedIds = new ArrayList<>();
+        OffsetDateTime lastUpdate = this.lastDumpReqDate;
+        long lastId = 0L;
+        List<FeatureEntity> page;
+        do {
+            page = metadataService.findFeaturesToDump(dumpDate, lastUpdate, lastId);
+            Assert.assertTrue("Pages must not exceed the zip limit", page.size() <= zipLimit);
+            if (!page.isEmpty()) {
+                lastUpdate = page.get(page.size() - 1).getLastUpdate();
+                lastId = page.get(page.size() - 1).getId();
+                page.forEach(feature -> dumpedIds.add(feature.getId()));
+            }
+        } while (page.size() == zipLimit);
+
+        // Then every feature updated between the previous dump date (included) and the dump date (excluded) is read
+        // once, ordered by last update and id
+        Assert.assertEquals(expectedIds, dumpedIds);
+    }
+
     /**
      * Create a request to save feature metadata
      *
@@ -23,6 +23,7 @@ import fr.cnes.regards.framework.amqp.event.ISubscribable;
 import fr.cnes.regards.framework.jpa.multitenant.test.AbstractMultitenantServiceIT;
 import fr.cnes.regards.framework.module.rest.exception.ModuleException;
 import fr.cnes.regards.modules.fileaccess.dto.FileArchiveStatus;
+import fr.cnes.regards.framework.modules.session.agent.client.ISessionAgentClient;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
 import fr.cnes.regards.framework.modules.session.agent.domain.step.StepProperty;
@@ -34,6 +35,7 @@ import fr.cnes.regards.modules.filecatalog.domain.FileReferenceMetaInfo;
 import fr.cnes.regards.modules.filecatalog.service.handler.FileArchiveResponseEventHandler;
 import fr.cnes.regards.modules.filecatalog.service.location.StorageLocationService;
 import org.junit.Assert;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +61,9 @@ public abstract class AbstractFileCatalogIT extends AbstractMultitenantServiceIT
     @Autowired
     protected FileReferenceService fileReferenceService;
 
+    @Autowired
+    protected ISessionAgentClient sessionAgentClient;
+
     @Autowired
     protected FileReferenceRequestService fileRefeferenceRequestservice;
 
@@ -154,10 +159,20 @@ public abstract class AbstractFileCatalogIT extends AbstractMultitenantServiceIT
                                   fileArchiveStatus);
     }
 
+    /**
+     * @param events events published one by one
+     * @return step events from given events and from the ones published in bulk. Increments and decrements are
+     * published in bulk, once summed up by step property, so the ones still buffered are flushed first.
+     */
     protected List<StepPropertyUpdateRequestEvent> getStepPropertyEvents(Collection<ISubscribable> events) {
+        sessionAgentClient.flush();
+        ArgumentCaptor<List<? extends ISubscribable>> bulkCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(publisher, Mockito.atLeast(0)).publish(bulkCaptor.capture());
+        List<ISubscribable> allEvents = new ArrayList<>(events);
+        bulkCaptor.getAllValues().forEach(allEvents::addAll);
         // get all events of type StepPropertyUpdateRequestEvent
         List<StepPropertyUpdateRequestEvent> stepList = new ArrayList<>();
-        for (ISubscribable e : events) {
+        for (ISubscribable e : allEvents) {
             if (e instanceof StepPropertyUpdateRequestEvent) {
                 stepList.add((StepPropertyUpdateRequestEvent) e);
             }
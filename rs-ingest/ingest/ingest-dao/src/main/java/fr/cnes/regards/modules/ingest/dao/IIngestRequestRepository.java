@@ -62,6 +62,9 @@ public interface IIngestRequestRepository extends JpaRepository<IngestRequest, L
         return result;
     }
 
+    /**
+     * Find requests waiting for at least one of the given remote group ids and retrieve linked AIPs
+     */
     default Collection<IngestRequest> findWithAips(List<String> remoteStepGroupIds) {
         return findAll(IngestRequestSpecifications.searchByRemoteStepIds(remoteStepGroupIds));
     }
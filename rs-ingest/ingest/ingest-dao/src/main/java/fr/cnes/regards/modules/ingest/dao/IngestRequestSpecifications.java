@@ -56,9 +56,9 @@ public final class IngestRequestSpecifications {
         return (root, query, cb) -> {
             Set<Predicate> predicates = Sets.newHashSet();
             Path<Object> attributeRequeted = root.get("remoteStepGroupIds");
-            predicates.add(SpecificationUtils.buildPredicateIsJsonbArrayContainingElements(attributeRequeted,
-                                                                                           remoteStepGroupIds,
-                                                                                           cb));
+            predicates.add(SpecificationUtils.buildPredicateIsJsonbArrayContainingOneOfElement(attributeRequeted,
+                                                                                               remoteStepGroupIds,
+                                                                                               cb));
             return cb.and(predicates.toArray(new Predicate[predicates.size()]));
         };
     }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.ingest.service.aip;
+
+import fr.cnes.regards.framework.module.rest.exception.ModuleException;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestRequest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of the storage of the AIP files of several {@link IngestRequest}s
+ *
+ * @param remoteStepGroupIds storage group ids to wait for, by request. Requests without any file to store are
+ *                           associated to an empty list.
+ * @param errors             requests whose files could not be sent to storage, with the cause
+ */
+public record AIPFilesStorageResult(Map<IngestRequest, List<String>> remoteStepGroupIds,
+                                    Map<IngestRequest, ModuleException> errors) {
+
+}
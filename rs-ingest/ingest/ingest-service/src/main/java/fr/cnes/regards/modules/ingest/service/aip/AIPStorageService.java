@@ -18,6 +18,7 @@
  */
 package fr.cnes.regards.modules.ingest.service.aip;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import fr.cnes.regards.framework.module.rest.exception.ModuleException;
 import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
@@ -51,6 +52,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -75,6 +77,12 @@ public class AIPStorageService implements IAIPStorageService {
     @Value("${regards.ingest.aips.storage.location.subdirectory:AIPs}")
     private String apiStorageSubDirectory;
 
+    /**
+     * Maximum number of files sent to storage in a single group request, files of many AIPs being mixed
+     */
+    @Value("${regards.ingest.aips.storage.files.per.group:500}")
+    private int filesPerGroup;
+
     @Autowired
     private DiscoveryClient discoveryClient;
 
@@ -86,11 +94,67 @@ public class AIPStorageService implements IAIPStorageService {
 
     @Override
     public List<String> storeAIPFiles(IngestRequest request) throws ModuleException {
-        // Build file storage requests
-        Collection<FileStorageRequestDto> filesToStore = new ArrayList<>();
-        // Build file reference requests
-        Collection<FileReferenceRequestDto> filesToRefer = new ArrayList<>();
+        AIPFilesStorageResult result = storeAIPFiles(List.of(request));
+        ModuleException error = result.errors().get(request);
+        if (error != null) {
+            throw error;
+        }
+        return result.remoteStepGroupIds().get(request);
+    }
 
+    @Override
+    public AIPFilesStorageResult storeAIPFiles(Collection<IngestRequest> requests) {
+        // Files of all the requests, identical files being only sent once
+        Map<StorageFileKey, FileStorageRequestDto> filesToStore = new LinkedHashMap<>();
+        Map<StorageFileKey, FileReferenceRequestDto> filesToRefer = new LinkedHashMap<>();
+        // Requests by owner of their files, to know which requests are concerned by a group of files
+        Map<String, IngestRequest> requestsByAipId = new HashMap<>();
+
+        Map<IngestRequest, List<String>> remoteStepGroupIds = new LinkedHashMap<>();
+        Map<IngestRequest, ModuleException> errors = new HashMap<>();
+        for (IngestRequest request : requests) {
+            Collection<FileStorageRequestDto> requestFilesToStore = new ArrayList<>();
+            Collection<FileReferenceRequestDto> requestFilesToRefer = new ArrayList<>();
+            try {
+                dispatchAIPFiles(request, requestFilesToStore, requestFilesToRefer);
+            } catch (ModuleException e) {
+                // Only this request is in error, files of the other ones are sent anyway
+                errors.put(request, e);
+                continue;
+            }
+            remoteStepGroupIds.put(request, new ArrayList<>());
+            request.getAips().forEach(aipEntity -> requestsByAipId.put(aipEntity.getAipId(), request));
+            requestFilesToStore.forEach(file -> filesToStore.putIfAbsent(new StorageFileKey(file.getOwner(),
+                                                                                            file.getChecksum(),
+                                                                                            file.getStorage()),
+                                                                         file));
+            requestFilesToRefer.forEach(file -> filesToRefer.putIfAbsent(new StorageFileKey(file.getOwner(),
+                                                                                            file.getChecksum(),
+                                                                                            file.getStorage()),
+                                                                         file));
+        }
+        // Send storage requests
+        sendByGroups(new ArrayList<>(filesToStore.values()),
+                     FileStorageRequestDto::getOwner,
+                     storageClient::store,
+                     requestsByAipId,
+                     remoteStepGroupIds);
+        // Send reference requests
+        sendByGroups(new ArrayList<>(filesToRefer.values()),
+                     FileReferenceRequestDto::getOwner,
+                     storageClient::reference,
+                     requestsByAipId,
+                     remoteStepGroupIds);
+        return new AIPFilesStorageResult(remoteStepGroupIds, errors);
+    }
+
+    /**
+     * Dispatch AIP files of the given request in files to store and files to reference, with taking into account of
+     * retry action by user
+     */
+    private void dispatchAIPFiles(IngestRequest request,
+                                  Collection<FileStorageRequestDto> filesToStore,
+                                  Collection<FileReferenceRequestDto> filesToRefer) throws ModuleException {
         List<StorageMetadata> storages = request.getMetadata().getStorages();
         // Check if request contains errors. If true retry error requests, else create new storage requests
         if (!request.isErrorInformation()) {
@@ -134,20 +198,25 @@ public class AIPStorageService implements IAIPStorageService {
             // Clear errors after processed them
             request.clearErrorInformation();
         }
-        // Keep reference to requests sent to Storage
-        List<String> remoteStepGroupIds = new ArrayList<>();
-        // Send storage request
-        if (!filesToStore.isEmpty()) {
-            remoteStepGroupIds.addAll(storageClient.store(filesToStore).stream().map(RequestInfo::getGroupId).toList());
-        }
-        // Send reference request
-        if (!filesToRefer.isEmpty()) {
-            remoteStepGroupIds.addAll(storageClient.reference(filesToRefer)
-                                                   .stream()
-                                                   .map(RequestInfo::getGroupId)
-                                                   .toList());
+    }
+
+    /**
+     * Send files by groups of at most {@link #filesPerGroup} files, and keep reference of each group in all the
+     * requests owning one of its files.
+     */
+    private <T> void sendByGroups(List<T> files,
+                                  Function<T, String> ownerGetter,
+                                  Function<Collection<T>, Collection<RequestInfo>> sender,
+                                  Map<String, IngestRequest> requestsByAipId,
+                                  Map<IngestRequest, List<String>> remoteStepGroupIds) {
+        for (List<T> groupFiles : Lists.partition(files, filesPerGroup)) {
+            Set<IngestRequest> groupRequests = groupFiles.stream()
+                                                         .map(file -> requestsByAipId.get(ownerGetter.apply(file)))
+                                                         .collect(Collectors.toSet());
+            for (RequestInfo requestInfo : sender.apply(groupFiles)) {
+                groupRequests.forEach(request -> remoteStepGroupIds.get(request).add(requestInfo.getGroupId()));
+            }
         }
-        return remoteStepGroupIds;
     }
 
     private FileStorageRequestDto createFileStorageRequestDTO(OAISDataObjectDto dataObject,
@@ -665,6 +734,13 @@ public class AIPStorageService implements IAIPStorageService {
         }
     }
 
-}
-
+    /**
+     * Identify a file request sent to storage. The owner is part of it as storage keeps track of the owners of a
+     * file through the requests, so identical files of distinct AIPs cannot be merged.
+     */
+    private record StorageFileKey(String owner,
+                                  String checksum,
+                                  String storage) {
 
+    }
+}
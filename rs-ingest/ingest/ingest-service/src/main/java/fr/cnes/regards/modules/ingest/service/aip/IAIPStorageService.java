@@ -41,6 +41,12 @@ public interface IAIPStorageService {
      */
     List<String> storeAIPFiles(IngestRequest request) throws ModuleException;
 
+    /**
+     * Store or reference AIPs Files of several requests at once. Files of all the requests are sent by groups
+     * mixing many AIPs, identical files being sent only once.
+     */
+    AIPFilesStorageResult storeAIPFiles(Collection<IngestRequest> requests);
+
     /**
      * Update provided {@link AIPEntity} aips content info with files metadata
      *
@@ -67,7 +67,12 @@ public abstract class AbstractIngestStep<I, O> extends AbstractProcessingStep<I,
     @Override
     public O execute(I in) throws ProcessingStepException {
         errors = new HashSet<>();
-        return super.execute(in);
+        long start = System.currentTimeMillis();
+        try {
+            return super.execute(in);
+        } finally {
+            job.recordStepDuration(getClass().getSimpleName(), System.currentTimeMillis() - start);
+        }
     }
 
     protected <T> T getStepPlugin(String confId) throws ProcessingStepException {
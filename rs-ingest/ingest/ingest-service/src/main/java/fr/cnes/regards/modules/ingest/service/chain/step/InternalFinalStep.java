@@ -28,6 +28,7 @@ import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestRequestStep;
 import fr.cnes.regards.modules.ingest.domain.sip.SIPEntity;
 import fr.cnes.regards.modules.ingest.service.chain.step.info.StepErrorInfo;
 import fr.cnes.regards.modules.ingest.service.job.IngestProcessingJob;
+import fr.cnes.regards.modules.ingest.service.request.IngestProcessingResult;
 
 import java.util.List;
 
@@ -48,6 +49,24 @@ public class InternalFinalStep extends AbstractIngestStep<List<AIPDto>, List<AIP
         return ingestRequestService.handleIngestJobSucceed(job.getCurrentRequest(), job.getCurrentEntity(), aips);
     }
 
+    /**
+     * Persist entities generated for several requests at once, so that their storage requests are published together
+     */
+    public void executeBatch(List<IngestProcessingResult> results) {
+        long start = System.currentTimeMillis();
+        results.forEach(result -> result.request().setStep(IngestRequestStep.LOCAL_FINAL));
+        ingestRequestService.handleIngestJobsSucceed(results);
+        results.forEach(result -> job.advanceCompletion());
+        job.recordStepDuration(getClass().getSimpleName(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Handle the failure of {@link #executeBatch(List)} for the current request of the job
+     */
+    public void handleError(List<AIPDto> aips, Exception exception) {
+        doAfterError(aips, exception);
+    }
+
     @Override
     protected StepErrorInfo getStepErrorInfo(List<AIPDto> in, Exception exception) {
         return buildDefaultStepErrorInfo("FINAL",
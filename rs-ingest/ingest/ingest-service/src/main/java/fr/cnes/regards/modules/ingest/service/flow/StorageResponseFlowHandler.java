@@ -194,18 +194,21 @@ public class StorageResponseFlowHandler implements IStorageRequestListener {
     @Override
     public void onStoreError(Set<RequestInfo> requestInfos) {
         LOGGER.debug(HANDLER_NAME + "Handling {} storage error group requests", requestInfos.size());
+        // Detect INGEST requests to handle, a group can contain files of several requests
+        Map<RequestInfo, Set<IngestRequest>> toHandle = new HashMap<>();
         List<AbstractRequest> requests = requestService.getRequests(requestInfos);
         for (RequestInfo requestInfo : requestInfos) {
             for (AbstractRequest request : requests) {
                 if (request.getRemoteStepGroupIds().contains(requestInfo.getGroupId())) {
                     if (request instanceof IngestRequest ingestRequest) {
-                        ingestRequestService.handleRemoteStoreError(ingestRequest, requestInfo);
+                        toHandle.computeIfAbsent(requestInfo, ri -> Sets.newHashSet()).add(ingestRequest);
                     } else {
                         requestService.handleRemoteStoreError(request);
                     }
                 }
             }
         }
+        ingestRequestService.handleRemoteStoreError(toHandle);
     }
 
     @Override
@@ -28,11 +28,12 @@ import fr.cnes.regards.framework.modules.jobs.domain.exception.JobParameterInval
 import fr.cnes.regards.framework.modules.jobs.domain.exception.JobParameterMissingException;
 import fr.cnes.regards.framework.modules.jobs.domain.step.IProcessingStep;
 import fr.cnes.regards.framework.modules.jobs.domain.step.ProcessingStepException;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.framework.notification.NotificationLevel;
 import fr.cnes.regards.framework.notification.client.INotificationClient;
 import fr.cnes.regards.framework.security.role.DefaultRole;
+import fr.cnes.regards.framework.utils.RsRuntimeException;
 import fr.cnes.regards.modules.ingest.dao.IIngestProcessingChainRepository;
-import fr.cnes.regards.modules.ingest.domain.aip.AIPEntity;
 import fr.cnes.regards.modules.ingest.domain.chain.IngestProcessingChain;
 import fr.cnes.regards.modules.ingest.domain.request.AbstractRequest;
 import fr.cnes.regards.modules.ingest.domain.request.IngestErrorType;
@@ -43,14 +44,23 @@ import fr.cnes.regards.modules.ingest.dto.aip.StorageMetadata;
 import fr.cnes.regards.modules.ingest.service.chain.step.*;
 import fr.cnes.regards.modules.ingest.service.notification.IAIPNotificationService;
 import fr.cnes.regards.modules.ingest.service.request.IIngestRequestService;
+import fr.cnes.regards.modules.ingest.service.request.IngestProcessingResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * This job manages processing chain for AIP generation from a SIP
+ * This job manages processing chain for AIP generation from a SIP.<br/>
+ * When parallelism is greater than 1, steps of several requests are run concurrently (each worker having its own step
+ * instances) and entities generated by successful requests are persisted at once, in request order.
  *
  * @author Marc Sordi
  * @author Sébastien Binda
@@ -63,6 +73,11 @@ public class IngestProcessingJob extends AbstractJob<Void> {
 
     private static final String INFO_TAB = "     >>>>>     ";
 
+    /**
+     * Timer of the execution of each processing step, tagged with the step name
+     */
+    private static final String STEP_TIMER = "regards.ingest.processing.step";
+
     @Autowired
     private AutowireCapableBeanFactory beanFactory;
 
@@ -78,19 +93,36 @@ public class IngestProcessingJob extends AbstractJob<Void> {
     @Autowired
     private IAIPNotificationService aipNotificationService;
 
+    @Autowired
+    private IRuntimeTenantResolver runtimeTenantResolver;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * Number of requests processed concurrently. Requests are processed one by one if lower or equal to 1.
+     */
+    @Value("${regards.ingest.processing.parallelism:1}")
+    private int parallelism;
+
     private IngestProcessingChain ingestChain;
 
     private List<IngestRequest> requests;
 
     /**
-     * The request we are currently processing
+     * The request we are currently processing (one per worker)
      */
-    private IngestRequest request;
+    private final ThreadLocal<IngestRequest> request = new ThreadLocal<>();
 
     /**
-     * The SIP entity we are currently working on
+     * The SIP entity we are currently working on (one per worker)
      */
-    private SIPEntity currentEntity;
+    private final ThreadLocal<SIPEntity> currentEntity = new ThreadLocal<>();
+
+    /**
+     * Execution metrics by step name, logged at the end of the job
+     */
+    private final Map<String, StepMetrics> stepMetrics = new ConcurrentHashMap<>();
 
     @Override
     public void setParameters(Map<String, JobParameter> parameters)
@@ -129,101 +161,33 @@ public class IngestProcessingJob extends AbstractJob<Void> {
         StringJoiner notifMsg = new StringJoiner("\n");
         notifMsg.add("Errors occurred during SIPs processing using " + ingestChain.getName() + ":");
 
-        // Internal initial step
-        IProcessingStep<IngestRequest, SIPEntity> initStep = new InternalInitialStep(this, ingestChain);
-        beanFactory.autowireBean(initStep);
-
-        // Initializing steps
-        // Step 1 : optional preprocessing
-        IProcessingStep<SIPDto, SIPDto> preStep = new PreprocessingStep(this, ingestChain);
-        beanFactory.autowireBean(preStep);
-        // Step 2 : required validation
-        IProcessingStep<SIPDto, Void> validationStep = new ValidationStep(this, ingestChain);
-        beanFactory.autowireBean(validationStep);
-        // Step 3 : required AIP generation
-        IProcessingStep<SIPEntity, List<AIPDto>> generationStep = new GenerationStep(this, ingestChain);
-        beanFactory.autowireBean(generationStep);
-        // Step 4 : optional AIP update storage metadata
-        IProcessingStep<List<StorageMetadata>, Void> aipStorageMetadataUpdateStep = new AipStorageMetadataUpdateStep(
-            this,
-            ingestChain);
-        beanFactory.autowireBean(aipStorageMetadataUpdateStep);
-        // Step 5 : optional AIP tagging
-        IProcessingStep<List<AIPDto>, Void> taggingStep = new TaggingStep(this, ingestChain);
-        beanFactory.autowireBean(taggingStep);
-        /** Step 6 : optional postprocessing has to be run after storage ends. See {@link IngestPostProcessingJob}.  */
-
-        // Internal final step
-        IProcessingStep<List<AIPDto>, List<AIPEntity>> finalStep = new InternalFinalStep(this, ingestChain);
-        beanFactory.autowireBean(finalStep);
-
         long start = System.currentTimeMillis();
         int sipIngested = 0;
         int sipInError = 0;
 
         // To notify again ingest request with NOTIFICATION_ERROR step
-        Set<AbstractRequest> notificationRequests = Sets.newHashSet();
+        Set<AbstractRequest> notificationRequests = ConcurrentHashMap.newKeySet();
 
-        for (IngestRequest request : requests) {
-            //FIXME add logic to handle interruption
-            this.request = request;
-            try {
-                long start2 = System.currentTimeMillis();
-                List<AIPDto> aips;
-                // retry the process only from the step needed
-                switch (request.getStep()) {
-                    case LOCAL_SCHEDULED, LOCAL_INIT, LOCAL_PRE_PROCESSING, LOCAL_VALIDATION, LOCAL_GENERATION, LOCAL_AIP_STORAGE_METADATA_UPDATE, LOCAL_TAGGING, LOCAL_POST_PROCESSING -> {
-                        ingestRequestService.handleIngestJobStart(request);
-                        // Internal preparation step (no plugin involved)
-                        currentEntity = initStep.execute(request);
-                        // Step 1 : optional preprocessing
-                        SIPDto sip = preStep.execute(request.getSip());
-                        // Propagate to entity
-                        currentEntity.setSip(sip);
-                        // Step 2 : required validation
-                        validationStep.execute(sip);
-                        // Step 3 : required AIP generation
-                        aips = generationStep.execute(currentEntity);
-                        // Step 4 : optional AIP update storage metadata
-                        aipStorageMetadataUpdateStep.execute(request.getMetadata().getStorages());
-                        // Step 5 : optional AIP tagging
-                        taggingStep.execute(aips);
-                        // Internal finalization step (no plugin involved)
-                        // Do all persistence actions in this step
-                        finalStep.execute(aips);
-                    }
-                    case LOCAL_FINAL, REMOTE_STORAGE_REQUESTED, REMOTE_STORAGE_ERROR, REMOTE_STORAGE_DENIED ->
-                        // According to storage dev, it is better to simply request a new storage,
-                        // if request already exists anyway it will be retried
-                        ingestRequestService.requestRemoteStorage(request);
-                    case REMOTE_NOTIFICATION_ERROR ->
-                        // add request to list of requests to be notified again
-                        notificationRequests.add(request);
-                    default -> logger.debug(
-                        "{}SIP \"{}\" ingestion has been retried and nothing had to be done in local",
-                        INFO_TAB,
-                        request.getSip().getId());
-                }
-                sipIngested++;
-                logger.debug("{}SIP \"{}\" ingested in {} ms",
-                             INFO_TAB,
-                             request.getSip().getId(),
-                             System.currentTimeMillis() - start2);
-
-            } catch (ProcessingStepException e) {
-                if (request.getState() != InternalRequestState.WAITING_VERSIONING_MODE
-                    && request.getState() != InternalRequestState.IGNORED) {
-                    logger.error("SIP \"{}\" ingestion error", request.getSip().getId());
+        List<RequestOutcome> outcomes;
+        if (parallelism <= 1 || requests.size() <= 1) {
+            outcomes = processSequentially(notificationRequests);
+        } else {
+            outcomes = processInParallel(notificationRequests);
+        }
+
+        for (RequestOutcome outcome : outcomes) {
+            switch (outcome.status()) {
+                case INGESTED -> sipIngested++;
+                case ERROR -> {
                     sipInError++;
                     String msg = String.format("Error while ingesting SIP \"%s\" in request with correlation id \"%s\"",
-                                               request.getSip().getId(),
-                                               request.getCorrelationId());
+                                               outcome.request().getSip().getId(),
+                                               outcome.request().getCorrelationId());
                     notifMsg.add(msg);
                     logger.error(msg);
-                    logger.error("Ingestion step error", e);
-                    // Continue with following SIPs
-                } else {
-                    logger.debug(e.getMessage(), e);
+                }
+                default -> {
+                    // Request waiting for an admin action, nothing to count
                 }
             }
         }
@@ -242,6 +206,11 @@ public class IngestProcessingJob extends AbstractJob<Void> {
         } else {
             logger.info("{}{} SIP(s) INGESTED in {} ms", INFO_TAB, sipIngested, System.currentTimeMillis() - start);
         }
+        stepMetrics.forEach((step, metrics) -> logger.info("{}{} executed {} time(s) in {} ms",
+                                                           INFO_TAB,
+                                                           step,
+                                                           metrics.count.sum(),
+                                                           metrics.duration.sum()));
 
         // if there are requests to be notified again, send them to notifier
         if (!notificationRequests.isEmpty()) {
@@ -249,16 +218,298 @@ public class IngestProcessingJob extends AbstractJob<Void> {
         }
     }
 
+    /**
+     * Process requests one by one, by waves of distinct provider ids as in {@link #processInParallel(Set)} : entities
+     * of a wave are persisted at once, in request order.
+     */
+    private List<RequestOutcome> processSequentially(Set<AbstractRequest> notificationRequests) {
+        IngestSteps steps = new IngestSteps();
+        InternalFinalStep finalStep = autowire(new InternalFinalStep(this, ingestChain));
+        List<RequestOutcome> outcomes = new ArrayList<>(requests.size());
+        for (List<IngestRequest> wave : splitByProviderId(requests)) {
+            List<RequestOutcome> waveOutcomes = new ArrayList<>(wave.size());
+            for (IngestRequest ingestRequest : wave) {
+                //FIXME add logic to handle interruption
+                waveOutcomes.add(processRequest(ingestRequest, steps, notificationRequests));
+            }
+            outcomes.addAll(finalizeRequests(waveOutcomes, finalStep));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Process requests concurrently by waves of distinct provider ids : the version of a SIP is computed from the
+     * previous persisted ones, so a SIP can only be processed once the entities of the previous SIPs with the same
+     * provider id are persisted. Entities of a wave are persisted at once, in request order.
+     */
+    private List<RequestOutcome> processInParallel(Set<AbstractRequest> notificationRequests) {
+        String tenant = runtimeTenantResolver.getTenant();
+        // Steps are stateful, so each worker uses its own instances
+        ThreadLocal<IngestSteps> workerSteps = ThreadLocal.withInitial(IngestSteps::new);
+        InternalFinalStep finalStep = autowire(new InternalFinalStep(this, ingestChain));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, requests.size()));
+        try {
+            List<RequestOutcome> outcomes = new ArrayList<>(requests.size());
+            for (List<IngestRequest> wave : splitByProviderId(requests)) {
+                List<Future<RequestOutcome>> futures = new ArrayList<>(wave.size());
+                for (IngestRequest ingestRequest : wave) {
+                    futures.add(executor.submit(() -> {
+                        runtimeTenantResolver.forceTenant(tenant);
+                        try {
+                            return processRequest(ingestRequest, workerSteps.get(), notificationRequests);
+                        } finally {
+                            runtimeTenantResolver.clearTenant();
+                        }
+                    }));
+                }
+                List<RequestOutcome> waveOutcomes = new ArrayList<>(wave.size());
+                for (Future<RequestOutcome> future : futures) {
+                    waveOutcomes.add(future.get());
+                }
+                outcomes.addAll(finalizeRequests(waveOutcomes, finalStep));
+            }
+            return outcomes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RsRuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RsRuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Split requests in successive waves in which a provider id appears at most once, keeping request order.
+     */
+    static List<List<IngestRequest>> splitByProviderId(List<IngestRequest> requests) {
+        List<List<IngestRequest>> waves = new ArrayList<>();
+        Map<String, Integer> nextWaveByProviderId = new HashMap<>();
+        for (IngestRequest ingestRequest : requests) {
+            int wave = nextWaveByProviderId.merge(ingestRequest.getSip().getId(), 1, Integer::sum) - 1;
+            if (wave == waves.size()) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(wave).add(ingestRequest);
+        }
+        return waves;
+    }
+
+    /**
+     * Run the steps of one request. Generated entities are not persisted but returned in a
+     * {@link RequestOutcome.Status#TO_FINALIZE} outcome, to be persisted with the other requests of the same wave by
+     * {@link #finalizeRequests(List, InternalFinalStep)}.
+     */
+    private RequestOutcome processRequest(IngestRequest ingestRequest,
+                                          IngestSteps steps,
+                                          Set<AbstractRequest> notificationRequests) {
+        setCurrent(ingestRequest, null);
+        try {
+            long start = System.currentTimeMillis();
+            // retry the process only from the step needed
+            switch (ingestRequest.getStep()) {
+                case LOCAL_SCHEDULED, LOCAL_INIT, LOCAL_PRE_PROCESSING, LOCAL_VALIDATION, LOCAL_GENERATION, LOCAL_AIP_STORAGE_METADATA_UPDATE, LOCAL_TAGGING, LOCAL_POST_PROCESSING -> {
+                    ingestRequestService.handleIngestJobStart(ingestRequest);
+                    // Internal preparation step (no plugin involved)
+                    SIPEntity entity = steps.initStep.execute(ingestRequest);
+                    setCurrent(ingestRequest, entity);
+                    // Step 1 : optional preprocessing
+                    SIPDto sip = steps.preStep.execute(ingestRequest.getSip());
+                    // Propagate to entity
+                    entity.setSip(sip);
+                    // Step 2 : required validation
+                    steps.validationStep.execute(sip);
+                    // Step 3 : required AIP generation
+                    List<AIPDto> aips = steps.generationStep.execute(entity);
+                    // Step 4 : optional AIP update storage metadata
+                    steps.aipStorageMetadataUpdateStep.execute(ingestRequest.getMetadata().getStorages());
+                    // Step 5 : optional AIP tagging
+                    steps.taggingStep.execute(aips);
+                    /** Step 6 : optional postprocessing has to be run after storage ends. See {@link IngestPostProcessingJob}.  */
+                    return new RequestOutcome(ingestRequest, entity, aips, RequestOutcome.Status.TO_FINALIZE);
+                }
+                case LOCAL_FINAL, REMOTE_STORAGE_REQUESTED, REMOTE_STORAGE_ERROR, REMOTE_STORAGE_DENIED ->
+                    // According to storage dev, it is better to simply request a new storage,
+                    // if request already exists anyway it will be retried
+                    ingestRequestService.requestRemoteStorage(ingestRequest);
+                case REMOTE_NOTIFICATION_ERROR ->
+                    // add request to list of requests to be notified again
+                    notificationRequests.add(ingestRequest);
+                default -> logger.debug("{}SIP \"{}\" ingestion has been retried and nothing had to be done in local",
+                                        INFO_TAB,
+                                        ingestRequest.getSip().getId());
+            }
+            logger.debug("{}SIP \"{}\" ingested in {} ms",
+                         INFO_TAB,
+                         ingestRequest.getSip().getId(),
+                         System.currentTimeMillis() - start);
+            return new RequestOutcome(ingestRequest, null, null, RequestOutcome.Status.INGESTED);
+        } catch (ProcessingStepException e) {
+            return handleProcessingError(ingestRequest, e);
+        } finally {
+            setCurrent(null, null);
+        }
+    }
+
+    /**
+     * Persist entities of successfully processed requests at once
+     */
+    private List<RequestOutcome> finalizeRequests(List<RequestOutcome> outcomes, InternalFinalStep finalStep) {
+        List<IngestProcessingResult> results = outcomes.stream()
+                                                       .filter(o -> o.status() == RequestOutcome.Status.TO_FINALIZE)
+                                                       .map(o -> new IngestProcessingResult(o.request(),
+                                                                                            o.entity(),
+                                                                                            o.aips()))
+                                                       .toList();
+        if (!results.isEmpty()) {
+            try {
+                finalStep.executeBatch(results);
+            } catch (RuntimeException e) {
+                // As when the final step of a single request fails : requests are saved in error and the job crashes
+                for (IngestProcessingResult result : results) {
+                    setCurrent(result.request(), result.sipEntity());
+                    finalStep.handleError(result.aips(), e);
+                }
+                setCurrent(null, null);
+                throw e;
+            }
+        }
+        return outcomes.stream()
+                       .map(o -> o.status() == RequestOutcome.Status.TO_FINALIZE ?
+                           new RequestOutcome(o.request(), null, null, RequestOutcome.Status.INGESTED) :
+                           o)
+                       .toList();
+    }
+
+    private RequestOutcome handleProcessingError(IngestRequest ingestRequest, ProcessingStepException e) {
+        if (ingestRequest.getState() != InternalRequestState.WAITING_VERSIONING_MODE
+            && ingestRequest.getState() != InternalRequestState.IGNORED) {
+            logger.error("SIP \"{}\" ingestion error", ingestRequest.getSip().getId());
+            logger.error("Ingestion step error", e);
+            // Continue with following SIPs
+            return new RequestOutcome(ingestRequest, null, null, RequestOutcome.Status.ERROR);
+        } else {
+            logger.debug(e.getMessage(), e);
+            return new RequestOutcome(ingestRequest, null, null, RequestOutcome.Status.WAITING);
+        }
+    }
+
+    private <T> T autowire(T step) {
+        beanFactory.autowireBean(step);
+        return step;
+    }
+
+    private void setCurrent(IngestRequest ingestRequest, SIPEntity entity) {
+        request.set(ingestRequest);
+        currentEntity.set(entity);
+    }
+
+    /**
+     * Steps may advance completion from several workers
+     */
+    @Override
+    public synchronized void advanceCompletion() {
+        super.advanceCompletion();
+    }
+
+    /**
+     * Keep track of a step execution duration, also recorded in the {@value #STEP_TIMER} timer if a meter registry is
+     * available
+     */
+    public void recordStepDuration(String step, long durationInMs) {
+        StepMetrics metrics = stepMetrics.computeIfAbsent(step, this::createStepMetrics);
+        metrics.count.increment();
+        metrics.duration.add(durationInMs);
+        if (metrics.timer != null) {
+            metrics.timer.record(durationInMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private StepMetrics createStepMetrics(String step) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return new StepMetrics(null);
+        }
+        return new StepMetrics(Timer.builder(STEP_TIMER)
+                                    .description("Execution time of an ingest processing step")
+                                    .tag("step", step)
+                                    .register(registry));
+    }
+
     @Override
     public int getCompletionCount() {
         return 8;
     }
 
     public SIPEntity getCurrentEntity() {
-        return currentEntity;
+        return currentEntity.get();
     }
 
     public IngestRequest getCurrentRequest() {
-        return request;
+        return request.get();
+    }
+
+    /**
+     * Processing steps, autowired once by worker
+     */
+    private class IngestSteps {
+
+        // Internal initial step
+        private final IProcessingStep<IngestRequest, SIPEntity> initStep = autowire(new InternalInitialStep(
+            IngestProcessingJob.this,
+            ingestChain));
+
+        // Step 1 : optional preprocessing
+        private final IProcessingStep<SIPDto, SIPDto> preStep = autowire(new PreprocessingStep(IngestProcessingJob.this,
+                                                                                               ingestChain));
+
+        // Step 2 : required validation
+        private final IProcessingStep<SIPDto, Void> validationStep = autowire(new ValidationStep(IngestProcessingJob.this,
+                                                                                                 ingestChain));
+
+        // Step 3 : required AIP generation
+        private final IProcessingStep<SIPEntity, List<AIPDto>> generationStep = autowire(new GenerationStep(
+            IngestProcessingJob.this,
+            ingestChain));
+
+        // Step 4 : optional AIP update storage metadata
+        private final IProcessingStep<List<StorageMetadata>, Void> aipStorageMetadataUpdateStep = autowire(new AipStorageMetadataUpdateStep(
+            IngestProcessingJob.this,
+            ingestChain));
+
+        // Step 5 : optional AIP tagging
+        private final IProcessingStep<List<AIPDto>, Void> taggingStep = autowire(new TaggingStep(IngestProcessingJob.this,
+                                                                                                 ingestChain));
+    }
+
+    private static class StepMetrics {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder duration = new LongAdder();
+
+        /**
+         * Timer of the step, null if there is no meter registry
+         */
+        private final Timer timer;
+
+        private StepMetrics(Timer timer) {
+            this.timer = timer;
+        }
+    }
+
+    /**
+     * Result of the processing of one request
+     *
+     * @param entity SIP entity and generated AIPs, only set for requests {@link Status#TO_FINALIZE}
+     */
+    private record RequestOutcome(IngestRequest request,
+                                  SIPEntity entity,
+                                  List<AIPDto> aips,
+                                  Status status) {
+
+        private enum Status {
+            TO_FINALIZE, INGESTED, ERROR, WAITING
+        }
     }
 }
@@ -112,8 +112,21 @@ public interface IIngestRequestService {
      */
     List<AIPEntity> handleIngestJobSucceed(IngestRequest request, SIPEntity sipEntity, List<AIPDto> aips);
 
+    /**
+     * Same as {@link #handleIngestJobSucceed(IngestRequest, SIPEntity, List)} for several requests, in order and
+     * at once : entities are persisted in a single transaction and AIP files of all the requests are sent to storage
+     * together (see {@link #requestRemoteStorage(Collection)}).
+     */
+    void handleIngestJobsSucceed(List<IngestProcessingResult> results);
+
     void requestRemoteStorage(IngestRequest request);
 
+    /**
+     * Request storage of the AIP files of several requests at once, files of many requests being mixed in the same
+     * storage groups
+     */
+    void requestRemoteStorage(Collection<IngestRequest> requests);
+
     /**
      * Handle request denied from storage service
      */
@@ -129,6 +142,12 @@ public interface IIngestRequestService {
      */
     void handleRemoteStoreError(IngestRequest request, RequestInfo requestInfo);
 
+    /**
+     * Handle remote storage errors by group : only requests owning a file in error are set in error, the other
+     * requests of the group are handled as successful.
+     */
+    void handleRemoteStoreError(Map<RequestInfo, Set<IngestRequest>> requests);
+
     /**
      * Handle remote reference success
      */
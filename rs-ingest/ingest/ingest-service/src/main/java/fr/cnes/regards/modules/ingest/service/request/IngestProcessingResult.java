@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.ingest.service.request;
+
+import fr.cnes.regards.framework.oais.dto.aip.AIPDto;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestRequest;
+import fr.cnes.regards.modules.ingest.domain.sip.SIPEntity;
+
+import java.util.List;
+
+/**
+ * Entities generated by the processing steps of an {@link IngestRequest}, to persist at the end of the job
+ *
+ * @param sipEntity SIP entity built from the request
+ * @param aips      generated AIPs
+ */
+public record IngestProcessingResult(IngestRequest request,
+                                     SIPEntity sipEntity,
+                                     List<AIPDto> aips) {
+
+}
@@ -62,6 +62,7 @@ import fr.cnes.regards.modules.ingest.dto.request.ChooseVersioningRequestParamet
 import fr.cnes.regards.modules.ingest.dto.request.RequestState;
 import fr.cnes.regards.modules.ingest.dto.request.SessionDeletionMode;
 import fr.cnes.regards.modules.ingest.dto.request.event.IngestRequestEvent;
+import fr.cnes.regards.modules.ingest.service.aip.AIPFilesStorageResult;
 import fr.cnes.regards.modules.ingest.service.aip.IAIPService;
 import fr.cnes.regards.modules.ingest.service.aip.IAIPStorageService;
 import fr.cnes.regards.modules.ingest.service.conf.IngestConfigurationProperties;
@@ -283,6 +284,33 @@ public class IngestRequestService implements IIngestRequestService {
 
     @Override
     public List<AIPEntity> handleIngestJobSucceed(IngestRequest request, SIPEntity sipEntity, List<AIPDto> aips) {
+        List<AIPEntity> aipEntities = saveIngestJobResult(request, sipEntity, aips);
+        requestRemoteStorage(request);
+
+        // Monitoring
+        sessionNotifier.decrementProductGenerationPending(request);
+
+        return aipEntities;
+    }
+
+    @Override
+    public void handleIngestJobsSucceed(List<IngestProcessingResult> results) {
+        List<IngestRequest> requests = new ArrayList<>(results.size());
+        for (IngestProcessingResult result : results) {
+            saveIngestJobResult(result.request(), result.sipEntity(), result.aips());
+            requests.add(result.request());
+        }
+        // Files of all the requests are sent to storage together
+        requestRemoteStorage(requests);
+
+        // Monitoring
+        requests.forEach(sessionNotifier::decrementProductGenerationPending);
+    }
+
+    /**
+     * Save SIP and AIP entities generated for the given request
+     */
+    private List<AIPEntity> saveIngestJobResult(IngestRequest request, SIPEntity sipEntity, List<AIPDto> aips) {
         // first lets find out which SIP is the last
         ISipIdAndVersion latestSip = sipService.getLatestSip(sipEntity.getProviderId());
         if (latestSip == null) {
@@ -307,11 +335,6 @@ public class IngestRequestService implements IIngestRequestService {
         List<AIPEntity> aipEntities = aipService.createAndSave(sipEntity, aips);
         // Attach generated AIPs to the current requestAIPDto
         request.setAips(aipEntities);
-        requestRemoteStorage(request);
-
-        // Monitoring
-        sessionNotifier.decrementProductGenerationPending(request);
-
         return aipEntities;
     }
 
@@ -347,31 +370,45 @@ public class IngestRequestService implements IIngestRequestService {
 
     @Override
     public void requestRemoteStorage(IngestRequest request) {
+        requestRemoteStorage(List.of(request));
+    }
+
+    @Override
+    public void requestRemoteStorage(Collection<IngestRequest> requests) {
         // Launch next remote step
-        request.setStep(IngestRequestStep.REMOTE_STORAGE_REQUESTED, confProperties.getRemoteRequestTimeout());
+        for (IngestRequest request : requests) {
+            request.setStep(IngestRequestStep.REMOTE_STORAGE_REQUESTED, confProperties.getRemoteRequestTimeout());
+        }
 
-        try {
-            // Send AIP files storage events, keep these events ids in a list
-            List<String> remoteStepGroupIds = aipStorageService.storeAIPFiles(request);
+        // Send AIP files storage events of all the requests, keep these events ids by request
+        AIPFilesStorageResult result = aipStorageService.storeAIPFiles(requests);
 
+        List<IngestRequest> waitingRequests = new ArrayList<>();
+        Set<IngestRequest> requestsWithoutFiles = Sets.newHashSet();
+        result.remoteStepGroupIds().forEach((request, remoteStepGroupIds) -> {
             if (!remoteStepGroupIds.isEmpty()) {
                 // Register request info to identify storage callback events
                 request.setRemoteStepGroupIds(remoteStepGroupIds);
                 // The answering event from storage will allow the request execution to continue
                 request.setState(InternalRequestState.WAITING_REMOTE_STORAGE);
-                // Keep track of the request
-                saveRequest(request);
-                // Monitoring
-                sessionNotifier.incrementProductStorePending(request);
+                waitingRequests.add(request);
             } else {
-                // No files to store for the request AIPs. We can immediately store the manifest.
-                Set<IngestRequest> requests = Sets.newHashSet(request);
-                finalizeSuccessfulRequest(requests,
-                                          false,
-                                          preloadChains(requests, new HashMap<>()),
-                                          preloadLastVersions(requests, new HashMap<>()));
+                requestsWithoutFiles.add(request);
             }
-        } catch (ModuleException e) {
+        });
+        if (!waitingRequests.isEmpty()) {
+            // Keep track of the requests
+            saveRequests(waitingRequests);
+            // Monitoring
+            waitingRequests.forEach(sessionNotifier::incrementProductStorePending);
+        }
+        // No files to store for these requests AIPs. We can immediately store the manifest.
+        finalizeSuccessfulRequest(requestsWithoutFiles,
+                                  false,
+                                  preloadChains(requestsWithoutFiles, new HashMap<>()),
+                                  preloadLastVersions(requestsWithoutFiles, new HashMap<>()));
+
+        result.errors().forEach((request, e) -> {
             // Keep track of the error
             String message = String.format("Cannot send events to store AIP files because they are malformed. Cause: %s",
                                            e.getMessage());
@@ -382,34 +419,31 @@ public class IngestRequestService implements IIngestRequestService {
             // Decrement from above
             sessionNotifier.decrementProductStorePending(request);
             sessionNotifier.incrementProductStoreError(request);
-        }
+        });
     }
 
     @Override
     public void handleRemoteRequestDenied(Set<RequestInfo> requests) {
-        for (RequestInfo ri : requests) {
-            // Retrieve request
-            Optional<IngestRequest> requestOp = ingestRequestRepository.findOneWithAIPs(ri.getGroupId());
-            if (requestOp.isPresent()) {
-                IngestRequest request = requestOp.get();
-                IngestRequestStep step = request.getStep();
-                if (step == IngestRequestStep.REMOTE_STORAGE_REQUESTED) {
-                    // Save the request was denied at AIP files storage
-                    request.setStep(IngestRequestStep.REMOTE_STORAGE_DENIED);
-                    request.setState(InternalRequestState.ERROR);
-                    request.setErrorType(IngestErrorType.GENERATION);
-                    // Keep track of the error
-                    saveAndPublishErrorRequest(request, "Remote file storage request denied");
-                } else {
-                    // Keep track of the error
-                    saveAndPublishErrorRequest(request, String.format(UNEXPECTED_STEP_S_TEMPLATE, step));
-                }
-
-                // Monitoring
-                // Decrement from #requestRemoteStorage
-                sessionNotifier.decrementProductStorePending(request);
-                sessionNotifier.incrementProductStoreError(request);
+        // Retrieve requests, a group can contain files of several requests
+        List<String> groupIds = requests.stream().map(RequestInfo::getGroupId).toList();
+        for (IngestRequest request : ingestRequestRepository.findWithAips(groupIds)) {
+            IngestRequestStep step = request.getStep();
+            if (step == IngestRequestStep.REMOTE_STORAGE_REQUESTED) {
+                // Save the request was denied at AIP files storage
+                request.setStep(IngestRequestStep.REMOTE_STORAGE_DENIED);
+                request.setState(InternalRequestState.ERROR);
+                request.setErrorType(IngestErrorType.GENERATION);
+                // Keep track of the error
+                saveAndPublishErrorRequest(request, "Remote file storage request denied");
+            } else {
+                // Keep track of the error
+                saveAndPublishErrorRequest(request, String.format(UNEXPECTED_STEP_S_TEMPLATE, step));
             }
+
+            // Monitoring
+            // Decrement from #requestRemoteStorage
+            sessionNotifier.decrementProductStorePending(request);
+            sessionNotifier.incrementProductStoreError(request);
         }
     }
 
@@ -435,21 +469,27 @@ public class IngestRequestService implements IIngestRequestService {
                                           Map<String, Optional<IngestProcessingChain>> chains,
                                           Map<String, AIPEntity> lastVersions) {
 
+        List<IngestRequest> waitingRequests = new ArrayList<>();
         Set<IngestRequest> requestsToFinalized = requests.stream()
                                                          .map(request -> handleRemoteStorageSuccess(requestInfo,
-                                                                                                    request))
+                                                                                                    request,
+                                                                                                    waitingRequests))
                                                          .filter(Optional::isPresent)
                                                          .map(Optional::get)
                                                          .collect(Collectors.toSet());
+        saveRequests(waitingRequests);
         finalizeSuccessfulRequest(requestsToFinalized, true, chains, lastVersions);
     }
 
     /**
      * Handle remote success request from Storage to update IngestRequest
      *
+     * @param waitingRequests requests still waiting for other storage responses, to save
      * @return a list containing the ingest request when every file from the AIP are successfully stored
      */
-    private Optional<IngestRequest> handleRemoteStorageSuccess(RequestInfo requestInfo, IngestRequest request) {
+    private Optional<IngestRequest> handleRemoteStorageSuccess(RequestInfo requestInfo,
+                                                               IngestRequest request,
+                                                               Collection<IngestRequest> waitingRequests) {
         if (request.getStep() != IngestRequestStep.REMOTE_STORAGE_REQUESTED) {
             // Keep track of the error
             saveAndPublishErrorRequest(request, String.format(UNEXPECTED_STEP_S_TEMPLATE, request.getStep()));
@@ -459,7 +499,7 @@ public class IngestRequestService implements IIngestRequestService {
         aipStorageService.updateAIPsContentInfosAndLocations(request.getAips(), requestInfo.getSuccessRequests());
         // Check if there is another storage request we're waiting for
         if (!updateRemoteStepGroupId(request, requestInfo).isEmpty()) {
-            saveRequest(request);
+            waitingRequests.add(request);
             return Optional.empty();
         }
         // Ensure all files are stored on a storage location
@@ -615,6 +655,24 @@ public class IngestRequestService implements IIngestRequestService {
         LOGGER.trace("Successful request handled in {} ms", System.currentTimeMillis() - start);
     }
 
+    @Override
+    public void handleRemoteStoreError(Map<RequestInfo, Set<IngestRequest>> requests) {
+        Map<RequestInfo, Set<IngestRequest>> succeeded = new HashMap<>();
+        requests.forEach((requestInfo, groupRequests) -> {
+            for (IngestRequest request : groupRequests) {
+                if (hasFilesInError(request, requestInfo.getErrorRequests())) {
+                    handleRemoteStoreError(request, requestInfo);
+                } else {
+                    // The group mixes files of several requests and none of the files of this request failed
+                    succeeded.computeIfAbsent(requestInfo, ri -> Sets.newHashSet()).add(request);
+                }
+            }
+        });
+        if (!succeeded.isEmpty()) {
+            handleRemoteStoreSuccess(succeeded);
+        }
+    }
+
     @Override
     public void handleRemoteStoreError(IngestRequest request, RequestInfo requestInfo) {
         String errorMessage = null;
@@ -648,6 +706,7 @@ public class IngestRequestService implements IIngestRequestService {
     public void handleRemoteReferenceSuccess(Set<RequestInfo> requests) {
         Map<String, Optional<IngestProcessingChain>> chains = new HashMap<>();
         Set<IngestRequest> requestsToFinalized = Sets.newHashSet();
+        Set<IngestRequest> waitingRequests = Sets.newHashSet();
         for (AbstractRequest request : requestService.getRequests(requests)) {
             IngestRequest iReq = (IngestRequest) request;
             // Check if there is another storage request we're waiting for
@@ -655,12 +714,15 @@ public class IngestRequestService implements IIngestRequestService {
                 requestsToFinalized.addAll(requests.stream()
                                                    .filter(r -> request.getRemoteStepGroupIds()
                                                                        .contains(r.getGroupId()))
-                                                   .map(ri -> handleRemoteStorageSuccess(ri, iReq))
+                                                   .map(ri -> handleRemoteStorageSuccess(ri, iReq, waitingRequests))
                                                    .filter(Optional::isPresent)
                                                    .map(Optional::get)
                                                    .collect(Collectors.toSet()));
             }
         }
+        // Requests finalized by another group of the same batch are not waiting anymore
+        waitingRequests.removeAll(requestsToFinalized);
+        saveRequests(waitingRequests);
         finalizeSuccessfulRequest(requestsToFinalized,
                                   true,
                                   preloadChains(requestsToFinalized, chains),
@@ -669,17 +731,27 @@ public class IngestRequestService implements IIngestRequestService {
 
     @Override
     public void handleRemoteReferenceError(Set<RequestInfo> requests) {
-        for (RequestInfo ri : requests) {
-            // Retrieve request
-            Optional<IngestRequest> requestOp = ingestRequestRepository.findOneWithAIPs(ri.getGroupId());
+        // Retrieve requests, a group can contain files of several requests
+        List<String> groupIds = requests.stream().map(RequestInfo::getGroupId).toList();
+        Collection<IngestRequest> ingestRequests = ingestRequestRepository.findWithAips(groupIds);
 
-            if (requestOp.isPresent()) {
-                IngestRequest request = requestOp.get();
+        Set<IngestRequest> requestsToFinalized = Sets.newHashSet();
+        Set<IngestRequest> waitingRequests = Sets.newHashSet();
+        for (RequestInfo ri : requests) {
+            for (IngestRequest request : ingestRequests) {
+                if (!request.getRemoteStepGroupIds().contains(ri.getGroupId())) {
+                    continue;
+                }
+                if (!hasFilesInError(request, ri.getErrorRequests())) {
+                    // The group mixes files of several requests and none of the files of this request failed
+                    if (request.getStep() == IngestRequestStep.REMOTE_STORAGE_REQUESTED) {
+                        handleRemoteStorageSuccess(ri, request, waitingRequests).ifPresent(requestsToFinalized::add);
+                    }
+                    continue;
+                }
                 request.setErrorType(IngestErrorType.GENERATION);
                 // Propagate errors
-                if (ri.getErrorRequests() != null) {
-                    ri.getErrorRequests().forEach(e -> request.addError(e.getErrorCause()));
-                }
+                ri.getErrorRequests().forEach(e -> request.addError(e.getErrorCause()));
                 updateRequestWithErrors(request,
                                         ri.getErrorRequests(),
                                         "Error occurred while storing AIP references",
@@ -691,6 +763,26 @@ public class IngestRequestService implements IIngestRequestService {
                 sessionNotifier.incrementProductStoreError(request);
             }
         }
+        // Requests finalized by another group of the same batch are not waiting anymore
+        waitingRequests.removeAll(requestsToFinalized);
+        saveRequests(waitingRequests);
+        finalizeSuccessfulRequest(requestsToFinalized,
+                                  true,
+                                  preloadChains(requestsToFinalized, new HashMap<>()),
+                                  preloadLastVersions(requestsToFinalized, new HashMap<>()));
+    }
+
+    /**
+     * Check if one of the given storage errors concerns a file of the request AIPs.
+     * Without error details, the whole group is in error so every request of the group is considered in error.
+     */
+    private boolean hasFilesInError(IngestRequest request, @Nullable Collection<RequestResultInfoDto> errors) {
+        if (errors == null || errors.isEmpty()) {
+            return true;
+        }
+        return request.getAips()
+                      .stream()
+                      .anyMatch(aip -> errors.stream().anyMatch(e -> e.getRequestOwners().contains(aip.getAipId())));
     }
 
     @Override
@@ -784,6 +876,21 @@ public class IngestRequestService implements IIngestRequestService {
     }
 
     private IngestRequest saveRequest(IngestRequest request, boolean checkAips) {
+        lockJobInfo(request);
+        return ingestRequestRepository.save(request);
+    }
+
+    /**
+     * Save several requests at once
+     */
+    private void saveRequests(Collection<IngestRequest> requests) {
+        if (!requests.isEmpty()) {
+            requests.forEach(this::lockJobInfo);
+            ingestRequestRepository.saveAll(requests);
+        }
+    }
+
+    private void lockJobInfo(IngestRequest request) {
         // Before saving entity check the state of the associated job if any
         if ((request.getJobInfo() != null) && !request.getJobInfo().isLocked()) {
             // Lock the job info before saving entity in order to avoid deletion of this job by an other process
@@ -792,7 +899,6 @@ public class IngestRequestService implements IIngestRequestService {
             jobInfoService.save(jobInfo);
             request.setJobInfo(jobInfo);
         }
-        return ingestRequestRepository.save(request);
     }
 
     private void updateRequestWithErrors(IngestRequest request,
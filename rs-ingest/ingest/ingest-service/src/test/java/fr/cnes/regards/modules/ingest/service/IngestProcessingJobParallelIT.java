@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.ingest.service;
+
+import com.google.common.collect.Sets;
+import fr.cnes.regards.framework.module.rest.exception.ModuleException;
+import fr.cnes.regards.framework.modules.plugins.annotations.Plugin;
+import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
+import fr.cnes.regards.framework.modules.plugins.service.IPluginService;
+import fr.cnes.regards.framework.oais.dto.sip.SIPDto;
+import fr.cnes.regards.framework.urn.DataType;
+import fr.cnes.regards.framework.urn.EntityType;
+import fr.cnes.regards.modules.ingest.dao.IIngestProcessingChainRepository;
+import fr.cnes.regards.modules.ingest.domain.chain.IngestProcessingChain;
+import fr.cnes.regards.modules.ingest.domain.request.IngestErrorType;
+import fr.cnes.regards.modules.ingest.domain.request.InternalRequestState;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestRequest;
+import fr.cnes.regards.modules.ingest.domain.sip.SIPEntity;
+import fr.cnes.regards.modules.ingest.dto.IngestMetadataDto;
+import fr.cnes.regards.modules.ingest.dto.SIPState;
+import fr.cnes.regards.modules.ingest.dto.StorageDto;
+import fr.cnes.regards.modules.ingest.dto.VersioningMode;
+import fr.cnes.regards.modules.ingest.dto.sip.SIPCollection;
+import fr.cnes.regards.modules.ingest.dto.sip.flow.IngestRequestFlowItem;
+import fr.cnes.regards.modules.ingest.service.chain.ProcessingChainTestErrorSimulator;
+import fr.cnes.regards.modules.ingest.service.job.IngestProcessingJob;
+import fr.cnes.regards.modules.ingest.service.plugin.AIPGenerationTestPlugin;
+import fr.cnes.regards.modules.ingest.service.plugin.ValidationTestPlugin;
+import org.awaitility.Awaitility;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class to verify {@link IngestProcessingJob} when requests are processed in parallel.
+ */
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.default_schema=ingestjobparallel",
+                                   "eureka.client.enabled=false",
+                                   "regards.ingest.processing.parallelism=4",
+                                   "regards.ingest.aip.delete.bulk.delay=100",
+                                   "regards.ingest.schedule.request.initial.delay=500",
+                                   "regards.ingest.schedule.request.delay=500" })
+public class IngestProcessingJobParallelIT extends IngestMultitenantServiceIT {
+
+    private static final String PROCESSING_CHAIN_TEST = "parallelProcessingChain";
+
+    private static final String SESSION_OWNER = "sessionOwner";
+
+    private static final String SESSION = "session";
+
+    private static final String VERSIONED_SIP_ID = "SIP_VERSIONED";
+
+    private static final String SIP_IN_ERROR_ID = "SIP_IN_ERROR";
+
+    private static final List<String> OTHER_SIP_IDS = List.of("SIP_001", "SIP_002", "SIP_003");
+
+    @Autowired
+    private IIngestProcessingChainRepository processingChainRepository;
+
+    @Autowired
+    private IPluginService pluginService;
+
+    @Autowired
+    private IIngestService ingestService;
+
+    @Autowired
+    private ProcessingChainTestErrorSimulator stepErrorSimulator;
+
+    @Override
+    public void doInit() throws ModuleException {
+        PluginConfiguration validationPlugin = new PluginConfiguration("validationPlugin",
+                                                                       ValidationTestPlugin.class.getAnnotation(Plugin.class)
+                                                                                                 .id());
+        pluginService.savePluginConfiguration(validationPlugin);
+        PluginConfiguration generationPlugin = new PluginConfiguration("generationPlugin",
+                                                                       AIPGenerationTestPlugin.class.getAnnotation(
+                                                                           Plugin.class).id());
+        pluginService.savePluginConfiguration(generationPlugin);
+        processingChainRepository.save(new IngestProcessingChain(PROCESSING_CHAIN_TEST,
+                                                                 "Parallel test Ingestion processing chain",
+                                                                 validationPlugin,
+                                                                 generationPlugin));
+    }
+
+    @Override
+    public void doAfter() {
+        stepErrorSimulator.setSimulateErrorForStep(null);
+        stepErrorSimulator.setSimulateErrorForProviderId(null);
+    }
+
+    private static SIPDto createSip(String providerId, String fileName) {
+        SIPDto sip = SIPDto.build(EntityType.DATA, providerId);
+        sip.withDataObject(DataType.RAWDATA, Paths.get(fileName), "4bb3363980381d42912d0a97b815696b");
+        sip.withSyntax("FITS(FlexibleImageTransport)",
+                       "http://www.iana.org/assignments/media-types/application/fits",
+                       MediaType.valueOf("application/fits"));
+        sip.registerContentInformation();
+        return sip;
+    }
+
+    @Test
+    public void test_process_in_parallel_with_request_in_error() {
+        // Given two versions of the same SIP, and a SIP rejected by the validation step
+        IngestMetadataDto metadata = new IngestMetadataDto(SESSION_OWNER,
+                                                           SESSION,
+                                                           null,
+                                                           PROCESSING_CHAIN_TEST,
+                                                           Sets.newHashSet("cat 1"),
+                                                           VersioningMode.INC_VERSION,
+                                                           null,
+                                                           new StorageDto("disk"));
+        SIPCollection sips = SIPCollection.build(metadata);
+        sips.add(createSip(VERSIONED_SIP_ID, "versioned_v1.fits"));
+        OTHER_SIP_IDS.forEach(providerId -> sips.add(createSip(providerId, providerId + ".fits")));
+        sips.add(createSip(SIP_IN_ERROR_ID, "error.fits"));
+        sips.add(createSip(VERSIONED_SIP_ID, "versioned_v2.fits"));
+        stepErrorSimulator.setSimulateErrorForStep(ValidationTestPlugin.class);
+        stepErrorSimulator.setSimulateErrorForProviderId(SIP_IN_ERROR_ID);
+
+        // When
+        Collection<IngestRequestFlowItem> items = IngestService.sipToFlow(sips);
+        ingestService.handleIngestRequests(items);
+
+        // Then only the request of the rejected SIP is in error
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> {
+            runtimeTenantResolver.forceTenant(getDefaultTenant());
+            return (sipRepository.findByProviderId(VERSIONED_SIP_ID).size() == 2)
+                   && !ingestRequestRepository.findByProviderIdInAndStateIn(List.of(SIP_IN_ERROR_ID),
+                                                                            List.of(InternalRequestState.ERROR))
+                                              .isEmpty();
+        });
+        List<IngestRequest> requestsInError = ingestRequestRepository.findByProviderId(SIP_IN_ERROR_ID);
+        Assert.assertEquals(1, requestsInError.size());
+        Assert.assertEquals(IngestErrorType.VALIDATION, requestsInError.get(0).getErrorType());
+        Assert.assertTrue(sipRepository.findByProviderId(SIP_IN_ERROR_ID).isEmpty());
+
+        // And the other SIPs are ingested, versions of the same SIP in submission order
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> {
+            runtimeTenantResolver.forceTenant(getDefaultTenant());
+            return OTHER_SIP_IDS.stream()
+                                .map(sipRepository::findTopByProviderIdOrderByCreationDateDesc)
+                                .allMatch(sip -> (sip != null) && (sip.getState() == SIPState.INGESTED));
+        });
+        List<SIPEntity> versions = List.copyOf(sipRepository.findAllByProviderIdOrderByVersionAsc(VERSIONED_SIP_ID));
+        Assert.assertEquals(1, versions.get(0).getVersion().intValue());
+        Assert.assertEquals(2, versions.get(1).getVersion().intValue());
+        Assert.assertTrue(versions.stream().allMatch(sip -> sip.getState() == SIPState.INGESTED));
+    }
+}
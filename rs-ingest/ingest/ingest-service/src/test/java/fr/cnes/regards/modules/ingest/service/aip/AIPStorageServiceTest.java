@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.ingest.service.aip;
+
+import fr.cnes.regards.framework.oais.dto.OAISDataObjectLocationDto;
+import fr.cnes.regards.framework.oais.dto.aip.AIPDto;
+import fr.cnes.regards.framework.oais.dto.sip.SIPDto;
+import fr.cnes.regards.framework.oais.dto.urn.OAISIdentifier;
+import fr.cnes.regards.framework.oais.dto.urn.OaisUniformResourceName;
+import fr.cnes.regards.framework.urn.DataType;
+import fr.cnes.regards.framework.urn.EntityType;
+import fr.cnes.regards.modules.fileaccess.dto.request.FileReferenceRequestDto;
+import fr.cnes.regards.modules.fileaccess.dto.request.FileStorageRequestDto;
+import fr.cnes.regards.modules.filecatalog.client.RequestInfo;
+import fr.cnes.regards.modules.ingest.domain.aip.AIPEntity;
+import fr.cnes.regards.modules.ingest.domain.request.InternalRequestState;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestRequest;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestRequestStep;
+import fr.cnes.regards.modules.ingest.domain.sip.IngestMetadata;
+import fr.cnes.regards.modules.ingest.domain.sip.SIPEntity;
+import fr.cnes.regards.modules.ingest.dto.AIPState;
+import fr.cnes.regards.modules.ingest.dto.SIPState;
+import fr.cnes.regards.modules.ingest.dto.aip.StorageMetadata;
+import fr.cnes.regards.modules.storage.client.IStorageClient;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+/**
+ * Test for grouped storage of AIP files of several requests with {@link AIPStorageService}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AIPStorageServiceTest {
+
+    private static final String TENANT = "tenant";
+
+    private static final String STORAGE = "AWS";
+
+    private static final String REFERENCE_STORAGE = "Alpes";
+
+    @InjectMocks
+    private AIPStorageService aipStorageService;
+
+    @Mock
+    private IStorageClient storageClient;
+
+    private final List<List<FileStorageRequestDto>> sentStorageGroups = new ArrayList<>();
+
+    private final List<List<FileReferenceRequestDto>> sentReferenceGroups = new ArrayList<>();
+
+    @Before
+    public void init() {
+        ReflectionTestUtils.setField(aipStorageService, "filesPerGroup", 2);
+        Mockito.lenient().when(storageClient.store(Mockito.any())).thenAnswer(invocation -> {
+            sentStorageGroups.add(new ArrayList<>(invocation.getArgument(0)));
+            return List.of(RequestInfo.build("store-" + sentStorageGroups.size()));
+        });
+        Mockito.lenient().when(storageClient.reference(Mockito.any())).thenAnswer(invocation -> {
+            sentReferenceGroups.add(new ArrayList<>(invocation.getArgument(0)));
+            return List.of(RequestInfo.build("reference-" + sentReferenceGroups.size()));
+        });
+    }
+
+    private IngestRequest createRequest(String providerId, AIPDto aip) {
+        IngestMetadata metadata = IngestMetadata.build("owner",
+                                                       "session",
+                                                       null,
+                                                       "chain",
+                                                       new HashSet<>(),
+                                                       StorageMetadata.build(STORAGE, "/dir", new HashSet<>()));
+        SIPEntity sip = SIPEntity.build(TENANT,
+                                        metadata,
+                                        SIPDto.build(EntityType.DATA, providerId),
+                                        1,
+                                        SIPState.INGESTED);
+        IngestRequest request = IngestRequest.build(null,
+                                                    metadata,
+                                                    InternalRequestState.RUNNING,
+                                                    IngestRequestStep.REMOTE_STORAGE_REQUESTED,
+                                                    sip.getSip());
+        request.setAips(List.of(AIPEntity.build(sip, AIPState.GENERATED, aip)));
+        return request;
+    }
+
+    private static AIPDto createAip(String providerId) {
+        return AIPDto.build(EntityType.DATA,
+                            OaisUniformResourceName.pseudoRandomUrn(OAISIdentifier.AIP, EntityType.DATA, TENANT, 1),
+                            Optional.empty(),
+                            providerId,
+                            1);
+    }
+
+    private static AIPDto withFileToStore(AIPDto aip, String checksum) {
+        return aip.withDataObject(DataType.RAWDATA,
+                                  checksum + ".txt",
+                                  "MD5",
+                                  checksum,
+                                  10L,
+                                  OAISDataObjectLocationDto.build("file:///input/" + checksum + ".txt"))
+                  .withSyntax(MediaType.TEXT_PLAIN)
+                  .registerContentInformation();
+    }
+
+    private static AIPDto withFileToReference(AIPDto aip, String checksum) {
+        return aip.withDataObject(DataType.RAWDATA,
+                                  checksum + ".txt",
+                                  "MD5",
+                                  checksum,
+                                  10L,
+                                  OAISDataObjectLocationDto.build("file:///ref/" + checksum + ".txt",
+                                                                  REFERENCE_STORAGE))
+                  .withSyntax(MediaType.TEXT_PLAIN)
+                  .registerContentInformation();
+    }
+
+    @Test
+    public void test_store_files_of_several_requests_by_groups() {
+        // Given
+        // Same file twice in the first AIP : only sent once
+        IngestRequest request1 = createRequest("provider1",
+                                               withFileToStore(withFileToStore(createAip("provider1"), "c1"), "c1"));
+        IngestRequest request2 = createRequest("provider2",
+                                               withFileToReference(withFileToStore(withFileToStore(createAip(
+                                                   "provider2"), "c2"), "c3"), "c4"));
+
+        // When
+        AIPFilesStorageResult result = aipStorageService.storeAIPFiles(List.of(request1, request2));
+
+        // Then files of both requests are mixed in groups of at most 2 files
+        Assert.assertTrue(result.errors().isEmpty());
+        Assert.assertEquals(2, sentStorageGroups.size());
+        Assert.assertEquals(List.of("c1", "c2"),
+                            sentStorageGroups.get(0).stream().map(FileStorageRequestDto::getChecksum).toList());
+        Assert.assertEquals(List.of("c3"),
+                            sentStorageGroups.get(1).stream().map(FileStorageRequestDto::getChecksum).toList());
+        Assert.assertEquals(1, sentReferenceGroups.size());
+        Assert.assertEquals(List.of("c4"),
+                            sentReferenceGroups.get(0).stream().map(FileReferenceRequestDto::getChecksum).toList());
+        // Each group is associated to every request owning one of its files
+        Assert.assertEquals(List.of("store-1"), result.remoteStepGroupIds().get(request1));
+        Assert.assertEquals(List.of("store-1", "store-2", "reference-1"), result.remoteStepGroupIds().get(request2));
+    }
+
+    @Test
+    public void test_store_files_with_request_in_error() {
+        // Given a request with a file without any location
+        IngestRequest validRequest = createRequest("provider1", withFileToStore(createAip("provider1"), "c1"));
+        IngestRequest invalidRequest = createRequest("provider2",
+                                                     createAip("provider2").withDataObject(DataType.RAWDATA,
+                                                                                           "c2.txt",
+                                                                                           "MD5",
+                                                                                           "c2",
+                                                                                           10L)
+                                                                           .withSyntax(MediaType.TEXT_PLAIN)
+                                                                           .registerContentInformation());
+
+        // When
+        AIPFilesStorageResult result = aipStorageService.storeAIPFiles(List.of(validRequest, invalidRequest));
+
+        // Then only the invalid request is in error, files of the other one are sent anyway
+        Assert.assertEquals(Set.of(invalidRequest), result.errors().keySet());
+        Assert.assertFalse(result.remoteStepGroupIds().containsKey(invalidRequest));
+        Assert.assertEquals(List.of("store-1"), result.remoteStepGroupIds().get(validRequest));
+        Assert.assertEquals(1, sentStorageGroups.size());
+        Assert.assertEquals(1, sentStorageGroups.get(0).size());
+        Mockito.verify(storageClient, Mockito.never()).reference(Mockito.any());
+    }
+
+    @Test
+    public void test_store_request_without_files() {
+        // Given
+        IngestRequest request = createRequest("provider1", createAip("provider1"));
+
+        // When
+        AIPFilesStorageResult result = aipStorageService.storeAIPFiles(List.of(request));
+
+        // Then the request does not wait for any storage group
+        Assert.assertTrue(result.errors().isEmpty());
+        Assert.assertEquals(Collections.emptyList(), result.remoteStepGroupIds().get(request));
+        Mockito.verifyNoInteractions(storageClient);
+    }
+}
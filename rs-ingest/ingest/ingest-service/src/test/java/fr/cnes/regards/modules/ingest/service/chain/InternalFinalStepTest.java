@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.ingest.service.chain;
+
+import fr.cnes.regards.framework.modules.jobs.domain.step.ProcessingStepException;
+import fr.cnes.regards.framework.oais.dto.sip.SIPDto;
+import fr.cnes.regards.framework.urn.EntityType;
+import fr.cnes.regards.modules.ingest.domain.request.IngestErrorType;
+import fr.cnes.regards.modules.ingest.domain.request.InternalRequestState;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestPayload;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestRequest;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestRequestStep;
+import fr.cnes.regards.modules.ingest.domain.sip.SIPEntity;
+import fr.cnes.regards.modules.ingest.service.chain.step.InternalFinalStep;
+import fr.cnes.regards.modules.ingest.service.job.IngestProcessingJob;
+import fr.cnes.regards.modules.ingest.service.request.IIngestRequestService;
+import fr.cnes.regards.modules.ingest.service.request.IngestProcessingResult;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Test for the persistence of the entities of several requests at once with {@link InternalFinalStep}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class InternalFinalStepTest {
+
+    @Mock
+    private IngestProcessingJob job;
+
+    @Mock
+    private IIngestRequestService ingestRequestService;
+
+    private InternalFinalStep finalStep;
+
+    @Before
+    public void init() {
+        finalStep = new InternalFinalStep(job, null);
+        ReflectionTestUtils.setField(finalStep, "ingestRequestService", ingestRequestService);
+        Mockito.lenient()
+               .when(ingestRequestService.saveRequest(Mockito.any(IngestRequest.class)))
+               .then(AdditionalAnswers.returnsFirstArg());
+    }
+
+    private static IngestProcessingResult createResult(String providerId) {
+        IngestRequest request = new IngestRequest(UUID.randomUUID().toString());
+        request.setConfig(new IngestPayload());
+        request.setSip(SIPDto.build(EntityType.DATA, providerId));
+        request.setState(InternalRequestState.RUNNING);
+        request.setStep(IngestRequestStep.LOCAL_TAGGING);
+        SIPEntity entity = Mockito.mock(SIPEntity.class);
+        Mockito.lenient().when(entity.getProviderId()).thenReturn(providerId);
+        return new IngestProcessingResult(request, entity, List.of());
+    }
+
+    @Test
+    public void test_execute_batch() {
+        // Given
+        List<IngestProcessingResult> results = List.of(createResult("provider1"), createResult("provider2"));
+
+        // When
+        finalStep.executeBatch(results);
+
+        // Then entities of all requests are persisted at once
+        results.forEach(result -> Assert.assertEquals(IngestRequestStep.LOCAL_FINAL, result.request().getStep()));
+        Mockito.verify(ingestRequestService).handleIngestJobsSucceed(results);
+        Mockito.verify(ingestRequestService, Mockito.never())
+               .handleIngestJobSucceed(Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(job, Mockito.times(2)).advanceCompletion();
+        Mockito.verify(job).recordStepDuration(Mockito.eq(InternalFinalStep.class.getSimpleName()), Mockito.anyLong());
+    }
+
+    @Test
+    public void test_batch_error_handled_for_current_request_only() {
+        // Given
+        IngestProcessingResult current = createResult("provider1");
+        IngestProcessingResult other = createResult("provider2");
+        Mockito.when(job.getCurrentRequest()).thenReturn(current.request());
+        Mockito.when(job.getCurrentEntity()).thenReturn(current.sipEntity());
+
+        // When
+        finalStep.handleError(current.aips(), new IllegalStateException("Simulated persistence error"));
+
+        // Then only the current request of the job is saved in error, without failing the job
+        Assert.assertEquals(InternalRequestState.ERROR, current.request().getState());
+        Assert.assertEquals(IngestErrorType.FINAL, current.request().getErrorType());
+        Mockito.verify(ingestRequestService).saveRequest(current.request());
+        Mockito.verify(ingestRequestService, Mockito.never())
+               .handleIngestJobFailed(Mockito.any(), Mockito.any(), Mockito.any());
+        Assert.assertEquals(InternalRequestState.RUNNING, other.request().getState());
+        Mockito.verify(ingestRequestService, Mockito.never()).saveRequest(other.request());
+    }
+
+    @Test
+    public void test_batch_processing_error_fails_current_request() {
+        // Given
+        IngestProcessingResult current = createResult("provider1");
+        Mockito.when(job.getCurrentRequest()).thenReturn(current.request());
+        Mockito.when(job.getCurrentEntity()).thenReturn(current.sipEntity());
+
+        // When
+        finalStep.handleError(current.aips(),
+                              new ProcessingStepException(IngestErrorType.FINAL, "Simulated processing error"));
+
+        // Then
+        Assert.assertEquals(InternalRequestState.ERROR, current.request().getState());
+        Mockito.verify(ingestRequestService)
+               .handleIngestJobFailed(Mockito.eq(current.request()),
+                                      Mockito.eq(current.sipEntity()),
+                                      Mockito.contains("provider1"));
+    }
+}
@@ -30,6 +30,11 @@ public class ProcessingChainTestErrorSimulator {
 
     private Class<?> simulateErrorForStep;
 
+    /**
+     * Provider id of the only SIP in error, all SIPs being in error if null
+     */
+    private String simulateErrorForProviderId;
+
     public Class<?> getSimulateErrorForStep() {
         return simulateErrorForStep;
     }
@@ -38,4 +43,20 @@ public class ProcessingChainTestErrorSimulator {
         simulateErrorForStep = pSimulateErrorForStepClasses;
     }
 
+    public String getSimulateErrorForProviderId() {
+        return simulateErrorForProviderId;
+    }
+
+    public void setSimulateErrorForProviderId(String simulateErrorForProviderId) {
+        this.simulateErrorForProviderId = simulateErrorForProviderId;
+    }
+
+    /**
+     * @return true if an error must be simulated by the given step for the given SIP
+     */
+    public boolean isErrorSimulated(Class<?> step, String providerId) {
+        return step.equals(simulateErrorForStep) && ((simulateErrorForProviderId == null)
+                                                     || simulateErrorForProviderId.equals(providerId));
+    }
+
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.ingest.service.job;
+
+import fr.cnes.regards.framework.oais.dto.sip.SIPDto;
+import fr.cnes.regards.framework.urn.EntityType;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestPayload;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test for the split of requests processed in parallel and the step metrics of {@link IngestProcessingJob}
+ */
+public class IngestProcessingJobTest {
+
+    private static IngestRequest createRequest(String providerId) {
+        IngestRequest request = new IngestRequest(UUID.randomUUID().toString());
+        request.setConfig(new IngestPayload());
+        request.setSip(SIPDto.build(EntityType.DATA, providerId));
+        return request;
+    }
+
+    @Test
+    public void test_split_by_provider_id() {
+        // Given
+        IngestRequest a1 = createRequest("A");
+        IngestRequest b1 = createRequest("B");
+        IngestRequest a2 = createRequest("A");
+        IngestRequest c1 = createRequest("C");
+        IngestRequest a3 = createRequest("A");
+        IngestRequest b2 = createRequest("B");
+
+        // When
+        List<List<IngestRequest>> waves = IngestProcessingJob.splitByProviderId(List.of(a1, b1, a2, c1, a3, b2));
+
+        // Then each provider id appears at most once by wave, versions of a provider id being in request order
+        Assert.assertEquals(List.of(List.of(a1, b1, c1), List.of(a2, b2), List.of(a3)), waves);
+    }
+
+    @Test
+    public void test_split_distinct_provider_ids() {
+        // Given
+        List<IngestRequest> requests = List.of(createRequest("A"), createRequest("B"), createRequest("C"));
+
+        // When
+        List<List<IngestRequest>> waves = IngestProcessingJob.splitByProviderId(requests);
+
+        // Then
+        Assert.assertEquals(List.of(requests), waves);
+    }
+
+    @Test
+    public void test_record_step_duration_in_timer() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        IngestProcessingJob job = new IngestProcessingJob();
+        ReflectionTestUtils.setField(job,
+                                     "meterRegistry",
+                                     new StaticListableBeanFactory(Map.<String, Object>of("meterRegistry",
+                                                                                          registry)).getBeanProvider(
+                                         MeterRegistry.class));
+
+        // When
+        job.recordStepDuration("ValidationStep", 10);
+        job.recordStepDuration("ValidationStep", 20);
+        job.recordStepDuration("GenerationStep", 5);
+
+        // Then
+        Timer validationTimer = registry.get("regards.ingest.processing.step").tag("step", "ValidationStep").timer();
+        Assert.assertEquals(2, validationTimer.count());
+        Assert.assertEquals(30, validationTimer.totalTime(TimeUnit.MILLISECONDS), 0);
+        Assert.assertEquals(1,
+                            registry.get("regards.ingest.processing.step")
+                                    .tag("step", "GenerationStep")
+                                    .timer()
+                                    .count());
+    }
+
+    @Test
+    public void test_record_step_duration_without_registry() {
+        // Given
+        IngestProcessingJob job = new IngestProcessingJob();
+        ReflectionTestUtils.setField(job,
+                                     "meterRegistry",
+                                     new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+        // When
+        job.recordStepDuration("ValidationStep", 10);
+
+        // Then durations are only kept for the end of job log
+        Assert.assertEquals(1, ((Map<?, ?>) ReflectionTestUtils.getField(job, "stepMetrics")).size());
+    }
+}
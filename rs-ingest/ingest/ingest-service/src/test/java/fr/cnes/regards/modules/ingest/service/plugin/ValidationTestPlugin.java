@@ -45,7 +45,7 @@ public class ValidationTestPlugin implements ISipValidation {
 
     @Override
     public void validate(final SIPDto sip, Errors errors) {
-        if (ValidationTestPlugin.class.equals(errorSimulator.getSimulateErrorForStep())) {
+        if (errorSimulator.isErrorSimulated(ValidationTestPlugin.class, sip.getId())) {
             errors.rejectValue("SimulatedErrorField", "SimulatedErrorCode");
         }
     }
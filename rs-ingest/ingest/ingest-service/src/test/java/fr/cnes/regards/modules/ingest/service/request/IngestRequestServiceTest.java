@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.ingest.service.request;
+
+import fr.cnes.regards.modules.fileaccess.dto.request.RequestResultInfoDto;
+import fr.cnes.regards.modules.filecatalog.client.RequestInfo;
+import fr.cnes.regards.modules.ingest.domain.aip.AIPEntity;
+import fr.cnes.regards.modules.ingest.domain.request.ingest.IngestRequest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.*;
+
+/**
+ * Test for the dispatch of storage group errors between the requests of the group with {@link IngestRequestService}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class IngestRequestServiceTest {
+
+    @Spy
+    @InjectMocks
+    private IngestRequestService ingestRequestService;
+
+    @Before
+    public void init() {
+        Mockito.doNothing()
+               .when(ingestRequestService)
+               .handleRemoteStoreError(Mockito.any(IngestRequest.class), Mockito.any(RequestInfo.class));
+        Mockito.lenient().doNothing().when(ingestRequestService).handleRemoteStoreSuccess(Mockito.anyMap());
+    }
+
+    private static IngestRequest createRequest(String aipId) {
+        AIPEntity aip = new AIPEntity();
+        aip.setAipId(aipId);
+        IngestRequest request = new IngestRequest(UUID.randomUUID().toString());
+        request.setAips(List.of(aip));
+        return request;
+    }
+
+    @Test
+    public void test_store_error_in_group_mixing_several_requests() {
+        // Given a group with files of two requests, only the file of the first one failed
+        IngestRequest failedRequest = createRequest("aip1");
+        IngestRequest succeededRequest = createRequest("aip2");
+        RequestInfo requestInfo = RequestInfo.build("group",
+                                                    List.of(RequestResultInfoDto.build("group",
+                                                                                       "checksum2",
+                                                                                       "storage",
+                                                                                       null,
+                                                                                       Set.of("aip2"),
+                                                                                       null,
+                                                                                       null)),
+                                                    List.of(RequestResultInfoDto.build("group",
+                                                                                       "checksum1",
+                                                                                       "storage",
+                                                                                       null,
+                                                                                       Set.of("aip1"),
+                                                                                       null,
+                                                                                       "error")));
+
+        // When
+        ingestRequestService.handleRemoteStoreError(Map.of(requestInfo, Set.of(failedRequest, succeededRequest)));
+
+        // Then only the request owning the failed file is in error, the other one is handled as a success
+        Mockito.verify(ingestRequestService).handleRemoteStoreError(failedRequest, requestInfo);
+        Mockito.verify(ingestRequestService, Mockito.never())
+               .handleRemoteStoreError(Mockito.eq(succeededRequest), Mockito.any(RequestInfo.class));
+        ArgumentCaptor<Map<RequestInfo, Set<IngestRequest>>> succeeded = ArgumentCaptor.forClass(Map.class);
+        Mockito.verify(ingestRequestService).handleRemoteStoreSuccess(succeeded.capture());
+        Assert.assertEquals(Map.of(requestInfo, Set.of(succeededRequest)), succeeded.getValue());
+    }
+
+    @Test
+    public void test_store_error_in_group_without_error_details() {
+        // Given a group in error without any detail on the files in error
+        IngestRequest request1 = createRequest("aip1");
+        IngestRequest request2 = createRequest("aip2");
+        RequestInfo requestInfo = RequestInfo.build("group", Collections.emptyList(), Collections.emptyList());
+
+        // When
+        ingestRequestService.handleRemoteStoreError(Map.of(requestInfo, Set.of(request1, request2)));
+
+        // Then every request of the group is in error
+        Mockito.verify(ingestRequestService).handleRemoteStoreError(request1, requestInfo);
+        Mockito.verify(ingestRequestService).handleRemoteStoreError(request2, requestInfo);
+        Mockito.verify(ingestRequestService, Mockito.never()).handleRemoteStoreSuccess(Mockito.anyMap());
+    }
+}
@@ -18,7 +18,9 @@
  */
 package fr.cnes.regards.modules.ingest.service.session;
 
+import fr.cnes.regards.framework.amqp.event.ISubscribable;
 import fr.cnes.regards.framework.jpa.multitenant.test.AbstractMultitenantServiceIT;
+import fr.cnes.regards.framework.modules.session.agent.client.ISessionAgentClient;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
 import fr.cnes.regards.framework.oais.dto.aip.AIPDto;
@@ -38,6 +40,8 @@ import org.assertj.core.util.Sets;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
@@ -48,13 +52,18 @@ import java.util.*;
 
 @DirtiesContext(classMode = ClassMode.AFTER_CLASS, hierarchyMode = HierarchyMode.EXHAUSTIVE)
 @TestPropertySource(properties = { "spring.jpa.properties.hibernate.default_schema=session_notif",
-                                   "eureka.client.enabled=false" },
+                                   "eureka.client.enabled=false",
+                                   // Step events are flushed by each test
+                                   "regards.session.agent.client.flush.delay.ms=3600000" },
                     locations = { "classpath:application-test.properties" })
 public class SessionNotifierIT extends AbstractMultitenantServiceIT {
 
     @Autowired
     private SessionNotifier sessionNotifier;
 
+    @Autowired
+    private ISessionAgentClient sessionAgentClient;
+
     private static String sessionOwner = "NASA";
 
     private static String session = "session d'ingestion";
@@ -113,6 +122,25 @@ public class SessionNotifierIT extends AbstractMultitenantServiceIT {
                                             sipEntity.getVersion()));
     }
 
+    /**
+     * Increments and decrements of a same property are summed up in a single event, flush them and check there is
+     * one event by updated property.
+     */
+    private List<StepPropertyUpdateRequestEvent> getFlushedStepEvents(int expectedNbProperties) {
+        sessionAgentClient.flush();
+        ArgumentCaptor<List<? extends ISubscribable>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(publisher, Mockito.atLeastOnce()).publish(argumentCaptor.capture());
+        List<StepPropertyUpdateRequestEvent> stepEvents = argumentCaptor.getAllValues()
+                                                                        .stream()
+                                                                        .flatMap(List::stream)
+                                                                        .filter(StepPropertyUpdateRequestEvent.class::isInstance)
+                                                                        .map(StepPropertyUpdateRequestEvent.class::cast)
+                                                                        .toList();
+        clearPublishedEvents();
+        Assert.assertEquals(expectedNbProperties, stepEvents.size());
+        return stepEvents;
+    }
+
     private Map<String, Long> getResultUsingNotifs(List<StepPropertyUpdateRequestEvent> allValues) {
         Map<String, Long> result = new HashMap<>();
         for (StepPropertyUpdateRequestEvent e : allValues) {
@@ -136,7 +164,7 @@ public class SessionNotifierIT extends AbstractMultitenantServiceIT {
         sessionNotifier.incrementRequestCount(sessionOwner, session, 1);
         sessionNotifier.incrementProductGenerationPending(ingestRequest);
         // check results
-        Map<String, Long> result = getResultUsingNotifs(getPublishedEvents(2, StepPropertyUpdateRequestEvent.class));
+        Map<String, Long> result = getResultUsingNotifs(getFlushedStepEvents(2));
         Assert.assertEquals(1, (long) result.get(SessionNotifierPropertyEnum.TOTAL_REQUESTS.getName()));
         Assert.assertEquals(1, (long) result.get(SessionNotifierPropertyEnum.REQUESTS_RUNNING.getName()));
     }
@@ -148,7 +176,7 @@ public class SessionNotifierIT extends AbstractMultitenantServiceIT {
         sessionNotifier.decrementProductGenerationPending(ingestRequest);
         sessionNotifier.incrementProductStoreSuccess(ingestRequest);
 
-        Map<String, Long> result = getResultUsingNotifs(getPublishedEvents(4, StepPropertyUpdateRequestEvent.class));
+        Map<String, Long> result = getResultUsingNotifs(getFlushedStepEvents(3));
         Assert.assertEquals(1, (long) result.get(SessionNotifierPropertyEnum.TOTAL_REQUESTS.getName()));
         Assert.assertEquals(0, (long) result.get(SessionNotifierPropertyEnum.REQUESTS_RUNNING.getName()));
         Assert.assertEquals(aips.size(), (long) result.get(SessionNotifierPropertyEnum.REFERENCED_PRODUCTS.getName()));
@@ -161,7 +189,7 @@ public class SessionNotifierIT extends AbstractMultitenantServiceIT {
         sessionNotifier.decrementProductGenerationPending(ingestRequest);
         sessionNotifier.incrementProductGenerationError(ingestRequest);
 
-        Map<String, Long> result = getResultUsingNotifs(getPublishedEvents(4, StepPropertyUpdateRequestEvent.class));
+        Map<String, Long> result = getResultUsingNotifs(getFlushedStepEvents(3));
         Assert.assertEquals(1, (long) result.get(SessionNotifierPropertyEnum.TOTAL_REQUESTS.getName()));
         Assert.assertEquals(0, (long) result.get(SessionNotifierPropertyEnum.REQUESTS_RUNNING.getName()));
         Assert.assertEquals(1, (long) result.get(SessionNotifierPropertyEnum.REQUESTS_ERRORS.getName()));
@@ -176,7 +204,7 @@ public class SessionNotifierIT extends AbstractMultitenantServiceIT {
         sessionNotifier.decrementProductStorePending(ingestRequest);
         sessionNotifier.incrementProductStoreError(ingestRequest);
 
-        Map<String, Long> result = getResultUsingNotifs(getPublishedEvents(6, StepPropertyUpdateRequestEvent.class));
+        Map<String, Long> result = getResultUsingNotifs(getFlushedStepEvents(3));
         Assert.assertEquals(1, (long) result.get(SessionNotifierPropertyEnum.TOTAL_REQUESTS.getName()));
         Assert.assertEquals(0, (long) result.get(SessionNotifierPropertyEnum.REQUESTS_RUNNING.getName()));
         Assert.assertEquals(1, (long) result.get(SessionNotifierPropertyEnum.REQUESTS_ERRORS.getName()));
@@ -191,7 +219,7 @@ public class SessionNotifierIT extends AbstractMultitenantServiceIT {
         sessionNotifier.decrementProductStorePending(ingestRequest);
         sessionNotifier.incrementProductStoreSuccess(ingestRequest);
 
-        Map<String, Long> result = getResultUsingNotifs(getPublishedEvents(6, StepPropertyUpdateRequestEvent.class));
+        Map<String, Long> result = getResultUsingNotifs(getFlushedStepEvents(3));
         Assert.assertEquals(1, (long) result.get(SessionNotifierPropertyEnum.TOTAL_REQUESTS.getName()));
         Assert.assertEquals(0, (long) result.get(SessionNotifierPropertyEnum.REQUESTS_RUNNING.getName()));
         Assert.assertEquals(aips.size(), (long) result.get(SessionNotifierPropertyEnum.REFERENCED_PRODUCTS.getName()));
@@ -212,7 +240,7 @@ public class SessionNotifierIT extends AbstractMultitenantServiceIT {
         sipEntity.setState(SIPState.STORED);
         sessionNotifier.productDeleted(sessionOwner, session, aips);
 
-        Map<String, Long> result = getResultUsingNotifs(getPublishedEvents(8, StepPropertyUpdateRequestEvent.class));
+        Map<String, Long> result = getResultUsingNotifs(getFlushedStepEvents(4));
         Assert.assertEquals(1, (long) result.get(SessionNotifierPropertyEnum.TOTAL_REQUESTS.getName()));
         Assert.assertEquals(0, (long) result.get(SessionNotifierPropertyEnum.REQUESTS_RUNNING.getName()));
         Assert.assertEquals(0, (long) result.get(SessionNotifierPropertyEnum.REFERENCED_PRODUCTS.getName()));
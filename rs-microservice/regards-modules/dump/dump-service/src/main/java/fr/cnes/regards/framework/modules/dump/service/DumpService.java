@@ -31,6 +31,7 @@ import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.OffsetDateTime;
@@ -38,7 +39,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -84,7 +84,9 @@ public class DumpService {
     }
 
     /**
-     * Generate a zip from list of object dumps
+     * Generate a zip from list of object dumps.<br/>
+     * The zip is written straight to its file in the given location, json entries being serialized one by one, so
+     * several zips can be generated concurrently in the same location.
      *
      * @param zipCollection  list of objects to dump
      * @param tmpZipLocation temporary location to write zip
@@ -95,53 +97,56 @@ public class DumpService {
         Collections.sort(zipCollection);
 
         // Check if dump location exists
-        List<String> listZipNames = new ArrayList<>();
         Files.createDirectories(tmpZipLocation);
-        // create list of zip names
-        try (Stream<Path> folderContent = Files.list(tmpZipLocation)) {
-            folderContent.forEach(zip -> listZipNames.add(zip.getFileName().toString()));
-        }
 
         // Create zip
         // local vars
         DateTimeFormatter folderPathFormatter = DateTimeFormatter.ofPattern(FOLDER_PATH_PATTERN);
-        String filename, filePath, fileContent, zipName;
+        String filename, filePath;
         ZipEntry fileEntry;
-        int indexName;
 
         // generate zip name
         String firstDate = OffsetDateTimeAdapter.format(zipCollection.get(0).getCreationDate());
         String lastDate = OffsetDateTimeAdapter.format(zipCollection.get(zipCollection.size() - 1).getCreationDate());
-        zipName = firstDate + "_" + lastDate + ".zip";
-        // handle not unique names
-        if (listZipNames.contains(zipName)) {
-            indexName = 0;
-            do {
-                zipName = firstDate + "_" + lastDate + "_" + indexName + ".zip";
-                indexName++;
-            } while (listZipNames.contains(zipName));
-        }
+        Path zipPath = createUniqueZipFile(tmpZipLocation, firstDate + "_" + lastDate);
 
         // add json files to zip
-        try (ByteArrayOutputStream tmpZipByte = new ByteArrayOutputStream();
-            ZipOutputStream tmpZip = new ZipOutputStream(new BufferedOutputStream(tmpZipByte),
-                                                         StandardCharsets.UTF_8)) {
-            // add all json files to zip in memory
+        try (ZipOutputStream tmpZip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(zipPath)),
+                                                          StandardCharsets.UTF_8);
+            Writer jsonWriter = new OutputStreamWriter(tmpZip, StandardCharsets.UTF_8)) {
+            // add all json files to zip
             for (ObjectDump objectDump : zipCollection) {
                 filename = objectDump.getJsonName() + ".json";
                 filePath = folderPathFormatter.format(objectDump.getCreationDate()) + "/" + filename;
-                fileContent = this.gson.toJson(objectDump.getJsonContent());
                 // Add File to Sub Zip
                 fileEntry = new ZipEntry(filePath);
                 tmpZip.putNextEntry(fileEntry);
-                tmpZip.write(fileContent.getBytes());
+                this.gson.toJson(objectDump.getJsonContent(), jsonWriter);
+                jsonWriter.flush();
                 tmpZip.closeEntry();
             }
-            // close the zip here so zipEntry can be properly accessed
-            tmpZip.close();
+        } catch (IOException | RuntimeException e) {
+            // do not leave an incomplete zip in location
+            Files.deleteIfExists(zipPath);
+            throw e;
+        }
+    }
 
-            // write zip
-            Files.write(tmpZipLocation.resolve(zipName), tmpZipByte.toByteArray());
+    /**
+     * Atomically create a new empty zip file named from the given base name, suffixed by an index if a zip with the
+     * same name already exists
+     */
+    private Path createUniqueZipFile(Path tmpZipLocation, String baseName) throws IOException {
+        String zipName = baseName + ".zip";
+        int indexName = 0;
+        while (true) {
+            try {
+                return Files.createFile(tmpZipLocation.resolve(zipName));
+            } catch (FileAlreadyExistsException e) {
+                // handle not unique names
+                zipName = baseName + "_" + indexName + ".zip";
+                indexName++;
+            }
         }
     }
 
@@ -170,8 +175,8 @@ public class DumpService {
                               + ".zip";
             Files.createDirectories(dumpLocation);
 
-            try (ZipOutputStream dumpZip = new ZipOutputStream(new FileOutputStream(dumpLocation.resolve(dumpName)
-                                                                                                .toFile()))) {
+            try (ZipOutputStream dumpZip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(
+                dumpLocation.resolve(dumpName).toFile())))) {
                 // Zip content from tmpDumpFolder
                 for (File file : zipArray) {
                     if (!file.isDirectory()) {
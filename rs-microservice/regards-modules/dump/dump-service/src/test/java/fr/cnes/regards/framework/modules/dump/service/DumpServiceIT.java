@@ -44,6 +44,9 @@ import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -172,6 +175,37 @@ public class DumpServiceIT extends AbstractRegardsServiceTransactionalIT {
         Assert.assertTrue("The zip was not created properly. Reason: " + errorMsg, errorMsg.isEmpty());
     }
 
+    @Test
+    @Purpose("Test the concurrent creation of zips with the same dates")
+    public void generateJsonZipConcurrentlyTest() throws Exception {
+        // ------------------------------ PREPARE AND LAUNCH TESTS ------------------------------
+        int nbZips = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(nbZips);
+        try {
+            List<Future<?>> zipTasks = new ArrayList<>();
+            for (int i = 0; i < nbZips; i++) {
+                ArrayList<ObjectDump> zipCollection = TestData.buildJsonCollection(this.maxFilesPerSubZip);
+                zipTasks.add(executor.submit(() -> {
+                    dumpService.generateJsonZip(zipCollection, this.tmpZipLocationPath);
+                    return null;
+                }));
+            }
+            for (Future<?> zipTask : zipTasks) {
+                zipTask.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // ----------------------------------- CHECK RESULTS -----------------------------------
+        // each zip has its own name and is complete
+        File[] listZip = this.tmpZipLocationPath.toFile().listFiles();
+        Assert.assertEquals(nbZips, listZip.length);
+        for (File zip : listZip) {
+            Assert.assertEquals(this.maxFilesPerSubZip, TestUtils.readZipEntryNames(zip).size());
+        }
+    }
+
     @Test
     @Purpose("Verify object dumps in error if json names are not unique")
     public void testDuplicatedDumps() {
@@ -31,10 +31,9 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
-import java.util.Collection;
-import java.util.List;
-import java.util.Set;
-import java.util.UUID;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 
 /**
  * Interface for a JPA auto-generated CRUD repository managing Jobs.
@@ -72,6 +71,69 @@ public interface IJobInfoRepository extends CrudRepository<JobInfo, UUID> {
         return findFirstByStatusStatusOrderByPriorityDesc(JobStatus.QUEUED);
     }
 
+    // Do not use entity graph it makes max computation into memory
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints({ @QueryHint(name = "jakarta.persistence.lock.timeout", value = UPGRADE_SKIPLOCKED) })
+    List<JobInfo> findByStatusStatusOrderByPriorityDesc(JobStatus status, Pageable pageable);
+
+    /**
+     * Lock and retrieve at most count queued jobs with highest priority, skipping jobs locked by other instances
+     */
+    default List<JobInfo> findHighestPriorityQueued(int count) {
+        return findByStatusStatusOrderByPriorityDesc(JobStatus.QUEUED, PageRequest.ofSize(count));
+    }
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints({ @QueryHint(name = "jakarta.persistence.lock.timeout", value = UPGRADE_SKIPLOCKED) })
+    List<JobInfo> findByStatusStatusAndClassNameInOrderByPriorityDesc(JobStatus status,
+                                                                      Collection<String> classNames,
+                                                                      Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints({ @QueryHint(name = "jakarta.persistence.lock.timeout", value = UPGRADE_SKIPLOCKED) })
+    List<JobInfo> findByStatusStatusAndClassNameNotInOrderByPriorityDesc(JobStatus status,
+                                                                         Collection<String> classNames,
+                                                                         Pageable pageable);
+
+    /**
+     * Lock and retrieve at most count queued jobs with highest priority, skipping jobs locked by other instances
+     *
+     * @param jobTypes         if not empty, only retrieve jobs of these types
+     * @param excludedJobTypes if not empty, do not retrieve jobs of these types
+     */
+    default List<JobInfo> findHighestPriorityQueued(int count, Set<String> jobTypes, Set<String> excludedJobTypes) {
+        if (!jobTypes.isEmpty()) {
+            return findByStatusStatusAndClassNameInOrderByPriorityDesc(JobStatus.QUEUED,
+                                                                       jobTypes,
+                                                                       PageRequest.ofSize(count));
+        }
+        if (!excludedJobTypes.isEmpty()) {
+            return findByStatusStatusAndClassNameNotInOrderByPriorityDesc(JobStatus.QUEUED,
+                                                                          excludedJobTypes,
+                                                                          PageRequest.ofSize(count));
+        }
+        return findHighestPriorityQueued(count);
+    }
+
+    long countByStatusStatus(JobStatus status);
+
+    long countByStatusStatusAndClassNameIn(JobStatus status, Collection<String> classNames);
+
+    long countByStatusStatusAndClassNameNotIn(JobStatus status, Collection<String> classNames);
+
+    /**
+     * Count queued jobs, among the same job types as {@link #findHighestPriorityQueued(int, Set, Set)}
+     */
+    default long countQueued(Set<String> jobTypes, Set<String> excludedJobTypes) {
+        if (!jobTypes.isEmpty()) {
+            return countByStatusStatusAndClassNameIn(JobStatus.QUEUED, jobTypes);
+        }
+        if (!excludedJobTypes.isEmpty()) {
+            return countByStatusStatusAndClassNameNotIn(JobStatus.QUEUED, excludedJobTypes);
+        }
+        return countByStatusStatus(JobStatus.QUEUED);
+    }
+
     @EntityGraph(attributePaths = { "parameters" }, type = EntityGraph.EntityGraphType.LOAD)
     JobInfo findCompleteById(UUID id);
 
@@ -89,6 +151,69 @@ public interface IJobInfoRepository extends CrudRepository<JobInfo, UUID> {
                           @Param("id") UUID id,
                           @Param("updateCompletionDate") OffsetDateTime updateDate);
 
+    /**
+     * Update completion of all given running jobs with a single statement
+     */
+    default void updateCompletions(Collection<JobInfo> jobInfos) {
+        if (!jobInfos.isEmpty()) {
+            StringJoiner ids = new StringJoiner(",");
+            StringJoiner percents = new StringJoiner(",");
+            StringJoiner estimatedCompletions = new StringJoiner(",");
+            for (JobInfo jobInfo : jobInfos) {
+                ids.add(jobInfo.getId().toString());
+                percents.add(String.valueOf(jobInfo.getStatus().getPercentCompleted()));
+                OffsetDateTime estimatedCompletion = jobInfo.getStatus().getEstimatedCompletion();
+                // Empty value for null date, dates are stored as UTC timestamps
+                estimatedCompletions.add(estimatedCompletion == null ?
+                                             "" :
+                                             estimatedCompletion.truncatedTo(ChronoUnit.MICROS)
+                                                                .atZoneSameInstant(ZoneOffset.UTC)
+                                                                .toLocalDateTime()
+                                                                .toString());
+            }
+            doUpdateCompletions(ids.toString(), percents.toString(), estimatedCompletions.toString());
+        }
+    }
+
+    @Modifying
+    @Query(value = """
+        UPDATE t_job_info j
+        SET percent_complete = c.percent,
+            estimate_completion = c.estimated,
+            last_completion_update = timezone('UTC', now())
+        FROM unnest(CAST(string_to_array(:ids, ',') AS uuid[]),
+                    CAST(string_to_array(:percents, ',') AS int4[]),
+                    CAST(string_to_array(:estimatedCompletions, ',', '') AS timestamp[])) AS c(id, percent, estimated)
+        WHERE j.id = c.id AND j.status = 'RUNNING'
+        """, nativeQuery = true)
+    void doUpdateCompletions(@Param("ids") String ids,
+                             @Param("percents") String percents,
+                             @Param("estimatedCompletions") String estimatedCompletions);
+
+    /**
+     * Find running jobs of which last heartbeat is older than given date
+     */
+    List<JobInfo> findByStatusStatusAndLastHeartbeatDateLessThan(JobStatus status, OffsetDateTime heartbeatLimitDate);
+
+    /**
+     * Set given jobs as FAILED with the given stack trace, if they are still running
+     */
+    @Modifying
+    @Query("""
+        update JobInfo j set j.status.status = :failed, j.status.statusDate = :now, j.status.stopDate = :now,
+        j.status.stackTrace = :stackTrace
+        where j.id in :ids and j.status.status = :running
+        """)
+    void doFailRunningJobs(@Param("ids") Collection<UUID> ids,
+                           @Param("stackTrace") String stackTrace,
+                           @Param("now") OffsetDateTime now,
+                           @Param("failed") JobStatus failed,
+                           @Param("running") JobStatus running);
+
+    default void failRunningJobs(Collection<UUID> ids, String stackTrace) {
+        doFailRunningJobs(ids, stackTrace, OffsetDateTime.now(), JobStatus.FAILED, JobStatus.RUNNING);
+    }
+
     @Modifying
     @Query("update JobInfo jobInfo set jobInfo.expirationDate = :expirationDate where jobInfo.id in :jobInfoIds")
     void updateExpirationDate(@Param("expirationDate") OffsetDateTime expirationDate,
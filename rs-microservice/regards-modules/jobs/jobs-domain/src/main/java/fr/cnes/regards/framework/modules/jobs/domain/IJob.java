@@ -107,6 +107,18 @@ public interface IJob<R> extends Runnable {
      */
     void advanceCompletion();
 
+    /**
+     * Parameters changed by the job during its execution.
+     * <br/>
+     * <b>Override this method for these parameters to be kept in its {@link JobInfo}, which is saved at the end of
+     * the execution</b>
+     *
+     * @return changed parameters, empty by default
+     */
+    default Map<String, JobParameter> getUpdatedParameters() {
+        return Map.of();
+    }
+
     /**
      * Reject a job because <b>a parameter is missing</b>
      *
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jobs.domain.event;
+
+import fr.cnes.regards.framework.amqp.event.Event;
+import fr.cnes.regards.framework.amqp.event.ISubscribable;
+import fr.cnes.regards.framework.amqp.event.Target;
+
+/**
+ * AMQP event to notify all instances of the microservice that jobs have been queued, so that their job service
+ * wakes up and claims them without waiting for the next database poll.
+ */
+@Event(target = Target.MICROSERVICE)
+public class JobQueuedEvent implements ISubscribable {
+
+    /**
+     * number of queued jobs
+     */
+    private int count;
+
+    public JobQueuedEvent() {
+    }
+
+    public JobQueuedEvent(int count) {
+        this.count = count;
+    }
+
+    /**
+     * @return the number of queued jobs
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Set the number of queued jobs
+     */
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
@@ -44,6 +44,31 @@ public interface IJobInfoService {
      */
     JobInfo findHighestPriorityQueuedJobAndSetAsToBeRun();
 
+    /**
+     * Find at most count queued jobs with highest priority, not already claimed by an other instance, and update
+     * their status to TO_BE_RUN
+     */
+    List<JobInfo> findHighestPriorityQueuedJobsAndSetAsToBeRun(int count);
+
+    /**
+     * Find at most count queued jobs of a job class with highest priority, not already claimed by an other instance,
+     * and update their status to TO_BE_RUN
+     *
+     * @param jobTypes         if not empty, only jobs of these types are claimed
+     * @param excludedJobTypes if not empty, jobs of these types are not claimed
+     */
+    List<JobInfo> findHighestPriorityQueuedJobsAndSetAsToBeRun(int count,
+                                                              Set<String> jobTypes,
+                                                              Set<String> excludedJobTypes);
+
+    /**
+     * Count queued jobs of a job class
+     *
+     * @param jobTypes         if not empty, only jobs of these types are counted
+     * @param excludedJobTypes if not empty, jobs of these types are not counted
+     */
+    long countQueuedJobs(Set<String> jobTypes, Set<String> excludedJobTypes);
+
     /**
      * Create a JobInfo setting its state as PENDING ie <b>it will not be taken into account by job service until its
      * state is QUEUED</b>
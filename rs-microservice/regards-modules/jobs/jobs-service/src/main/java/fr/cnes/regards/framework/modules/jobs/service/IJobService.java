@@ -28,6 +28,11 @@ public interface IJobService {
      */
     void updateCurrentJobsCompletions();
 
+    /**
+     * Scheduled method to update the number of queued jobs of each pool into metrics
+     */
+    void updateQueuedJobsMetrics();
+
     void jobsHeartbeat();
 
     RunnableFuture<Void> runJob(JobInfo jobInfo, String tenant);
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jobs.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Job classes declaration. Each job class is executed by its own pool so that long-running jobs do not delay the
+ * others.<br/>
+ * Jobs of a type that is not declared in any class are executed by the default pool sized by
+ * <code>regards.jobs.pool.size</code>.
+ * <pre>
+ * regards.jobs.classes.io.pool-size=2
+ * regards.jobs.classes.io.job-types=fr.cnes.regards.modules.order.service.job.StorageFilesJob
+ * regards.jobs.classes.io.tenant-weights.project1=3
+ * </pre>
+ */
+@ConfigurationProperties("regards.jobs")
+public class JobClassProperties {
+
+    /**
+     * Job classes by name
+     */
+    private Map<String, JobClass> classes = new HashMap<>();
+
+    public Map<String, JobClass> getClasses() {
+        return classes;
+    }
+
+    public void setClasses(Map<String, JobClass> classes) {
+        this.classes = classes;
+    }
+
+    public static class JobClass {
+
+        public static final int DEFAULT_TENANT_WEIGHT = 1;
+
+        /**
+         * Maximum number of jobs of this class running at the same time on this instance
+         */
+        private int poolSize = 1;
+
+        /**
+         * Job types (i.e. fully qualified job class names) of this class
+         */
+        private Set<String> jobTypes = new HashSet<>();
+
+        /**
+         * Share of the pool given to each tenant when several tenants have queued jobs of this class.
+         * Tenants not listed have a weight of {@link #DEFAULT_TENANT_WEIGHT}.
+         */
+        private Map<String, Integer> tenantWeights = new HashMap<>();
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public Set<String> getJobTypes() {
+            return jobTypes;
+        }
+
+        public void setJobTypes(Set<String> jobTypes) {
+            this.jobTypes = jobTypes;
+        }
+
+        public Map<String, Integer> getTenantWeights() {
+            return tenantWeights;
+        }
+
+        public void setTenantWeights(Map<String, Integer> tenantWeights) {
+            this.tenantWeights = tenantWeights;
+        }
+    }
+}
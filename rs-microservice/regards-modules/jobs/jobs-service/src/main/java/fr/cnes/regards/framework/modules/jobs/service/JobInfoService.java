@@ -24,9 +24,9 @@ import fr.cnes.regards.framework.jpa.multitenant.transactional.MultitenantTransa
 import fr.cnes.regards.framework.modules.jobs.dao.IJobInfoRepository;
 import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
 import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
-import fr.cnes.regards.framework.modules.jobs.domain.JobStatusInfo;
 import fr.cnes.regards.framework.modules.jobs.domain.event.JobEvent;
 import fr.cnes.regards.framework.modules.jobs.domain.event.JobEventType;
+import fr.cnes.regards.framework.modules.jobs.domain.event.JobQueuedEvent;
 import fr.cnes.regards.framework.modules.jobs.domain.event.StopJobEvent;
 import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.framework.multitenant.ITenantResolver;
@@ -124,6 +124,29 @@ public class JobInfoService implements IJobInfoService, ApplicationContextAware
         return found;
     }
 
+    @Override
+    public List<JobInfo> findHighestPriorityQueuedJobsAndSetAsToBeRun(int count) {
+        return findHighestPriorityQueuedJobsAndSetAsToBeRun(count, Set.of(), Set.of());
+    }
+
+    @Override
+    public List<JobInfo> findHighestPriorityQueuedJobsAndSetAsToBeRun(int count,
+                                                                     Set<String> jobTypes,
+                                                                     Set<String> excludedJobTypes) {
+        List<JobInfo> found = jobInfoRepository.findHighestPriorityQueued(count, jobTypes, excludedJobTypes);
+        for (JobInfo jobInfo : found) {
+            Hibernate.initialize(jobInfo.getParameters());
+            jobInfo.updateStatus(JobStatus.TO_BE_RUN);
+        }
+        jobInfoRepository.saveAll(found);
+        return found;
+    }
+
+    @Override
+    public long countQueuedJobs(Set<String> jobTypes, Set<String> excludedJobTypes) {
+        return jobInfoRepository.countQueued(jobTypes, excludedJobTypes);
+    }
+
     @Override
     public List<JobInfo> retrieveJobs() {
         return ImmutableList.copyOf(jobInfoRepository.findAll());
@@ -154,12 +177,22 @@ public class JobInfoService implements IJobInfoService, ApplicationContextAware
             throw new IllegalArgumentException(ERROR_CREATE_JOB_INFO);
         }
         jobInfo.updateStatus(JobStatus.QUEUED);
-        return jobInfoRepository.save(jobInfo);
+        JobInfo queued = jobInfoRepository.save(jobInfo);
+        notifyJobsQueued(1);
+        return queued;
     }
 
     @Override
     public List<JobInfo> createAsQueued(Collection<JobInfo> jobsInfo) {
-        return jobsInfo.stream().map(this::createAsQueued).toList();
+        for (JobInfo jobInfo : jobsInfo) {
+            if (jobInfo.getId() != null) {
+                throw new IllegalArgumentException(ERROR_CREATE_JOB_INFO);
+            }
+            jobInfo.updateStatus(JobStatus.QUEUED);
+        }
+        List<JobInfo> queued = ImmutableList.copyOf(jobInfoRepository.saveAll(jobsInfo));
+        notifyJobsQueued(queued.size());
+        return queued;
     }
 
     @Override
@@ -180,6 +213,7 @@ public class JobInfoService implements IJobInfoService, ApplicationContextAware
                                                                                                              pageToRequest);
         jobInfoToBeTriggered.forEach(jobInfo -> jobInfo.updateStatus(JobStatus.QUEUED));
         LOGGER.debug("{} jobs to be triggerred updated from PENDING to QUEUED.", jobInfoToBeTriggered.size());
+        notifyJobsQueued(jobInfoToBeTriggered.size());
         return jobInfoToBeTriggered;
     }
 
@@ -195,7 +229,20 @@ public class JobInfoService implements IJobInfoService, ApplicationContextAware
         if (jobInfo.getId() == null) {
             throw new IllegalArgumentException(ERROR_CREATE_JOB_INFO);
         }
-        return jobInfoRepository.save(jobInfo);
+        JobInfo saved = jobInfoRepository.save(jobInfo);
+        if (saved.getStatus().getStatus() == JobStatus.QUEUED) {
+            notifyJobsQueued(1);
+        }
+        return saved;
+    }
+
+    /**
+     * Wake up job services of all instances so that queued jobs are claimed without waiting for the next poll
+     */
+    private void notifyJobsQueued(int count) {
+        if (count > 0) {
+            publisher.publish(new JobQueuedEvent(count));
+        }
     }
 
     @Override
@@ -229,13 +276,9 @@ public class JobInfoService implements IJobInfoService, ApplicationContextAware
 
     @Override
     public void updateJobInfosCompletion(Iterable<JobInfo> jobInfos) {
-        for (JobInfo jobInfo : jobInfos) {
-            JobStatusInfo status = jobInfo.getStatus();
-            jobInfoRepository.updateCompletion(status.getPercentCompleted(),
-                                               status.getEstimatedCompletion(),
-                                               jobInfo.getId(),
-                                               OffsetDateTime.now());
-        }
+        List<JobInfo> toUpdate = new ArrayList<>();
+        jobInfos.forEach(toUpdate::add);
+        jobInfoRepository.updateCompletions(toUpdate);
     }
 
     @Override
@@ -265,25 +308,24 @@ public class JobInfoService implements IJobInfoService, ApplicationContextAware
         // Only clean dead jobs if last jobs ping date is after dead limit date to ensure ping is realy done by
         // associated scheduler
         if (lastJobPingDate != null && lastJobPingDate.isAfter(deadLimitDate)) {
-            List<JobInfo> jobs = retrieveJobs(JobStatus.RUNNING);
-            List<JobEvent> failEvents = new ArrayList<>();
-            for (JobInfo job : jobs) {
-                // if last heartbeat date is null it means job has been started but not yet pinged by job engine
-                if ((job.getLastHeartbeatDate() != null) && job.getLastHeartbeatDate().isBefore(deadLimitDate)) {
-                    job.getStatus()
-                       .setStackTrace(String.format(
-                           "This jobs has been considered dead because heartbeat has not responded for more than %s ms",
-                           deadAfter));
-                    job.updateStatus(JobStatus.FAILED);
+            // if last heartbeat date is null it means job has been started but not yet pinged by job engine
+            List<JobInfo> deadJobs = jobInfoRepository.findByStatusStatusAndLastHeartbeatDateLessThan(JobStatus.RUNNING,
+                                                                                                       deadLimitDate);
+            if (!deadJobs.isEmpty()) {
+                List<JobEvent> failEvents = new ArrayList<>();
+                for (JobInfo job : deadJobs) {
                     LOGGER.warn("Job {} of type {} does not respond anymore after waiting activity ping for {} ms.",
                                 job.getId(),
                                 job.getClassName(),
                                 deadAfter);
                     failEvents.add(new JobEvent(job.getId(), JobEventType.FAILED, job.getClassName()));
                 }
+                jobInfoRepository.failRunningJobs(deadJobs.stream().map(JobInfo::getId).toList(),
+                                                  String.format(
+                                                      "This jobs has been considered dead because heartbeat has not responded for more than %s ms",
+                                                      deadAfter));
+                publisher.publish(failEvents);
             }
-            publisher.publish(failEvents);
-            saveAll(jobs);
         }
     }
 
@@ -330,6 +372,7 @@ public class JobInfoService implements IJobInfoService, ApplicationContextAware
             LOGGER.warn("Requeue {} jobs in TO_BE_RUN status for too long.", jobInfos.size());
             jobInfos.forEach(jobInfo -> jobInfo.updateStatus(JobStatus.QUEUED));
             jobInfoRepository.saveAll(jobInfos);
+            notifyJobsQueued(jobInfos.size());
         }
     }
 
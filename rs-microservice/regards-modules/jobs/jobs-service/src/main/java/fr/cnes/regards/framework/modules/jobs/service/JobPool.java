@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jobs.service;
+
+import fr.cnes.regards.framework.modules.jobs.domain.IJob;
+import fr.cnes.regards.framework.modules.jobs.service.JobClassProperties.JobClass;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pool executing the jobs of a job class, with its own threads and queue.<br/>
+ * The default pool executes all job types that are not declared by any other job class.
+ */
+public class JobPool {
+
+    public static final String DEFAULT_JOB_CLASS = "default";
+
+    private final String name;
+
+    private final int poolSize;
+
+    /**
+     * Job types executed by this pool, empty for the default pool
+     */
+    private final Set<String> jobTypes;
+
+    /**
+     * Job types executed by other pools, only used by the default pool
+     */
+    private final Set<String> excludedJobTypes;
+
+    private final Map<String, Integer> tenantWeights;
+
+    private final JobPoolMetrics metrics;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Number of jobs submitted to the executor and not yet terminated
+     */
+    private final AtomicInteger submittedJobs = new AtomicInteger();
+
+    /**
+     * @param executorFactory builds the executor from the listener to call each time a job is terminated
+     */
+    public JobPool(String name,
+                   JobClass jobClass,
+                   Set<String> excludedJobTypes,
+                   JobPoolMetrics metrics,
+                   Function<Runnable, ThreadPoolExecutor> executorFactory,
+                   Runnable jobTerminatedListener) {
+        this.name = name;
+        this.poolSize = jobClass.getPoolSize();
+        this.jobTypes = Set.copyOf(jobClass.getJobTypes());
+        this.excludedJobTypes = Set.copyOf(excludedJobTypes);
+        this.tenantWeights = Map.copyOf(jobClass.getTenantWeights());
+        this.metrics = metrics;
+        this.executor = executorFactory.apply(() -> {
+            submittedJobs.decrementAndGet();
+            jobTerminatedListener.run();
+        });
+        metrics.monitor(executor);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Set<String> getJobTypes() {
+        return jobTypes;
+    }
+
+    public Set<String> getExcludedJobTypes() {
+        return excludedJobTypes;
+    }
+
+    public JobPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return true if jobs of given type are executed by this pool
+     */
+    public boolean accepts(String jobType) {
+        return jobTypes.isEmpty() ? !excludedJobTypes.contains(jobType) : jobTypes.contains(jobType);
+    }
+
+    /**
+     * Number of jobs this pool can still accept.
+     * Submitted jobs not yet started are taken into account as they are waiting in pool queue.
+     */
+    public int getFreeSlots() {
+        return poolSize - submittedJobs.get();
+    }
+
+    public int getTenantWeight(String tenant) {
+        return Math.max(tenantWeights.getOrDefault(tenant, JobClass.DEFAULT_TENANT_WEIGHT), 0);
+    }
+
+    /**
+     * Number of jobs given tenant can claim among given free slots, according to its weight among all given
+     * tenants. A tenant with a positive weight can always claim at least one job.
+     */
+    public int getTenantShare(String tenant, Collection<String> tenants, int freeSlots) {
+        int weight = getTenantWeight(tenant);
+        if (weight == 0) {
+            return 0;
+        }
+        int totalWeight = tenants.stream().mapToInt(this::getTenantWeight).sum();
+        return Math.max(1, (int) ((long) freeSlots * weight / totalWeight));
+    }
+
+    @SuppressWarnings("unchecked")
+    public RunnableFuture<Void> submit(IJob<?> job) {
+        // Count job before submission as it may be terminated before submit returns
+        submittedJobs.incrementAndGet();
+        try {
+            return (RunnableFuture<Void>) executor.submit(job);
+        } catch (RejectedExecutionException e) {
+            submittedJobs.decrementAndGet();
+            throw e;
+        }
+    }
+
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    /**
+     * Interrupt all running jobs and unregister pool metrics
+     *
+     * @return submitted jobs that never started
+     */
+    public List<Runnable> shutdownNow() {
+        metrics.close();
+        return executor.shutdownNow();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jobs.service;
+
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of a {@link JobPool} :
+ * <ul>
+ * <li>regards.jobs.pool.queued : number of jobs queued in database, on all tenants, waiting to be claimed by the
+ * pool,</li>
+ * <li>regards.jobs.pool.running : number of running jobs,</li>
+ * <li>regards.jobs.pool.wait : time between the queuing of a job and its start,</li>
+ * <li>regards.jobs.pool.execution : job execution time.</li>
+ * </ul>
+ * All metrics are tagged with the job class name.
+ */
+public class JobPoolMetrics {
+
+    /**
+     * Metrics that are not recorded, used when no meter registry is available
+     */
+    public static final JobPoolMetrics NONE = new JobPoolMetrics(null, null);
+
+    private static final String METRICS_PREFIX = "regards.jobs.pool.";
+
+    private static final String JOB_CLASS_TAG = "job_class";
+
+    private final MeterRegistry registry;
+
+    private final String jobClass;
+
+    private final List<Meter> meters = new ArrayList<>();
+
+    /**
+     * Last count of queued jobs in database, updated by {@link #setQueuedJobs(long)}
+     */
+    private final AtomicLong queuedJobs = new AtomicLong();
+
+    private final Timer waitTimer;
+
+    private final Timer executionTimer;
+
+    public JobPoolMetrics(MeterRegistry registry, String jobClass) {
+        this.registry = registry;
+        this.jobClass = jobClass;
+        if (registry != null) {
+            register(Gauge.builder(METRICS_PREFIX + "queued", queuedJobs, AtomicLong::get)
+                          .description("Number of jobs queued in database and waiting to be claimed by the pool")
+                          .tag(JOB_CLASS_TAG, jobClass)
+                          .register(registry));
+            waitTimer = register(Timer.builder(METRICS_PREFIX + "wait")
+                                      .description("Time between the queuing of a job and its start")
+                                      .tag(JOB_CLASS_TAG, jobClass)
+                                      .register(registry));
+            executionTimer = register(Timer.builder(METRICS_PREFIX + "execution")
+                                           .description("Job execution time")
+                                           .tag(JOB_CLASS_TAG, jobClass)
+                                           .register(registry));
+        } else {
+            waitTimer = null;
+            executionTimer = null;
+        }
+    }
+
+    /**
+     * @return false if metrics are not recorded
+     */
+    public boolean isEnabled() {
+        return registry != null;
+    }
+
+    /**
+     * Register running jobs gauge of given executor
+     */
+    public void monitor(ThreadPoolExecutor executor) {
+        if (registry != null) {
+            register(Gauge.builder(METRICS_PREFIX + "running", executor, ThreadPoolExecutor::getActiveCount)
+                          .description("Number of running jobs")
+                          .tag(JOB_CLASS_TAG, jobClass)
+                          .register(registry));
+        }
+    }
+
+    /**
+     * Set the number of jobs of the pool job class queued in database
+     */
+    public void setQueuedJobs(long count) {
+        queuedJobs.set(count);
+    }
+
+    /**
+     * Record the time the given job, about to be run, has waited since it was queued
+     */
+    public void recordWait(JobInfo jobInfo) {
+        record(waitTimer, jobInfo.getStatus().getQueuedDate());
+    }
+
+    /**
+     * Record the execution time of the given job that has just been terminated
+     */
+    public void recordExecution(JobInfo jobInfo) {
+        record(executionTimer, jobInfo.getStatus().getStartDate());
+    }
+
+    /**
+     * Unregister all meters, so that a new pool with the same job class can be monitored
+     */
+    public void close() {
+        if (registry != null) {
+            meters.forEach(registry::remove);
+            meters.clear();
+        }
+    }
+
+    private static void record(Timer timer, OffsetDateTime from) {
+        if ((timer != null) && (from != null)) {
+            timer.record(Duration.between(from, OffsetDateTime.now()));
+        }
+    }
+
+    private <M extends Meter> M register(M meter) {
+        meters.add(meter);
+        return meter;
+    }
+}
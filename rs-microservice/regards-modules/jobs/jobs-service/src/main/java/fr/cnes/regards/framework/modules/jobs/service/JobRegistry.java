@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jobs.service;
+
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.framework.modules.jobs.domain.JobStatusInfo;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RunnableFuture;
+
+/**
+ * Concurrent registry of jobs submitted to the job thread pool, indexed both by {@link JobInfo} and by the task
+ * running it.<br/>
+ * It also keeps the last persisted completion of each job, so that completion is only written when it has changed
+ * enough.
+ */
+public class JobRegistry {
+
+    private final ConcurrentMap<JobInfo, RunnableFuture<Void>> tasksByJob = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Runnable, JobInfo> jobsByTask = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<JobInfo, Integer> persistedCompletions = new ConcurrentHashMap<>();
+
+    public void put(JobInfo jobInfo, RunnableFuture<Void> task) {
+        jobsByTask.put(task, jobInfo);
+        tasksByJob.put(jobInfo, task);
+    }
+
+    public boolean containsKey(JobInfo jobInfo) {
+        return tasksByJob.containsKey(jobInfo);
+    }
+
+    public RunnableFuture<Void> get(JobInfo jobInfo) {
+        return tasksByJob.get(jobInfo);
+    }
+
+    /**
+     * @return job run by given task, null if task is not (or not yet) registered
+     */
+    public JobInfo getJobInfo(Runnable task) {
+        return jobsByTask.get(task);
+    }
+
+    public void remove(JobInfo jobInfo) {
+        RunnableFuture<Void> task = tasksByJob.remove(jobInfo);
+        if (task != null) {
+            jobsByTask.remove(task);
+        }
+        persistedCompletions.remove(jobInfo);
+    }
+
+    public int size() {
+        return tasksByJob.size();
+    }
+
+    /**
+     * @return a live view of registered jobs
+     */
+    public Set<JobInfo> keySet() {
+        return Collections.unmodifiableSet(tasksByJob.keySet());
+    }
+
+    /**
+     * Select registered jobs of which completion has changed by at least given threshold (in percent) since their
+     * last persisted completion, and mark the selected completions as persisted.
+     */
+    public List<JobInfo> pollCompletionsToPersist(int threshold) {
+        return tasksByJob.keySet().stream().filter(jobInfo -> {
+            JobStatusInfo status = jobInfo.getStatus();
+            if (!status.hasCompletionChanged()) {
+                return false;
+            }
+            status.clearCompletionChanged();
+            int percentCompleted = status.getPercentCompleted();
+            Integer persisted = persistedCompletions.get(jobInfo);
+            if ((persisted != null) && (Math.abs(percentCompleted - persisted) < threshold)) {
+                return false;
+            }
+            persistedCompletions.put(jobInfo, percentCompleted);
+            return true;
+        }).toList();
+    }
+}
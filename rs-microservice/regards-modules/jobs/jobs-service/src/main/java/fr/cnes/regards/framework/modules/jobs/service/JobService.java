@@ -15,6 +15,7 @@ import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
 import fr.cnes.regards.framework.modules.jobs.domain.JobStatusInfo;
 import fr.cnes.regards.framework.modules.jobs.domain.event.JobEvent;
 import fr.cnes.regards.framework.modules.jobs.domain.event.JobEventType;
+import fr.cnes.regards.framework.modules.jobs.domain.event.JobQueuedEvent;
 import fr.cnes.regards.framework.modules.jobs.domain.event.StopJobEvent;
 import fr.cnes.regards.framework.modules.jobs.domain.exception.JobParameterInvalidException;
 import fr.cnes.regards.framework.modules.jobs.domain.exception.JobParameterMissingException;
@@ -22,10 +23,12 @@ import fr.cnes.regards.framework.modules.jobs.domain.exception.JobWorkspaceExcep
 import fr.cnes.regards.framework.modules.workspace.service.IWorkspaceService;
 import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.framework.multitenant.ITenantResolver;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -54,10 +57,12 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
 
     public static final long HEARTBEAT_DELAY = 60_000L;
 
+    private static final long MIN_IDLE_DELAY = 1_000L;
+
     /**
-     * A BiMap between job id (UUID) and Job (Runnable, in fact RunnableFuture&lt;Void>)
+     * A concurrent registry between job info and Job (Runnable, in fact RunnableFuture&lt;Void>)
      */
-    private static final BiMap<JobInfo, RunnableFuture<Void>> jobsMap = Maps.synchronizedBiMap(HashBiMap.create());
+    private static final JobRegistry jobsMap = new JobRegistry();
 
     /**
      * A set containing ids of Jobs asked to be stopped whereas they haven't still be launched
@@ -80,13 +85,42 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
     @Value("${regards.jobs.scan.delay:1000}")
     private int scanDelay;
 
+    /**
+     * Minimum completion change (in percent) of a running job to persist its completion
+     */
+    @Value("${regards.jobs.completion.update.threshold:1}")
+    private int completionUpdateThreshold;
+
+    /**
+     * Maximum delay between two polls of queued jobs when no job is found, if no wake-up signal is received
+     */
+    @Value("${regards.jobs.idle.max.delay:30000}")
+    private long maxIdleDelay;
+
+    /**
+     * Signal to wake up job manager when jobs are queued or when a job terminates
+     */
+    private final Semaphore wakeUpSignal = new Semaphore(0);
+
     private final ISubscriber subscriber;
 
     private final IPublisher publisher;
 
     private final AutowireCapableBeanFactory beanFactory;
 
-    private ThreadPoolExecutor threadPool;
+    private final JobClassProperties jobClassProperties;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * One pool per job class, the default one first
+     */
+    private volatile List<JobPool> pools = List.of();
+
+    /**
+     * Number of scheduling rounds, used to change the first served tenant at each round
+     */
+    private int round = 0;
 
     private LockService lockService;
 
@@ -100,7 +134,9 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
                       ISubscriber subscriber,
                       IPublisher publisher,
                       AutowireCapableBeanFactory beanFactory,
-                      LockService lockService) {
+                      LockService lockService,
+                      JobClassProperties jobClassProperties,
+                      ObjectProvider<MeterRegistry> meterRegistry) {
         this.workspaceService = workspaceService;
         this.jobInfoService = jobInfoService;
         this.tenantResolver = tenantResolver;
@@ -109,6 +145,8 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
         this.publisher = publisher;
         this.beanFactory = beanFactory;
         this.lockService = lockService;
+        this.jobClassProperties = jobClassProperties;
+        this.meterRegistry = meterRegistry;
     }
 
     private static void printStackTrace(JobStatusInfo statusInfo, Exception e) {
@@ -123,6 +161,7 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
     @Override
     public void destroy() {
         subscriber.unsubscribeFrom(StopJobEvent.class, false);
+        subscriber.unsubscribeFrom(JobQueuedEvent.class, false);
         LOGGER.info("Shutting down job thread pool...");
         // Avoid pulling new jobs
         canManage = false;
@@ -130,17 +169,54 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
     }
 
     /**
-     * Thread pool is built at postConstruct pĥase to have poolSize filled BUT before manage is called by JobInitializer
+     * Thread pools are built at postConstruct pĥase to have poolSize filled BUT before manage is called by
+     * JobInitializer
      */
     @Override
     public void afterPropertiesSet() {
-        threadPool = new JobThreadPoolExecutor(poolSize, jobInfoService, jobsMap, runtimeTenantResolver, publisher);
+        List<JobPool> newPools = new ArrayList<>();
+        Set<String> declaredJobTypes = new HashSet<>();
+        for (Map.Entry<String, JobClassProperties.JobClass> jobClass : jobClassProperties.getClasses().entrySet()) {
+            for (String jobType : jobClass.getValue().getJobTypes()) {
+                if (!declaredJobTypes.add(jobType)) {
+                    throw new IllegalStateException(String.format("Job type %s is declared in several job classes",
+                                                                  jobType));
+                }
+            }
+            if (!jobClass.getValue().getJobTypes().isEmpty()) {
+                newPools.add(createPool(jobClass.getKey(), jobClass.getValue(), Set.of()));
+            }
+        }
+        // Default pool executes all job types not declared by a job class
+        JobClassProperties.JobClass defaultJobClass = new JobClassProperties.JobClass();
+        defaultJobClass.setPoolSize(poolSize);
+        newPools.add(0, createPool(JobPool.DEFAULT_JOB_CLASS, defaultJobClass, declaredJobTypes));
+        pools = List.copyOf(newPools);
+    }
+
+    private JobPool createPool(String name, JobClassProperties.JobClass jobClass, Set<String> excludedJobTypes) {
+        LOGGER.info("Creating job pool {} of {} threads", name, jobClass.getPoolSize());
+        JobPoolMetrics metrics = new JobPoolMetrics(meterRegistry.getIfAvailable(), name);
+        return new JobPool(name,
+                           jobClass,
+                           excludedJobTypes,
+                           metrics,
+                           jobTerminatedListener -> new JobThreadPoolExecutor(name,
+                                                                              jobClass.getPoolSize(),
+                                                                              jobInfoService,
+                                                                              jobsMap,
+                                                                              runtimeTenantResolver,
+                                                                              publisher,
+                                                                              metrics,
+                                                                              jobTerminatedListener),
+                           this::wakeUp);
     }
 
     @Override
     @EventListener
     public void onApplicationEvent(ApplicationReadyEvent event) {
         subscriber.subscribeTo(StopJobEvent.class, new StopJobHandler(this, runtimeTenantResolver));
+        subscriber.subscribeTo(JobQueuedEvent.class, new JobQueuedHandler(this));
     }
 
     /**
@@ -150,57 +226,59 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
     @Override
     @Async
     public Future<Void> manage() {
+        long idleDelay = MIN_IDLE_DELAY;
         // To avoid starvation, loop on each tenant before executing jobs
         while (canManage) {
             boolean noJobAtAll = true;
+            boolean noFreeSlot = true;
             try {
-                if (!threadPool.isShutdown()) {
-                    for (String tenant : tenantResolver.getAllActiveTenants()) {
-                        try {
-                            if (!MaintenanceManager.getMaintenance(tenant)) {
-                                runtimeTenantResolver.forceTenant(tenant);
-                                // Wait for availability of pool if it is overbooked
-                                while (threadPool.getActiveCount() >= threadPool.getMaximumPoolSize()) {
-                                    Thread.sleep(scanDelay);
-                                }
-                                // Find highest priority job to execute
-                                JobInfo jobInfo = jobInfoService.findHighestPriorityQueuedJobAndSetAsToBeRun();
-                                if (jobInfo != null) {
-                                    LOGGER.debug("Job found {}", jobInfo.getId());
-                                    noJobAtAll = false;
-                                    jobInfo.setTenant(tenant);
-                                    this.execute(jobInfo);
-                                } else {
-                                    LOGGER.debug("No job to run yet");
-                                }
-                            } else {
-                                LOGGER.warn("Jobs are currently disabled for tenant {} cause maintenance mode is "
-                                            + "activated.", tenant);
+                List<String> tenants = new ArrayList<>(tenantResolver.getAllActiveTenants());
+                // Change the first served tenant at each round, it may be the only one served when few slots are free
+                if (!tenants.isEmpty()) {
+                    Collections.rotate(tenants, round++ % tenants.size());
+                }
+                for (JobPool pool : pools) {
+                    int freeSlots = pool.getFreeSlots();
+                    if ((freeSlots > 0) && !pool.isShutdown()) {
+                        noFreeSlot = false;
+                        // Share free slots of the pool between tenants according to their weight
+                        for (String tenant : tenants) {
+                            int count = Math.min(pool.getFreeSlots(),
+                                                 pool.getTenantShare(tenant, tenants, freeSlots));
+                            if ((count > 0) && scheduleJobs(pool, tenant, count)) {
+                                noJobAtAll = false;
                             }
-                        } catch (Exception e) {
-                            // If an exception occurs (any kind of error), continue with other tenants.
-                            // If all tenants are in error, then the number of jobs to run is 0 and a sleep time
-                            // will be performed to avoid infinite loop with only errors.
-                            LOGGER.error(String.format("Error trying to schedule jobs for tenant %s.", tenant), e);
                         }
                     }
                 }
-                if (noJobAtAll) {
-                    // No job to execute on any tenants, take a rest
-                    Thread.sleep(1000);
+                if (noFreeSlot) {
+                    // Wait for availability of pools as they are all overbooked
+                    waitForWakeUp(scanDelay);
+                } else if (noJobAtAll) {
+                    // No job to execute on any tenants, take a rest until jobs are queued, polling database with
+                    // an increasing delay in case a wake-up signal has been missed
+                    if (waitForWakeUp(idleDelay)) {
+                        idleDelay = MIN_IDLE_DELAY;
+                    } else {
+                        idleDelay = Math.min(idleDelay * 2, maxIdleDelay);
+                    }
+                } else {
+                    idleDelay = MIN_IDLE_DELAY;
                 }
             } catch (InterruptedException e) {
                 LOGGER.error("Thread sleep has been interrupted, looks like it's the beginning "
                              + "of the end, pray for your soul", e);
+                Thread.currentThread().interrupt();
                 break;
             } catch (Exception e) {
                 LOGGER.warn("Unexpected error occurred on service poller, ignoring error.", e);
                 try {
                     // Wait a little bit before trying again
-                    Thread.sleep(1000);
+                    Thread.sleep(MIN_IDLE_DELAY);
                 } catch (InterruptedException ie) {
                     LOGGER.error("Thread sleep has been interrupted, looks like it's the beginning "
                                  + "of the end, pray for your soul", ie);
+                    Thread.currentThread().interrupt();
                     break;
                 }
             }
@@ -209,14 +287,77 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
         return new AsyncResult<>(null);
     }
 
+    /**
+     * Find highest priority jobs of given pool class for given tenant and execute them
+     *
+     * @return true if at least one job has been found
+     */
+    private boolean scheduleJobs(JobPool pool, String tenant, int count) {
+        try {
+            if (!MaintenanceManager.getMaintenance(tenant)) {
+                runtimeTenantResolver.forceTenant(tenant);
+                List<JobInfo> jobInfos = jobInfoService.findHighestPriorityQueuedJobsAndSetAsToBeRun(count,
+                                                                                                     pool.getJobTypes(),
+                                                                                                     pool.getExcludedJobTypes());
+                if (!jobInfos.isEmpty()) {
+                    LOGGER.debug("{} jobs found for job class {}", jobInfos.size(), pool.getName());
+                    for (JobInfo jobInfo : jobInfos) {
+                        jobInfo.setTenant(tenant);
+                        this.execute(jobInfo);
+                    }
+                    return true;
+                }
+                LOGGER.debug("No job to run yet");
+            } else {
+                LOGGER.warn("Jobs are currently disabled for tenant {} cause maintenance mode is activated.", tenant);
+            }
+        } catch (Exception e) {
+            // If an exception occurs (any kind of error), continue with other tenants.
+            // If all tenants are in error, then the number of jobs to run is 0 and a sleep time
+            // will be performed to avoid infinite loop with only errors.
+            LOGGER.error(String.format("Error trying to schedule jobs for tenant %s.", tenant), e);
+        }
+        return false;
+    }
+
+    /**
+     * Wake up {@link #manage()} if it is waiting for queued jobs or for a free slot in pool
+     */
+    public void wakeUp() {
+        if (wakeUpSignal.availablePermits() == 0) {
+            wakeUpSignal.release();
+        }
+    }
+
+    /**
+     * Wait for a wake-up signal at most the given delay
+     *
+     * @return true if a signal has been received, false if delay expired
+     */
+    private boolean waitForWakeUp(long delay) throws InterruptedException {
+        boolean signaled = wakeUpSignal.tryAcquire(delay, TimeUnit.MILLISECONDS);
+        wakeUpSignal.drainPermits();
+        return signaled;
+    }
+
+    /**
+     * @return pool executing jobs of given type
+     */
+    private JobPool getPool(String jobType) {
+        return pools.stream()
+                    .filter(pool -> pool.accepts(jobType))
+                    .findFirst()
+                    .orElseThrow(() -> new RejectedExecutionException("No job pool is running"));
+    }
+
     /**
      * Periodicaly update all percent completed and estimated completion date of running jobs
      */
     @Scheduled(fixedDelayString = "${regards.jobs.completion.update.rate.ms:1000}")
     @Override
     public void updateCurrentJobsCompletions() {
-        // Retrieve all jobInfos of which completion has changed
-        Set<JobInfo> toUpdateJobInfos = Sets.filter(jobsMap.keySet(), j -> j.getStatus().hasCompletionChanged());
+        // Retrieve all jobInfos of which completion has changed enough since last update
+        List<JobInfo> toUpdateJobInfos = jobsMap.pollCompletionsToPersist(completionUpdateThreshold);
         if (!toUpdateJobInfos.isEmpty()) {
             // Create a multimap { tenant, (jobInfos) }
             HashMultimap<String, JobInfo> tenantJobInfoMultimap = HashMultimap.create();
@@ -229,8 +370,28 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
                 // Direct Update concerned properties into Database without changing anything else
                 jobInfoService.updateJobInfosCompletion(entry.getValue());
             }
-            // Clear completion status
-            toUpdateJobInfos.forEach(j -> j.getStatus().clearCompletionChanged());
+        }
+    }
+
+    /**
+     * Periodically update, for each pool, the number of its jobs queued in database on all tenants
+     */
+    @Scheduled(fixedDelayString = "${regards.jobs.metrics.queued.update.rate.ms:10000}")
+    @Override
+    public void updateQueuedJobsMetrics() {
+        for (JobPool pool : pools) {
+            if (pool.getMetrics().isEnabled()) {
+                long queuedJobs = 0;
+                for (String tenant : tenantResolver.getAllActiveTenants()) {
+                    try {
+                        runtimeTenantResolver.forceTenant(tenant);
+                        queuedJobs += jobInfoService.countQueuedJobs(pool.getJobTypes(), pool.getExcludedJobTypes());
+                    } catch (Exception e) {
+                        LOGGER.error(String.format("Error counting queued jobs for tenant %s.", tenant), e);
+                    }
+                }
+                pool.getMetrics().setQueuedJobs(queuedJobs);
+            }
         }
     }
 
@@ -262,7 +423,6 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
         return this.execute(jobInfo);
     }
 
-    @SuppressWarnings("unchecked")
     public RunnableFuture<Void> execute(JobInfo jobInfo) {
         RunnableFuture<Void> future = null;
         if (jobsMap.containsKey(jobInfo)) {
@@ -303,7 +463,7 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
             }
             jobInfo.setJob(job);
             // Run job (before executing Job, JobThreadPoolExecutor save JobInfo, have a look if you don't believe me)
-            future = (RunnableFuture<Void>) threadPool.submit(job);
+            future = getPool(jobInfo.getClassName()).submit(job);
             // Initiate first heart beat of job
             jobInfo.setLastHeartbeatDate(OffsetDateTime.now());
             jobsMap.put(jobInfo, future);
@@ -339,18 +499,23 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
     }
 
     private void stopThreadPool() {
-        List<Runnable> runnableTasks = threadPool.shutdownNow();
-        if (!runnableTasks.isEmpty()) {
-            LOGGER.info("Waiting 60s max for {} jobs to be terminated...", runnableTasks.size());
-            try {
-                if (!threadPool.awaitTermination(60, TimeUnit.SECONDS)) {
-                    LOGGER.error("Terminating job thread pool executor. Jobs were not finished with 1min timeout");
+        List<JobPool> stoppedPools = pools;
+        pools = List.of();
+        for (JobPool pool : stoppedPools) {
+            List<Runnable> runnableTasks = pool.shutdownNow();
+            if (!runnableTasks.isEmpty()) {
+                LOGGER.info("Waiting 60s max for {} jobs of job class {} to be terminated...",
+                            runnableTasks.size(),
+                            pool.getName());
+                try {
+                    if (!pool.awaitTermination(60, TimeUnit.SECONDS)) {
+                        LOGGER.error("Terminating job thread pool executor. Jobs were not finished with 1min timeout");
+                    }
+                } catch (InterruptedException e) {
+                    LOGGER.warn("Waiting task interrupted");
                 }
-            } catch (InterruptedException e) {
-                LOGGER.warn("Waiting task interrupted");
             }
         }
-        threadPool = null;
     }
 
     /**
@@ -464,4 +629,12 @@ public class JobService implements IJobService, InitializingBean, DisposableBean
         }
     }
 
+    private record JobQueuedHandler(JobService jobService) implements IHandler<JobQueuedEvent> {
+
+        @Override
+        public void handle(String tenant, JobQueuedEvent event) {
+            jobService.wakeUp();
+        }
+    }
+
 }
@@ -18,10 +18,10 @@
  */
 package fr.cnes.regards.framework.modules.jobs.service;
 
-import com.google.common.collect.BiMap;
 import fr.cnes.regards.framework.amqp.IPublisher;
 import fr.cnes.regards.framework.module.log.CorrelationIdUtils;
 import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.framework.modules.jobs.domain.JobParameter;
 import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
 import fr.cnes.regards.framework.modules.jobs.domain.event.JobEvent;
 import fr.cnes.regards.framework.modules.jobs.domain.event.JobEventType;
@@ -33,6 +33,8 @@ import org.springframework.util.FileSystemUtils;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -58,9 +60,13 @@ public class JobThreadPoolExecutor extends ThreadPoolExecutor {
         private final String namePrefix;
 
         private DefaultJobThreadFactory() {
+            this(String.valueOf(poolNumber.getAndIncrement()));
+        }
+
+        private DefaultJobThreadFactory(String poolName) {
             SecurityManager s = System.getSecurityManager();
             group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
-            namePrefix = "job-pool-" + poolNumber.getAndIncrement() + "-thread-";
+            namePrefix = "job-pool-" + poolName + "-thread-";
         }
 
         @Override
@@ -87,26 +93,84 @@ public class JobThreadPoolExecutor extends ThreadPoolExecutor {
 
     private final IRuntimeTenantResolver runtimeTenantResolver;
 
-    private final BiMap<JobInfo, RunnableFuture<Void>> jobsMap;
+    private final JobRegistry jobsMap;
 
     private final IPublisher publisher;
 
     private final Executor singleThreadExecutor = Executors.newSingleThreadExecutor();
 
+    /**
+     * Called each time a job is terminated, i.e. a slot of the pool is released
+     */
+    private final Runnable jobTerminatedListener;
+
+    private final JobPoolMetrics metrics;
+
     public JobThreadPoolExecutor(int poolSize,
                                  IJobInfoService jobInfoService,
-                                 BiMap<JobInfo, RunnableFuture<Void>> jobsMap,
+                                 JobRegistry jobsMap,
                                  IRuntimeTenantResolver runtimeTenantResolver,
                                  IPublisher publisher) {
-        super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), THREAD_FACTORY);
+        this(poolSize, jobInfoService, jobsMap, runtimeTenantResolver, publisher, () -> {
+        });
+    }
+
+    public JobThreadPoolExecutor(int poolSize,
+                                 IJobInfoService jobInfoService,
+                                 JobRegistry jobsMap,
+                                 IRuntimeTenantResolver runtimeTenantResolver,
+                                 IPublisher publisher,
+                                 Runnable jobTerminatedListener) {
+        this(THREAD_FACTORY,
+             poolSize,
+             jobInfoService,
+             jobsMap,
+             runtimeTenantResolver,
+             publisher,
+             JobPoolMetrics.NONE,
+             jobTerminatedListener);
+    }
+
+    /**
+     * Create the executor of a job class, its threads are named after the job class
+     */
+    public JobThreadPoolExecutor(String jobClass,
+                                 int poolSize,
+                                 IJobInfoService jobInfoService,
+                                 JobRegistry jobsMap,
+                                 IRuntimeTenantResolver runtimeTenantResolver,
+                                 IPublisher publisher,
+                                 JobPoolMetrics metrics,
+                                 Runnable jobTerminatedListener) {
+        this(new DefaultJobThreadFactory(jobClass),
+             poolSize,
+             jobInfoService,
+             jobsMap,
+             runtimeTenantResolver,
+             publisher,
+             metrics,
+             jobTerminatedListener);
+    }
+
+    private JobThreadPoolExecutor(ThreadFactory threadFactory,
+                                  int poolSize,
+                                  IJobInfoService jobInfoService,
+                                  JobRegistry jobsMap,
+                                  IRuntimeTenantResolver runtimeTenantResolver,
+                                  IPublisher publisher,
+                                  JobPoolMetrics metrics,
+                                  Runnable jobTerminatedListener) {
+        super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
         this.jobInfoService = jobInfoService;
         this.jobsMap = jobsMap;
         this.runtimeTenantResolver = runtimeTenantResolver;
         this.publisher = publisher;
+        this.metrics = metrics;
+        this.jobTerminatedListener = jobTerminatedListener;
     }
 
     private JobInfo getJobInfo(Runnable r) {
-        JobInfo jobInfo = jobsMap.inverse().get(r);
+        JobInfo jobInfo = jobsMap.getJobInfo(r);
         int loop = 0;
         while ((jobInfo == null) && (loop < 10)) {
             try {
@@ -115,7 +179,7 @@ public class JobThreadPoolExecutor extends ThreadPoolExecutor {
                 LOGGER.error(e.getMessage(), e);
             }
             loop++;
-            jobInfo = jobsMap.inverse().get(r);
+            jobInfo = jobsMap.getJobInfo(r);
         }
         if (jobInfo == null) {
             LOGGER.error("Error getting job from existing runnable tasks.");
@@ -129,9 +193,10 @@ public class JobThreadPoolExecutor extends ThreadPoolExecutor {
         // In case jobsMap is not yet available (this means afterExecute has been called very very early)
         // because of jobsMap.put(jobInfo, threadPool.submit(...))
         while (jobInfo == null) {
-            jobInfo = jobsMap.inverse().get(r);
+            jobInfo = jobsMap.getJobInfo(r);
         }
         runtimeTenantResolver.forceTenant(jobInfo.getTenant());
+        metrics.recordWait(jobInfo);
         jobInfo.updateStatus(JobStatus.RUNNING);
         jobInfo.setLastHeartbeatDate(OffsetDateTime.now());
         jobInfoService.save(jobInfo);
@@ -142,14 +207,32 @@ public class JobThreadPoolExecutor extends ThreadPoolExecutor {
     @Override
     protected void afterExecute(Runnable r, Throwable t) {
         super.afterExecute(r, t);
+        try {
+            handleJobTermination(r, t);
+        } finally {
+            // Always release the pool slot, even if job info cannot be retrieved or persisting its status fails,
+            // otherwise submitted jobs are never decremented and the pool stops accepting jobs.
+            jobTerminatedListener.run();
+        }
+    }
+
+    private void handleJobTermination(Runnable r, Throwable t) {
         JobInfo jobInfo = getJobInfo(r);
 
         if (jobInfo == null) {
             LOGGER.error("Cannot retrieve job info", t);
             return;
         }
+        metrics.recordExecution(jobInfo);
 
         runtimeTenantResolver.forceTenant(jobInfo.getTenant());
+        // Saving job info replaces its persisted parameters, so keep the ones changed by the job
+        Map<String, JobParameter> updatedParameters = jobInfo.getJob().getUpdatedParameters();
+        if (!updatedParameters.isEmpty()) {
+            Map<String, JobParameter> parameters = jobInfo.getParametersAsMap();
+            parameters.putAll(updatedParameters);
+            jobInfo.setParameters(new HashSet<>(parameters.values()));
+        }
         // FutureTask, employed by ThreadPoolExecutor, are unable to manage thrown exceptions.
         // We must handle them explicitly.
         if ((t == null) && (r instanceof Future<?>)) {
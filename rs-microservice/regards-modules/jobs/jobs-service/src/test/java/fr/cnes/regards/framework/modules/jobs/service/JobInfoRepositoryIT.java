@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jobs.service;
+
+import fr.cnes.regards.framework.jpa.multitenant.properties.MultitenantDaoProperties;
+import fr.cnes.regards.framework.modules.jobs.dao.IJobInfoRepository;
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
+import fr.cnes.regards.framework.modules.jobs.test.JobTestConfiguration;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Test of the set-based updates of running jobs by {@link IJobInfoRepository}
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { JobTestConfiguration.class })
+@ActiveProfiles({ "test", "noscheduler" })
+public class JobInfoRepositoryIT {
+
+    @Autowired
+    private IJobInfoRepository jobInfoRepo;
+
+    @Autowired
+    private IRuntimeTenantResolver tenantResolver;
+
+    @Autowired
+    @Qualifier(MultitenantDaoProperties.MULTITENANT_TRANSACTION_MANAGER)
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Before
+    public void setUp() {
+        tenantResolver.forceTenant(JobServiceIT.TENANT);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jobInfoRepo.deleteAll();
+    }
+
+    private JobInfo createJobInfo(JobStatus status) {
+        JobInfo jobInfo = new JobInfo(false, 0, new HashSet<>(), "owner", "class");
+        jobInfo.updateStatus(status);
+        return jobInfoRepo.save(jobInfo);
+    }
+
+    @Test
+    public void test_update_completions() {
+        // Given running jobs with or without estimated completion, and a job that is not running anymore
+        JobInfo estimatedJob = createJobInfo(JobStatus.RUNNING);
+        JobInfo notEstimatedJob = createJobInfo(JobStatus.RUNNING);
+        JobInfo succeededJob = createJobInfo(JobStatus.SUCCEEDED);
+        int succeededPercent = succeededJob.getStatus().getPercentCompleted();
+        // Date in another offset than UTC, with nanoseconds
+        OffsetDateTime estimatedCompletion = OffsetDateTime.of(2030, 1, 1, 10, 15, 30, 123456789, ZoneOffset.ofHours(2));
+        estimatedJob.getStatus().setPercentCompleted(40);
+        estimatedJob.getStatus().setEstimatedCompletion(estimatedCompletion);
+        notEstimatedJob.getStatus().setPercentCompleted(75);
+        notEstimatedJob.getStatus().setEstimatedCompletion(null);
+        succeededJob.getStatus().setPercentCompleted(20);
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> jobInfoRepo.updateCompletions(List.of(estimatedJob,
+                                                                                                 notEstimatedJob,
+                                                                                                 succeededJob)));
+
+        // Then completion of all running jobs is persisted with a single statement
+        JobInfo estimatedJobFromDb = jobInfoRepo.findById(estimatedJob.getId()).orElseThrow();
+        Assert.assertEquals(40, estimatedJobFromDb.getStatus().getPercentCompleted());
+        Assert.assertTrue("Estimated completion should be persisted to the microsecond",
+                          estimatedCompletion.truncatedTo(ChronoUnit.MICROS)
+                                             .isEqual(estimatedJobFromDb.getStatus().getEstimatedCompletion()));
+        JobInfo notEstimatedJobFromDb = jobInfoRepo.findById(notEstimatedJob.getId()).orElseThrow();
+        Assert.assertEquals(75, notEstimatedJobFromDb.getStatus().getPercentCompleted());
+        Assert.assertNull(notEstimatedJobFromDb.getStatus().getEstimatedCompletion());
+        // Jobs not running anymore are left unchanged
+        Assert.assertEquals(succeededPercent,
+                            jobInfoRepo.findById(succeededJob.getId())
+                                       .orElseThrow()
+                                       .getStatus()
+                                       .getPercentCompleted());
+    }
+
+    @Test
+    public void test_update_no_completion() {
+        // Given
+        JobInfo runningJob = createJobInfo(JobStatus.RUNNING);
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> jobInfoRepo.updateCompletions(List.of()));
+
+        // Then
+        Assert.assertEquals(runningJob.getStatus().getPercentCompleted(),
+                            jobInfoRepo.findById(runningJob.getId()).orElseThrow().getStatus().getPercentCompleted());
+    }
+
+    @Test
+    public void test_fail_running_jobs() {
+        // Given
+        JobInfo runningJob = createJobInfo(JobStatus.RUNNING);
+        JobInfo otherRunningJob = createJobInfo(JobStatus.RUNNING);
+        JobInfo succeededJob = createJobInfo(JobStatus.SUCCEEDED);
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> jobInfoRepo.failRunningJobs(List.of(runningJob.getId(),
+                                                                                               succeededJob.getId()),
+                                                                                       "dead"));
+
+        // Then only given jobs still running are failed
+        JobInfo failedJob = jobInfoRepo.findById(runningJob.getId()).orElseThrow();
+        Assert.assertEquals(JobStatus.FAILED, failedJob.getStatus().getStatus());
+        Assert.assertEquals("dead", failedJob.getStatus().getStackTrace());
+        Assert.assertNotNull(failedJob.getStatus().getStopDate());
+        Assert.assertEquals(JobStatus.RUNNING,
+                            jobInfoRepo.findById(otherRunningJob.getId()).orElseThrow().getStatus().getStatus());
+        Assert.assertEquals(JobStatus.SUCCEEDED,
+                            jobInfoRepo.findById(succeededJob.getId()).orElseThrow().getStatus().getStatus());
+    }
+}
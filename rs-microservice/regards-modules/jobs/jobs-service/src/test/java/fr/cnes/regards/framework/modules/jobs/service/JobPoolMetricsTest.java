@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jobs.service;
+
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+public class JobPoolMetricsTest {
+
+    private static final String JOB_CLASS = "fr.cnes.regards.IoJob";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void test_queued_jobs_gauge() {
+        // Given
+        JobPoolMetrics metrics = new JobPoolMetrics(registry, JOB_CLASS);
+
+        // When
+        metrics.setQueuedJobs(42);
+
+        // Then
+        Assert.assertEquals(42,
+                            registry.get("regards.jobs.pool.queued").tag("job_class", JOB_CLASS).gauge().value(),
+                            0);
+    }
+
+    @Test
+    public void test_wait_from_queued_date() {
+        // Given a job queued one minute ago and claimed just now
+        JobPoolMetrics metrics = new JobPoolMetrics(registry, JOB_CLASS);
+        JobInfo jobInfo = new JobInfo(false, 0, null, null, JOB_CLASS);
+        jobInfo.updateStatus(JobStatus.QUEUED);
+        jobInfo.getStatus().setQueuedDate(OffsetDateTime.now().minusMinutes(1));
+        jobInfo.updateStatus(JobStatus.TO_BE_RUN);
+
+        // When
+        metrics.recordWait(jobInfo);
+
+        // Then
+        Timer waitTimer = registry.get("regards.jobs.pool.wait").tag("job_class", JOB_CLASS).timer();
+        Assert.assertEquals(1, waitTimer.count());
+        Assert.assertTrue(waitTimer.totalTime(TimeUnit.SECONDS) >= 60);
+    }
+
+    @Test
+    public void test_disabled_metrics() {
+        Assert.assertFalse(JobPoolMetrics.NONE.isEnabled());
+        // Recording on disabled metrics must not fail
+        JobPoolMetrics.NONE.setQueuedJobs(1);
+        JobPoolMetrics.NONE.recordWait(new JobInfo(false, 0, null, null, JOB_CLASS));
+    }
+}
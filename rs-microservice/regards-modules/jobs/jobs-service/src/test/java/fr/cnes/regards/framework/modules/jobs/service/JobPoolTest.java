@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jobs.service;
+
+import fr.cnes.regards.framework.modules.jobs.service.JobClassProperties.JobClass;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class JobPoolTest {
+
+    private static final String IO_JOB = "fr.cnes.regards.IoJob";
+
+    private static final String CPU_JOB = "fr.cnes.regards.CpuJob";
+
+    private JobPool pool;
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static JobPool createPool(String name, JobClass jobClass, Set<String> excludedJobTypes) {
+        return new JobPool(name,
+                           jobClass,
+                           excludedJobTypes,
+                           JobPoolMetrics.NONE,
+                           listener -> new ThreadPoolExecutor(1,
+                                                              1,
+                                                              0L,
+                                                              TimeUnit.MILLISECONDS,
+                                                              new LinkedBlockingQueue<>()),
+                           () -> {
+                           });
+    }
+
+    @Test
+    public void test_accepts() {
+        JobClass ioClass = new JobClass();
+        ioClass.setJobTypes(Set.of(IO_JOB));
+        pool = createPool("io", ioClass, Set.of());
+        Assertions.assertTrue(pool.accepts(IO_JOB));
+        Assertions.assertFalse(pool.accepts(CPU_JOB));
+        pool.shutdownNow();
+
+        pool = createPool(JobPool.DEFAULT_JOB_CLASS, new JobClass(), Set.of(IO_JOB));
+        Assertions.assertFalse(pool.accepts(IO_JOB));
+        Assertions.assertTrue(pool.accepts(CPU_JOB));
+    }
+
+    @Test
+    public void test_weighted_tenant_share() {
+        JobClass jobClass = new JobClass();
+        jobClass.setPoolSize(8);
+        jobClass.setTenantWeights(Map.of("tenant1", 3, "paused", 0));
+        pool = createPool("io", jobClass, Set.of());
+        List<String> tenants = List.of("tenant1", "tenant2", "paused");
+
+        Assertions.assertEquals(8, pool.getFreeSlots());
+        Assertions.assertEquals(6, pool.getTenantShare("tenant1", tenants, 8));
+        Assertions.assertEquals(2, pool.getTenantShare("tenant2", tenants, 8));
+        Assertions.assertEquals(0, pool.getTenantShare("paused", tenants, 8));
+        // A tenant with a positive weight always gets at least one slot
+        Assertions.assertEquals(1, pool.getTenantShare("tenant2", tenants, 1));
+    }
+}
@@ -33,6 +33,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.HashSet;
+import java.util.List;
 
 /**
  * Test of Jobs priority
@@ -92,4 +93,37 @@ public class JobPriorityIT {
         Assertions.assertEquals(lowPriority.getId(), job.getId());
     }
 
+    /**
+     * Test that highest priority jobs are claimed together, up to the requested count
+     */
+    @Test
+    public void test_claim_jobs_by_priority() {
+        // Given
+        JobInfo highPriority = new JobInfo(false, 100, new HashSet<>(), "owner", TotoJob.class.getName());
+        highPriority.updateStatus(JobStatus.QUEUED);
+        highPriority = jobInfoRepos.save(highPriority);
+
+        JobInfo lowPriority = new JobInfo(false, 10, new HashSet<>(), "owner", TotoJob.class.getName());
+        lowPriority.updateStatus(JobStatus.QUEUED);
+        lowPriority = jobInfoRepos.save(lowPriority);
+
+        JobInfo mediumPriority = new JobInfo(false, 50, new HashSet<>(), "owner", TotoJob.class.getName());
+        mediumPriority.updateStatus(JobStatus.QUEUED);
+        mediumPriority = jobInfoRepos.save(mediumPriority);
+
+        // When
+        List<JobInfo> jobs = jobInfoService.findHighestPriorityQueuedJobsAndSetAsToBeRun(2);
+
+        // Then
+        Assertions.assertEquals(List.of(highPriority.getId(), mediumPriority.getId()),
+                                jobs.stream().map(JobInfo::getId).toList());
+        Assertions.assertTrue(jobs.stream().allMatch(job -> job.getStatus().getStatus() == JobStatus.TO_BE_RUN));
+
+        // When
+        jobs = jobInfoService.findHighestPriorityQueuedJobsAndSetAsToBeRun(2);
+
+        // Then
+        Assertions.assertEquals(List.of(lowPriority.getId()), jobs.stream().map(JobInfo::getId).toList());
+    }
+
 }
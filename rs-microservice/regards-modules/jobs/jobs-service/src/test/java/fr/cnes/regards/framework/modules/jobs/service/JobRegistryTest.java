@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jobs.service;
+
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Test for the selection of job completions to persist by {@link JobRegistry}
+ */
+public class JobRegistryTest {
+
+    private static final int THRESHOLD = 10;
+
+    private JobRegistry registry;
+
+    @Before
+    public void init() {
+        registry = new JobRegistry();
+    }
+
+    private JobInfo registerRunningJob() {
+        JobInfo jobInfo = new JobInfo(false, 0, new HashSet<>(), "owner", "class");
+        jobInfo.setId(UUID.randomUUID());
+        jobInfo.updateStatus(JobStatus.RUNNING);
+        registry.put(jobInfo, new FutureTask<>(() -> {
+        }, null));
+        return jobInfo;
+    }
+
+    private static void advanceCompletion(JobInfo jobInfo, int percentCompleted) {
+        // As notified by a job to the status of its job info
+        jobInfo.getStatus().update(null, percentCompleted);
+    }
+
+    @Test
+    public void test_poll_changed_completions_only() {
+        // Given
+        JobInfo changedJob = registerRunningJob();
+        registerRunningJob();
+        advanceCompletion(changedJob, 5);
+
+        // When
+        List<JobInfo> toPersist = registry.pollCompletionsToPersist(THRESHOLD);
+
+        // Then the first completion of a job is persisted even under the threshold, and only once
+        Assertions.assertEquals(List.of(changedJob), toPersist);
+        Assertions.assertTrue(registry.pollCompletionsToPersist(THRESHOLD).isEmpty());
+    }
+
+    @Test
+    public void test_poll_completions_changed_by_threshold() {
+        // Given
+        JobInfo jobInfo = registerRunningJob();
+        advanceCompletion(jobInfo, 10);
+        Assertions.assertEquals(List.of(jobInfo), registry.pollCompletionsToPersist(THRESHOLD));
+
+        // When completion changes less than the threshold since the last persisted completion
+        advanceCompletion(jobInfo, 15);
+        advanceCompletion(jobInfo, 19);
+
+        // Then
+        Assertions.assertTrue(registry.pollCompletionsToPersist(THRESHOLD).isEmpty());
+        // Changes are compared to the last persisted completion, not to the last polled one
+        advanceCompletion(jobInfo, 20);
+        Assertions.assertEquals(List.of(jobInfo), registry.pollCompletionsToPersist(THRESHOLD));
+        advanceCompletion(jobInfo, 29);
+        Assertions.assertTrue(registry.pollCompletionsToPersist(THRESHOLD).isEmpty());
+    }
+
+    @Test
+    public void test_removed_job_not_polled() {
+        // Given
+        JobInfo jobInfo = registerRunningJob();
+        advanceCompletion(jobInfo, 50);
+        registry.pollCompletionsToPersist(THRESHOLD);
+
+        // When
+        registry.remove(jobInfo);
+        advanceCompletion(jobInfo, 100);
+
+        // Then
+        Assertions.assertTrue(registry.pollCompletionsToPersist(THRESHOLD).isEmpty());
+        Assertions.assertEquals(0, registry.size());
+        // Persisted completion of a removed job is forgotten when it is run again
+        registry.put(jobInfo, new FutureTask<>(() -> {
+        }, null));
+        advanceCompletion(jobInfo, 51);
+        Assertions.assertEquals(List.of(jobInfo), registry.pollCompletionsToPersist(THRESHOLD));
+    }
+}
@@ -1,6 +1,5 @@
 package fr.cnes.regards.framework.modules.jobs.service;
 
-import com.google.common.collect.BiMap;
 import com.google.gson.Gson;
 import fr.cnes.regards.framework.amqp.ISubscriber;
 import fr.cnes.regards.framework.amqp.domain.IHandler;
@@ -31,7 +30,6 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -61,7 +59,7 @@ public class JobServiceIT {
     @Autowired
     private IJobService jobService;
 
-    private BiMap<JobInfo, RunnableFuture<Void>> jobsMap;
+    private JobRegistry jobsMap;
 
     @Autowired
     private IJobInfoService jobInfoService;
@@ -107,7 +105,7 @@ public class JobServiceIT {
             subscriptionsDone = true;
         }
 
-        jobsMap = (BiMap<JobInfo, RunnableFuture<Void>>) ReflectionTestUtils.getField(jobService, "jobsMap");
+        jobsMap = (JobRegistry) ReflectionTestUtils.getField(jobService, "jobsMap");
         jobTestCleaner.startJobManager();
     }
 
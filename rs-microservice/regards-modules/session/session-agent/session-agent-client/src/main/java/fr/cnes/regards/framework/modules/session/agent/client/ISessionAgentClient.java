@@ -55,4 +55,10 @@ public interface ISessionAgentClient {
      * value. The corresponding properties in the session steps will be set to the value provided.
      */
     void stepValue(List<StepProperty> stepProperty);
+
+    /**
+     * Send right now the increments and decrements buffered outside transactions. The ones made in a transaction are
+     * sent when it commits.
+     */
+    void flush();
 }
@@ -22,19 +22,41 @@ import fr.cnes.regards.framework.amqp.IPublisher;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
 import fr.cnes.regards.framework.modules.session.agent.domain.step.StepProperty;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Implementation of {@link ISessionAgentClient}
+ * Implementation of {@link ISessionAgentClient}<br/>
+ * Increments and decrements are not published one by one, they are summed up by step property and published :
+ * <ul>
+ * <li>when the current transaction commits, for the ones made in a transaction,</li>
+ * <li>every <code>regards.session.agent.client.flush.delay.ms</code> or as soon as
+ * <code>regards.session.agent.client.buffer.max.size</code> step properties are buffered, for the others.</li>
+ * </ul>
+ * Values are published immediately, after all increments and decrements buffered before them.
  *
  * @author Iliana Ghazali
  */
 @Service
-public class SessionAgentClient implements ISessionAgentClient {
+public class SessionAgentClient implements ISessionAgentClient, InitializingBean, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionAgentClient.class);
 
     /**
      * Publisher to publish {@link StepPropertyUpdateRequestEvent}
@@ -42,26 +64,59 @@ public class SessionAgentClient implements ISessionAgentClient {
     @Autowired
     private IPublisher publisher;
 
+    @Autowired
+    private IRuntimeTenantResolver runtimeTenantResolver;
+
+    /**
+     * If false, every call publishes its own event
+     */
+    @Value("${regards.session.agent.client.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    @Value("${regards.session.agent.client.flush.delay.ms:1000}")
+    private long flushDelay;
+
+    @Value("${regards.session.agent.client.buffer.max.size:1000}")
+    private int bufferMaxSize;
+
+    /**
+     * Buffers of increments and decrements made outside transactions, by tenant
+     */
+    private final Map<String, StepPropertyDeltaBuffer> buffers = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flushScheduler;
+
+    @Override
+    public void afterPropertiesSet() {
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-agent-client-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::flush, flushDelay, flushDelay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publish all buffered increments and decrements before shutting down
+     */
+    @Override
+    public void destroy() {
+        flushScheduler.shutdown();
+        flush();
+    }
+
     // INCREMENT EVENTS
 
     @Override
     public void increment(StepProperty stepProperty) {
-        // Create new event
-        StepPropertyUpdateRequestEvent stepPropertyEvent = new StepPropertyUpdateRequestEvent(stepProperty,
-                                                                                              StepPropertyEventTypeEnum.INC);
-        // Publish event
-        publisher.publish(stepPropertyEvent);
+        buffer(stepProperty, StepPropertyEventTypeEnum.INC);
     }
 
     // DECREMENT EVENTS
 
     @Override
     public void decrement(StepProperty stepProperty) {
-        // Create new event
-        StepPropertyUpdateRequestEvent stepPropertyEvent = new StepPropertyUpdateRequestEvent(stepProperty,
-                                                                                              StepPropertyEventTypeEnum.DEC);
-        // Publish event
-        publisher.publish(stepPropertyEvent);
+        buffer(stepProperty, StepPropertyEventTypeEnum.DEC);
     }
 
     // VALUE EVENTS
@@ -75,7 +130,12 @@ public class SessionAgentClient implements ISessionAgentClient {
                                                                                                  StepPropertyEventTypeEnum.VALUE)));
 
         // Publish events
-        publisher.publish(stepList);
+        StepPropertyDeltaBuffer buffer = getBuffer();
+        if (buffer == null) {
+            publisher.publish(stepList);
+        } else {
+            publishAfterBuffer(buffer, stepList);
+        }
     }
 
     @Override
@@ -84,6 +144,129 @@ public class SessionAgentClient implements ISessionAgentClient {
         StepPropertyUpdateRequestEvent stepPropertyEvent = new StepPropertyUpdateRequestEvent(stepProperty,
                                                                                               StepPropertyEventTypeEnum.VALUE);
         // Publish event
-        publisher.publish(stepPropertyEvent);
+        StepPropertyDeltaBuffer buffer = getBuffer();
+        if (buffer == null) {
+            publisher.publish(stepPropertyEvent);
+        } else {
+            publishAfterBuffer(buffer, List.of(stepPropertyEvent));
+        }
+    }
+
+    private void buffer(StepProperty stepProperty, StepPropertyEventTypeEnum type) {
+        StepPropertyDeltaBuffer buffer = getBuffer();
+        if (buffer == null) {
+            publisher.publish(new StepPropertyUpdateRequestEvent(stepProperty, type));
+            return;
+        }
+        if (!StepPropertyDeltaBuffer.isCoalescable(stepProperty)) {
+            // Value is not a number, the event cannot be summed up but it must keep its order
+            publishAfterBuffer(buffer, List.of(new StepPropertyUpdateRequestEvent(stepProperty, type)));
+            return;
+        }
+        synchronized (buffer) {
+            if (buffer.add(stepProperty, type) >= bufferMaxSize) {
+                publisher.publish(buffer.drain());
+            }
+        }
+    }
+
+    /**
+     * Publish given events right after the increments and decrements buffered before them
+     */
+    private void publishAfterBuffer(StepPropertyDeltaBuffer buffer, List<StepPropertyUpdateRequestEvent> events) {
+        synchronized (buffer) {
+            List<StepPropertyUpdateRequestEvent> toPublish = buffer.drain();
+            toPublish.addAll(events);
+            publisher.publish(toPublish);
+        }
+    }
+
+    /**
+     * @return the buffer bound to the current transaction if any, the buffer of the current tenant otherwise, null
+     * if events must not be buffered
+     */
+    private StepPropertyDeltaBuffer getBuffer() {
+        if (!coalescingEnabled) {
+            return null;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            StepPropertyDeltaBuffer buffer = (StepPropertyDeltaBuffer) TransactionSynchronizationManager.getResource(
+                this);
+            if (buffer == null) {
+                buffer = new StepPropertyDeltaBuffer();
+                TransactionSynchronizationManager.bindResource(this, buffer);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionBufferSynchronization(buffer));
+            }
+            return buffer;
+        }
+        String tenant = runtimeTenantResolver.getTenant();
+        if (tenant == null) {
+            return null;
+        }
+        return buffers.computeIfAbsent(tenant, t -> new StepPropertyDeltaBuffer());
+    }
+
+    @Override
+    public void flush() {
+        // Flush may be called by a thread working on a tenant, restore it afterwards
+        String currentTenant = runtimeTenantResolver.getTenant();
+        buffers.forEach((tenant, buffer) -> {
+            try {
+                runtimeTenantResolver.forceTenant(tenant);
+                synchronized (buffer) {
+                    if (!buffer.isEmpty()) {
+                        publisher.publish(buffer.drain());
+                    }
+                }
+            } catch (Exception e) {
+                LOGGER.error(String.format("Unable to publish session step events of tenant %s", tenant), e);
+            }
+        });
+        if (currentTenant != null) {
+            runtimeTenantResolver.forceTenant(currentTenant);
+        } else {
+            runtimeTenantResolver.clearTenant();
+        }
+    }
+
+    /**
+     * Publish the buffer of a transaction when it commits.<br/>
+     * The buffer is unbound while its transaction is suspended (i.e. during an inner REQUIRES_NEW transaction), so
+     * that the inner transaction gets its own buffer, published with its own commit.
+     */
+    private class TransactionBufferSynchronization implements TransactionSynchronization {
+
+        private final StepPropertyDeltaBuffer transactionBuffer;
+
+        private TransactionBufferSynchronization(StepPropertyDeltaBuffer transactionBuffer) {
+            this.transactionBuffer = transactionBuffer;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SessionAgentClient.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(SessionAgentClient.this, transactionBuffer);
+        }
+
+        /**
+         * Publish in the transaction so that, as any other event, they are only sent if it commits.
+         */
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            synchronized (transactionBuffer) {
+                if (!transactionBuffer.isEmpty()) {
+                    publisher.publish(transactionBuffer.drain());
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SessionAgentClient.this);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.session.agent.client;
+
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepProperty;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepPropertyInfo;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepPropertyStateEnum;
+import fr.cnes.regards.framework.modules.session.commons.domain.StepTypeEnum;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffer of increments and decrements of session step properties. All deltas of a same step property are summed up
+ * so that a single {@link StepPropertyUpdateRequestEvent} is sent for each of them.<br/>
+ * Not thread safe, callers must synchronize on the buffer.
+ */
+class StepPropertyDeltaBuffer {
+
+    /**
+     * Identifies a step property, i.e. everything but the value of a {@link StepProperty}
+     */
+    private record Key(String source,
+                       String session,
+                       String stepId,
+                       StepTypeEnum stepType,
+                       StepPropertyStateEnum state,
+                       String property,
+                       boolean inputRelated,
+                       boolean outputRelated) {
+
+    }
+
+    private static class Delta {
+
+        private long value;
+
+        private OffsetDateTime date;
+    }
+
+    /**
+     * Deltas by step property, in order of first modification
+     */
+    private final Map<Key, Delta> deltas = new LinkedHashMap<>();
+
+    /**
+     * @return true if the value of given increment or decrement can be summed up with others
+     */
+    static boolean isCoalescable(StepProperty stepProperty) {
+        try {
+            Long.parseLong(stepProperty.getStepPropertyInfo().getValue());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Add given increment or decrement, its value must be {@link #isCoalescable(StepProperty) coalescable}
+     *
+     * @return number of buffered step properties
+     */
+    int add(StepProperty stepProperty, StepPropertyEventTypeEnum type) {
+        StepPropertyInfo info = stepProperty.getStepPropertyInfo();
+        Key key = new Key(stepProperty.getSource(),
+                          stepProperty.getSession(),
+                          stepProperty.getStepId(),
+                          info.getStepType(),
+                          info.getState(),
+                          info.getProperty(),
+                          info.isInputRelated(),
+                          info.isOutputRelated());
+        long value = Long.parseLong(info.getValue());
+        Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+        delta.value += type == StepPropertyEventTypeEnum.DEC ? -value : value;
+        delta.date = OffsetDateTime.now();
+        return deltas.size();
+    }
+
+    boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+
+    /**
+     * Empty the buffer
+     *
+     * @return one event per buffered step property. A null delta is still sent as an increment of 0, so that the
+     * session step is created as it would have been without coalescing.
+     */
+    List<StepPropertyUpdateRequestEvent> drain() {
+        List<StepPropertyUpdateRequestEvent> events = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            StepProperty stepProperty = new StepProperty(key.stepId(),
+                                                         key.source(),
+                                                         key.session(),
+                                                         new StepPropertyInfo(key.stepType(),
+                                                                              key.state(),
+                                                                              key.property(),
+                                                                              String.valueOf(Math.abs(delta.value)),
+                                                                              key.inputRelated(),
+                                                                              key.outputRelated()));
+            StepPropertyUpdateRequestEvent event = new StepPropertyUpdateRequestEvent(stepProperty,
+                                                                                      delta.value < 0 ?
+                                                                                          StepPropertyEventTypeEnum.DEC :
+                                                                                          StepPropertyEventTypeEnum.INC);
+            // Keep the date of the last delta as event date
+            event.setDate(delta.date);
+            events.add(event);
+        });
+        deltas.clear();
+        return events;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.session.agent.client;
+
+import fr.cnes.regards.framework.amqp.IPublisher;
+import fr.cnes.regards.framework.amqp.event.ISubscribable;
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static fr.cnes.regards.framework.modules.session.agent.client.StepPropertyDeltaBufferTest.checkEvent;
+import static fr.cnes.regards.framework.modules.session.agent.client.StepPropertyDeltaBufferTest.stepProperty;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SessionAgentClientTest {
+
+    @InjectMocks
+    private SessionAgentClient sessionAgentClient;
+
+    @Mock
+    private IPublisher publisher;
+
+    @Mock
+    private IRuntimeTenantResolver runtimeTenantResolver;
+
+    private final TransactionTemplate transaction = new TransactionTemplate(new TestTransactionManager());
+
+    private final TransactionTemplate newTransaction = new TransactionTemplate(new TestTransactionManager());
+
+    @Before
+    public void init() {
+        ReflectionTestUtils.setField(sessionAgentClient, "coalescingEnabled", true);
+        ReflectionTestUtils.setField(sessionAgentClient, "bufferMaxSize", 1000);
+        Mockito.lenient().when(runtimeTenantResolver.getTenant()).thenReturn("tenant");
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private List<List<StepPropertyUpdateRequestEvent>> getPublishedBulks(int expectedNbBulks) {
+        ArgumentCaptor<List<StepPropertyUpdateRequestEvent>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(publisher, Mockito.times(expectedNbBulks)).publish(captor.capture());
+        Mockito.verify(publisher, Mockito.never()).publish(Mockito.any(ISubscribable.class));
+        return captor.getAllValues();
+    }
+
+    @Test
+    public void test_buffer_outside_transaction_until_flush() {
+        // When
+        sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+        sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+        sessionAgentClient.decrement(stepProperty("session1", "running", "1"));
+        sessionAgentClient.increment(stepProperty("session1", "stored", "2"));
+
+        // Then
+        Mockito.verifyNoInteractions(publisher);
+        sessionAgentClient.flush();
+        List<List<StepPropertyUpdateRequestEvent>> bulks = getPublishedBulks(1);
+        Assert.assertEquals(2, bulks.get(0).size());
+        checkEvent(bulks.get(0).get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "1");
+        checkEvent(bulks.get(0).get(1), "session1", "stored", StepPropertyEventTypeEnum.INC, "2");
+        // Flush restores tenant of the calling thread
+        Mockito.verify(runtimeTenantResolver, Mockito.atLeastOnce()).forceTenant("tenant");
+    }
+
+    @Test
+    public void test_publish_when_buffer_is_full() {
+        // Given
+        ReflectionTestUtils.setField(sessionAgentClient, "bufferMaxSize", 2);
+
+        // When
+        sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+        sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+        Mockito.verifyNoInteractions(publisher);
+        sessionAgentClient.increment(stepProperty("session2", "running", "1"));
+
+        // Then
+        List<List<StepPropertyUpdateRequestEvent>> bulks = getPublishedBulks(1);
+        Assert.assertEquals(2, bulks.get(0).size());
+        checkEvent(bulks.get(0).get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "2");
+        checkEvent(bulks.get(0).get(1), "session2", "running", StepPropertyEventTypeEnum.INC, "1");
+    }
+
+    @Test
+    public void test_value_and_non_numeric_deltas_keep_order() {
+        // When
+        sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+        sessionAgentClient.stepValue(stepProperty("session1", "state", "RUNNING"));
+        sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+        sessionAgentClient.increment(stepProperty("session1", "label", "abc"));
+
+        // Then deltas buffered before a value or a non numeric delta are published with it, before it
+        List<List<StepPropertyUpdateRequestEvent>> bulks = getPublishedBulks(2);
+        Assert.assertEquals(2, bulks.get(0).size());
+        checkEvent(bulks.get(0).get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "1");
+        checkEvent(bulks.get(0).get(1), "session1", "state", StepPropertyEventTypeEnum.VALUE, "RUNNING");
+        Assert.assertEquals(2, bulks.get(1).size());
+        checkEvent(bulks.get(1).get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "1");
+        checkEvent(bulks.get(1).get(1), "session1", "label", StepPropertyEventTypeEnum.INC, "abc");
+    }
+
+    @Test
+    public void test_no_coalescing() {
+        // Given
+        ReflectionTestUtils.setField(sessionAgentClient, "coalescingEnabled", false);
+
+        // When
+        sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+        sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+
+        // Then
+        Mockito.verify(publisher, Mockito.times(2)).publish(Mockito.any(StepPropertyUpdateRequestEvent.class));
+    }
+
+    @Test
+    public void test_publish_with_transaction_commit() {
+        // When
+        transaction.executeWithoutResult(status -> {
+            sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+            sessionAgentClient.increment(stepProperty("session1", "running", "2"));
+            Mockito.verifyNoInteractions(publisher);
+        });
+
+        // Then
+        List<List<StepPropertyUpdateRequestEvent>> bulks = getPublishedBulks(1);
+        Assert.assertEquals(1, bulks.get(0).size());
+        checkEvent(bulks.get(0).get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "3");
+        Assert.assertFalse(TransactionSynchronizationManager.hasResource(sessionAgentClient));
+    }
+
+    @Test
+    public void test_no_publish_on_transaction_rollback() {
+        // When
+        transaction.executeWithoutResult(status -> {
+            sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+            status.setRollbackOnly();
+        });
+        sessionAgentClient.flush();
+
+        // Then
+        Mockito.verifyNoInteractions(publisher);
+        Assert.assertFalse(TransactionSynchronizationManager.hasResource(sessionAgentClient));
+    }
+
+    @Test
+    public void test_requires_new_transaction_has_its_own_buffer() {
+        // When
+        transaction.executeWithoutResult(status -> {
+            sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+            newTransaction.executeWithoutResult(innerStatus -> sessionAgentClient.increment(stepProperty("session1",
+                                                                                                         "running",
+                                                                                                         "2")));
+            // Inner transaction deltas are published with its own commit
+            Assert.assertEquals(1, getPublishedBulks(1).size());
+            sessionAgentClient.increment(stepProperty("session1", "running", "3"));
+        });
+
+        // Then
+        List<List<StepPropertyUpdateRequestEvent>> bulks = getPublishedBulks(2);
+        checkEvent(bulks.get(0).get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "2");
+        checkEvent(bulks.get(1).get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "4");
+    }
+
+    @Test
+    public void test_requires_new_transaction_survives_outer_rollback() {
+        // When
+        transaction.executeWithoutResult(status -> {
+            sessionAgentClient.increment(stepProperty("session1", "running", "1"));
+            newTransaction.executeWithoutResult(innerStatus -> sessionAgentClient.increment(stepProperty("session1",
+                                                                                                         "running",
+                                                                                                         "2")));
+            status.setRollbackOnly();
+        });
+
+        // Then only inner transaction deltas are published
+        List<List<StepPropertyUpdateRequestEvent>> bulks = getPublishedBulks(1);
+        Assert.assertEquals(1, bulks.get(0).size());
+        checkEvent(bulks.get(0).get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "2");
+    }
+
+    /**
+     * Transaction manager without resource, only handling transaction synchronizations
+     */
+    private static class TestTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return (Boolean) transaction;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            // Nothing to begin
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            return transaction;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            // Nothing to resume
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            // Nothing to commit
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            // Nothing to roll back
+        }
+    }
+}
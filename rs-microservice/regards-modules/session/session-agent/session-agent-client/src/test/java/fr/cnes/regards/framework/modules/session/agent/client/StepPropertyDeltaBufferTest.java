@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.session.agent.client;
+
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepProperty;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepPropertyInfo;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepPropertyStateEnum;
+import fr.cnes.regards.framework.modules.session.commons.domain.StepTypeEnum;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class StepPropertyDeltaBufferTest {
+
+    static StepProperty stepProperty(String session, String property, String value) {
+        return new StepProperty("step",
+                                "source",
+                                session,
+                                new StepPropertyInfo(StepTypeEnum.ACQUISITION,
+                                                     StepPropertyStateEnum.SUCCESS,
+                                                     property,
+                                                     value,
+                                                     false,
+                                                     true));
+    }
+
+    static void checkEvent(StepPropertyUpdateRequestEvent event,
+                           String session,
+                           String property,
+                           StepPropertyEventTypeEnum type,
+                           String value) {
+        Assert.assertEquals(session, event.getStepProperty().getSession());
+        Assert.assertEquals(property, event.getStepProperty().getStepPropertyInfo().getProperty());
+        Assert.assertEquals(type, event.getType());
+        Assert.assertEquals(value, event.getStepProperty().getStepPropertyInfo().getValue());
+    }
+
+    @Test
+    public void test_merge_same_step_property() {
+        // Given
+        StepPropertyDeltaBuffer buffer = new StepPropertyDeltaBuffer();
+
+        // When
+        buffer.add(stepProperty("session1", "running", "3"), StepPropertyEventTypeEnum.INC);
+        buffer.add(stepProperty("session1", "running", "1"), StepPropertyEventTypeEnum.DEC);
+        int size = buffer.add(stepProperty("session1", "running", "2"), StepPropertyEventTypeEnum.INC);
+
+        // Then
+        Assert.assertEquals(1, size);
+        List<StepPropertyUpdateRequestEvent> events = buffer.drain();
+        Assert.assertEquals(1, events.size());
+        checkEvent(events.get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "4");
+    }
+
+    @Test
+    public void test_keep_step_properties_apart_in_order() {
+        // Given
+        StepPropertyDeltaBuffer buffer = new StepPropertyDeltaBuffer();
+
+        // When
+        buffer.add(stepProperty("session1", "running", "1"), StepPropertyEventTypeEnum.INC);
+        buffer.add(stepProperty("session2", "running", "1"), StepPropertyEventTypeEnum.INC);
+        buffer.add(stepProperty("session1", "stored", "5"), StepPropertyEventTypeEnum.INC);
+        int size = buffer.add(stepProperty("session1", "running", "1"), StepPropertyEventTypeEnum.INC);
+
+        // Then events are in order of first modification of each step property
+        Assert.assertEquals(3, size);
+        List<StepPropertyUpdateRequestEvent> events = buffer.drain();
+        Assert.assertEquals(3, events.size());
+        checkEvent(events.get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "2");
+        checkEvent(events.get(1), "session2", "running", StepPropertyEventTypeEnum.INC, "1");
+        checkEvent(events.get(2), "session1", "stored", StepPropertyEventTypeEnum.INC, "5");
+    }
+
+    @Test
+    public void test_negative_and_null_deltas() {
+        // Given
+        StepPropertyDeltaBuffer buffer = new StepPropertyDeltaBuffer();
+
+        // When
+        buffer.add(stepProperty("session1", "running", "1"), StepPropertyEventTypeEnum.INC);
+        buffer.add(stepProperty("session1", "running", "1"), StepPropertyEventTypeEnum.DEC);
+        buffer.add(stepProperty("session1", "errors", "1"), StepPropertyEventTypeEnum.INC);
+        buffer.add(stepProperty("session1", "errors", "4"), StepPropertyEventTypeEnum.DEC);
+
+        // Then a null delta is still sent as an increment of 0, a negative one as a decrement
+        List<StepPropertyUpdateRequestEvent> events = buffer.drain();
+        Assert.assertEquals(2, events.size());
+        checkEvent(events.get(0), "session1", "running", StepPropertyEventTypeEnum.INC, "0");
+        checkEvent(events.get(1), "session1", "errors", StepPropertyEventTypeEnum.DEC, "3");
+    }
+
+    @Test
+    public void test_drain_empties_buffer() {
+        // Given
+        StepPropertyDeltaBuffer buffer = new StepPropertyDeltaBuffer();
+        buffer.add(stepProperty("session1", "running", "1"), StepPropertyEventTypeEnum.INC);
+        Assert.assertFalse(buffer.isEmpty());
+
+        // When
+        buffer.drain();
+
+        // Then
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertTrue(buffer.drain().isEmpty());
+    }
+
+    @Test
+    public void test_coalescable() {
+        Assert.assertTrue(StepPropertyDeltaBuffer.isCoalescable(stepProperty("session1", "running", "12")));
+        Assert.assertTrue(StepPropertyDeltaBuffer.isCoalescable(stepProperty("session1", "running", "-1")));
+        Assert.assertFalse(StepPropertyDeltaBuffer.isCoalescable(stepProperty("session1", "state", "RUNNING")));
+        Assert.assertFalse(StepPropertyDeltaBuffer.isCoalescable(stepProperty("session1", "size", "1.5")));
+    }
+}
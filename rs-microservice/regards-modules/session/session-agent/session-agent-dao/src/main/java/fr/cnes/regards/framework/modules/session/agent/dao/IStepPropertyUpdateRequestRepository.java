@@ -19,15 +19,18 @@
 package fr.cnes.regards.framework.modules.session.agent.dao;
 
 import fr.cnes.regards.framework.modules.session.agent.domain.update.StepPropertyUpdateRequest;
+import fr.cnes.regards.framework.modules.session.commons.domain.SessionStep;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * JPA Repository for {@link StepPropertyUpdateRequest}
@@ -52,6 +55,117 @@ public interface IStepPropertyUpdateRequestRepository extends JpaRepository<Step
 
     long countBySourceAndRegistrationDateBefore(String source, OffsetDateTime lastUpdate);
 
+    /**
+     * Find sources, not already being processed, with step requests registered since their last snapshot and before
+     * the given date. Returned snapshot processes are locked until the end of the transaction.
+     */
+    @Query(value = """
+        SELECT p.source FROM {h-schema}t_snapshot_process p
+        WHERE p.job_id IS NULL AND EXISTS (
+            SELECT 1 FROM {h-schema}t_step_property_update_request r
+            WHERE r.source = p.source
+            AND r.registration_date > COALESCE(p.last_update_date, CAST('-infinity' AS timestamp))
+            AND r.registration_date < :freezeDate)
+        ORDER BY p.source LIMIT :size FOR UPDATE OF p SKIP LOCKED
+        """, nativeQuery = true)
+    List<String> findSourcesToSnapshot(@Param("freezeDate") OffsetDateTime freezeDate, @Param("size") int size);
+
+    @Query("SELECT max(r.registrationDate) FROM StepPropertyUpdateRequest r "
+           + "WHERE r.source = ?1 AND r.registrationDate > ?2 AND r.registrationDate < ?3")
+    Optional<OffsetDateTime> findLastRegistrationDate(String source, OffsetDateTime startDate, OffsetDateTime endDate);
+
+    /**
+     * Aggregate, in one statement, the requests of a partition of the sessions of a source that only increment or
+     * decrement numeric properties. Requests are grouped by step and their sums are added to the existing session
+     * steps, or to new ones. Aggregated requests are linked to their session step.<br/>
+     * Steps with at least one other request (value, non-numeric property) are left to
+     * {@link #findPendingRequests(String, OffsetDateTime, OffsetDateTime, int, int, int)} as their requests must be
+     * applied in order.
+     *
+     * @param partitions number of partitions of the sessions
+     * @param partition  partition to aggregate, from 0 to partitions - 1
+     * @return created or updated session steps
+     */
+    @Query(value = """
+        WITH requests AS (
+            SELECT r.id, r.session, r.step_id, r.step_type, r.state, r.property, r.input_related, r.output_related,
+                   r.creation_date,
+                   CASE WHEN r.value ~ '^[0-9]+$' AND length(r.value) < 19 THEN CAST(r.value AS int8) ELSE 0 END
+                       * CASE WHEN r.type = 'DEC' THEN -1 ELSE 1 END AS delta,
+                   r.type IN ('INC', 'DEC') AND r.value ~ '^[0-9]+$' AND length(r.value) < 19
+                       AND COALESCE(s.properties ->> r.property, '0') ~ '^(-|)[0-9]+$'
+                       AND length(COALESCE(s.properties ->> r.property, '0')) < 19 AS counter
+            FROM {h-schema}t_step_property_update_request r
+            LEFT JOIN {h-schema}t_session_step s
+                ON s.step_id = r.step_id AND s.source = r.source AND s.session = r.session
+            WHERE r.source = :source AND r.registration_date > :startDate AND r.registration_date < :endDate
+            AND r.gen_step_id IS NULL AND (hashtext(r.session) & 2147483647) % :partitions = :partition
+        ), counter_requests AS (
+            SELECT * FROM requests WHERE (session, step_id) IN (
+                SELECT session, step_id FROM requests GROUP BY session, step_id HAVING bool_and(counter))
+        ), step_deltas AS (
+            SELECT session, step_id, min(step_type) AS type,
+                   CAST(sum(CASE WHEN input_related THEN delta ELSE 0 END) AS int8) AS input_related,
+                   CAST(sum(CASE WHEN output_related THEN delta ELSE 0 END) AS int8) AS output_related,
+                   CAST(sum(CASE WHEN state = 'ERROR' THEN delta ELSE 0 END) AS int8) AS errors,
+                   CAST(sum(CASE WHEN state = 'WAITING' THEN delta ELSE 0 END) AS int8) AS waiting,
+                   CAST(sum(CASE WHEN state = 'RUNNING' THEN delta ELSE 0 END) AS int8) AS running,
+                   max(creation_date) AS last_update_date
+            FROM counter_requests GROUP BY session, step_id
+        ), property_deltas AS (
+            SELECT session, step_id, jsonb_object_agg(property, CAST(delta AS text)) AS properties
+            FROM (SELECT session, step_id, property, sum(delta) AS delta
+                  FROM counter_requests GROUP BY session, step_id, property) p
+            GROUP BY session, step_id
+        ), linked_requests AS (
+            UPDATE {h-schema}t_step_property_update_request r
+            SET gen_step_id = r.step_id, gen_source = r.source, gen_session = r.session
+            FROM counter_requests c WHERE r.id = c.id
+        )
+        INSERT INTO {h-schema}t_session_step AS s (step_id, source, session, type, input_related, output_related,
+                                                   errors, waiting, running, properties, last_update_date)
+        SELECT d.step_id, :source, d.session, d.type, d.input_related, d.output_related, d.errors, d.waiting,
+               d.running, p.properties, d.last_update_date
+        FROM step_deltas d JOIN property_deltas p ON p.session = d.session AND p.step_id = d.step_id
+        ON CONFLICT (step_id, source, session) DO UPDATE SET
+            input_related = s.input_related + EXCLUDED.input_related,
+            output_related = s.output_related + EXCLUDED.output_related,
+            errors = s.errors + EXCLUDED.errors,
+            waiting = s.waiting + EXCLUDED.waiting,
+            running = s.running + EXCLUDED.running,
+            properties = s.properties || (
+                SELECT jsonb_object_agg(e.key,
+                                        CAST(CAST(COALESCE(s.properties ->> e.key, '0') AS int8)
+                                             + CAST(e.value AS int8) AS text))
+                FROM jsonb_each_text(EXCLUDED.properties) e),
+            last_update_date = GREATEST(s.last_update_date, EXCLUDED.last_update_date)
+        RETURNING s.*
+        """, nativeQuery = true)
+    List<SessionStep> aggregateCounterRequests(@Param("source") String source,
+                                               @Param("startDate") OffsetDateTime startDate,
+                                               @Param("endDate") OffsetDateTime endDate,
+                                               @Param("partitions") int partitions,
+                                               @Param("partition") int partition);
+
+    /**
+     * Find the first requests of a partition of the sessions of a source, not yet linked to a session step.
+     *
+     * @param partitions number of partitions of the sessions
+     * @param partition  partition to read, from 0 to partitions - 1
+     */
+    @Query(value = """
+        SELECT * FROM {h-schema}t_step_property_update_request r
+        WHERE r.source = :source AND r.registration_date > :startDate AND r.registration_date < :endDate
+        AND r.gen_step_id IS NULL AND (hashtext(r.session) & 2147483647) % :partitions = :partition
+        ORDER BY r.registration_date, r.id LIMIT :size
+        """, nativeQuery = true)
+    List<StepPropertyUpdateRequest> findPendingRequests(@Param("source") String source,
+                                                        @Param("startDate") OffsetDateTime startDate,
+                                                        @Param("endDate") OffsetDateTime endDate,
+                                                        @Param("partitions") int partitions,
+                                                        @Param("partition") int partition,
+                                                        @Param("size") int size);
+
     @Modifying
     @Query(value = "delete from StepPropertyUpdateRequest r where r.sessionStep.stepId = ?1 and r.sessionStep.source = ?2 and r.sessionStep.session = ?3")
     void deleteBySessionStep(String stepId, String source, String session);
@@ -34,6 +34,7 @@ import fr.cnes.regards.framework.modules.session.agent.service.update.AgentSnaps
 import fr.cnes.regards.framework.modules.session.agent.service.update.AgentSnapshotService;
 import fr.cnes.regards.framework.modules.session.commons.dao.ISessionStepRepository;
 import fr.cnes.regards.framework.modules.session.commons.dao.ISnapshotProcessRepository;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.context.annotation.Bean;
@@ -127,15 +128,20 @@ public class SessionAgentServiceAutoConfiguration {
                                                      IStepPropertyUpdateRequestRepository stepPropertyRepo,
                                                      ISnapshotProcessRepository snapshotProcessRepo,
                                                      IPublisher publisher,
+                                                     IRuntimeTenantResolver runtimeTenantResolver,
                                                      AgentSnapshotService service,
                                                      @Value("${regards.session.agent.step.requests.page.size:1000}")
-                                                     int stepPropertyPageSize) {
+                                                     int stepPropertyPageSize,
+                                                     @Value("${regards.session.agent.snapshot.parallelism:1}")
+                                                     int parallelism) {
         return new AgentSnapshotService(sessionStepRepo,
                                         stepPropertyRepo,
                                         snapshotProcessRepo,
                                         publisher,
+                                        runtimeTenantResolver,
                                         service,
-                                        stepPropertyPageSize);
+                                        stepPropertyPageSize,
+                                        parallelism);
     }
 
     @Bean
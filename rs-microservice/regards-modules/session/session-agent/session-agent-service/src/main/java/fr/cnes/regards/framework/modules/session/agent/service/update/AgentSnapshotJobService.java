@@ -29,18 +29,13 @@ import fr.cnes.regards.framework.modules.session.commons.dao.ISnapshotProcessRep
 import fr.cnes.regards.framework.modules.session.commons.domain.SnapshotProcess;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.util.Pair;
 import org.springframework.transaction.annotation.Propagation;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.function.Predicate;
 
 /**
  * If new {@link StepPropertyUpdateRequest}s were added in the
@@ -84,17 +79,12 @@ public class AgentSnapshotJobService {
         OffsetDateTime schedulerStartDate = OffsetDateTime.now();
         LOGGER.debug("{} Scheduling AgentSnapshotJobs at {}...", LOG_HEADER, schedulerStartDate);
         int totalNbJobsScheduled = 0;
-        Pageable pageable = PageRequest.of(0, snapshotPropertyPageSize, Sort.by(Sort.Order.asc("source")));
-        boolean hasNext = true;
-
-        while (hasNext) {
-            Pair<Boolean, Integer> pairHasNextNbJobs = self.handlePageSnapshots(schedulerStartDate, pageable);
-            hasNext = pairHasNextNbJobs.getFirst();
-            totalNbJobsScheduled += pairHasNextNbJobs.getSecond();
-            if (hasNext) {
-                pageable = pageable.next();
-            }
-        }
+        int nbJobsScheduled;
+        // Scheduled sources are excluded from next pages as they are linked to their job
+        do {
+            nbJobsScheduled = self.handlePageSnapshots(schedulerStartDate);
+            totalNbJobsScheduled += nbJobsScheduled;
+        } while (nbJobsScheduled == snapshotPropertyPageSize);
 
         LOGGER.debug("{} Scheduled a total of {} AgentSnapshotJobs in {} ms",
                      LOG_HEADER,
@@ -102,26 +92,22 @@ public class AgentSnapshotJobService {
                      Duration.between(schedulerStartDate, OffsetDateTime.now()).toMillis());
     }
 
+    /**
+     * Schedule one job for each source, in a page of sources with new {@link StepPropertyUpdateRequest}s
+     *
+     * @return number of jobs scheduled
+     */
     @MultitenantTransactional(propagation = Propagation.REQUIRED)
-    public Pair<Boolean, Integer> handlePageSnapshots(OffsetDateTime schedulerStartDate, Pageable pageable) {
-        Page<SnapshotProcess> snapshotPage = this.snapshotRepo.findByJobIdIsNull(pageable);
-        // Filter out all snapshot processes with no step events to update
-        Predicate<SnapshotProcess> predicateSnapAlreadyProcessed = process -> (process.getLastUpdateDate() == null ?
-            stepPropertyUpdateRequestRepo.countBySourceAndRegistrationDateBefore(process.getSource(),
-                                                                                 schedulerStartDate) == 0 :
-            stepPropertyUpdateRequestRepo.countBySourceAndRegistrationDateGreaterThanAndRegistrationDateLessThan(process.getSource(),
-                                                                                                                 process.getLastUpdateDate(),
-                                                                                                                 schedulerStartDate)
-            == 0);
-        Set<SnapshotProcess> snapshotsRetrieved = new HashSet<>(snapshotPage.getContent());
-        snapshotsRetrieved.removeIf(predicateSnapAlreadyProcessed);
-        // launch one job per snapshotProcess, ie, one job per source
-        if (!snapshotsRetrieved.isEmpty()) {
-            return Pair.of(snapshotPage.hasNext(), createOneJobPerSnapshot(schedulerStartDate, snapshotsRetrieved));
-        } else {
-            LOGGER.trace("{} No AgentSnapshotJobs scheduled for page number {}", LOG_HEADER, pageable.getPageNumber());
-            return Pair.of(snapshotPage.hasNext(), 0);
+    public int handlePageSnapshots(OffsetDateTime schedulerStartDate) {
+        // Only retrieve snapshot processes with step events to update
+        List<String> sources = stepPropertyUpdateRequestRepo.findSourcesToSnapshot(schedulerStartDate,
+                                                                                   snapshotPropertyPageSize);
+        if (sources.isEmpty()) {
+            LOGGER.trace("{} No AgentSnapshotJobs to schedule", LOG_HEADER);
+            return 0;
         }
+        // launch one job per snapshotProcess, ie, one job per source
+        return createOneJobPerSnapshot(schedulerStartDate, snapshotRepo.findBySourceIn(sources));
     }
 
     private int createOneJobPerSnapshot(OffsetDateTime schedulerStartDate,
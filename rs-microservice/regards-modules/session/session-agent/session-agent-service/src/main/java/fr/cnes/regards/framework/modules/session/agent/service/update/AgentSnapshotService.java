@@ -31,23 +31,28 @@ import fr.cnes.regards.framework.modules.session.commons.domain.SessionStep;
 import fr.cnes.regards.framework.modules.session.commons.domain.SnapshotProcess;
 import fr.cnes.regards.framework.modules.session.commons.domain.StepState;
 import fr.cnes.regards.framework.modules.session.commons.domain.events.SessionStepEvent;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import fr.cnes.regards.framework.utils.RsRuntimeException;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
- * Service to create or update {@link SessionStep} with new {@link StepPropertyUpdateRequest}.
+ * Service to create or update {@link SessionStep} with new {@link StepPropertyUpdateRequest}.<br/>
+ * Steps only incremented or decremented are aggregated in database. Requests of other steps are applied in order.<br/>
+ * Sessions of a source can be split in several partitions processed in parallel.
  *
  * @author Iliana Ghazali
  **/
@@ -56,6 +61,11 @@ public class AgentSnapshotService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AgentSnapshotService.class);
 
+    /**
+     * Lower bound of step requests to process for a source never processed before
+     */
+    private static final OffsetDateTime FIRST_SNAPSHOT_DATE = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
     private final ISessionStepRepository sessionStepRepo;
 
     private final IStepPropertyUpdateRequestRepository stepPropertyRepo;
@@ -66,19 +76,30 @@ public class AgentSnapshotService {
 
     private final IPublisher publisher;
 
+    private final IRuntimeTenantResolver runtimeTenantResolver;
+
     private final int stepPropertyPageSize;
 
+    /**
+     * Number of partitions of the sessions of a source, processed in parallel
+     */
+    private final int parallelism;
+
     public AgentSnapshotService(ISessionStepRepository sessionStepRepo,
                                 IStepPropertyUpdateRequestRepository stepPropertyRepo,
                                 ISnapshotProcessRepository snapshotProcessRepo,
                                 IPublisher publisher,
+                                IRuntimeTenantResolver runtimeTenantResolver,
                                 AgentSnapshotService self,
-                                int stepPropertyPageSize) {
+                                int stepPropertyPageSize,
+                                int parallelism) {
         this.sessionStepRepo = sessionStepRepo;
         this.stepPropertyRepo = stepPropertyRepo;
         this.snapshotProcessRepo = snapshotProcessRepo;
         this.publisher = publisher;
+        this.runtimeTenantResolver = runtimeTenantResolver;
         this.stepPropertyPageSize = stepPropertyPageSize;
+        this.parallelism = Math.max(1, parallelism);
         this.self = self;
 
     }
@@ -89,28 +110,120 @@ public class AgentSnapshotService {
      *
      * @param snapshotProcess process to retrieve all step properties by source and lastUpdateDate
      * @param freezeDate      corresponding to schedulerStartDate. Limit date to retrieve step properties
-     * @return number of {@link SessionStep}s created
      */
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void generateSessionStep(SnapshotProcess snapshotProcess, OffsetDateTime freezeDate) {
         /**
          * NOTE : Method is annotated with Propagation.NOT_SUPPORTED to avoid use a new db connection.
-         * The db connection is created for the update method called under.
+         * The db connection is created for the update methods called under.
          * If propagation is set do REQUIRED, then this method will need two connections one for this transaction, and
-         * one for the updateOnePageStepRequests transaction with is in propagation.REQUIRED_NEW.
+         * one for each update transaction with is in propagation.REQUIRED_NEW.
          */
-        OffsetDateTime startDate = snapshotProcess.getLastUpdateDate();
+        String source = snapshotProcess.getSource();
+        OffsetDateTime startDate = snapshotProcess.getLastUpdateDate() == null ?
+            FIRST_SNAPSHOT_DATE :
+            snapshotProcess.getLastUpdateDate();
+        Optional<OffsetDateTime> lastRegistrationDate = stepPropertyRepo.findLastRegistrationDate(source,
+                                                                                                   startDate,
+                                                                                                   freezeDate);
+        if (lastRegistrationDate.isEmpty()) {
+            return;
+        }
 
         // CREATE SESSION STEPS
-        boolean interrupted;
-        Pageable pageToRequest = PageRequest.of(0,
-                                                stepPropertyPageSize,
-                                                Sort.by("registrationDate").and(Sort.by("id")));
-        // iterate on all pages of stepPropertyUpdateRequest to create SessionSteps
+        // Requests already processed are linked to their session step, so an interrupted snapshot can be resumed
+        // without counting twice the same requests.
+        boolean completed;
+        if (parallelism == 1) {
+            completed = generatePartitionSessionSteps(source, startDate, freezeDate, 0);
+        } else {
+            completed = generatePartitionsSessionSteps(source, startDate, freezeDate);
+        }
+        if (completed) {
+            self.updateSnapshotProcess(snapshotProcess, lastRegistrationDate.get());
+        }
+    }
+
+    private boolean generatePartitionsSessionSteps(String source, OffsetDateTime startDate, OffsetDateTime endDate) {
+        String tenant = runtimeTenantResolver.getTenant();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Boolean>> partitions = new ArrayList<>(parallelism);
+            for (int partition = 0; partition < parallelism; partition++) {
+                int currentPartition = partition;
+                partitions.add(executor.submit(() -> {
+                    runtimeTenantResolver.forceTenant(tenant);
+                    try {
+                        return generatePartitionSessionSteps(source, startDate, endDate, currentPartition);
+                    } finally {
+                        runtimeTenantResolver.clearTenant();
+                    }
+                }));
+            }
+            boolean completed = true;
+            for (Future<Boolean> partition : partitions) {
+                completed &= partition.get();
+            }
+            return completed;
+        } catch (InterruptedException e) {
+            LOGGER.debug("{} thread has been interrupted", this.getClass().getName());
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            throw new RsRuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Create or update the SessionSteps of a partition of the sessions of a source
+     *
+     * @return false if the thread has been interrupted before all requests were processed
+     */
+    private boolean generatePartitionSessionSteps(String source,
+                                                  OffsetDateTime startDate,
+                                                  OffsetDateTime endDate,
+                                                  int partition) {
+        // Steps only incremented or decremented are computed at once in database
+        self.aggregateCounterRequests(source, startDate, endDate, partition);
+        // Remaining requests are applied in order, page by page
+        int nbRequests;
         do {
-            pageToRequest = self.updateOnePageStepRequests(snapshotProcess, startDate, freezeDate, pageToRequest);
-            interrupted = Thread.currentThread().isInterrupted();
-        } while (pageToRequest != null && !interrupted);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            nbRequests = self.updateOnePageStepRequests(source, startDate, endDate, partition);
+        } while (nbRequests == stepPropertyPageSize);
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Create or update, in database, the SessionSteps of a partition with only INC or DEC numeric requests
+     *
+     * @param source    source of the stepPropertyRequests to process
+     * @param startDate only consider stepPropertyRequests after this date
+     * @param endDate   only considered stepPropertyRequests before this date
+     * @param partition partition of the sessions to process
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void aggregateCounterRequests(String source,
+                                         OffsetDateTime startDate,
+                                         OffsetDateTime endDate,
+                                         int partition) {
+        publishSessionSteps(stepPropertyRepo.aggregateCounterRequests(source,
+                                                                      startDate,
+                                                                      endDate,
+                                                                      parallelism,
+                                                                      partition));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateSnapshotProcess(SnapshotProcess previousSnapshotProcess, OffsetDateTime lastUpdateDate) {
+        SnapshotProcess snapshotProcess = snapshotProcessRepo.findBySource(previousSnapshotProcess.getSource())
+                                                             .orElse(previousSnapshotProcess);
+        snapshotProcess.setLastUpdateDate(lastUpdateDate);
+        this.snapshotProcessRepo.save(snapshotProcess);
     }
 
     private void saveSessionSteps(Map<String, Map<String, SessionStep>> sessionStepsBySession) {
@@ -123,46 +236,50 @@ public class AgentSnapshotService {
         if (!sessionStepsUpdated.isEmpty()) {
             // save session steps
             this.sessionStepRepo.saveAll(sessionStepsUpdated);
+            publishSessionSteps(sessionStepsUpdated);
+        }
+    }
+
+    private void publishSessionSteps(Collection<SessionStep> sessionSteps) {
+        if (!sessionSteps.isEmpty()) {
             // publish session steps events
-            List<SessionStepEvent> sessionStepEvents = sessionStepsUpdated.stream()
-                                                                          .map(sessionStep -> new SessionStepEvent(
-                                                                              Hibernate.unproxy(sessionStep,
-                                                                                                SessionStep.class)))
-                                                                          .toList();
+            List<SessionStepEvent> sessionStepEvents = sessionSteps.stream()
+                                                                   .map(sessionStep -> new SessionStepEvent(
+                                                                       Hibernate.unproxy(sessionStep,
+                                                                                         SessionStep.class)))
+                                                                   .toList();
             this.publisher.publish(sessionStepEvents);
         }
     }
 
     /**
-     * Create or update SessionSteps by session and by stepId with new StepPropertyUpdateRequest events
+     * Create or update SessionSteps by session and by stepId with the first page of the StepPropertyUpdateRequest
+     * events not already processed
      *
-     * @param snapshotProcess information about the stepPropertyRequests to process
-     * @param startDate       only consider stepPropertyRequests after this date
-     * @param endDate         only considered stepPropertyRequests before this date
-     * @param pageToRequest   page of stepPropertyRequests requested
-     * @return nextPageable if present
+     * @param source    source of the stepPropertyRequests to process
+     * @param startDate only consider stepPropertyRequests after this date
+     * @param endDate   only considered stepPropertyRequests before this date
+     * @param partition partition of the sessions to process
+     * @return number of stepPropertyRequests processed
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public Pageable updateOnePageStepRequests(SnapshotProcess previousSnapshotProcess,
-                                              OffsetDateTime startDate,
-                                              OffsetDateTime endDate,
-                                              Pageable pageToRequest) {
+    public int updateOnePageStepRequests(String source,
+                                         OffsetDateTime startDate,
+                                         OffsetDateTime endDate,
+                                         int partition) {
         Map<String, Map<String, SessionStep>> sessionStepsBySession = new HashMap<>();
-        String source = previousSnapshotProcess.getSource();
-        Page<StepPropertyUpdateRequest> stepPropertyPage = getStepPropertiesByPage(startDate,
-                                                                                   endDate,
-                                                                                   pageToRequest,
-                                                                                   source);
-        // Update snapshot process that should have been updated in previous page
-        SnapshotProcess snapshotProcess = snapshotProcessRepo.findBySource(source).orElse(previousSnapshotProcess);
+        List<StepPropertyUpdateRequest> stepPropertyUpdateRequests = stepPropertyRepo.findPendingRequests(source,
+                                                                                                          startDate,
+                                                                                                          endDate,
+                                                                                                          parallelism,
+                                                                                                          partition,
+                                                                                                          stepPropertyPageSize);
 
         // loop on every stepPropertyUpdateRequest to create or update SessionSteps
-        List<StepPropertyUpdateRequest> stepPropertyUpdateRequests = stepPropertyPage.getContent();
-        boolean interrupted = false;
         for (StepPropertyUpdateRequest stepPropertyUpdateRequest : stepPropertyUpdateRequests) {
-            interrupted = Thread.currentThread().isInterrupted();
-            if (interrupted) {
-                break;
+            if (Thread.currentThread().isInterrupted()) {
+                LOGGER.debug("{} thread has been interrupted", this.getClass().getName());
+                return 0;
             }
             String session = stepPropertyUpdateRequest.getSession();
             String stepId = stepPropertyUpdateRequest.getStepId();
@@ -192,44 +309,10 @@ public class AgentSnapshotService {
             // UPDATE STEP PROPERTY REQUEST WITH ASSOCIATED SESSION STEP
             stepPropertyUpdateRequest.setSessionStep(sessionStep);
         }
-        if (!stepPropertyUpdateRequests.isEmpty()) {
-            snapshotProcess.setLastUpdateDate(stepPropertyUpdateRequests.stream()
-                                                                        .max(Comparator.comparing(
-                                                                            StepPropertyUpdateRequest::getRegistrationDate))
-                                                                        .get()
-                                                                        .getRegistrationDate());
-        }
-        if (!interrupted) {
-            // add stepPropertyRequests processed to the list of stepProperties processed
-            stepPropertyRepo.saveAll(stepPropertyUpdateRequests);
-            this.snapshotProcessRepo.save(snapshotProcess);
-            saveSessionSteps(sessionStepsBySession);
-        } else {
-            LOGGER.debug("{} thread has been interrupted", this.getClass().getName());
-        }
-
-        return stepPropertyPage.hasNext() ? stepPropertyPage.nextPageable() : null;
-    }
-
-    private Page<StepPropertyUpdateRequest> getStepPropertiesByPage(OffsetDateTime startDate,
-                                                                    OffsetDateTime endDate,
-                                                                    Pageable pageToRequest,
-                                                                    String source) {
-
-        // get step property requests to process
-        Page<StepPropertyUpdateRequest> stepPropertyPage;
-        if (startDate != null) {
-            stepPropertyPage = this.stepPropertyRepo.findBySourceAndRegistrationDateGreaterThanAndRegistrationDateLessThan(
-                source,
-                startDate,
-                endDate,
-                pageToRequest);
-        } else {
-            stepPropertyPage = this.stepPropertyRepo.findBySourceAndRegistrationDateBefore(source,
-                                                                                           endDate,
-                                                                                           pageToRequest);
-        }
-        return stepPropertyPage;
+        // add stepPropertyRequests processed to the list of stepProperties processed
+        stepPropertyRepo.saveAll(stepPropertyUpdateRequests);
+        saveSessionSteps(sessionStepsBySession);
+        return stepPropertyUpdateRequests.size();
     }
 
     /**
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.session.agent.service.update;
+
+import fr.cnes.regards.framework.jpa.multitenant.properties.MultitenantDaoProperties;
+import fr.cnes.regards.framework.modules.session.agent.service.AbstractAgentServiceUtilsIT;
+import fr.cnes.regards.framework.modules.session.commons.domain.SessionStep;
+import fr.cnes.regards.framework.modules.session.commons.domain.SnapshotProcess;
+import jakarta.persistence.EntityManager;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Benchmark of {@link AgentSnapshotJob}s with a large backlog of pending step requests
+ */
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.default_schema=agent_snapshot_benchmark_it",
+                                   "regards.jobs.pool.size=10",
+                                   "regards.session.agent.snapshot.parallelism=4" })
+@ActiveProfiles({ "testAmqp", "noscheduler" })
+@Ignore("Benchmark : inserts millions of step requests")
+public class AgentSnapshotBenchmarkIT extends AbstractAgentServiceUtilsIT {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgentSnapshotBenchmarkIT.class);
+
+    private static final int NB_STEP_REQUESTS = 10_000_000;
+
+    private static final int NB_SOURCES = 10;
+
+    private static final int NB_SESSIONS = 100;
+
+    private static final long ID_OFFSET = 1_000_000_000L;
+
+    @Autowired
+    private AgentSnapshotJobService agentSnapshotJobService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    @Qualifier(MultitenantDaoProperties.MULTITENANT_TRANSACTION_MANAGER)
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void generateSessionSteps() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < NB_SOURCES; i++) {
+                snapshotProcessRepo.save(new SnapshotProcess("SOURCE_" + i, null, null));
+            }
+            entityManager.createNativeQuery("""
+                                                INSERT INTO t_step_property_update_request (id, step_id, source,
+                                                    session, creation_date, registration_date, step_type, state,
+                                                    property, value, type, input_related, output_related)
+                                                SELECT :offset + g, 'scan', 'SOURCE_' || (g % :nbSources),
+                                                       'SESSION_' || (g % :nbSessions), now() - interval '1 hour',
+                                                       now() - interval '1 hour', 'ACQUISITION', 'SUCCESS',
+                                                       'gen.products', '1', 'INC', true, false
+                                                FROM generate_series(1, :count) g
+                                                """)
+                         .setParameter("offset", ID_OFFSET)
+                         .setParameter("nbSources", NB_SOURCES)
+                         .setParameter("nbSessions", NB_SESSIONS)
+                         .setParameter("count", NB_STEP_REQUESTS)
+                         .executeUpdate();
+            entityManager.createNativeQuery("ANALYZE t_step_property_update_request").executeUpdate();
+        });
+        LOGGER.info(">>>>>>>>>>>>>>>>> {} step requests inserted in {} ms",
+                    NB_STEP_REQUESTS,
+                    System.currentTimeMillis() - start);
+
+        start = System.currentTimeMillis();
+        agentSnapshotJobService.scheduleJob();
+        waitForJobSuccesses(AgentSnapshotJob.class.getName(), NB_SOURCES, 3_600_000L);
+        LOGGER.info(">>>>>>>>>>>>>>>>> Session steps of {} sources generated from {} step requests in {} ms",
+                    NB_SOURCES,
+                    NB_STEP_REQUESTS,
+                    System.currentTimeMillis() - start);
+
+        List<SessionStep> sessionSteps = sessionStepRepo.findAll();
+        Assert.assertEquals("Wrong number of session steps created", NB_SESSIONS, sessionSteps.size());
+        Assert.assertEquals("Every step request should be counted",
+                            NB_STEP_REQUESTS,
+                            sessionSteps.stream().mapToLong(SessionStep::getInputRelated).sum());
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.session.agent.service.update;
+
+import fr.cnes.regards.framework.jpa.multitenant.properties.MultitenantDaoProperties;
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepPropertyStateEnum;
+import fr.cnes.regards.framework.modules.session.agent.domain.update.StepPropertyUpdateRequest;
+import fr.cnes.regards.framework.modules.session.agent.domain.update.StepPropertyUpdateRequestInfo;
+import fr.cnes.regards.framework.modules.session.agent.service.AbstractAgentServiceUtilsIT;
+import fr.cnes.regards.framework.modules.session.commons.domain.SessionStep;
+import fr.cnes.regards.framework.modules.session.commons.domain.SnapshotProcess;
+import fr.cnes.regards.framework.modules.session.commons.domain.StepState;
+import fr.cnes.regards.framework.modules.session.commons.domain.StepTypeEnum;
+import fr.cnes.regards.framework.test.report.annotation.Purpose;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Test of the aggregation in database of step requests, see
+ * {@link fr.cnes.regards.framework.modules.session.agent.dao.IStepPropertyUpdateRequestRepository}
+ */
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.default_schema=step_property_aggregation_it",
+                                   "regards.session.agent.step.requests.page.size=3",
+                                   "regards.session.agent.snapshot.parallelism=4" })
+@ActiveProfiles({ "noscheduler" })
+public class StepPropertyAggregationIT extends AbstractAgentServiceUtilsIT {
+
+    private static final int PARTITIONS = 4;
+
+    private static final int PAGE_SIZE = 3;
+
+    private static final int NB_SESSIONS = 12;
+
+    private static final OffsetDateTime CREATION_DATE = OffsetDateTime.now(ZoneOffset.UTC)
+                                                                      .minusDays(30)
+                                                                      .truncatedTo(ChronoUnit.MICROS);
+
+    private static final OffsetDateTime START_DATE = CREATION_DATE.minusDays(1);
+
+    @Autowired
+    @Qualifier(MultitenantDaoProperties.MULTITENANT_TRANSACTION_MANAGER)
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @Purpose("Test that session steps aggregated in database are the same as when all requests are applied in order")
+    public void aggregateLikeRequestsAppliedInOrder() {
+        // Given the same session steps and requests for two sources
+        createSessionSteps(SOURCE_1);
+        createSessionSteps(SOURCE_2);
+        createRequests(SOURCE_1);
+        createRequests(SOURCE_2);
+        OffsetDateTime freezeDate = OffsetDateTime.now().plusMinutes(1);
+
+        // When requests of the first source are all applied in order, partition by partition
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            int nbRequests;
+            do {
+                nbRequests = agentSnapshotService.updateOnePageStepRequests(SOURCE_1,
+                                                                            START_DATE,
+                                                                            freezeDate,
+                                                                            partition);
+            } while (nbRequests == PAGE_SIZE);
+        }
+        // and requests of the second source are snapshot, counter steps being aggregated in database
+        SnapshotProcess snapshotProcess = snapshotProcessRepo.save(new SnapshotProcess(SOURCE_2, START_DATE, null));
+        agentSnapshotService.generateSessionStep(snapshotProcess, freezeDate);
+
+        // Then
+        Map<String, SessionStep> expectedSteps = findSessionSteps(SOURCE_1);
+        Map<String, SessionStep> aggregatedSteps = findSessionSteps(SOURCE_2);
+        Assert.assertEquals("Wrong session steps created", expectedSteps.keySet(), aggregatedSteps.keySet());
+        expectedSteps.forEach((key, expected) -> assertSameSessionStep(expected, aggregatedSteps.get(key)));
+        // Every request has been processed
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            Assert.assertTrue("Every request should be linked to its session step",
+                              stepPropertyRepo.findPendingRequests(SOURCE_2,
+                                                                   START_DATE,
+                                                                   freezeDate,
+                                                                   PARTITIONS,
+                                                                   partition,
+                                                                   PAGE_SIZE).isEmpty());
+        }
+    }
+
+    @Test
+    @Purpose("Test that counter requests are aggregated once, each session belonging to a single partition")
+    public void aggregateCounterRequestsByPartition() {
+        // Given
+        List<StepPropertyUpdateRequest> requests = new ArrayList<>();
+        for (int i = 0; i < NB_SESSIONS; i++) {
+            requests.add(createRequest(SOURCE_1,
+                                       "session_" + i,
+                                       "scan",
+                                       i,
+                                       StepPropertyEventTypeEnum.INC,
+                                       StepPropertyStateEnum.SUCCESS,
+                                       "gen.products",
+                                       String.valueOf(i + 1),
+                                       true,
+                                       false));
+        }
+        stepPropertyRepo.saveAll(requests);
+        OffsetDateTime freezeDate = OffsetDateTime.now().plusMinutes(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // When
+        Set<String> aggregatedSessions = new HashSet<>();
+        long inputRelated = 0;
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            for (SessionStep sessionStep : aggregateCounterRequests(transactionTemplate, freezeDate, partition)) {
+                Assert.assertTrue("A session must belong to a single partition",
+                                  aggregatedSessions.add(sessionStep.getSession()));
+                inputRelated += sessionStep.getInputRelated();
+            }
+        }
+
+        // Then
+        Assert.assertEquals("Every session should be aggregated", NB_SESSIONS, aggregatedSessions.size());
+        Assert.assertEquals("Every request should be counted once",
+                            (long) NB_SESSIONS * (NB_SESSIONS + 1) / 2,
+                            inputRelated);
+        // Aggregated requests are not aggregated again
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            Assert.assertTrue("Requests should not be aggregated twice",
+                              aggregateCounterRequests(transactionTemplate, freezeDate, partition).isEmpty());
+        }
+        Assert.assertEquals(NB_SESSIONS, sessionStepRepo.count());
+    }
+
+    @Test
+    @Purpose("Test that only sources with new requests and not being processed are snapshot")
+    public void findSourcesWithNewRequests() {
+        // Given
+        OffsetDateTime freezeDate = OffsetDateTime.now().plusMinutes(1);
+        List<StepPropertyUpdateRequest> requests = new ArrayList<>();
+        for (String source : List.of(SOURCE_1, SOURCE_2, SOURCE_3, SOURCE_5, SOURCE_6)) {
+            requests.add(createRequest(source,
+                                       OWNER_1,
+                                       "scan",
+                                       0,
+                                       StepPropertyEventTypeEnum.INC,
+                                       StepPropertyStateEnum.SUCCESS,
+                                       "gen.products",
+                                       "1",
+                                       true,
+                                       false));
+        }
+        // Request registered after the freeze date
+        requests.get(4).setRegistrationDate(freezeDate.plusMinutes(1));
+        stepPropertyRepo.saveAll(requests);
+        // Never snapshot
+        snapshotProcessRepo.save(new SnapshotProcess(SOURCE_1, null, null));
+        // Snapshot after its last request
+        snapshotProcessRepo.save(new SnapshotProcess(SOURCE_2, OffsetDateTime.now().plusSeconds(1), null));
+        // Being processed
+        snapshotProcessRepo.save(new SnapshotProcess(SOURCE_3, START_DATE, UUID.randomUUID()));
+        // Without request
+        snapshotProcessRepo.save(new SnapshotProcess(SOURCE_4, START_DATE, null));
+        // Snapshot before its last request
+        snapshotProcessRepo.save(new SnapshotProcess(SOURCE_5, START_DATE, null));
+        // With a request after the freeze date only
+        snapshotProcessRepo.save(new SnapshotProcess(SOURCE_6, START_DATE, null));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        TransactionTemplate concurrentTransactionTemplate = new TransactionTemplate(transactionManager);
+        concurrentTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // When, Then
+        Assert.assertEquals(List.of(SOURCE_1, SOURCE_5),
+                            transactionTemplate.execute(status -> findSourcesToSnapshot(freezeDate, 10)));
+        transactionTemplate.executeWithoutResult(status -> {
+            Assert.assertEquals(List.of(SOURCE_1), findSourcesToSnapshot(freezeDate, 1));
+            // Sources found by a transaction are skipped by concurrent ones until the end of the transaction
+            Assert.assertEquals(List.of(SOURCE_5),
+                                concurrentTransactionTemplate.execute(concurrent -> findSourcesToSnapshot(freezeDate,
+                                                                                                          10)));
+        });
+    }
+
+    /**
+     * Create session steps already snapshot : a counter one and one with a non numeric property
+     */
+    private void createSessionSteps(String source) {
+        SessionStep counterStep = new SessionStep("scan",
+                                                  source,
+                                                  "session_2",
+                                                  StepTypeEnum.ACQUISITION,
+                                                  new StepState(1, 2, 3));
+        counterStep.setInputRelated(10);
+        counterStep.getProperties().put("gen.products", "10");
+        counterStep.setLastUpdateDate(CREATION_DATE);
+        SessionStep textStep = new SessionStep("check",
+                                               source,
+                                               "session_1",
+                                               StepTypeEnum.REFERENCING,
+                                               new StepState());
+        textStep.getProperties().put("gen.products", "abc");
+        textStep.setLastUpdateDate(CREATION_DATE);
+        sessionStepRepo.saveAll(List.of(counterStep, textStep));
+    }
+
+    /**
+     * Create, for each session, requests of counter steps and of steps with value properties
+     */
+    private void createRequests(String source) {
+        List<StepPropertyUpdateRequest> requests = new ArrayList<>();
+        for (int i = 0; i < NB_SESSIONS; i++) {
+            String session = "session_" + i;
+            // Counter steps
+            requests.add(createRequest(source,
+                                       session,
+                                       "scan",
+                                       i,
+                                       StepPropertyEventTypeEnum.INC,
+                                       StepPropertyStateEnum.SUCCESS,
+                                       "gen.products",
+                                       String.valueOf(i + 2),
+                                       true,
+                                       false));
+            requests.add(createRequest(source,
+                                       session,
+                                       "scan",
+                                       i + 1,
+                                       StepPropertyEventTypeEnum.INC,
+                                       StepPropertyStateEnum.ERROR,
+                                       "gen.errors",
+                                       "3",
+                                       false,
+                                       false));
+            requests.add(createRequest(source,
+                                       session,
+                                       "scan",
+                                       i + 2,
+                                       StepPropertyEventTypeEnum.DEC,
+                                       StepPropertyStateEnum.ERROR,
+                                       "gen.errors",
+                                       "1",
+                                       false,
+                                       false));
+            requests.add(createRequest(source,
+                                       session,
+                                       "oais",
+                                       i,
+                                       StepPropertyEventTypeEnum.INC,
+                                       StepPropertyStateEnum.RUNNING,
+                                       "referencing.products",
+                                       String.valueOf(i),
+                                       false,
+                                       true));
+            requests.add(createRequest(source,
+                                       session,
+                                       "oais",
+                                       i + 3,
+                                       StepPropertyEventTypeEnum.INC,
+                                       StepPropertyStateEnum.WAITING,
+                                       "referencing.pending",
+                                       "1",
+                                       false,
+                                       false));
+            // Step with a value property, its requests must be applied in order
+            requests.add(createRequest(source,
+                                       session,
+                                       "storage",
+                                       i,
+                                       StepPropertyEventTypeEnum.INC,
+                                       StepPropertyStateEnum.SUCCESS,
+                                       "storage.files",
+                                       "4",
+                                       false,
+                                       true));
+            requests.add(createRequest(source,
+                                       session,
+                                       "storage",
+                                       i + 1,
+                                       StepPropertyEventTypeEnum.VALUE,
+                                       StepPropertyStateEnum.SUCCESS,
+                                       "storage.status",
+                                       i % 2 == 0 ? "DONE" : "FAILED",
+                                       false,
+                                       false));
+            requests.add(createRequest(source,
+                                       session,
+                                       "storage",
+                                       i + 2,
+                                       StepPropertyEventTypeEnum.INC,
+                                       StepPropertyStateEnum.SUCCESS,
+                                       "storage.files",
+                                       "1",
+                                       false,
+                                       true));
+        }
+        // Step reset by a numeric value
+        requests.add(createRequest(source,
+                                   "session_0",
+                                   "reset",
+                                   0,
+                                   StepPropertyEventTypeEnum.INC,
+                                   StepPropertyStateEnum.WAITING,
+                                   "gen.pending",
+                                   "5",
+                                   true,
+                                   false));
+        requests.add(createRequest(source,
+                                   "session_0",
+                                   "reset",
+                                   1,
+                                   StepPropertyEventTypeEnum.VALUE,
+                                   StepPropertyStateEnum.WAITING,
+                                   "gen.pending",
+                                   "3",
+                                   true,
+                                   false));
+        requests.add(createRequest(source,
+                                   "session_0",
+                                   "reset",
+                                   2,
+                                   StepPropertyEventTypeEnum.INC,
+                                   StepPropertyStateEnum.WAITING,
+                                   "gen.pending",
+                                   "2",
+                                   true,
+                                   false));
+        // Increment of an existing non numeric property
+        requests.add(createRequest(source,
+                                   "session_1",
+                                   "check",
+                                   0,
+                                   StepPropertyEventTypeEnum.INC,
+                                   StepPropertyStateEnum.SUCCESS,
+                                   "gen.products",
+                                   "1",
+                                   false,
+                                   true));
+        stepPropertyRepo.saveAll(requests);
+    }
+
+    private List<SessionStep> aggregateCounterRequests(TransactionTemplate transactionTemplate,
+                                                       OffsetDateTime freezeDate,
+                                                       int partition) {
+        return transactionTemplate.execute(status -> stepPropertyRepo.aggregateCounterRequests(SOURCE_1,
+                                                                                               START_DATE,
+                                                                                               freezeDate,
+                                                                                               PARTITIONS,
+                                                                                               partition));
+    }
+
+    private List<String> findSourcesToSnapshot(OffsetDateTime freezeDate, int size) {
+        return stepPropertyRepo.findSourcesToSnapshot(freezeDate, size);
+    }
+
+    private static StepPropertyUpdateRequest createRequest(String source,
+                                                           String session,
+                                                           String stepId,
+                                                           int minutes,
+                                                           StepPropertyEventTypeEnum type,
+                                                           StepPropertyStateEnum state,
+                                                           String property,
+                                                           String value,
+                                                           boolean inputRelated,
+                                                           boolean outputRelated) {
+        return new StepPropertyUpdateRequest(stepId,
+                                             source,
+                                             session,
+                                             CREATION_DATE.plusMinutes(minutes),
+                                             type,
+                                             new StepPropertyUpdateRequestInfo(StepTypeEnum.ACQUISITION,
+                                                                               state,
+                                                                               property,
+                                                                               value,
+                                                                               inputRelated,
+                                                                               outputRelated));
+    }
+
+    private Map<String, SessionStep> findSessionSteps(String source) {
+        return sessionStepRepo.findAll()
+                              .stream()
+                              .filter(sessionStep -> sessionStep.getSource().equals(source))
+                              .collect(Collectors.toMap(sessionStep -> sessionStep.getSession()
+                                                                       + "/"
+                                                                       + sessionStep.getStepId(),
+                                                        Function.identity()));
+    }
+
+    private static void assertSameSessionStep(SessionStep expected, SessionStep actual) {
+        String step = expected.getSession() + "/" + expected.getStepId();
+        Assert.assertEquals("Wrong type of " + step, expected.getType(), actual.getType());
+        Assert.assertEquals("Wrong input related of " + step, expected.getInputRelated(), actual.getInputRelated());
+        Assert.assertEquals("Wrong output related of " + step,
+                            expected.getOutputRelated(),
+                            actual.getOutputRelated());
+        Assert.assertEquals("Wrong errors of " + step,
+                            expected.getState().getErrors(),
+                            actual.getState().getErrors());
+        Assert.assertEquals("Wrong waiting of " + step,
+                            expected.getState().getWaiting(),
+                            actual.getState().getWaiting());
+        Assert.assertEquals("Wrong running of " + step,
+                            expected.getState().getRunning(),
+                            actual.getState().getRunning());
+        Assert.assertEquals("Wrong properties of " + step, expected.getProperties(), actual.getProperties());
+        Assert.assertTrue("Wrong last update date of " + step,
+                          expected.getLastUpdateDate().isEqual(actual.getLastUpdateDate()));
+    }
+}
@@ -24,9 +24,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -58,6 +60,21 @@ public interface ISessionStepRepository extends JpaRepository<SessionStep, Long>
                                                                                             OffsetDateTime freezeDate,
                                                                                             Pageable pageToRequest);
 
+    /**
+     * Find sources, not already being processed, with session steps registered since their last snapshot and before
+     * the given date. Returned snapshot processes are locked until the end of the transaction.
+     */
+    @Query(value = """
+        SELECT p.source FROM {h-schema}t_snapshot_process p
+        WHERE p.job_id IS NULL AND EXISTS (
+            SELECT 1 FROM {h-schema}t_session_step s
+            WHERE s.source = p.source
+            AND s.registration_date > COALESCE(p.last_update_date, CAST('-infinity' AS timestamp))
+            AND s.registration_date < :freezeDate)
+        ORDER BY p.source LIMIT :size FOR UPDATE OF p SKIP LOCKED
+        """, nativeQuery = true)
+    List<String> findSourcesToSnapshot(@Param("freezeDate") OffsetDateTime freezeDate, @Param("size") int size);
+
     /**
      * Clean SessionSteps
      */
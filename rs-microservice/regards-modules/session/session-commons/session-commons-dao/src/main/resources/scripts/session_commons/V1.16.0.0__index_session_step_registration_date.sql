@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_session_step_source_registration_date
+    ON t_session_step
+    USING btree (source, registration_date);
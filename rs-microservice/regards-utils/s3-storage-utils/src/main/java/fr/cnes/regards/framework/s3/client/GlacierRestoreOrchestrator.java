@@ -0,0 +1,358 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.s3.client;
+
+import fr.cnes.regards.framework.s3.domain.GlacierFileStatus;
+import fr.cnes.regards.framework.s3.dto.StorageConfigDto;
+import fr.cnes.regards.framework.s3.exception.S3ClientException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import jakarta.annotation.Nullable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Orchestrate the Glacier restoration of many files at once.
+ * <ul>
+ *     <li>Files are grouped by archive object thanks to the archive key resolver, so that many small files packed
+ *     in the same archive trigger a single restore request and a single status poll.</li>
+ *     <li>Restore submissions are buffered and sent by batches, with a bounded concurrency.</li>
+ *     <li>Restore status are polled with a bounded concurrency and an exponential backoff per archive object.</li>
+ * </ul>
+ * The number of archive objects waiting to be restored is exposed by {@link #getQueueDepth()}, and by the
+ * regards.s3.glacier.restore.queue.depth gauge once bound to a meter registry.
+ */
+public class GlacierRestoreOrchestrator implements MeterBinder, AutoCloseable {
+
+    private static final Logger LOGGER = getLogger(GlacierRestoreOrchestrator.class);
+
+    /**
+     * Maximum number of restore requests sent for the same archive object when the S3 server reports that it is not
+     * (or no longer) restored.
+     */
+    private static final int MAX_RESTORE_ATTEMPTS = 3;
+
+    private static final String METRICS_PREFIX = "regards.s3.glacier.restore.";
+
+    private final S3HighLevelReactiveClient client;
+
+    private final Function<String, String> archiveKeyResolver;
+
+    private final Duration initialPollDelay;
+
+    private final Duration maxPollDelay;
+
+    @Nullable
+    private final String standardStorageClass;
+
+    @Nullable
+    private final Integer fileLifetimeInDays;
+
+    private final Scheduler scheduler;
+
+    private final Map<ArchiveObject, RestoreTask> tasks = new ConcurrentHashMap<>();
+
+    private final Sinks.Many<RestoreTask> submissions = Sinks.many().unicast().onBackpressureBuffer();
+
+    private final Sinks.Many<RestoreTask> polls = Sinks.many().unicast().onBackpressureBuffer();
+
+    private final AtomicInteger pendingSubmissions = new AtomicInteger();
+
+    private final Disposable.Composite pipelines = Disposables.composite();
+
+    /**
+     * Timers of the scheduled status polls, disposed on close
+     */
+    private final Disposable.Composite pollTimers = Disposables.composite();
+
+    private final List<Meter> meters = new CopyOnWriteArrayList<>();
+
+    @Nullable
+    private volatile MeterRegistry registry;
+
+    /**
+     * @param client               s3 client used to send restore and head requests
+     * @param archiveKeyResolver   give the key of the archive object containing the file with the given key.
+     *                             Use {@link Function#identity()} if files are not packed in archives.
+     * @param batchSize            maximum number of restore requests in a submission batch
+     * @param batchTimeout         maximum time to wait before sending an incomplete submission batch
+     * @param maxConcurrency       maximum number of concurrent restore requests, and of concurrent status polls
+     * @param initialPollDelay     delay before the first status poll of an archive object
+     * @param maxPollDelay         maximum delay between two status polls of an archive object
+     * @param standardStorageClass the standard storage class if the server doesn't use the default one
+     * @param fileLifetimeInDays   lifetime of restored files in days
+     * @param scheduler            scheduler used to wait between status polls
+     */
+    public GlacierRestoreOrchestrator(S3HighLevelReactiveClient client,
+                                      Function<String, String> archiveKeyResolver,
+                                      int batchSize,
+                                      Duration batchTimeout,
+                                      int maxConcurrency,
+                                      Duration initialPollDelay,
+                                      Duration maxPollDelay,
+                                      @Nullable String standardStorageClass,
+                                      @Nullable Integer fileLifetimeInDays,
+                                      Scheduler scheduler) {
+        this.client = client;
+        this.archiveKeyResolver = archiveKeyResolver;
+        this.initialPollDelay = initialPollDelay;
+        this.maxPollDelay = maxPollDelay;
+        this.standardStorageClass = standardStorageClass;
+        this.fileLifetimeInDays = fileLifetimeInDays;
+        this.scheduler = scheduler;
+        pipelines.add(submissions.asFlux()
+                                 .bufferTimeout(batchSize, batchTimeout, scheduler)
+                                 .concatMap(batch -> {
+                                     LOGGER.debug("Submitting a batch of {} glacier restore requests", batch.size());
+                                     return Flux.fromIterable(batch).flatMap(this::submit, maxConcurrency).then();
+                                 })
+                                 .subscribe());
+        pipelines.add(polls.asFlux().flatMap(this::poll, maxConcurrency).subscribe());
+    }
+
+    /**
+     * Restore the archive object containing the file with the given key.
+     * Concurrent calls for files of the same archive object share the same restoration.
+     *
+     * @param config  configuration of the s3 storage
+     * @param fileKey s3 key of the file to restore
+     * @return the status of the archive object once it is available for download
+     */
+    public Mono<GlacierFileStatus> restore(StorageConfigDto config, String fileKey) {
+        ArchiveObject archive = new ArchiveObject(config, archiveKeyResolver.apply(fileKey));
+        RestoreTask newTask = new RestoreTask(archive, initialPollDelay);
+        RestoreTask existingTask = tasks.putIfAbsent(archive, newTask);
+        if (existingTask != null) {
+            LOGGER.debug("Restoration of {} already requested", archive);
+            return existingTask.getResult();
+        }
+        enqueueSubmission(newTask);
+        return newTask.getResult();
+    }
+
+    /**
+     * @return the number of archive objects waiting for their restoration
+     */
+    public int getQueueDepth() {
+        return tasks.size();
+    }
+
+    /**
+     * @return the number of archive objects for which the restore request is not sent yet
+     */
+    public int getPendingSubmissions() {
+        return pendingSubmissions.get();
+    }
+
+    /**
+     * Register the queue depth and pending submissions gauges, unregistered on close
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        meters.add(Gauge.builder(METRICS_PREFIX + "queue.depth", this, GlacierRestoreOrchestrator::getQueueDepth)
+                        .description("Number of archive objects waiting for their restoration")
+                        .register(registry));
+        meters.add(Gauge.builder(METRICS_PREFIX + "pending.submissions",
+                                 this,
+                                 GlacierRestoreOrchestrator::getPendingSubmissions)
+                        .description("Number of archive objects for which the restore request is not sent yet")
+                        .register(registry));
+    }
+
+    private Mono<Void> submit(RestoreTask task) {
+        pendingSubmissions.decrementAndGet();
+        ArchiveObject archive = task.getArchive();
+        return client.isFileAvailable(archive.config(), archive.key(), standardStorageClass)
+                     .flatMap(status -> handleStatus(task, status))
+                     .onErrorResume(t -> fail(task, t));
+    }
+
+    private Mono<Void> handleStatus(RestoreTask task, GlacierFileStatus status) {
+        return switch (status.getStatus()) {
+            case AVAILABLE -> complete(task, status);
+            case RESTORE_PENDING -> schedulePoll(task);
+            case NOT_AVAILABLE, EXPIRED -> sendRestoreRequest(task);
+        };
+    }
+
+    private Mono<Void> sendRestoreRequest(RestoreTask task) {
+        ArchiveObject archive = task.getArchive();
+        if (task.incrementRestoreAttempts() > MAX_RESTORE_ATTEMPTS) {
+            return fail(task,
+                        new S3ClientException(String.format("Restoration of %s still not available after %d restore "
+                                                            + "requests", archive, MAX_RESTORE_ATTEMPTS)));
+        }
+        return client.restore(archive.config(), archive.key(), fileLifetimeInDays)
+                     .then()
+                     // 409 RestoreAlreadyInProgress means that a previous restoration is still running
+                     .onErrorResume(t -> t instanceof S3Exception s3Exception && s3Exception.statusCode() == 409,
+                                    t -> Mono.empty())
+                     .then(Mono.defer(() -> schedulePoll(task)));
+    }
+
+    private Mono<Void> poll(RestoreTask task) {
+        ArchiveObject archive = task.getArchive();
+        return client.isFileAvailable(archive.config(), archive.key(), standardStorageClass)
+                     .flatMap(status -> handleStatus(task, status))
+                     .onErrorResume(NoSuchKeyException.class, t -> fail(task, t))
+                     .onErrorResume(t -> {
+                         LOGGER.warn("Unable to get restoration status of {}, retrying later : {}",
+                                     archive,
+                                     t.getMessage());
+                         return schedulePoll(task);
+                     });
+    }
+
+    private Mono<Void> schedulePoll(RestoreTask task) {
+        Duration delay = task.nextPollDelay(maxPollDelay);
+        LOGGER.debug("Next restoration status poll of {} in {}", task.getArchive(), delay);
+        Disposable.Swap timer = Disposables.swap();
+        // Nothing is scheduled once closed, as the composite disposes timers added after its disposal
+        if (pollTimers.add(timer)) {
+            timer.update(Mono.delay(delay, scheduler).subscribe(any -> {
+                pollTimers.remove(timer);
+                emit(polls, task);
+            }));
+        }
+        return Mono.empty();
+    }
+
+    private void enqueueSubmission(RestoreTask task) {
+        pendingSubmissions.incrementAndGet();
+        emit(submissions, task);
+    }
+
+    /**
+     * Unicast sinks do not support concurrent emissions, so emissions are serialized on the sink itself.
+     */
+    private void emit(Sinks.Many<RestoreTask> sink, RestoreTask task) {
+        Sinks.EmitResult result;
+        synchronized (sink) {
+            result = sink.tryEmitNext(task);
+        }
+        if (result.isFailure()) {
+            fail(task, new S3ClientException(String.format("Unable to handle restoration of %s (%s)",
+                                                           task.getArchive(),
+                                                           result)));
+        }
+    }
+
+    private Mono<Void> complete(RestoreTask task, GlacierFileStatus status) {
+        LOGGER.debug("Restoration of {} is done", task.getArchive());
+        tasks.remove(task.getArchive(), task);
+        task.getSink().tryEmitValue(status);
+        return Mono.empty();
+    }
+
+    private Mono<Void> fail(RestoreTask task, Throwable t) {
+        LOGGER.error("Restoration of {} failed : {}", task.getArchive(), t.getMessage(), t);
+        tasks.remove(task.getArchive(), task);
+        task.getSink().tryEmitError(t);
+        return Mono.empty();
+    }
+
+    @Override
+    public void close() {
+        pipelines.dispose();
+        pollTimers.dispose();
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null) {
+            meters.forEach(meterRegistry::remove);
+            meters.clear();
+        }
+        tasks.values()
+             .forEach(task -> task.getSink()
+                                  .tryEmitError(new S3ClientException("Glacier restore orchestrator is closed")));
+        tasks.clear();
+    }
+
+    private record ArchiveObject //NOSONAR bug with sonar and record -> it's considered as empty method.
+        (StorageConfigDto config,
+         String key) {
+
+        @Override
+        public String toString() {
+            return config.getBucket() + "/" + key;
+        }
+    }
+
+    private static class RestoreTask {
+
+        private final ArchiveObject archive;
+
+        private final Sinks.One<GlacierFileStatus> sink = Sinks.one();
+
+        private final Mono<GlacierFileStatus> result = sink.asMono();
+
+        private volatile Duration pollDelay;
+
+        private final AtomicInteger restoreAttempts = new AtomicInteger();
+
+        private RestoreTask(ArchiveObject archive, Duration initialPollDelay) {
+            this.archive = archive;
+            this.pollDelay = initialPollDelay;
+        }
+
+        public ArchiveObject getArchive() {
+            return archive;
+        }
+
+        public Sinks.One<GlacierFileStatus> getSink() {
+            return sink;
+        }
+
+        public Mono<GlacierFileStatus> getResult() {
+            return result;
+        }
+
+        public int incrementRestoreAttempts() {
+            return restoreAttempts.incrementAndGet();
+        }
+
+        /**
+         * @return the delay before the next poll, doubled at each call up to the given maximum
+         */
+        public Duration nextPollDelay(Duration maxPollDelay) {
+            Duration delay = pollDelay;
+            Duration doubled = pollDelay.multipliedBy(2);
+            pollDelay = doubled.compareTo(maxPollDelay) > 0 ? maxPollDelay : doubled;
+            return delay;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package fr.cnes.regards.framework.s3.client;
 
 import fr.cnes.regards.framework.s3.domain.GlacierFileStatus;
+import fr.cnes.regards.framework.s3.domain.multipart.ByteRange;
 import fr.cnes.regards.framework.s3.domain.multipart.ResponseAndStream;
 import fr.cnes.regards.framework.s3.domain.multipart.UploadedPart;
 import io.vavr.collection.List;
@@ -59,6 +60,16 @@ public interface IS3ClientReactorWrapper {
 
     Mono<ResponseAndStream> readContentFlux(String bucket, String key, boolean failIfMissing);
 
+    /**
+     * Read only the given byte range of the given file (ranged GET)
+     *
+     * @param bucket the bucket containing the file
+     * @param key    the key of the file
+     * @param range  the inclusive byte range to read
+     * @return the response and the stream of the requested bytes
+     */
+    Mono<ResponseAndStream> readContentRangeFlux(String bucket, String key, ByteRange range);
+
     Flux<String> listObjects(String bucket, String prefix);
 
     Mono<PutObjectResponse> putContent(String bucket, String path, InputStream content);
@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import fr.cnes.regards.framework.s3.domain.GlacierFileStatus;
 import fr.cnes.regards.framework.s3.domain.RestorationStatus;
 import fr.cnes.regards.framework.s3.domain.StorageEntry;
+import fr.cnes.regards.framework.s3.domain.multipart.ByteRange;
 import fr.cnes.regards.framework.s3.domain.multipart.GetResponseAndStream;
 import fr.cnes.regards.framework.s3.domain.multipart.ResponseAndStream;
 import fr.cnes.regards.framework.s3.domain.multipart.UploadedPart;
@@ -310,6 +311,20 @@ public class S3AsyncClientReactorWrapper extends S3ClientReloader<S3AsyncClient>
         });
     }
 
+    @Override
+    public Mono<ResponseAndStream> readContentRangeFlux(String bucket, String key, ByteRange range) {
+        return withClient(client -> {
+            GetObjectRequest request = GetObjectRequest.builder()
+                                                       .bucket(bucket)
+                                                       .key(key)
+                                                       .range(range.toHttpRange())
+                                                       .build();
+            return fromFutureSupplier(() -> client.getObject(request, new GetResponseAndStream())).onErrorMap(
+                SdkClientException.class,
+                S3ClientException::new);
+        });
+    }
+
     public Mono<RestoreObjectResponse> restore(String bucket, String key, Integer days) {
         return withClient(client -> {
             RestoreObjectRequest request = RestoreObjectRequest.builder()
@@ -29,6 +29,7 @@ import fr.cnes.regards.framework.s3.domain.StorageCommand.Write;
 import fr.cnes.regards.framework.s3.domain.StorageCommandResult;
 import fr.cnes.regards.framework.s3.domain.StorageCommandResult.*;
 import fr.cnes.regards.framework.s3.domain.StorageEntry;
+import fr.cnes.regards.framework.s3.domain.multipart.ByteRange;
 import fr.cnes.regards.framework.s3.domain.multipart.MultipartReport;
 import fr.cnes.regards.framework.s3.domain.multipart.ResponseAndStream;
 import fr.cnes.regards.framework.s3.domain.multipart.UploadedPart;
@@ -53,11 +54,16 @@ import software.amazon.awssdk.services.s3.model.RestoreObjectResponse;
 
 import jakarta.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.logging.Level;
 
@@ -114,6 +120,223 @@ public class S3HighLevelReactiveClient implements AutoCloseable {
                                                 SignalType.ON_ERROR);
     }
 
+    /**
+     * Read the given entry with parallel ranged GET requests instead of a single stream.
+     * <p>The object is split into ranges of rangeSize bytes and up to parallelism ranges are fetched concurrently.
+     * Ranges are re-emitted in order, so the data of the resulting entry is the same as with {@link #read(Read)}.
+     * Up to parallelism * rangeSize bytes may be buffered in memory while waiting for a previous range.</p>
+     * <p>If an expected MD5 checksum is given, it is computed incrementally while the data is consumed and the data
+     * flux fails with a {@link ChecksumDoesntMatchException} at the end if it does not match.</p>
+     *
+     * @param readCmd          the read command
+     * @param rangeSize        maximum size in bytes of each range
+     * @param parallelism      maximum number of ranges fetched at the same time
+     * @param expectedChecksum expected MD5 checksum of the whole object, null to skip verification
+     */
+    public Mono<ReadResult> readRanged(Read readCmd,
+                                       long rangeSize,
+                                       int parallelism,
+                                       @Nullable String expectedChecksum) {
+        StorageConfigDto config = readCmd.getConfig();
+        String bucket = config.getBucket();
+        String entryKey = readCmd.getEntryKey();
+        S3AsyncClientReactorWrapper client = getClient(config);
+        return client.contentLength(bucket, entryKey)
+                     .map(optionalSize -> optionalSize.<ReadResult>map(size -> new ReadingPipe(readCmd,
+                                                                                                Mono.just(
+                                                                                                    getRangedStorageEntry(
+                                                                                                        client,
+                                                                                                        config,
+                                                                                                        entryKey,
+                                                                                                        size,
+                                                                                                        rangeSize,
+                                                                                                        parallelism,
+                                                                                                        expectedChecksum))))
+                                                  .orElseGet(() -> new ReadNotFound(readCmd)))
+                     .subscribeOn(scheduler)
+                     .onErrorResume(t -> Mono.just(new UnreachableStorage(readCmd, t)))
+                     .log("storage.s3.read",
+                          Level.FINE,
+                          SignalType.ON_SUBSCRIBE,
+                          SignalType.ON_NEXT,
+                          SignalType.ON_ERROR);
+    }
+
+    /**
+     * Download the given entry into the target file with parallel ranged GET requests.
+     * <p>The object is split into ranges of rangeSize bytes and up to parallelism ranges are fetched concurrently.
+     * Each range is written at its own offset in the target file as soon as its bytes are received.</p>
+     * <p>If an expected MD5 checksum is given, it is computed incrementally on the ranges taken in order and the
+     * returned mono fails with a {@link ChecksumDoesntMatchException} if it does not match. In that case, up to
+     * parallelism * rangeSize bytes may be kept in memory while waiting for a previous range.</p>
+     *
+     * @param readCmd          the read command
+     * @param target           the file to write, created or truncated
+     * @param rangeSize        maximum size in bytes of each range
+     * @param parallelism      maximum number of ranges fetched at the same time
+     * @param expectedChecksum expected MD5 checksum of the whole object, null to skip verification
+     * @return the number of bytes written
+     */
+    public Mono<Long> downloadRanged(Read readCmd,
+                                     Path target,
+                                     long rangeSize,
+                                     int parallelism,
+                                     @Nullable String expectedChecksum) {
+        StorageConfigDto config = readCmd.getConfig();
+        String bucket = config.getBucket();
+        String entryKey = readCmd.getEntryKey();
+        S3AsyncClientReactorWrapper client = getClient(config);
+        return client.contentLength(bucket, entryKey)
+                     .flatMap(optionalSize -> optionalSize.map(Mono::just)
+                                                          .orElseGet(() -> Mono.error(NoSuchKeyException.builder()
+                                                                                                        .message(
+                                                                                                            "No such key "
+                                                                                                            + entryKey)
+                                                                                                        .build())))
+                     .flatMap(size -> Mono.using(() -> FileChannel.open(target,
+                                                                        StandardOpenOption.CREATE,
+                                                                        StandardOpenOption.WRITE,
+                                                                        StandardOpenOption.TRUNCATE_EXISTING),
+                                                 channel -> writeRanges(client,
+                                                                        bucket,
+                                                                        entryKey,
+                                                                        size,
+                                                                        rangeSize,
+                                                                        parallelism,
+                                                                        channel,
+                                                                        expectedChecksum).then(Mono.just(size)),
+                                                 S3HighLevelReactiveClient::closeChannel))
+                     .subscribeOn(scheduler)
+                     .log("storage.s3.read", Level.FINE, SignalType.ON_SUBSCRIBE, SignalType.ON_ERROR);
+    }
+
+    private static StorageEntry getRangedStorageEntry(IS3ClientReactorWrapper client,
+                                                      StorageConfigDto config,
+                                                      String entryKey,
+                                                      long size,
+                                                      long rangeSize,
+                                                      int parallelism,
+                                                      @Nullable String expectedChecksum) {
+        LOGGER.debug("Reading entry={} size={} with ranges of {}b", entryKey, size, rangeSize);
+        Flux<ByteBuffer> data = readRanges(client,
+                                           config.getBucket(),
+                                           entryKey,
+                                           size,
+                                           rangeSize,
+                                           parallelism).transform(verifyChecksum(expectedChecksum));
+        return StorageEntry.builder()
+                           .config(config)
+                           .fullPath(entryKey)
+                           .checksum(Option.of(expectedChecksum).map(checksum -> Tuple.of("MD5", checksum)))
+                           .size(Option.of(size))
+                           .data(data)
+                           .build();
+    }
+
+    private static Flux<ByteBuffer> readRanges(IS3ClientReactorWrapper client,
+                                               String bucket,
+                                               String key,
+                                               long size,
+                                               long rangeSize,
+                                               int parallelism) {
+        return Flux.fromIterable(ByteRange.split(size, rangeSize))
+                   .flatMapSequential(range -> readRange(client, bucket, key, range), parallelism, Integer.MAX_VALUE);
+    }
+
+    private static Flux<ByteBuffer> writeRanges(IS3ClientReactorWrapper client,
+                                                String bucket,
+                                                String key,
+                                                long size,
+                                                long rangeSize,
+                                                int parallelism,
+                                                FileChannel channel,
+                                                @Nullable String expectedChecksum) {
+        Flux<ByteRange> ranges = Flux.fromIterable(ByteRange.split(size, rangeSize));
+        Function<ByteRange, Flux<ByteBuffer>> writeRange = range -> {
+            AtomicLong position = new AtomicLong(range.start());
+            return readRange(client, bucket, key, range).doOnNext(bb -> position.addAndGet(writeAt(channel,
+                                                                                                    bb.duplicate(),
+                                                                                                    position.get())));
+        };
+        if (expectedChecksum == null) {
+            // No checksum to compute, ranges do not need to be consumed in order
+            return ranges.flatMap(writeRange, parallelism);
+        }
+        return ranges.flatMapSequential(writeRange, parallelism, Integer.MAX_VALUE)
+                     .transform(verifyChecksum(expectedChecksum));
+    }
+
+    /**
+     * Read one range and check that the server sent exactly the requested number of bytes
+     */
+    private static Flux<ByteBuffer> readRange(IS3ClientReactorWrapper client,
+                                              String bucket,
+                                              String key,
+                                              ByteRange range) {
+        return Flux.defer(() -> {
+            AtomicLong received = new AtomicLong();
+            return client.readContentRangeFlux(bucket, key, range)
+                         .flatMapMany(ResponseAndStream::getStream)
+                         .doOnNext(bb -> received.addAndGet(bb.remaining()))
+                         .concatWith(Mono.<ByteBuffer>defer(() -> received.get() == range.length() ?
+                             Mono.empty() :
+                             Mono.error(new S3ClientException(String.format(
+                                 "Range %s of %s received %d bytes instead of %d",
+                                 range.toHttpRange(),
+                                 key,
+                                 received.get(),
+                                 range.length())))));
+        });
+    }
+
+    private static long writeAt(FileChannel channel, ByteBuffer bb, long position) {
+        long written = 0;
+        try {
+            while (bb.hasRemaining()) {
+                written += channel.write(bb, position + written);
+            }
+        } catch (IOException e) {
+            throw new S3ClientException(e);
+        }
+        return written;
+    }
+
+    private static void closeChannel(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.error("Unable to close downloaded file channel", e);
+        }
+    }
+
+    /**
+     * Compute the MD5 of the flux content while it is consumed and fail at the end if it does not match the
+     * expected one. The given flux must emit the bytes in order.
+     */
+    private static Function<Flux<ByteBuffer>, Flux<ByteBuffer>> verifyChecksum(@Nullable String expectedChecksum) {
+        if (expectedChecksum == null) {
+            return Function.identity();
+        }
+        return data -> Flux.defer(() -> {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                return Flux.error(e);
+            }
+            return data.doOnNext(bb -> digest.update(bb.duplicate())).concatWith(Mono.<ByteBuffer>defer(() -> {
+                String actualChecksum = BytesConverterUtils.bytesToHex(digest.digest());
+                if (!actualChecksum.equalsIgnoreCase(expectedChecksum)) {
+                    ChecksumDoesntMatchException exception = new ChecksumDoesntMatchException(expectedChecksum,
+                                                                                              actualChecksum);
+                    LOGGER.error(exception.getMessage());
+                    return Mono.error(exception);
+                }
+                return Mono.empty();
+            }));
+        });
+    }
+
     /**
      * Restore the given key of file.
      * <p>By default, the lifetime of given key is 1 day.</p>
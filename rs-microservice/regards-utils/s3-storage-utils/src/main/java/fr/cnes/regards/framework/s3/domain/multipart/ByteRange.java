@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.s3.domain.multipart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inclusive byte range of an S3 object, as used in the HTTP <code>Range</code> header of a ranged GET.
+ *
+ * @param start first byte of the range (inclusive)
+ * @param end   last byte of the range (inclusive)
+ */
+public record ByteRange(long start, long end) { //NOSONAR bug with sonar and record -> it's considered as empty method.
+
+    public ByteRange {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException(String.format("Invalid byte range [%d-%d]", start, end));
+        }
+    }
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * @return the value of the HTTP <code>Range</code> header for this range
+     */
+    public String toHttpRange() {
+        return "bytes=" + start + "-" + end;
+    }
+
+    /**
+     * Split an object of the given size into consecutive ranges of at most rangeSize bytes.
+     * The last range may be smaller than the others.
+     *
+     * @param objectSize size of the object in bytes
+     * @param rangeSize  maximum size of each range in bytes
+     * @return the ordered list of ranges covering the whole object, empty if the object is empty
+     */
+    public static List<ByteRange> split(long objectSize, long rangeSize) {
+        if (rangeSize <= 0) {
+            throw new IllegalArgumentException("Range size must be strictly positive");
+        }
+        List<ByteRange> ranges = new ArrayList<>();
+        for (long start = 0; start < objectSize; start += rangeSize) {
+            ranges.add(new ByteRange(start, Math.min(start + rangeSize, objectSize) - 1));
+        }
+        return ranges;
+    }
+}
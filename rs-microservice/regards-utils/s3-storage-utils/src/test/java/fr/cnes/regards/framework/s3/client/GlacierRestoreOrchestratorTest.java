@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.s3.client;
+
+import fr.cnes.regards.framework.s3.domain.GlacierFileStatus;
+import fr.cnes.regards.framework.s3.domain.RestorationStatus;
+import fr.cnes.regards.framework.s3.domain.StorageConfigBuilder;
+import fr.cnes.regards.framework.s3.dto.StorageConfigDto;
+import fr.cnes.regards.framework.s3.exception.S3ClientException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.services.s3.model.RestoreObjectResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+class GlacierRestoreOrchestratorTest {
+
+    private static final String ARCHIVE_KEY = "archives/archive1.zip";
+
+    private final StorageConfigDto config = new StorageConfigBuilder("http://localhost:9000",
+                                                                     "region",
+                                                                     "key",
+                                                                     "secret").bucket("bucket").build();
+
+    private S3HighLevelReactiveClient client;
+
+    private GlacierRestoreOrchestrator orchestrator;
+
+    @BeforeEach
+    void init() {
+        client = Mockito.mock(S3HighLevelReactiveClient.class);
+        // Files are packed in archives : "archives/archive1.zip/file1.txt" is in "archives/archive1.zip"
+        orchestrator = new GlacierRestoreOrchestrator(client,
+                                                      fileKey -> fileKey.substring(0, fileKey.lastIndexOf('/')),
+                                                      10,
+                                                      Duration.ofMillis(50),
+                                                      4,
+                                                      Duration.ofMillis(10),
+                                                      Duration.ofMillis(40),
+                                                      null,
+                                                      1,
+                                                      Schedulers.parallel());
+    }
+
+    @AfterEach
+    void close() {
+        orchestrator.close();
+    }
+
+    @Test
+    void test_restore_files_of_same_archive() {
+        // Given : archive not restored at first head, then pending twice, then available
+        AtomicInteger heads = new AtomicInteger();
+        Mockito.when(client.isFileAvailable(any(), eq(ARCHIVE_KEY), any())).thenAnswer(invocation -> {
+            RestorationStatus status = switch (heads.getAndIncrement()) {
+                case 0 -> RestorationStatus.NOT_AVAILABLE;
+                case 1, 2 -> RestorationStatus.RESTORE_PENDING;
+                default -> RestorationStatus.AVAILABLE;
+            };
+            return Mono.just(new GlacierFileStatus(status, 10L, null));
+        });
+        Mockito.when(client.restore(any(), anyString(), any()))
+               .thenReturn(Mono.just(RestoreObjectResponse.builder().build()));
+
+        // When
+        Mono<GlacierFileStatus> file1 = orchestrator.restore(config, ARCHIVE_KEY + "/file1.txt");
+        Mono<GlacierFileStatus> file2 = orchestrator.restore(config, ARCHIVE_KEY + "/file2.txt");
+        assertEquals(1, orchestrator.getQueueDepth());
+
+        // Then : a single restore request and a single poll sequence for both files
+        assertEquals(RestorationStatus.AVAILABLE, file1.block(Duration.ofSeconds(5)).getStatus());
+        assertEquals(RestorationStatus.AVAILABLE, file2.block(Duration.ofSeconds(5)).getStatus());
+        Mockito.verify(client, Mockito.times(1)).restore(any(), eq(ARCHIVE_KEY), eq(1));
+        assertEquals(4, heads.get());
+        assertEquals(0, orchestrator.getQueueDepth());
+        assertEquals(0, orchestrator.getPendingSubmissions());
+    }
+
+    @Test
+    void test_restore_already_available_file() {
+        // Given
+        Mockito.when(client.isFileAvailable(any(), eq(ARCHIVE_KEY), any()))
+               .thenReturn(Mono.just(new GlacierFileStatus(RestorationStatus.AVAILABLE, 10L, null)));
+
+        // When
+        GlacierFileStatus status = orchestrator.restore(config, ARCHIVE_KEY + "/file1.txt")
+                                               .block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(RestorationStatus.AVAILABLE, status.getStatus());
+        Mockito.verify(client, Mockito.never()).restore(any(), anyString(), any());
+    }
+
+    @Test
+    void test_queue_depth_gauge() {
+        // Given : archive restoration never ends
+        Mockito.when(client.isFileAvailable(any(), eq(ARCHIVE_KEY), any()))
+               .thenReturn(Mono.just(new GlacierFileStatus(RestorationStatus.RESTORE_PENDING, 10L, null)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        orchestrator.bindTo(registry);
+
+        // When
+        Mono<GlacierFileStatus> file1 = orchestrator.restore(config, ARCHIVE_KEY + "/file1.txt");
+        orchestrator.restore(config, ARCHIVE_KEY + "/file2.txt");
+        orchestrator.restore(config, "archives/archive2.zip/file3.txt");
+
+        // Then
+        assertEquals(2, registry.get("regards.s3.glacier.restore.queue.depth").gauge().value());
+        orchestrator.close();
+        assertNull(registry.find("regards.s3.glacier.restore.queue.depth").gauge());
+        assertNull(registry.find("regards.s3.glacier.restore.pending.submissions").gauge());
+        assertThrows(S3ClientException.class, () -> file1.block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void test_close_cancels_scheduled_polls() throws InterruptedException {
+        // Given : archive restoration never ends
+        AtomicInteger heads = new AtomicInteger();
+        Mockito.when(client.isFileAvailable(any(), eq(ARCHIVE_KEY), any())).thenAnswer(invocation -> {
+            heads.incrementAndGet();
+            return Mono.just(new GlacierFileStatus(RestorationStatus.RESTORE_PENDING, 10L, null));
+        });
+        orchestrator.restore(config, ARCHIVE_KEY + "/file1.txt");
+        Mockito.verify(client, Mockito.timeout(5000).atLeast(2)).isFileAvailable(any(), eq(ARCHIVE_KEY), any());
+
+        // When
+        orchestrator.close();
+        // Let a poll already running on close end
+        Thread.sleep(50);
+        int headsOnClose = heads.get();
+        Thread.sleep(200);
+
+        // Then : polls scheduled before close are never run, whereas one would be run every 40ms otherwise
+        assertEquals(headsOnClose, heads.get());
+    }
+}
@@ -8,22 +8,35 @@ import fr.cnes.regards.framework.s3.domain.StorageCommandID;
 import fr.cnes.regards.framework.s3.domain.StorageConfigBuilder;
 import fr.cnes.regards.framework.s3.domain.StorageEntry;
 import fr.cnes.regards.framework.s3.dto.StorageConfigDto;
+import fr.cnes.regards.framework.s3.exception.ChecksumDoesntMatchException;
+import fr.cnes.regards.framework.s3.exception.S3ClientException;
 import fr.cnes.regards.framework.s3.utils.StorageConfigUtils;
 import io.vavr.Tuple;
 import io.vavr.control.Option;
 import org.apache.http.HttpHeaders;
 import org.junit.*;
+import org.junit.rules.TemporaryFolder;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.UUID;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.fail;
 
 public class S3HighLevelReactiveClientTest {
@@ -64,6 +77,18 @@ public class S3HighLevelReactiveClientTest {
     @Rule
     public WireMockClassRule rule = classRule;
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Content of the entry read by ranges : 3 ranges of {@link #RANGE_SIZE} bytes, the last one being partial
+     */
+    private static final byte[] RANGED_CONTENT = "0123456789".getBytes();
+
+    private static final long RANGE_SIZE = 4;
+
+    private static final String RANGED_PATH = "/bucketest/some/root/path/ranged.bin";
+
     private StorageConfigDto config;
 
     private S3HighLevelReactiveClient client;
@@ -193,6 +218,152 @@ public class S3HighLevelReactiveClientTest {
         });
     }
 
+    @Test
+    public void test_read_ranged_in_order() throws Exception {
+        // Given the first range is the last one received
+        givenRangedEntry();
+        givenRange(0, 3, 300);
+        givenRange(4, 7, 0);
+        givenRange(8, 9, 0);
+
+        // When
+        StorageEntry entry = readRanged(md5(RANGED_CONTENT));
+
+        // Then ranges are emitted in order, including the last partial range, and the checksum is verified
+        assertThat(entry.getSize()).isEqualTo(Option.some((long) RANGED_CONTENT.length));
+        assertThat(readBytes(entry.getData())).isEqualTo(RANGED_CONTENT);
+        verify(3, getRequestedFor(urlPathEqualTo(RANGED_PATH)));
+    }
+
+    @Test
+    public void test_read_ranged_checksum_mismatch() throws Exception {
+        // Given
+        givenRangedEntry();
+        givenRange(0, 3, 0);
+        givenRange(4, 7, 0);
+        givenRange(8, 9, 0);
+
+        // When
+        StorageEntry entry = readRanged(md5("another content".getBytes()));
+
+        // Then
+        assertThatThrownBy(() -> readBytes(entry.getData())).satisfies(t -> assertThat(Exceptions.unwrap(t)).isInstanceOf(
+            ChecksumDoesntMatchException.class));
+    }
+
+    @Test
+    public void test_read_ranged_part_failure() {
+        // Given the second range is refused by the server
+        givenRangedEntry();
+        givenRange(0, 3, 0);
+        givenThat(get(urlPathEqualTo(RANGED_PATH)).withHeader("Range", equalTo("bytes=4-7"))
+                                                  .willReturn(aResponse().withStatus(HttpStatus.FORBIDDEN.value())
+                                                                         .withHeader(HttpHeaders.CONTENT_TYPE,
+                                                                                     MediaType.APPLICATION_XML_VALUE)
+                                                                         .withBody(
+                                                                             "<Error><Code>AccessDenied</Code><Message>Access Denied</Message></Error>")));
+        givenRange(8, 9, 0);
+
+        // When
+        StorageEntry entry = readRanged(null);
+
+        // Then the whole data fails
+        assertThatThrownBy(() -> readBytes(entry.getData())).isInstanceOf(S3Exception.class);
+    }
+
+    @Test
+    public void test_download_ranged() throws Exception {
+        // Given the first range is the last one received
+        givenRangedEntry();
+        givenRange(0, 3, 300);
+        givenRange(4, 7, 0);
+        givenRange(8, 9, 0);
+        Path target = temporaryFolder.getRoot().toPath().resolve("ranged.bin");
+
+        // When
+        Long size = client.downloadRanged(getReadCommand(), target, RANGE_SIZE, 3, null).block();
+
+        // Then each range is written at its offset
+        assertThat(size).isEqualTo(RANGED_CONTENT.length);
+        assertThat(Files.readAllBytes(target)).isEqualTo(RANGED_CONTENT);
+    }
+
+    @Test
+    public void test_download_ranged_truncated_part() throws Exception {
+        // Given the server sends only one byte of the last range
+        givenRangedEntry();
+        givenRange(0, 3, 0);
+        givenRange(4, 7, 0);
+        givenThat(get(urlPathEqualTo(RANGED_PATH)).withHeader("Range", equalTo("bytes=8-9"))
+                                                  .willReturn(aResponse().withStatus(HttpStatus.PARTIAL_CONTENT.value())
+                                                                         .withHeader("Content-Range", "bytes 8-8/10")
+                                                                         .withBody(Arrays.copyOfRange(RANGED_CONTENT,
+                                                                                                      8,
+                                                                                                      9))));
+        Path target = temporaryFolder.getRoot().toPath().resolve("ranged.bin");
+
+        // When
+        assertThatThrownBy(() -> client.downloadRanged(getReadCommand(),
+                                                       target,
+                                                       RANGE_SIZE,
+                                                       3,
+                                                       md5(RANGED_CONTENT)).block())
+            // Then
+            .isInstanceOf(S3ClientException.class).hasMessageContaining("bytes=8-9");
+    }
+
+    private void givenRangedEntry() {
+        givenThat(head(urlPathEqualTo(RANGED_PATH)).willReturn(aResponse().withStatus(HttpStatus.OK.value())
+                                                                          .withHeader(ACCEPT_RANGES, "bytes")
+                                                                          .withHeader(CONTENT_LENGTH,
+                                                                                      String.valueOf(RANGED_CONTENT.length))));
+    }
+
+    private void givenRange(int start, int end, int delayInMs) {
+        givenThat(get(urlPathEqualTo(RANGED_PATH)).withHeader("Range", equalTo("bytes=" + start + "-" + end))
+                                                  .willReturn(aResponse().withStatus(HttpStatus.PARTIAL_CONTENT.value())
+                                                                         .withHeader("Content-Range",
+                                                                                     String.format("bytes %d-%d/%d",
+                                                                                                   start,
+                                                                                                   end,
+                                                                                                   RANGED_CONTENT.length))
+                                                                         .withBody(Arrays.copyOfRange(RANGED_CONTENT,
+                                                                                                      start,
+                                                                                                      end + 1))
+                                                                         .withFixedDelay(delayInMs)));
+    }
+
+    private StorageCommand.Read getReadCommand() {
+        return StorageCommand.read(config,
+                                   new StorageCommandID("askId", UUID.randomUUID()),
+                                   StorageConfigUtils.entryKey(config, "ranged.bin"));
+    }
+
+    private StorageEntry readRanged(String expectedChecksum) {
+        return client.readRanged(getReadCommand(), RANGE_SIZE, 3, expectedChecksum)
+                     .block()
+                     .matchReadResult(pipe -> pipe.getEntry().block(), unreachableStorage -> {
+                         fail("s3 unreachable");
+                         return null;
+                     }, notFound -> {
+                         fail("entry not found");
+                         return null;
+                     });
+    }
+
+    private static byte[] readBytes(Flux<ByteBuffer> data) {
+        return data.reduce(new ByteArrayOutputStream(), (out, bb) -> {
+            byte[] bytes = new byte[bb.remaining()];
+            bb.duplicate().get(bytes);
+            out.writeBytes(bytes);
+            return out;
+        }).map(ByteArrayOutputStream::toByteArray).block();
+    }
+
+    private static String md5(byte[] content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+    }
+
     private StorageCommand.Write getStorageCommand(long size) {
         Flux<ByteBuffer> buffers = Flux.just(ByteBuffer.wrap(new byte[(int) size]));
         StorageCommandID cmdId = new StorageCommandID("askId", UUID.randomUUID());
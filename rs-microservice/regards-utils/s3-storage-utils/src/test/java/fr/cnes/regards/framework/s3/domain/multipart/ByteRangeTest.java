@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.s3.domain.multipart;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeTest {
+
+    @Test
+    void test_split_exact_multiple() {
+        // When
+        List<ByteRange> ranges = ByteRange.split(30, 10);
+        // Then
+        assertEquals(List.of(new ByteRange(0, 9), new ByteRange(10, 19), new ByteRange(20, 29)), ranges);
+        assertEquals("bytes=10-19", ranges.get(1).toHttpRange());
+    }
+
+    @Test
+    void test_split_with_smaller_last_range() {
+        // When
+        List<ByteRange> ranges = ByteRange.split(25, 10);
+        // Then
+        assertEquals(3, ranges.size());
+        assertEquals(new ByteRange(20, 24), ranges.get(2));
+        assertEquals(25, ranges.stream().mapToLong(ByteRange::length).sum());
+    }
+
+    @Test
+    void test_split_small_and_empty_objects() {
+        assertEquals(List.of(new ByteRange(0, 4)), ByteRange.split(5, 10));
+        assertTrue(ByteRange.split(0, 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> ByteRange.split(10, 0));
+    }
+}
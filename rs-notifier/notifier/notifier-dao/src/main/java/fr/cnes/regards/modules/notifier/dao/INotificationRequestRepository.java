@@ -21,6 +21,7 @@ package fr.cnes.regards.modules.notifier.dao;
 import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
 import fr.cnes.regards.modules.notifier.domain.NotifRequestId;
 import fr.cnes.regards.modules.notifier.domain.NotificationRequest;
+import fr.cnes.regards.modules.notifier.domain.RawNotificationRequest;
 import fr.cnes.regards.modules.notifier.dto.out.NotificationState;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -69,6 +70,16 @@ public interface INotificationRequestRepository extends JpaRepository<Notificati
            countQuery = "select count(nr.id) from NotificationRequest nr where nr.state = :state")
     Page<NotifRequestId> findIdsPageByState(@Param("state") NotificationState state, Pageable pageable);
 
+    /**
+     * Retrieve raw JSON of requests, without parsing it, with their rules to match
+     */
+    @Query(value = "select nr.id as id, cast(nr.metadata as text) as metadata, cast(nr.payload as text) as payload,"
+                   + " string_agg(cast(rules.rule_id as text), ',') as rules"
+                   + " from t_notification_request nr"
+                   + " left join ta_notif_request_rules_to_match rules on rules.notification_request_id = nr.id"
+                   + " where nr.id in (:ids) group by nr.id", nativeQuery = true)
+    List<RawNotificationRequest> findRawByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
      * Update a state according a list of ids
      *
@@ -154,6 +165,16 @@ public interface INotificationRequestRepository extends JpaRepository<Notificati
                    + "(:requestId, :recipientId)", nativeQuery = true)
     void addRecipientToSchedule(@Param("requestId") Long requestId, @Param("recipientId") Long recipientId);
 
+    /**
+     * Link all given requests to the given recipient to schedule, in one set-based insert
+     */
+    @Modifying
+    @Query(value = "insert into ta_notif_request_recipients_toschedule (notification_request_id, recipient_id) "
+                   + "select nr.id, :recipientId from t_notification_request nr where nr.id in (:requestIds)",
+           nativeQuery = true)
+    void addRecipientToSchedule(@Param("requestIds") Collection<Long> requestIds,
+                                @Param("recipientId") Long recipientId);
+
     @Modifying
     @Query(value = "DELETE from ta_notif_request_recipients_toschedule where notification_request_id in (:requestIds)"
                    + " and recipient_id = :recipientId", nativeQuery = true)
@@ -165,6 +186,16 @@ public interface INotificationRequestRepository extends JpaRepository<Notificati
                    + "(:requestId, :recipientId)", nativeQuery = true)
     void addRecipientScheduled(@Param("requestId") Long requestId, @Param("recipientId") Long recipientId);
 
+    /**
+     * Link all given requests to the given scheduled recipient, in one set-based insert
+     */
+    @Modifying
+    @Query(value = "insert into ta_notif_request_recipients_scheduled (notification_request_id, recipient_id) "
+                   + "select nr.id, :recipientId from t_notification_request nr where nr.id in (:requestIds)",
+           nativeQuery = true)
+    void addRecipientScheduled(@Param("requestIds") Collection<Long> requestIds,
+                               @Param("recipientId") Long recipientId);
+
     @Modifying
     @Query(value = "DELETE from ta_notif_request_recipients_scheduled where notification_request_id in (:requestIds)"
                    + " and recipient_id = :recipientId", nativeQuery = true)
@@ -181,11 +212,24 @@ public interface INotificationRequestRepository extends JpaRepository<Notificati
                    + "(:requestId, :recipientId)", nativeQuery = true)
     void addRecipientInSuccess(@Param("requestId") Long requestId, @Param("recipientId") Long recipientId);
 
+    @Modifying
+    @Query(value = "insert into ta_notif_request_recipients_success (notification_request_id, recipient_id) "
+                   + "select nr.id, :recipientId from t_notification_request nr where nr.id in (:requestIds)",
+           nativeQuery = true)
+    void addRecipientInSuccess(@Param("requestIds") Collection<Long> requestIds,
+                               @Param("recipientId") Long recipientId);
+
     @Modifying
     @Query(value = "insert into ta_notif_request_recipients_error (notification_request_id, recipient_id) values "
                    + "(:requestId, :recipientId)", nativeQuery = true)
     void addRecipientInError(@Param("requestId") Long requestId, @Param("recipientId") Long recipientId);
 
+    @Modifying
+    @Query(value = "insert into ta_notif_request_recipients_error (notification_request_id, recipient_id) "
+                   + "select nr.id, :recipientId from t_notification_request nr where nr.id in (:requestIds)",
+           nativeQuery = true)
+    void addRecipientInError(@Param("requestIds") Collection<Long> requestIds, @Param("recipientId") Long recipientId);
+
     @Modifying
     @Query(value = "DELETE from ta_notif_request_recipients_error where notification_request_id = :requestId and "
                    + "recipient_id in (:recipientIds)", nativeQuery = true)
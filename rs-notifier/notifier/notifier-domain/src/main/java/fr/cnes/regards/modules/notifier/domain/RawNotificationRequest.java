@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.domain;
+
+/**
+ * Raw JSON of a {@link NotificationRequest} to match
+ */
+public interface RawNotificationRequest {
+
+    Long getId();
+
+    /**
+     * @return raw JSON of metadata
+     */
+    String getMetadata();
+
+    /**
+     * @return raw JSON of payload
+     */
+    String getPayload();
+
+    /**
+     * @return comma separated identifiers of the rules to match, null if there is none
+     */
+    String getRules();
+}
@@ -34,6 +34,23 @@ public interface IRecipientNotifier {
      */
     Collection<NotificationRequest> send(Collection<NotificationRequest> requestsToSend);
 
+    /**
+     * Max number of requests given at once to {@link #send(Collection)}.
+     * Plugins that cannot send lists of requests should override it, requests are then sent by batches of this size.
+     */
+    default int getMaxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Max number of notification jobs queued or running at the same time for this recipient.
+     * Plugins can override it, usually from an optional plugin parameter, to set a cap of their own. If not positive
+     * (default), the regards.notifier.recipient.max.concurrent.jobs property applies.
+     */
+    default int getMaxConcurrentJobs() {
+        return 0;
+    }
+
     String getRecipientLabel();
 
     boolean isAckRequired();
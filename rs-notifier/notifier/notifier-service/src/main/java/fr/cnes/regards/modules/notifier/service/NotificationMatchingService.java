@@ -18,26 +18,36 @@
  */
 package fr.cnes.regards.modules.notifier.service;
 
+import com.google.common.collect.Lists;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import fr.cnes.regards.framework.amqp.IPublisher;
 import fr.cnes.regards.framework.jpa.multitenant.transactional.MultitenantTransactional;
 import fr.cnes.regards.framework.module.rest.exception.ModuleException;
 import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
 import fr.cnes.regards.framework.modules.plugins.service.IPluginService;
 import fr.cnes.regards.framework.modules.plugins.service.PluginMetadataNotFoundRuntimeException;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.framework.notification.NotificationLevel;
 import fr.cnes.regards.framework.notification.client.INotificationClient;
 import fr.cnes.regards.framework.security.role.DefaultRole;
+import fr.cnes.regards.framework.utils.RsRuntimeException;
 import fr.cnes.regards.framework.utils.plugins.PluginUtilsRuntimeException;
 import fr.cnes.regards.framework.utils.plugins.exception.NotAvailablePluginConfigurationException;
 import fr.cnes.regards.modules.notifier.dao.INotificationRequestRepository;
+import fr.cnes.regards.modules.notifier.domain.NotifRequestId;
 import fr.cnes.regards.modules.notifier.domain.NotificationRequest;
+import fr.cnes.regards.modules.notifier.domain.RawNotificationRequest;
 import fr.cnes.regards.modules.notifier.domain.Rule;
 import fr.cnes.regards.modules.notifier.domain.plugin.IRuleMatcher;
 import fr.cnes.regards.modules.notifier.dto.out.NotificationState;
 import fr.cnes.regards.modules.notifier.dto.out.NotifierEvent;
 import fr.cnes.regards.modules.notifier.service.conf.NotificationConfigurationProperties;
+import fr.cnes.regards.modules.notifier.service.rule.RuleIndex;
+import fr.cnes.regards.modules.notifier.service.rule.RuleIndexCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.data.domain.PageRequest;
@@ -51,12 +61,17 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @MultitenantTransactional
 @Scope(proxyMode = ScopedProxyMode.TARGET_CLASS)
-public class NotificationMatchingService {
+public class NotificationMatchingService implements DisposableBean {
 
     protected static final String OPTIMIST_LOCK_LOG_MSG = "Another schedule has updated some of the requests handled by this method while it was running.";
 
@@ -72,34 +87,64 @@ public class NotificationMatchingService {
 
     private final IPublisher publisher;
 
+    private final RuleIndexCache ruleIndexCache;
+
+    private final IRuntimeTenantResolver runtimeTenantResolver;
+
     private final NotificationMatchingService self;
 
+    /**
+     * Pool matching partitions of requests in parallel, null if requests are matched sequentially
+     */
+    private final ExecutorService matchingExecutor;
+
     public NotificationMatchingService(INotificationRequestRepository notificationRequestRepository,
                                        IPublisher publisher,
                                        IPluginService pluginService,
                                        NotificationConfigurationProperties properties,
                                        INotificationClient notificationClient,
+                                       RuleIndexCache ruleIndexCache,
+                                       IRuntimeTenantResolver runtimeTenantResolver,
                                        NotificationMatchingService notificationMatchingService) {
         this.notificationRequestRepository = notificationRequestRepository;
         this.publisher = publisher;
         this.pluginService = pluginService;
         this.properties = properties;
         this.notificationClient = notificationClient;
+        this.ruleIndexCache = ruleIndexCache;
+        this.runtimeTenantResolver = runtimeTenantResolver;
         this.self = notificationMatchingService;
+        int parallelism = properties.getMatchingParallelism();
+        this.matchingExecutor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+    }
+
+    @Override
+    public void destroy() {
+        if (matchingExecutor != null) {
+            matchingExecutor.shutdownNow();
+        }
     }
 
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Pair<Integer, Integer> matchRequestNRecipient() {
         LOGGER.debug("------------------------ Starting MATCHING");
         long startTime = System.currentTimeMillis();
-        List<NotificationRequest> grantedToBeMatched = notificationRequestRepository.findByState(NotificationState.GRANTED,
-                                                                                                 PageRequest.of(0,
-                                                                                                                properties.getMaxBulkSize(),
-                                                                                                                Sort.by(
-                                                                                                                    Order.asc(
-                                                                                                                        NotificationRequest.REQUEST_DATE_JPQL_NAME))))
-                                                                                    .getContent();
-        Pair<Integer, Integer> result = matchRequestNRecipientRetryable(grantedToBeMatched);
+        PageRequest page = PageRequest.of(0,
+                                          properties.getMaxBulkSize(),
+                                          Sort.by(Order.asc(NotificationRequest.REQUEST_DATE_JPQL_NAME)));
+        Pair<Integer, Integer> result;
+        if (isRawMatchingAvailable()) {
+            List<Long> grantedToBeMatched = notificationRequestRepository.findIdsPageByState(NotificationState.GRANTED,
+                                                                                             page)
+                                                                         .map(NotifRequestId::getId)
+                                                                         .getContent();
+            result = matchRawRequestsRetryable(grantedToBeMatched);
+        } else {
+            List<NotificationRequest> grantedToBeMatched = notificationRequestRepository.findByState(NotificationState.GRANTED,
+                                                                                                     page)
+                                                                                        .getContent();
+            result = matchRequestNRecipientRetryable(grantedToBeMatched);
+        }
         LOGGER.debug("------------------------ Stopping MATCHING in {} ms", System.currentTimeMillis() - startTime);
         return result;
     }
@@ -120,6 +165,27 @@ public class NotificationMatchingService {
         }
     }
 
+    private Pair<Integer, Integer> matchRawRequestsRetryable(List<Long> toBeMatched) {
+        try {
+            return self.matchRawRequestsConcurrent(toBeMatched);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            LOGGER.trace(OPTIMIST_LOCK_LOG_MSG, e);
+            // Same as matchRequestNRecipientRetryable, requests are read again from database by the retry
+            return matchRawRequestsRetryable(toBeMatched);
+        }
+    }
+
+    /**
+     * Raw matching is only used if enabled and if all rules are compiled, as rule plugins need whole objects
+     */
+    private boolean isRawMatchingAvailable() {
+        if (!properties.isRawMatchingEnabled()) {
+            return false;
+        }
+        RuleIndex ruleIndex = getRuleIndex();
+        return (ruleIndex != null) && ruleIndex.isFullyCompiled();
+    }
+
     /**
      * Retrieve a {@link IRuleMatcher} plugin from given map cache or from
      * {@link fr.cnes.regards.framework.modules.plugins.service.PluginService} if not in cache.
@@ -134,6 +200,19 @@ public class NotificationMatchingService {
         return ruleMatcher;
     }
 
+    /**
+     * @return compiled rules of current tenant, null if they cannot be retrieved so that rules are evaluated by their
+     * plugin
+     */
+    private RuleIndex getRuleIndex() {
+        try {
+            return ruleIndexCache.getRuleIndex();
+        } catch (ExecutionException e) {
+            LOGGER.error("Rules could not be compiled", e);
+            return null;
+        }
+    }
+
     private record RuleMatchingResult //NOSONAR bug with sonar and record -> it's considered as empty method.
         (boolean match,
          boolean error) {
@@ -143,17 +222,35 @@ public class NotificationMatchingService {
     /**
      * Check if the given request match the given rule for notification.
      * Result object indicates if the rule match and if an error occurred during match process.
+     *
+     * @param metadata         metadata of the request
+     * @param payload          payload of the request
+     * @param ruleIndex        compiled rules, null if not available
+     * @param candidateRuleIds compiled rules that may match the request
      */
     private RuleMatchingResult isRuleMatching(Rule rule,
-                                              NotificationRequest notificationRequest,
-                                              Map<String, IRuleMatcher> pluginCache) {
+                                              JsonObject metadata,
+                                              JsonObject payload,
+                                              Map<String, IRuleMatcher> pluginCache,
+                                              RuleIndex ruleIndex,
+                                              Set<Long> candidateRuleIds) {
         boolean ruleMatched = false;
         boolean error = false;
 
         try {
-            IRuleMatcher rulePlugin = getPlugin(rule.getRulePlugin().getBusinessId(), pluginCache);
-            // check if the  element match with the rule
-            ruleMatched = rulePlugin.match(notificationRequest.getMetadata(), notificationRequest.getPayload());
+            Optional<RuleIndex.CompiledRuleMatcher> compiledRule = ruleIndex == null ?
+                Optional.empty() :
+                ruleIndex.getCompiledRule(rule.getId());
+            if (compiledRule.isPresent()) {
+                // compiled rules not found in the index cannot match the request
+                if (candidateRuleIds.contains(rule.getId())) {
+                    ruleMatched = compiledRule.get().matches(metadata, payload);
+                }
+            } else {
+                IRuleMatcher rulePlugin = getPlugin(rule.getRulePlugin().getBusinessId(), pluginCache);
+                // check if the  element match with the rule
+                ruleMatched = rulePlugin.match(metadata, payload);
+            }
         } catch (ModuleException | PluginMetadataNotFoundRuntimeException | PluginUtilsRuntimeException e) {
             // exception from rule plugin instantiation
             LOGGER.error(String.format("Error while get plugin with id %S", rule.getRulePlugin().getBusinessId()), e);
@@ -169,74 +266,260 @@ public class NotificationMatchingService {
         return new RuleMatchingResult(ruleMatched, error);
     }
 
+    /**
+     * Result of the matching of one request against all its rules to match
+     *
+     * @param matchedRecipients recipients of the rules that match the request
+     * @param couldBeMatched    rules that could be evaluated, matching or not
+     * @param rulesInError      plugins of the rules that could not be evaluated
+     */
+    private record RequestMatchingResult //NOSONAR bug with sonar and record -> it's considered as empty method.
+        (Long requestId,
+         boolean matched,
+         Set<PluginConfiguration> matchedRecipients,
+         Set<Rule> couldBeMatched,
+         Set<PluginConfiguration> rulesInError) {
+
+    }
+
+    /**
+     * Match given requests, split in partitions matched in parallel if matching parallelism is greater than 1
+     *
+     * @param partitionMatcher match a partition of the requests
+     */
+    private <T> List<RequestMatchingResult> matchInParallel(List<T> toBeMatched,
+                                                            Function<List<T>, List<RequestMatchingResult>> partitionMatcher) {
+        int parallelism = Math.min(properties.getMatchingParallelism(), toBeMatched.size());
+        if ((matchingExecutor == null) || (parallelism <= 1)) {
+            return partitionMatcher.apply(toBeMatched);
+        }
+        String tenant = runtimeTenantResolver.getTenant();
+        List<Future<List<RequestMatchingResult>>> partitions = new ArrayList<>(parallelism);
+        try {
+            int partitionSize = (toBeMatched.size() + parallelism - 1) / parallelism;
+            for (List<T> partition : Lists.partition(toBeMatched, partitionSize)) {
+                partitions.add(matchingExecutor.submit(() -> {
+                    runtimeTenantResolver.forceTenant(tenant);
+                    try {
+                        return partitionMatcher.apply(partition);
+                    } finally {
+                        runtimeTenantResolver.clearTenant();
+                    }
+                }));
+            }
+            List<RequestMatchingResult> results = new ArrayList<>(toBeMatched.size());
+            for (Future<List<RequestMatchingResult>> partition : partitions) {
+                results.addAll(partition.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RsRuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RsRuntimeException(e.getCause());
+        } finally {
+            // pool is shared between calls, so it is not shut down: partitions still running after a failure are cancelled
+            partitions.forEach(partition -> partition.cancel(true));
+        }
+    }
+
+    /**
+     * Match given requests against their rules to match. Nothing is written in database so that partitions can be
+     * matched in parallel.
+     */
+    private List<RequestMatchingResult> matchPartition(List<NotificationRequest> toBeMatched, RuleIndex ruleIndex) {
+        // plugin instances are cached per partition as a rule matcher is not expected to be thread safe
+        Map<String, IRuleMatcher> pluginCache = new HashMap<>();
+        List<RequestMatchingResult> results = new ArrayList<>(toBeMatched.size());
+        for (NotificationRequest notificationRequest : toBeMatched) {
+            results.add(matchRules(notificationRequest.getId(),
+                                   notificationRequest.getRulesToMatch(),
+                                   notificationRequest.getMetadata(),
+                                   notificationRequest.getPayload(),
+                                   pluginCache,
+                                   ruleIndex));
+        }
+        return results;
+    }
+
+    /**
+     * Match raw requests against their rules to match, only reading from their JSON the values needed by the rules.
+     * Requests that cannot be fully matched this way are not part of the results, so that they are matched again
+     * from their entity to report errors.
+     */
+    private List<RequestMatchingResult> matchRawPartition(List<RawNotificationRequest> toBeMatched,
+                                                          RuleIndex ruleIndex) {
+        List<RequestMatchingResult> results = new ArrayList<>(toBeMatched.size());
+        for (RawNotificationRequest rawRequest : toBeMatched) {
+            Set<Rule> rules = new HashSet<>();
+            boolean allRulesCompiled = true;
+            if (rawRequest.getRules() != null) {
+                for (String ruleId : rawRequest.getRules().split(",")) {
+                    Optional<Rule> rule = ruleIndex.getRule(Long.valueOf(ruleId));
+                    rule.ifPresent(rules::add);
+                    allRulesCompiled &= rule.isPresent();
+                }
+            }
+            if (allRulesCompiled) {
+                try {
+                    RequestMatchingResult result = matchRules(rawRequest.getId(),
+                                                              rules,
+                                                              ruleIndex.getMetadataExtractor()
+                                                                       .extract(rawRequest.getMetadata()),
+                                                              ruleIndex.getPayloadExtractor()
+                                                                       .extract(rawRequest.getPayload()),
+                                                              new HashMap<>(),
+                                                              ruleIndex);
+                    if (result.rulesInError().isEmpty()) {
+                        results.add(result);
+                    }
+                } catch (JsonParseException e) {
+                    LOGGER.debug("Request {} cannot be matched from its raw JSON", rawRequest.getId(), e);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Match one request against the given rules
+     *
+     * @param ruleIndex compiled rules, null if not available
+     */
+    private RequestMatchingResult matchRules(Long requestId,
+                                             Collection<Rule> rules,
+                                             JsonObject metadata,
+                                             JsonObject payload,
+                                             Map<String, IRuleMatcher> pluginCache,
+                                             RuleIndex ruleIndex) {
+        boolean matched = false;
+        Set<PluginConfiguration> matchedRecipients = new HashSet<>();
+        Set<Rule> couldBeMatched = new HashSet<>();
+        Set<PluginConfiguration> rulesInError = new HashSet<>();
+        // Only evaluate compiled rules indexed with one of the request properties
+        Set<Long> candidateRuleIds = ruleIndex == null ?
+            Collections.emptySet() :
+            ruleIndex.findCandidateRuleIds(metadata, payload);
+
+        for (Rule rule : rules) {
+            RuleMatchingResult result = isRuleMatching(rule, metadata, payload, pluginCache, ruleIndex, candidateRuleIds);
+            if (result.match) {
+                matched = true;
+                // If at least one rule match, add all recipients associated to the rule to the list of
+                // recipients to schedule.
+                matchedRecipients.addAll(rule.getRecipients());
+            }
+            // Check if an error occurs during rule matching
+            if (result.error) {
+                rulesInError.add(rule.getRulePlugin());
+            } else {
+                couldBeMatched.add(rule);
+            }
+        }
+        return new RequestMatchingResult(requestId, matched, matchedRecipients, couldBeMatched, rulesInError);
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public Pair<Integer, Integer> matchRequestNRecipientConcurrent(List<NotificationRequest> toBeMatched) {
-
         long firstStart = System.currentTimeMillis();
         LOGGER.debug("[MATCHING] Start ...");
+        RuleIndex ruleIndex = getRuleIndex();
+        List<RequestMatchingResult> results = matchInParallel(toBeMatched,
+                                                              partition -> matchPartition(partition, ruleIndex));
+        LOGGER.debug("[MATCHING] Calculation done in {}ms", System.currentTimeMillis() - firstStart);
+        Pair<Integer, Integer> result = saveMatchingResults(results, toBeMatched);
+        LOGGER.debug("[MATCHING] done in {}ms", System.currentTimeMillis() - firstStart);
+        return result;
+    }
+
+    /**
+     * Match requests from their raw JSON, without parsing it entirely.
+     * Requests that cannot be matched this way are matched from their entity.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Pair<Integer, Integer> matchRawRequestsConcurrent(List<Long> toBeMatched) {
+        long firstStart = System.currentTimeMillis();
+        LOGGER.debug("[MATCHING] Start from raw requests ...");
+        RuleIndex ruleIndex = getRuleIndex();
+        List<RequestMatchingResult> results = new ArrayList<>(toBeMatched.size());
+        if (!toBeMatched.isEmpty()) {
+            results.addAll(matchInParallel(notificationRequestRepository.findRawByIdIn(toBeMatched),
+                                           partition -> matchRawPartition(partition, ruleIndex)));
+        }
+        Set<Long> notMatchedIds = new HashSet<>(toBeMatched);
+        results.forEach(result -> notMatchedIds.remove(result.requestId()));
+        List<NotificationRequest> notMatched = new ArrayList<>();
+        if (!notMatchedIds.isEmpty()) {
+            notMatched.addAll(notificationRequestRepository.findAllById(notMatchedIds));
+            results.addAll(matchInParallel(notMatched, partition -> matchPartition(partition, ruleIndex)));
+        }
+        LOGGER.debug("[MATCHING] Calculation done in {}ms, {} requests matched from their entity",
+                     System.currentTimeMillis() - firstStart,
+                     notMatched.size());
+        Pair<Integer, Integer> result = saveMatchingResults(results, notMatched);
+        LOGGER.debug("[MATCHING] done in {}ms", System.currentTimeMillis() - firstStart);
+        return result;
+    }
 
+    /**
+     * Save matching results in database
+     *
+     * @param requests requests of the results in error, if any
+     * @return number of matched requests and number of recipients of the rules that could be evaluated
+     */
+    private Pair<Integer, Integer> saveMatchingResults(List<RequestMatchingResult> results,
+                                                       List<NotificationRequest> requests) {
+        Map<Long, NotificationRequest> requestsById = requests.stream()
+                                                              .collect(Collectors.toMap(NotificationRequest::getId,
+                                                                                        Function.identity()));
         Set<PluginConfiguration> recipientsActuallyMatched = new HashSet<>();
-        Set<NotificationRequest> requestsActuallyMatched = new HashSet<>();
+        Set<Long> requestsActuallyMatched = new HashSet<>();
         Set<NotificationRequest> requestsCouldNotBeMatched = new HashSet<>();
         // iterate over notification request that now know which rules are to be matched
         // (association of pattern strategy(rules) and command(notification requests know what to apply))
         Set<PluginConfiguration> cannotBeInstantiatedRules = new HashSet<>();
 
-        Map<String, IRuleMatcher> pluginCache = new HashMap<>();
-
-        Set<NotificationRequest> fullyHandledRequests = new HashSet<>();
-        Set<NotificationRequest> requestsToSchedule = new HashSet<>();
+        Set<Long> requestsIdsFullyHandled = new HashSet<>();
+        Set<Long> requestIdsToSchedule = new HashSet<>();
+        // Request ids to link to each matched recipient
+        Map<Long, Set<Long>> requestIdsByRecipientId = new HashMap<>();
 
-        for (NotificationRequest notificationRequest : toBeMatched) {
-            Set<Rule> couldBeMatched = new HashSet<>();
-            boolean ruleMatchingError = false;
-            int nbRecipientsSchedule = 0;
-            Set<PluginConfiguration> matchedRecipients = new HashSet<>();
-
-            for (Rule rule : notificationRequest.getRulesToMatch()) {
-                RuleMatchingResult result = isRuleMatching(rule, notificationRequest, pluginCache);
-                if (result.match) {
-                    requestsActuallyMatched.add(notificationRequest);
-                    // If at least one rule match, add all recipients associated to the rule to the list of
-                    // recipients to schedule.
-                    if (!rule.getRecipients().isEmpty()) {
-                        matchedRecipients.addAll(rule.getRecipients());
-                        requestsToSchedule.add(notificationRequest);
-                    }
-                }
-                // Check if an error occurs during rule matching
-                if (result.error) {
-                    requestsCouldNotBeMatched.add(notificationRequest);
-                    cannotBeInstantiatedRules.add(rule.getRulePlugin());
-                    ruleMatchingError = true;
-                } else {
-                    couldBeMatched.add(rule);
-                    recipientsActuallyMatched.addAll(rule.getRecipients());
-                }
+        for (RequestMatchingResult result : results) {
+            Long requestId = result.requestId();
+            if (result.matched()) {
+                requestsActuallyMatched.add(requestId);
             }
-
+            if (!result.matchedRecipients().isEmpty()) {
+                requestIdsToSchedule.add(requestId);
+            }
+            result.couldBeMatched().forEach(rule -> recipientsActuallyMatched.addAll(rule.getRecipients()));
             // Add all recipients id to schedule for the current request.
-            matchedRecipients.forEach(recipient -> {
-                notificationRequestRepository.addRecipientToSchedule(notificationRequest.getId(), recipient.getId());
-            });
+            result.matchedRecipients()
+                  .forEach(recipient -> requestIdsByRecipientId.computeIfAbsent(recipient.getId(),
+                                                                                id -> new HashSet<>())
+                                                               .add(requestId));
             // If ruleMatchingError occurs, only delete rules matching succeed ones. Keep errors in rules to match for next launch.
-            if (ruleMatchingError) {
-                List<Long> ruleIdsToRemove = couldBeMatched.stream().map(Rule::getId).toList();
+            if (!result.rulesInError().isEmpty()) {
+                requestsCouldNotBeMatched.add(requestsById.get(requestId));
+                cannotBeInstantiatedRules.addAll(result.rulesInError());
+                List<Long> ruleIdsToRemove = result.couldBeMatched().stream().map(Rule::getId).toList();
                 if (!ruleIdsToRemove.isEmpty()) {
-                    notificationRequestRepository.removeRulesToMatch(notificationRequest.getId(), ruleIdsToRemove);
+                    notificationRequestRepository.removeRulesToMatch(requestId, ruleIdsToRemove);
                 }
             } else {
                 // Else, only add request to the list of success ended request to perform delete in one request after.
-                fullyHandledRequests.add(notificationRequest);
+                requestsIdsFullyHandled.add(requestId);
             }
 
-            // notificationRequest.getRulesToMatch().removeAll(couldBeMatched);
-            LOGGER.debug("[MATCHING] Notification {} is to send to {} recipients",
-                         notificationRequest.getRequestId(),
-                         nbRecipientsSchedule);
+            LOGGER.debug("[MATCHING] Notification request {} is to send to {} recipients",
+                         requestId,
+                         result.matchedRecipients().size());
         }
+        // Link requests to their recipients with one insert per recipient instead of one per request and recipient
+        requestIdsByRecipientId.forEach((recipientId, requestIds) -> notificationRequestRepository.addRecipientToSchedule(
+            requestIds,
+            recipientId));
 
-        LOGGER.debug("[MATCHING] Calculation done in {}ms", System.currentTimeMillis() - firstStart);
         long start = System.currentTimeMillis();
         // None of the notification requests have been set in state error
         // But there is indeed an issue that can only be resolved later (thanks to human interaction) so we need to say
@@ -266,13 +549,7 @@ public class NotificationMatchingService {
         }
         LOGGER.debug("[MATCHING] Notification done in {}ms", System.currentTimeMillis() - start);
 
-        Set<Long> requestsIdsFullyHandled = fullyHandledRequests.stream()
-                                                                .map(NotificationRequest::getId)
-                                                                .collect(Collectors.toSet());
-        Set<Long> requestIdsToSchedule = requestsToSchedule.stream()
-                                                           .map(NotificationRequest::getId)
-                                                           .collect(Collectors.toSet());
-        if (!fullyHandledRequests.isEmpty()) {
+        if (!requestsIdsFullyHandled.isEmpty()) {
             // For each request to fully handled (no error), delete all rules to match associated. Match is done.
             notificationRequestRepository.removeRulesToMatch(requestsIdsFullyHandled);
             // Remove all to scheduled request to keep only finished and not to schedule requests.
@@ -290,7 +567,6 @@ public class NotificationMatchingService {
             notificationRequestRepository.updateState(NotificationState.TO_SCHEDULE_BY_RECIPIENT, requestIdsToSchedule);
         }
 
-        LOGGER.debug("[MATCHING] done in {}ms", System.currentTimeMillis() - firstStart);
         return Pair.of(requestsActuallyMatched.size(), recipientsActuallyMatched.size());
     }
 
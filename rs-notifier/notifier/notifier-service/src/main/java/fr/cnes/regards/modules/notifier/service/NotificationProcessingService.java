@@ -18,12 +18,15 @@
  */
 package fr.cnes.regards.modules.notifier.service;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import fr.cnes.regards.framework.amqp.IPublisher;
+import fr.cnes.regards.framework.jpa.json.GsonUtil;
 import fr.cnes.regards.framework.jpa.multitenant.transactional.MultitenantTransactional;
 import fr.cnes.regards.framework.module.rest.exception.ModuleException;
 import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
 import fr.cnes.regards.framework.modules.jobs.domain.JobParameter;
+import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
 import fr.cnes.regards.framework.modules.jobs.service.IJobInfoService;
 import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
 import fr.cnes.regards.framework.modules.plugins.service.IPluginService;
@@ -113,16 +116,27 @@ public class NotificationProcessingService {
 
     private Collection<NotificationRequest> notifyRecipient(List<NotificationRequest> notificationRequests,
                                                             PluginConfiguration recipientConfiguration) {
+        IRecipientNotifier recipientNotifier;
         try {
-            Collection<NotificationRequest> errors = ((IRecipientNotifier) pluginService.getPlugin(
-                recipientConfiguration.getBusinessId())).send(notificationRequests);
-            return Optional.ofNullable(errors).orElse(Collections.emptySet());
+            recipientNotifier = pluginService.getPlugin(recipientConfiguration.getBusinessId());
         } catch (Exception e) {
-            // If there is an exception, we consider none of the requests could be handled,
-            // either due to error from plugin configuration or the plugin implementation itself
+            // If plugin cannot be instantiated, we consider none of the requests could be handled
             LOGGER.error("Error while sending notification to receiver", e);
             return notificationRequests;
         }
+        // Plugins accepting lists of requests receive them all at once, the others are given batches of their max size
+        Collection<NotificationRequest> errors = new HashSet<>();
+        for (List<NotificationRequest> batch : Lists.partition(notificationRequests,
+                                                               Math.max(1, recipientNotifier.getMaxBatchSize()))) {
+            try {
+                Optional.ofNullable(recipientNotifier.send(batch)).ifPresent(errors::addAll);
+            } catch (Exception e) {
+                // If there is an exception, we consider none of the requests of the batch could be handled
+                LOGGER.error("Error while sending notification to receiver", e);
+                errors.addAll(batch);
+            }
+        }
+        return errors;
     }
 
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
@@ -146,13 +160,18 @@ public class NotificationProcessingService {
     public Pair<Integer, Integer> handleRecipientResultsConcurrent(List<NotificationRequest> notificationRequests,
                                                                    PluginConfiguration recipient,
                                                                    Collection<NotificationRequest> notificationsInError) {
-        notificationRequests.forEach(notificationRequest -> {
-            if (notificationsInError.contains(notificationRequest)) {
-                notificationRequestRepository.addRecipientInError(notificationRequest.getId(), recipient.getId());
-            } else {
-                notificationRequestRepository.addRecipientInSuccess(notificationRequest.getId(), recipient.getId());
-            }
-        });
+        Map<Boolean, Set<Long>> requestIdsByIsInError = notificationRequests.stream()
+                                                                            .collect(Collectors.partitioningBy(
+                                                                                notificationsInError::contains,
+                                                                                Collectors.mapping(
+                                                                                    NotificationRequest::getId,
+                                                                                    Collectors.toSet())));
+        if (!requestIdsByIsInError.get(true).isEmpty()) {
+            notificationRequestRepository.addRecipientInError(requestIdsByIsInError.get(true), recipient.getId());
+        }
+        if (!requestIdsByIsInError.get(false).isEmpty()) {
+            notificationRequestRepository.addRecipientInSuccess(requestIdsByIsInError.get(false), recipient.getId());
+        }
 
         notificationRequestRepository.removeRecipientsScheduledForRequestIds(notificationRequests.stream()
                                                                                                  .map(
@@ -164,6 +183,12 @@ public class NotificationProcessingService {
 
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Set<Long> scheduleJobForOneRecipient(PluginConfiguration recipient) {
+        // Requests of a recipient already sending as many jobs as allowed wait for its next scheduling, so that a slow
+        // recipient does not fill the job pool at the expense of the others
+        if (hasMaxConcurrentJobs(recipient)) {
+            LOGGER.debug("Recipient {} has reached its max number of concurrent jobs", recipient.getLabel());
+            return new HashSet<>();
+        }
         LOGGER.debug("Starting SCHEDULING FOR {}", recipient.getLabel());
         long startTime = System.currentTimeMillis();
         Page<NotificationRequest> requestsToSchedule = findPageToScheduleContaining(recipient);
@@ -172,6 +197,35 @@ public class NotificationProcessingService {
         return result;
     }
 
+    private boolean hasMaxConcurrentJobs(PluginConfiguration recipient) {
+        int maxConcurrentJobs = getMaxConcurrentJobs(recipient);
+        if (maxConcurrentJobs <= 0) {
+            return false;
+        }
+        return jobInfoService.countByClassAndParameterValueAndStatus(NotificationJob.class.getName(),
+                                                                     NotificationJob.RECIPIENT_BUSINESS_ID,
+                                                                     GsonUtil.toString(recipient.getBusinessId()),
+                                                                     JobStatus.getAllNotFinishedStatus())
+               >= maxConcurrentJobs;
+    }
+
+    /**
+     * @return max number of concurrent jobs set by the recipient plugin if positive, else the default max number of
+     * concurrent jobs per recipient. No cap if not positive.
+     */
+    private int getMaxConcurrentJobs(PluginConfiguration recipient) {
+        try {
+            IRecipientNotifier recipientNotifier = pluginService.getPlugin(recipient.getBusinessId());
+            if (recipientNotifier.getMaxConcurrentJobs() > 0) {
+                return recipientNotifier.getMaxConcurrentJobs();
+            }
+        } catch (Exception e) {
+            // Requests of this recipient will be put in error by its job, the default cap applies until then
+            LOGGER.warn("Unable to get max number of concurrent jobs of recipient {}", recipient.getLabel(), e);
+        }
+        return properties.getMaxConcurrentJobsPerRecipient();
+    }
+
     private Page<NotificationRequest> findPageToScheduleContaining(PluginConfiguration recipient) {
         return notificationRequestRepository.findPageByStateAndRecipientsToScheduleContaining(NotificationState.TO_SCHEDULE_BY_RECIPIENT,
                                                                                               recipient,
@@ -207,7 +261,6 @@ public class NotificationProcessingService {
             Set<Long> scheduledRequestIds = new HashSet<>();
             for (NotificationRequest request : requestsToSchedule) {
                 requestIdsToSchedule.add(request.getId());
-                notificationRequestRepository.addRecipientScheduled(request.getId(), recipient.getId());
                 // If recipient to remove is the last one we can change request status to fully scheduled.
                 // A request is in SCHEDULED status only when all rules have been checked (no more entries in rules to
                 // match)
@@ -222,6 +275,7 @@ public class NotificationProcessingService {
                 }
             }
 
+            notificationRequestRepository.addRecipientScheduled(requestIdsToSchedule, recipient.getId());
             notificationRequestRepository.removeRecipientToScheduleForRequestIds(requestIdsToSchedule,
                                                                                  recipient.getId());
             if (!scheduledRequestIds.isEmpty()) {
@@ -62,6 +62,26 @@ public class NotificationConfigurationProperties {
     @Value("${regards.notifier.metrics.enabled:false}")
     private Boolean metricsEnabled;
 
+    /**
+     * Number of partitions of requests matched in parallel
+     */
+    @Value("${regards.notifier.matching.parallelism:1}")
+    private Integer matchingParallelism;
+
+    /**
+     * Match requests from their raw JSON, only reading the values needed by rules, when all rules can be compiled
+     */
+    @Value("${regards.notifier.matching.raw.enabled:false}")
+    private Boolean rawMatchingEnabled;
+
+    /**
+     * Max number of notification jobs queued or running at the same time for one recipient, used for recipients whose
+     * plugin does not set its own (see IRecipientNotifier#getMaxConcurrentJobs).
+     * 0 by default, which means no cap, like any negative value.
+     */
+    @Value("${regards.notifier.recipient.max.concurrent.jobs:0}")
+    private Integer maxConcurrentJobsPerRecipient;
+
     public Boolean isMetricsEnabled() {
         return metricsEnabled;
     }
@@ -109,4 +129,28 @@ public class NotificationConfigurationProperties {
     public void setBatchReceiveTimeout(Long batchReceiveTimeout) {
         this.batchReceiveTimeout = batchReceiveTimeout;
     }
+
+    public Integer getMatchingParallelism() {
+        return matchingParallelism;
+    }
+
+    public void setMatchingParallelism(Integer matchingParallelism) {
+        this.matchingParallelism = matchingParallelism;
+    }
+
+    public Integer getMaxConcurrentJobsPerRecipient() {
+        return maxConcurrentJobsPerRecipient;
+    }
+
+    public void setMaxConcurrentJobsPerRecipient(Integer maxConcurrentJobsPerRecipient) {
+        this.maxConcurrentJobsPerRecipient = maxConcurrentJobsPerRecipient;
+    }
+
+    public Boolean isRawMatchingEnabled() {
+        return rawMatchingEnabled;
+    }
+
+    public void setRawMatchingEnabled(Boolean rawMatchingEnabled) {
+        this.rawMatchingEnabled = rawMatchingEnabled;
+    }
 }
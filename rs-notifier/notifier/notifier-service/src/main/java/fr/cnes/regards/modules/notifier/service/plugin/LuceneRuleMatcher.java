@@ -61,6 +61,20 @@ public class LuceneRuleMatcher implements IRuleMatcher {
         }
     }
 
+    /**
+     * @return parsed metadata rule, null if any metadata matches
+     */
+    public IRule getComputedMetadataRule() {
+        return computedMetadataRule;
+    }
+
+    /**
+     * @return parsed payload rule, null if any payload matches
+     */
+    public IRule getComputedPayloadRule() {
+        return computedPayloadRule;
+    }
+
     private boolean match(JsonObject jsonObject, IRule computedLuceneRule) {
         if (computedLuceneRule == null) {
             return true;
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service.rule;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import fr.cnes.regards.framework.utils.parser.IRuleVisitor;
+import fr.cnes.regards.framework.utils.parser.JsonObjectMatchVisitor;
+import fr.cnes.regards.framework.utils.parser.rule.*;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * {@link IRule} compiled once into a predicate tree, with its property paths already split.<br/>
+ * A compiled rule matches the same objects as the rule visited by a {@link JsonObjectMatchVisitor}.
+ */
+public final class CompiledRule {
+
+    /**
+     * Property equality of a rule, on a non-null value
+     */
+    public record PropertyTerm(JsonPropertyPath path,
+                               String value) {
+
+    }
+
+    private final Predicate<JsonObject> predicate;
+
+    /**
+     * Terms of which at least one holds for every matching object. Null if the rule has no such terms.
+     */
+    private final Set<PropertyTerm> terms;
+
+    /**
+     * Property paths read by the rule
+     */
+    private final Set<JsonPropertyPath> paths;
+
+    private CompiledRule(Predicate<JsonObject> predicate, Set<PropertyTerm> terms, Set<JsonPropertyPath> paths) {
+        this.predicate = predicate;
+        this.terms = terms;
+        this.paths = Collections.unmodifiableSet(paths);
+    }
+
+    public static CompiledRule compile(IRule rule) {
+        PredicateCompiler compiler = new PredicateCompiler();
+        Predicate<JsonObject> predicate = rule.accept(compiler);
+        return new CompiledRule(predicate, rule.accept(new TermExtractor()), compiler.paths);
+    }
+
+    public boolean matches(JsonObject object) {
+        if (object == null) {
+            throw new IllegalArgumentException("JSON object cannot be null");
+        }
+        return predicate.test(object);
+    }
+
+    /**
+     * @return equality terms of which at least one holds for every matching object, empty if the rule has no such
+     * terms, in which case it must be evaluated against every object
+     */
+    public Optional<Set<PropertyTerm>> getTerms() {
+        return Optional.ofNullable(terms);
+    }
+
+    /**
+     * @return property paths read by the rule, an object reduced to the values at these paths is matched like the
+     * whole object
+     */
+    public Set<JsonPropertyPath> getPaths() {
+        return paths;
+    }
+
+    /**
+     * Build the predicate tree of a rule
+     */
+    private static class PredicateCompiler implements IRuleVisitor<Predicate<JsonObject>> {
+
+        private final Set<JsonPropertyPath> paths = new HashSet<>();
+
+        @Override
+        public Predicate<JsonObject> visitAnd(AndRule rule) {
+            List<Predicate<JsonObject>> children = rule.getRules().stream().map(child -> child.accept(this)).toList();
+            return object -> {
+                for (Predicate<JsonObject> child : children) {
+                    if (!child.test(object)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+
+        @Override
+        public Predicate<JsonObject> visitOr(OrRule rule) {
+            List<Predicate<JsonObject>> children = rule.getRules().stream().map(child -> child.accept(this)).toList();
+            return object -> {
+                for (Predicate<JsonObject> child : children) {
+                    if (child.test(object)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+
+        @Override
+        public Predicate<JsonObject> visitNot(NotRule rule) {
+            return rule.getRule().accept(this).negate();
+        }
+
+        @Override
+        public Predicate<JsonObject> visitProperty(PropertyRule rule) {
+            JsonPropertyPath path = new JsonPropertyPath(rule.getProperty());
+            paths.add(path);
+            String value = rule.getValue();
+            return object -> {
+                JsonElement el = path.find(object);
+                if (el == null) {
+                    return value == null;
+                }
+                if (value == null) {
+                    return el.getAsString() == null;
+                }
+                return el.isJsonPrimitive() && value.equals(el.getAsString());
+            };
+        }
+
+        @Override
+        public Predicate<JsonObject> visitRegex(RegexpPropertyRule rule) {
+            JsonPropertyPath path = new JsonPropertyPath(rule.getProperty());
+            paths.add(path);
+            Pattern pattern = rule.getPattern();
+            return object -> {
+                JsonElement el = path.find(object);
+                return (el != null) && el.isJsonPrimitive() && pattern.matcher(el.getAsString()).matches();
+            };
+        }
+    }
+
+    /**
+     * Find, for a rule, equality terms of which at least one holds for every matching object.
+     * Null when no such terms can be found (negation, regular expression, or alternative without terms).
+     */
+    private static class TermExtractor implements IRuleVisitor<Set<PropertyTerm>> {
+
+        @Override
+        public Set<PropertyTerm> visitAnd(AndRule rule) {
+            // Terms of any child are enough, keep the most selective ones
+            Set<PropertyTerm> terms = null;
+            for (IRule child : rule.getRules()) {
+                Set<PropertyTerm> childTerms = child.accept(this);
+                if ((childTerms != null) && ((terms == null) || (childTerms.size() < terms.size()))) {
+                    terms = childTerms;
+                }
+            }
+            return terms;
+        }
+
+        @Override
+        public Set<PropertyTerm> visitOr(OrRule rule) {
+            // Every alternative must have terms
+            Set<PropertyTerm> terms = new HashSet<>();
+            for (IRule child : rule.getRules()) {
+                Set<PropertyTerm> childTerms = child.accept(this);
+                if (childTerms == null) {
+                    return null;
+                }
+                terms.addAll(childTerms);
+            }
+            return terms;
+        }
+
+        @Override
+        public Set<PropertyTerm> visitNot(NotRule rule) {
+            return null;
+        }
+
+        @Override
+        public Set<PropertyTerm> visitProperty(PropertyRule rule) {
+            if (rule.getValue() == null) {
+                return null;
+            }
+            return Set.of(new PropertyTerm(new JsonPropertyPath(rule.getProperty()), rule.getValue()));
+        }
+
+        @Override
+        public Set<PropertyTerm> visitRegex(RegexpPropertyRule rule) {
+            return null;
+        }
+    }
+}
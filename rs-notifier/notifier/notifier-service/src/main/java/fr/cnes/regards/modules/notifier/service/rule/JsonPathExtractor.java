@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service.rule;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read, from raw JSON, only the values at given property paths.<br/>
+ * The JSON is read with a streaming parser : values out of the paths are skipped without being materialized, so the
+ * extracted object stays small whatever the size of the JSON. Values at the paths are copied entirely.
+ */
+public final class JsonPathExtractor {
+
+    /**
+     * Tree of path segments
+     */
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        /**
+         * True if a path ends at this node, its value is then copied entirely
+         */
+        private boolean leaf;
+    }
+
+    private final Node root = new Node();
+
+    public JsonPathExtractor(Collection<JsonPropertyPath> paths) {
+        for (JsonPropertyPath path : paths) {
+            Node node = root;
+            for (String segment : path.getSegments()) {
+                node = node.children.computeIfAbsent(segment, name -> new Node());
+            }
+            node.leaf = true;
+        }
+    }
+
+    /**
+     * @param json raw JSON object
+     * @return object with only the values at the property paths of this extractor
+     * @throws JsonParseException if the JSON is not a valid object
+     */
+    public JsonObject extract(String json) {
+        return extract(new StringReader(json));
+    }
+
+    /**
+     * @param json reader of a raw JSON object
+     * @return object with only the values at the property paths of this extractor
+     * @throws JsonParseException if the JSON is not a valid object
+     */
+    public JsonObject extract(Reader json) {
+        try {
+            JsonReader reader = new JsonReader(json);
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JsonParseException("JSON value is not an object");
+            }
+            return readObject(reader, root);
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    private static JsonObject readObject(JsonReader reader, Node node) throws IOException {
+        JsonObject object = new JsonObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            Node child = node.children.get(name);
+            if (child == null) {
+                reader.skipValue();
+            } else if (child.leaf) {
+                object.add(name, JsonParser.parseReader(reader));
+            } else if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                object.add(name, readObject(reader, child));
+            } else {
+                // Paths cannot go through other values than objects
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return object;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service.rule;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Property path of a rule, split once when the rule is compiled
+ */
+public final class JsonPropertyPath {
+
+    private final String path;
+
+    private final String[] segments;
+
+    public JsonPropertyPath(String path) {
+        this.path = path;
+        this.segments = path.split("\\.");
+    }
+
+    /**
+     * @return element at this path in the given object, null if there is none
+     */
+    public JsonElement find(JsonObject object) {
+        JsonElement el = object;
+        for (String segment : segments) {
+            if (el == null || !el.isJsonObject()) {
+                return null;
+            }
+            el = el.getAsJsonObject().get(segment);
+        }
+        return el;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    String[] getSegments() {
+        return segments.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return (this == o) || ((o instanceof JsonPropertyPath other) && path.equals(other.path));
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service.rule;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import fr.cnes.regards.framework.utils.parser.rule.IRule;
+import fr.cnes.regards.modules.notifier.domain.Rule;
+import fr.cnes.regards.modules.notifier.service.plugin.LuceneRuleMatcher;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Rules compiled once for a set of {@link Rule}s, with an inverted index on their equality terms.<br/>
+ * For a notification request, the index gives the candidate rules, only those have to be evaluated. Other compiled
+ * rules cannot match the request.<br/>
+ * Only {@link LuceneRuleMatcher} rules are compiled, other rules have to be evaluated by their plugin.
+ */
+public class RuleIndex {
+
+    /**
+     * Compiled metadata and payload rules of a {@link LuceneRuleMatcher}, null if any object matches
+     */
+    public record CompiledRuleMatcher(CompiledRule metadataRule,
+                                      CompiledRule payloadRule) {
+
+        public boolean matches(JsonObject metadata, JsonObject payload) {
+            return ((metadataRule == null) || metadataRule.matches(metadata)) && ((payloadRule == null)
+                                                                                   || payloadRule.matches(payload));
+        }
+    }
+
+    /**
+     * Rules this index was compiled from
+     */
+    private final Set<Rule> rules;
+
+    private final Map<Long, CompiledRuleMatcher> compiledRules = new HashMap<>();
+
+    /**
+     * Compiled rules by identifier
+     */
+    private final Map<Long, Rule> rulesById = new HashMap<>();
+
+    /**
+     * Compiled rules without equality terms, candidates for every request
+     */
+    private final Set<Long> unindexedRuleIds = new HashSet<>();
+
+    /**
+     * Rule identifiers by metadata property path and value
+     */
+    private final Map<JsonPropertyPath, Map<String, Set<Long>>> metadataIndex = new HashMap<>();
+
+    /**
+     * Rule identifiers by payload property path and value
+     */
+    private final Map<JsonPropertyPath, Map<String, Set<Long>>> payloadIndex = new HashMap<>();
+
+    /**
+     * Metadata property paths read by compiled rules
+     */
+    private final Set<JsonPropertyPath> metadataPaths = new HashSet<>();
+
+    /**
+     * Payload property paths read by compiled rules
+     */
+    private final Set<JsonPropertyPath> payloadPaths = new HashSet<>();
+
+    private JsonPathExtractor metadataExtractor;
+
+    private JsonPathExtractor payloadExtractor;
+
+    private RuleIndex(Set<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Compile the given rules
+     *
+     * @param matcherResolver give the {@link LuceneRuleMatcher} of a rule, if any
+     */
+    public static RuleIndex compile(Set<Rule> rules, Function<Rule, Optional<LuceneRuleMatcher>> matcherResolver) {
+        RuleIndex ruleIndex = new RuleIndex(rules);
+        for (Rule rule : rules) {
+            matcherResolver.apply(rule).ifPresent(matcher -> ruleIndex.add(rule, matcher));
+        }
+        ruleIndex.metadataExtractor = new JsonPathExtractor(ruleIndex.metadataPaths);
+        ruleIndex.payloadExtractor = new JsonPathExtractor(ruleIndex.payloadPaths);
+        return ruleIndex;
+    }
+
+    private void add(Rule rule, LuceneRuleMatcher matcher) {
+        Long ruleId = rule.getId();
+        CompiledRule metadataRule = compile(matcher.getComputedMetadataRule());
+        CompiledRule payloadRule = compile(matcher.getComputedPayloadRule());
+        compiledRules.put(ruleId, new CompiledRuleMatcher(metadataRule, payloadRule));
+        rulesById.put(ruleId, rule);
+        if (metadataRule != null) {
+            metadataPaths.addAll(metadataRule.getPaths());
+        }
+        if (payloadRule != null) {
+            payloadPaths.addAll(payloadRule.getPaths());
+        }
+
+        // Both metadata and payload rules must match, so the terms of only one of them are enough
+        Optional<Set<CompiledRule.PropertyTerm>> metadataTerms = getTerms(metadataRule);
+        Optional<Set<CompiledRule.PropertyTerm>> payloadTerms = getTerms(payloadRule);
+        if (metadataTerms.isPresent() && (payloadTerms.isEmpty()
+                                          || metadataTerms.get().size() <= payloadTerms.get().size())) {
+            index(metadataIndex, metadataTerms.get(), ruleId);
+        } else if (payloadTerms.isPresent()) {
+            index(payloadIndex, payloadTerms.get(), ruleId);
+        } else {
+            unindexedRuleIds.add(ruleId);
+        }
+    }
+
+    private static CompiledRule compile(IRule rule) {
+        return rule == null ? null : CompiledRule.compile(rule);
+    }
+
+    private static Optional<Set<CompiledRule.PropertyTerm>> getTerms(CompiledRule rule) {
+        return rule == null ? Optional.empty() : rule.getTerms();
+    }
+
+    private static void index(Map<JsonPropertyPath, Map<String, Set<Long>>> index,
+                              Set<CompiledRule.PropertyTerm> terms,
+                              Long ruleId) {
+        for (CompiledRule.PropertyTerm term : terms) {
+            index.computeIfAbsent(term.path(), path -> new HashMap<>())
+                 .computeIfAbsent(term.value(), value -> new HashSet<>())
+                 .add(ruleId);
+        }
+    }
+
+    /**
+     * @return true if this index was compiled from this exact set of rules
+     */
+    public boolean isCompiledFrom(Set<Rule> rules) {
+        return this.rules == rules;
+    }
+
+    /**
+     * @return true if all the rules this index was compiled from have been compiled
+     */
+    public boolean isFullyCompiled() {
+        return compiledRules.size() == rules.size();
+    }
+
+    public Optional<CompiledRuleMatcher> getCompiledRule(Long ruleId) {
+        return Optional.ofNullable(compiledRules.get(ruleId));
+    }
+
+    /**
+     * @return compiled rule with the given identifier
+     */
+    public Optional<Rule> getRule(Long ruleId) {
+        return Optional.ofNullable(rulesById.get(ruleId));
+    }
+
+    /**
+     * @return extractor of the metadata values read by compiled rules. Compiled rules and candidates of an extracted
+     * object are the same as those of the whole object.
+     */
+    public JsonPathExtractor getMetadataExtractor() {
+        return metadataExtractor;
+    }
+
+    /**
+     * @return extractor of the payload values read by compiled rules. Compiled rules and candidates of an extracted
+     * object are the same as those of the whole object.
+     */
+    public JsonPathExtractor getPayloadExtractor() {
+        return payloadExtractor;
+    }
+
+    /**
+     * Find the compiled rules that may match a request. Other compiled rules do not match it.
+     */
+    public Set<Long> findCandidateRuleIds(JsonObject metadata, JsonObject payload) {
+        if ((metadata == null) || (payload == null)) {
+            // Let the evaluation of rules report invalid requests
+            return compiledRules.keySet();
+        }
+        Set<Long> candidates = new HashSet<>(unindexedRuleIds);
+        addCandidates(metadataIndex, metadata, candidates);
+        addCandidates(payloadIndex, payload, candidates);
+        return candidates;
+    }
+
+    private static void addCandidates(Map<JsonPropertyPath, Map<String, Set<Long>>> index,
+                                      JsonObject object,
+                                      Set<Long> candidates) {
+        for (Map.Entry<JsonPropertyPath, Map<String, Set<Long>>> entry : index.entrySet()) {
+            JsonElement el = entry.getKey().find(object);
+            if ((el != null) && el.isJsonPrimitive()) {
+                candidates.addAll(entry.getValue().getOrDefault(el.getAsString(), Collections.emptySet()));
+            }
+        }
+    }
+}
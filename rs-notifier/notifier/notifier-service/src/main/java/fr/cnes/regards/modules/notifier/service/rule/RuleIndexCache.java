@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service.rule;
+
+import fr.cnes.regards.framework.modules.plugins.service.IPluginService;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import fr.cnes.regards.modules.notifier.domain.Rule;
+import fr.cnes.regards.modules.notifier.domain.plugin.IRuleMatcher;
+import fr.cnes.regards.modules.notifier.service.RuleCache;
+import fr.cnes.regards.modules.notifier.service.plugin.LuceneRuleMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * {@link RuleIndex} of the rules of {@link RuleCache} by tenant.<br/>
+ * Rules are compiled again as soon as {@link RuleCache} gives a new set of rules, i.e. after it has been cleared.
+ */
+@Component
+public class RuleIndexCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RuleIndexCache.class);
+
+    private final RuleCache ruleCache;
+
+    private final IPluginService pluginService;
+
+    private final IRuntimeTenantResolver runtimeTenantResolver;
+
+    private final Map<String, RuleIndex> ruleIndexPerTenant = new ConcurrentHashMap<>();
+
+    public RuleIndexCache(RuleCache ruleCache,
+                          IPluginService pluginService,
+                          IRuntimeTenantResolver runtimeTenantResolver) {
+        this.ruleCache = ruleCache;
+        this.pluginService = pluginService;
+        this.runtimeTenantResolver = runtimeTenantResolver;
+    }
+
+    /**
+     * Get the rule index of the current tenant
+     *
+     * @throws ExecutionException if rules cannot be retrieved
+     */
+    public RuleIndex getRuleIndex() throws ExecutionException {
+        Set<Rule> rules = ruleCache.getRules();
+        return ruleIndexPerTenant.compute(runtimeTenantResolver.getTenant(),
+                                          (tenant, ruleIndex) -> (ruleIndex != null) && ruleIndex.isCompiledFrom(
+                                              rules) ? ruleIndex : compile(tenant, rules));
+    }
+
+    private RuleIndex compile(String tenant, Set<Rule> rules) {
+        long start = System.currentTimeMillis();
+        RuleIndex ruleIndex = RuleIndex.compile(rules, this::getLuceneRuleMatcher);
+        LOGGER.info("{} rules of tenant {} compiled in {} ms", rules.size(), tenant, System.currentTimeMillis() - start);
+        return ruleIndex;
+    }
+
+    private Optional<LuceneRuleMatcher> getLuceneRuleMatcher(Rule rule) {
+        try {
+            IRuleMatcher ruleMatcher = pluginService.getPlugin(rule.getRulePlugin().getBusinessId());
+            return ruleMatcher instanceof LuceneRuleMatcher luceneRuleMatcher ?
+                Optional.of(luceneRuleMatcher) :
+                Optional.empty();
+        } catch (Exception e) {
+            // Rule is left to its plugin, errors are reported when it is evaluated
+            LOGGER.debug("Rule {} cannot be compiled", rule.getId(), e);
+            return Optional.empty();
+        }
+    }
+}
@@ -20,10 +20,12 @@ package fr.cnes.regards.modules.notifier.mock;
 
 import fr.cnes.regards.framework.amqp.IPublisher;
 import fr.cnes.regards.framework.modules.plugins.service.IPluginService;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.framework.notification.client.INotificationClient;
 import fr.cnes.regards.modules.notifier.dao.INotificationRequestRepository;
 import fr.cnes.regards.modules.notifier.service.NotificationMatchingService;
 import fr.cnes.regards.modules.notifier.service.conf.NotificationConfigurationProperties;
+import fr.cnes.regards.modules.notifier.service.rule.RuleIndexCache;
 import lombok.Getter;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
@@ -46,12 +48,16 @@ public class NotificationMatchingServiceMock extends NotificationMatchingService
                                            IPluginService pluginService,
                                            NotificationConfigurationProperties properties,
                                            INotificationClient notificationClient,
+                                           RuleIndexCache ruleIndexCache,
+                                           IRuntimeTenantResolver runtimeTenantResolver,
                                            NotificationMatchingService notificationMatchingService) {
         super(notificationRequestRepository,
               publisher,
               pluginService,
               properties,
               notificationClient,
+              ruleIndexCache,
+              runtimeTenantResolver,
               notificationMatchingService);
     }
 }
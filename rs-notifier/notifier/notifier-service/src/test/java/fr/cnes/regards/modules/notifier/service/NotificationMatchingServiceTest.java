@@ -0,0 +1,214 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service;
+
+import com.google.gson.JsonObject;
+import fr.cnes.regards.framework.amqp.IPublisher;
+import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
+import fr.cnes.regards.framework.modules.plugins.service.IPluginService;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import fr.cnes.regards.framework.notification.client.INotificationClient;
+import fr.cnes.regards.modules.notifier.dao.INotificationRequestRepository;
+import fr.cnes.regards.modules.notifier.domain.NotificationRequest;
+import fr.cnes.regards.modules.notifier.domain.Rule;
+import fr.cnes.regards.modules.notifier.domain.plugin.IRuleMatcher;
+import fr.cnes.regards.modules.notifier.dto.out.NotificationState;
+import fr.cnes.regards.modules.notifier.service.conf.NotificationConfigurationProperties;
+import fr.cnes.regards.modules.notifier.service.rule.RuleIndexCache;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.util.Pair;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import static fr.cnes.regards.modules.notifier.service.PluginConfigurationTestBuilder.aPlugin;
+
+/**
+ * Test for the matching of requests in parallel partitions with {@link NotificationMatchingService}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationMatchingServiceTest {
+
+    private static final String TENANT = "tenant";
+
+    private static final String RULE_PLUGIN = "rule";
+
+    private static final int NB_REQUESTS = 8;
+
+    @Mock
+    private INotificationRequestRepository notificationRequestRepository;
+
+    @Mock
+    private IPublisher publisher;
+
+    @Mock
+    private IPluginService pluginService;
+
+    @Mock
+    private INotificationClient notificationClient;
+
+    @Mock
+    private RuleIndexCache ruleIndexCache;
+
+    @Mock
+    private IRuntimeTenantResolver runtimeTenantResolver;
+
+    @Mock
+    private IRuleMatcher ruleMatcher;
+
+    private final NotificationConfigurationProperties properties = new NotificationConfigurationProperties();
+
+    private final Set<String> matchingThreads = ConcurrentHashMap.newKeySet();
+
+    private PluginConfiguration recipient1;
+
+    private PluginConfiguration recipient2;
+
+    private Rule rule;
+
+    @Before
+    public void init() throws Exception {
+        properties.setRawMatchingEnabled(false);
+        recipient1 = aPlugin().identified("recipient1").build();
+        recipient1.setId(20L);
+        recipient2 = aPlugin().identified("recipient2").build();
+        recipient2.setId(21L);
+        PluginConfiguration rulePlugin = aPlugin().identified(RULE_PLUGIN).build();
+        rulePlugin.setId(10L);
+        rule = Rule.build(rulePlugin, List.of(recipient1, recipient2));
+        rule.setId(1L);
+        Mockito.lenient().when(runtimeTenantResolver.getTenant()).thenReturn(TENANT);
+        Mockito.when(pluginService.getPlugin(RULE_PLUGIN)).thenReturn(ruleMatcher);
+        // Requests are matched if their payload says so
+        Mockito.when(ruleMatcher.match(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+            matchingThreads.add(Thread.currentThread().getName());
+            JsonObject payload = invocation.getArgument(1);
+            return payload.get("match").getAsBoolean();
+        });
+    }
+
+    private NotificationMatchingService createService(int parallelism) {
+        properties.setMatchingParallelism(parallelism);
+        return new NotificationMatchingService(notificationRequestRepository,
+                                               publisher,
+                                               pluginService,
+                                               properties,
+                                               notificationClient,
+                                               ruleIndexCache,
+                                               runtimeTenantResolver,
+                                               null);
+    }
+
+    /**
+     * Requests with odd ids match the rule, the others do not
+     */
+    private List<NotificationRequest> createRequests() {
+        List<NotificationRequest> requests = new ArrayList<>(NB_REQUESTS);
+        for (long id = 1; id <= NB_REQUESTS; id++) {
+            JsonObject payload = new JsonObject();
+            payload.addProperty("match", (id % 2) == 1);
+            NotificationRequest request = new NotificationRequest(payload,
+                                                                  new JsonObject(),
+                                                                  "request" + id,
+                                                                  "owner",
+                                                                  OffsetDateTime.now(),
+                                                                  NotificationState.GRANTED);
+            request.setId(id);
+            request.getRulesToMatch().add(rule);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private void checkMatchingResults(Pair<Integer, Integer> result) {
+        Assert.assertEquals(NB_REQUESTS / 2, result.getFirst().intValue());
+        Assert.assertEquals(2, result.getSecond().intValue());
+        // Matched requests are linked to each recipient with one set-based update per recipient
+        Set<Long> matchedIds = Set.of(1L, 3L, 5L, 7L);
+        Mockito.verify(notificationRequestRepository).addRecipientToSchedule(matchedIds, recipient1.getId());
+        Mockito.verify(notificationRequestRepository).addRecipientToSchedule(matchedIds, recipient2.getId());
+        Mockito.verify(notificationRequestRepository, Mockito.never())
+               .addRecipientToSchedule(Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(notificationRequestRepository)
+               .updateState(NotificationState.TO_SCHEDULE_BY_RECIPIENT, matchedIds);
+        Mockito.verify(notificationRequestRepository)
+               .updateState(NotificationState.SCHEDULED, Set.of(2L, 4L, 6L, 8L));
+    }
+
+    @Test
+    public void test_match_partitions_in_parallel() {
+        // Given
+        NotificationMatchingService matchingService = createService(4);
+
+        // When
+        Pair<Integer, Integer> result = matchingService.matchRequestNRecipientConcurrent(createRequests());
+
+        // Then each partition is matched in its own thread of the pool, with the tenant of the caller
+        checkMatchingResults(result);
+        Assert.assertEquals(4, matchingThreads.size());
+        Assert.assertFalse(matchingThreads.contains(Thread.currentThread().getName()));
+        Mockito.verify(runtimeTenantResolver, Mockito.times(4)).forceTenant(TENANT);
+        Mockito.verify(runtimeTenantResolver, Mockito.times(4)).clearTenant();
+        matchingService.destroy();
+    }
+
+    @Test
+    public void test_pool_shared_between_calls() {
+        // Given
+        NotificationMatchingService matchingService = createService(2);
+        ExecutorService matchingExecutor = (ExecutorService) ReflectionTestUtils.getField(matchingService,
+                                                                                          "matchingExecutor");
+
+        // When
+        matchingService.matchRequestNRecipientConcurrent(createRequests());
+        matchingService.matchRequestNRecipientConcurrent(createRequests());
+
+        // Then partitions of both calls are matched by the threads of the same pool, which is only shut down with
+        // the bean
+        Assert.assertEquals(2, matchingThreads.size());
+        Assert.assertFalse(matchingExecutor.isShutdown());
+        matchingService.destroy();
+        Assert.assertTrue(matchingExecutor.isShutdown());
+    }
+
+    @Test
+    public void test_match_sequentially() {
+        // Given
+        NotificationMatchingService matchingService = createService(1);
+
+        // When
+        Pair<Integer, Integer> result = matchingService.matchRequestNRecipientConcurrent(createRequests());
+
+        // Then requests are matched by the calling thread without any pool
+        checkMatchingResults(result);
+        Assert.assertEquals(Set.of(Thread.currentThread().getName()), matchingThreads);
+        Assert.assertNull(ReflectionTestUtils.getField(matchingService, "matchingExecutor"));
+        Mockito.verify(runtimeTenantResolver, Mockito.never()).forceTenant(Mockito.anyString());
+        matchingService.destroy();
+    }
+}
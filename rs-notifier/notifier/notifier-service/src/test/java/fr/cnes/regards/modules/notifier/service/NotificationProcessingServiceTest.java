@@ -0,0 +1,253 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service;
+
+import com.google.gson.JsonObject;
+import fr.cnes.regards.framework.amqp.IPublisher;
+import fr.cnes.regards.framework.gson.GsonCustomizer;
+import fr.cnes.regards.framework.jpa.json.GsonUtil;
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
+import fr.cnes.regards.framework.modules.jobs.service.IJobInfoService;
+import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
+import fr.cnes.regards.framework.modules.plugins.service.IPluginService;
+import fr.cnes.regards.modules.notifier.dao.INotificationRequestRepository;
+import fr.cnes.regards.modules.notifier.domain.NotificationRequest;
+import fr.cnes.regards.modules.notifier.domain.plugin.IRecipientNotifier;
+import fr.cnes.regards.modules.notifier.dto.out.NotificationState;
+import fr.cnes.regards.modules.notifier.service.conf.NotificationConfigurationProperties;
+import fr.cnes.regards.modules.notifier.service.job.NotificationJob;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.util.Pair;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static fr.cnes.regards.modules.notifier.service.PluginConfigurationTestBuilder.aPlugin;
+
+/**
+ * Test for the scheduling of notification jobs per recipient and the handling of their results with
+ * {@link NotificationProcessingService}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationProcessingServiceTest {
+
+    @Mock
+    private INotificationRequestRepository notificationRequestRepository;
+
+    @Mock
+    private IPublisher publisher;
+
+    @Mock
+    private IPluginService pluginService;
+
+    @Mock
+    private IJobInfoService jobInfoService;
+
+    @Mock
+    private IRecipientNotifier recipientNotifier;
+
+    private final NotificationConfigurationProperties properties = new NotificationConfigurationProperties();
+
+    private NotificationProcessingService processingService;
+
+    private PluginConfiguration recipient;
+
+    @Before
+    public void init() throws Exception {
+        GsonUtil.setGson(GsonCustomizer.gsonBuilder(Optional.empty(), Optional.empty()).create());
+        properties.setMaxBulkSize(10);
+        properties.setMaxConcurrentJobsPerRecipient(0);
+        processingService = new NotificationProcessingService(notificationRequestRepository,
+                                                              publisher,
+                                                              pluginService,
+                                                              properties,
+                                                              jobInfoService,
+                                                              null);
+        ReflectionTestUtils.setField(processingService, "self", processingService);
+        recipient = aPlugin().identified("recipient").build();
+        recipient.setId(20L);
+        Mockito.lenient().when(pluginService.getPlugin(recipient.getBusinessId())).thenReturn(recipientNotifier);
+    }
+
+    private List<NotificationRequest> createRequests(int nbRequests) {
+        List<NotificationRequest> requests = new ArrayList<>(nbRequests);
+        for (long id = 1; id <= nbRequests; id++) {
+            NotificationRequest request = new NotificationRequest(new JsonObject(),
+                                                                  new JsonObject(),
+                                                                  "request" + id,
+                                                                  "owner",
+                                                                  OffsetDateTime.now(),
+                                                                  NotificationState.TO_SCHEDULE_BY_RECIPIENT);
+            request.setId(id);
+            request.getRecipientsToSchedule().add(recipient);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private void mockRequestsToSchedule(List<NotificationRequest> requests) {
+        Mockito.when(notificationRequestRepository.findPageByStateAndRecipientsToScheduleContaining(Mockito.eq(
+            NotificationState.TO_SCHEDULE_BY_RECIPIENT), Mockito.eq(recipient), Mockito.any()))
+               .thenReturn(new PageImpl<>(requests));
+    }
+
+    private void mockRunningJobs(long nbRunningJobs) {
+        Mockito.when(jobInfoService.countByClassAndParameterValueAndStatus(Mockito.eq(NotificationJob.class.getName()),
+                                                                           Mockito.eq(NotificationJob.RECIPIENT_BUSINESS_ID),
+                                                                           Mockito.anyString(),
+                                                                           Mockito.any(JobStatus[].class)))
+               .thenReturn(nbRunningJobs);
+    }
+
+    @Test
+    public void test_no_max_concurrent_jobs_by_default() {
+        // Given
+        mockRequestsToSchedule(createRequests(2));
+
+        // When
+        Set<Long> scheduledIds = processingService.scheduleJobForOneRecipient(recipient);
+
+        // Then running jobs of the recipient are not even counted
+        Assert.assertEquals(Set.of(1L, 2L), scheduledIds);
+        Mockito.verify(jobInfoService, Mockito.never())
+               .countByClassAndParameterValueAndStatus(Mockito.anyString(),
+                                                       Mockito.anyString(),
+                                                       Mockito.anyString(),
+                                                       Mockito.any(JobStatus[].class));
+        Mockito.verify(jobInfoService).createAsQueued(Mockito.any(JobInfo.class));
+    }
+
+    @Test
+    public void test_max_concurrent_jobs_not_reached() {
+        // Given
+        properties.setMaxConcurrentJobsPerRecipient(2);
+        mockRunningJobs(1);
+        mockRequestsToSchedule(createRequests(2));
+
+        // When
+        Set<Long> scheduledIds = processingService.scheduleJobForOneRecipient(recipient);
+
+        // Then
+        Assert.assertEquals(Set.of(1L, 2L), scheduledIds);
+        Mockito.verify(jobInfoService).createAsQueued(Mockito.any(JobInfo.class));
+    }
+
+    @Test
+    public void test_max_concurrent_jobs_reached() {
+        // Given
+        properties.setMaxConcurrentJobsPerRecipient(2);
+        mockRunningJobs(2);
+
+        // When
+        Set<Long> scheduledIds = processingService.scheduleJobForOneRecipient(recipient);
+
+        // Then requests of the recipient wait for one of its jobs to end
+        Assert.assertTrue(scheduledIds.isEmpty());
+        Mockito.verifyNoInteractions(notificationRequestRepository);
+        Mockito.verify(jobInfoService, Mockito.never()).createAsQueued(Mockito.any(JobInfo.class));
+    }
+
+    @Test
+    public void test_max_concurrent_jobs_of_recipient_plugin() {
+        // Given the recipient plugin sets a lower cap than the default one
+        properties.setMaxConcurrentJobsPerRecipient(5);
+        Mockito.when(recipientNotifier.getMaxConcurrentJobs()).thenReturn(1);
+        mockRunningJobs(1);
+
+        // When
+        Set<Long> scheduledIds = processingService.scheduleJobForOneRecipient(recipient);
+
+        // Then
+        Assert.assertTrue(scheduledIds.isEmpty());
+        Mockito.verify(jobInfoService, Mockito.never()).createAsQueued(Mockito.any(JobInfo.class));
+    }
+
+    @Test
+    public void test_max_concurrent_jobs_of_recipient_plugin_without_default() {
+        // Given the recipient plugin sets a cap while there is no default one
+        Mockito.when(recipientNotifier.getMaxConcurrentJobs()).thenReturn(3);
+        mockRunningJobs(2);
+        mockRequestsToSchedule(createRequests(2));
+
+        // When
+        Set<Long> scheduledIds = processingService.scheduleJobForOneRecipient(recipient);
+
+        // Then
+        Assert.assertEquals(Set.of(1L, 2L), scheduledIds);
+        Mockito.verify(jobInfoService)
+               .countByClassAndParameterValueAndStatus(Mockito.eq(NotificationJob.class.getName()),
+                                                       Mockito.eq(NotificationJob.RECIPIENT_BUSINESS_ID),
+                                                       Mockito.anyString(),
+                                                       Mockito.any(JobStatus[].class));
+        Mockito.verify(jobInfoService).createAsQueued(Mockito.any(JobInfo.class));
+    }
+
+    @Test
+    public void test_schedule_updates_recipients_by_set() {
+        // Given the first request has another recipient to schedule
+        List<NotificationRequest> requests = createRequests(3);
+        requests.get(0).getRecipientsToSchedule().add(aPlugin().identified("other").build());
+
+        // When
+        processingService.scheduleJobForOneRecipientConcurrent(recipient, requests);
+
+        // Then all requests are linked to the recipient with one update, only requests without other recipient are
+        // fully scheduled
+        Mockito.verify(notificationRequestRepository).addRecipientScheduled(Set.of(1L, 2L, 3L), recipient.getId());
+        Mockito.verify(notificationRequestRepository, Mockito.never())
+               .addRecipientScheduled(Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(notificationRequestRepository)
+               .removeRecipientToScheduleForRequestIds(Set.of(1L, 2L, 3L), recipient.getId());
+        Mockito.verify(notificationRequestRepository).updateState(NotificationState.SCHEDULED, Set.of(2L, 3L));
+    }
+
+    @Test
+    public void test_handle_results_updates_recipients_by_set() {
+        // Given
+        List<NotificationRequest> requests = createRequests(3);
+
+        // When
+        Pair<Integer, Integer> result = processingService.handleRecipientResultsConcurrent(requests,
+                                                                                           recipient,
+                                                                                           List.of(requests.get(1)));
+
+        // Then
+        Assert.assertEquals(Pair.of(2, 1), result);
+        Mockito.verify(notificationRequestRepository).addRecipientInError(Set.of(2L), recipient.getId());
+        Mockito.verify(notificationRequestRepository).addRecipientInSuccess(Set.of(1L, 3L), recipient.getId());
+        Mockito.verify(notificationRequestRepository, Mockito.never())
+               .addRecipientInError(Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(notificationRequestRepository, Mockito.never())
+               .addRecipientInSuccess(Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(notificationRequestRepository)
+               .removeRecipientsScheduledForRequestIds(Set.of(1L, 2L, 3L), recipient.getId());
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service;
+
+import com.google.gson.JsonObject;
+import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
+import fr.cnes.regards.framework.modules.plugins.dto.parameter.parameter.IPluginParam;
+import fr.cnes.regards.modules.notifier.dao.INotificationRequestRepository;
+import fr.cnes.regards.modules.notifier.domain.NotificationRequest;
+import fr.cnes.regards.modules.notifier.domain.RawNotificationRequest;
+import fr.cnes.regards.modules.notifier.domain.Rule;
+import fr.cnes.regards.modules.notifier.domain.plugin.RecipientSender2;
+import fr.cnes.regards.modules.notifier.domain.plugin.RecipientSender3;
+import fr.cnes.regards.modules.notifier.domain.plugin.RecipientSender4;
+import fr.cnes.regards.modules.notifier.dto.RuleDTO;
+import fr.cnes.regards.modules.notifier.dto.out.NotificationState;
+import fr.cnes.regards.modules.notifier.service.plugin.LuceneRuleMatcher;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static fr.cnes.regards.modules.notifier.service.PluginConfigurationTestBuilder.aPlugin;
+
+/**
+ * Test the matching of requests from their raw JSON with {@link NotificationMatchingService}, which must give the
+ * same results as the matching from their entity.
+ */
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.default_schema=notification_raw_matching_it",
+                                   "regards.amqp.enabled=true",
+                                   "regards.notifier.max.bulk.size=20",
+                                   "regards.notifier.matching.raw.enabled=true",
+                                   "regards.notifier.matching.parallelism=2" })
+@ActiveProfiles(value = { "testAmqp", "noscheduler" })
+public class NotificationRawMatchingIT extends AbstractNotificationMultitenantServiceIT {
+
+    private static final List<String> ELEMENTS = List.of("elementRule1.json",
+                                                         "elementRule2.json",
+                                                         "elementBothRule.json",
+                                                         "elementNoneRule.json");
+
+    private static final int NB_REQUESTS_PER_ELEMENT = 2;
+
+    /**
+     * Prefix of the requests linked to a rule that is not compiled
+     */
+    private static final String NOT_COMPILED_PREFIX = "notCompiled_";
+
+    @SpyBean
+    private INotificationRequestRepository notificationRequestRepositorySpy;
+
+    private Rule rule1;
+
+    private Rule rule2;
+
+    private Rule disabledRule;
+
+    @Before
+    public void initRules() throws Exception {
+        PluginConfiguration recipient1 = createRecipient("recipientR1_1", RecipientSender2.PLUGIN_ID);
+        PluginConfiguration recipient2 = createRecipient("recipientR1_2", RecipientSender3.PLUGIN_ID);
+        PluginConfiguration recipient3 = createRecipient("recipientR2_1", RecipientSender4.PLUGIN_ID);
+        rule1 = createLuceneRule("r1",
+                                 "properties.file_infos.nature:TM",
+                                 recipient1.getBusinessId(),
+                                 recipient2.getBusinessId());
+        rule2 = createLuceneRule("r2", "properties.info:toto", recipient3.getBusinessId());
+        // Rules of disabled plugins are not in the rule cache, so they are not compiled
+        disabledRule = createLuceneRule("r3", "properties.noMatch:omfsdqmnfqsd", recipient3.getBusinessId());
+        PluginConfiguration disabledPlugin = disabledRule.getRulePlugin();
+        disabledPlugin.setIsActive(false);
+        pluginConfRepo.save(disabledPlugin);
+        ruleCache.clear();
+    }
+
+    private PluginConfiguration createRecipient(String businessId, String pluginId) throws Exception {
+        return pluginService.savePluginConfiguration(aPlugin().identified(businessId)
+                                                              .named(businessId)
+                                                              .withPluginId(pluginId)
+                                                              .build());
+    }
+
+    private Rule createLuceneRule(String businessId, String payloadRule, String... recipientIds) throws Exception {
+        PluginConfiguration rulePlugin = aPlugin().identified(businessId)
+                                                  .named(businessId)
+                                                  .withPluginId(LuceneRuleMatcher.PLUGIN_ID)
+                                                  .parameterized_by(IPluginParam.build(LuceneRuleMatcher.PAYLOAD_RULE_NAME,
+                                                                                       payloadRule))
+                                                  .build();
+        ruleService.createOrUpdate(RuleDTO.build(rulePlugin, new HashSet<>(Arrays.asList(recipientIds))));
+        return ruleRepo.findByRulePluginBusinessId(businessId).orElseThrow();
+    }
+
+    private NotificationRequest createRequest(String requestId, JsonObject payload, Collection<Rule> rules) {
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("session", "session");
+        NotificationRequest request = new NotificationRequest(payload,
+                                                              metadata,
+                                                              requestId,
+                                                              REQUEST_OWNER,
+                                                              OffsetDateTime.now(),
+                                                              NotificationState.GRANTED);
+        request.getRulesToMatch().addAll(rules);
+        return request;
+    }
+
+    /**
+     * Create requests of each test element, and requests also linked to the rule that is not compiled
+     */
+    private List<Long> createRequests() {
+        List<NotificationRequest> requests = new ArrayList<>();
+        for (String element : ELEMENTS) {
+            JsonObject payload = initElement(element);
+            for (int i = 0; i < NB_REQUESTS_PER_ELEMENT; i++) {
+                requests.add(createRequest(element + "_" + i, payload, List.of(rule1, rule2)));
+            }
+        }
+        for (int i = 0; i < NB_REQUESTS_PER_ELEMENT; i++) {
+            requests.add(createRequest(NOT_COMPILED_PREFIX + i,
+                                       initElement("elementBothRule.json"),
+                                       List.of(rule1, rule2, disabledRule)));
+        }
+        return notificationRequestRepository.saveAll(requests).stream().map(NotificationRequest::getId).toList();
+    }
+
+    /**
+     * @return state, recipients to schedule and rules left to match of each request by request id
+     */
+    private Map<String, String> getMatchingState(List<Long> ids) {
+        return notificationRequestRepository.findAllById(ids)
+                                            .stream()
+                                            .collect(Collectors.toMap(NotificationRequest::getRequestId,
+                                                                      request -> String.format(
+                                                                          "%s recipients=%s rules=%s",
+                                                                          request.getState(),
+                                                                          new TreeSet<>(request.getRecipientsToSchedule()
+                                                                                               .stream()
+                                                                                               .map(PluginConfiguration::getBusinessId)
+                                                                                               .toList()),
+                                                                          new TreeSet<>(request.getRulesToMatch()
+                                                                                               .stream()
+                                                                                               .map(rule -> rule.getRulePlugin()
+                                                                                                                .getBusinessId())
+                                                                                               .toList()))));
+    }
+
+    @Test
+    public void test_find_raw_requests() {
+        // Given
+        NotificationRequest withRules = createRequest("withRules", initElement("elementRule1.json"), List.of(rule1,
+                                                                                                               rule2));
+        NotificationRequest withoutRule = createRequest("withoutRule", initElement("elementRule2.json"), List.of());
+        List<NotificationRequest> requests = notificationRequestRepository.saveAll(List.of(withRules, withoutRule));
+
+        // When
+        Map<Long, RawNotificationRequest> rawRequests = notificationRequestRepository.findRawByIdIn(requests.stream()
+                                                                                                            .map(
+                                                                                                                NotificationRequest::getId)
+                                                                                                            .toList())
+                                                                                     .stream()
+                                                                                     .collect(Collectors.toMap(
+                                                                                         RawNotificationRequest::getId,
+                                                                                         Function.identity()));
+
+        // Then
+        Assert.assertEquals(2, rawRequests.size());
+        for (NotificationRequest request : requests) {
+            RawNotificationRequest rawRequest = rawRequests.get(request.getId());
+            Assert.assertEquals(request.getPayload(), gson.fromJson(rawRequest.getPayload(), JsonObject.class));
+            Assert.assertEquals(request.getMetadata(), gson.fromJson(rawRequest.getMetadata(), JsonObject.class));
+        }
+        Assert.assertEquals(Set.of(rule1.getId(), rule2.getId()),
+                            Arrays.stream(rawRequests.get(withRules.getId()).getRules().split(","))
+                                  .map(Long::valueOf)
+                                  .collect(Collectors.toSet()));
+        Assert.assertNull(rawRequests.get(withoutRule.getId()).getRules());
+    }
+
+    @Test
+    public void test_raw_matching_same_as_entity_matching() {
+        // Given requests matched from their entity
+        List<Long> ids = createRequests();
+        notificationMatchingService.matchRequestNRecipientConcurrent(notificationRequestRepository.findAllById(ids));
+        Map<String, String> entityMatchingState = getMatchingState(ids);
+        notificationRequestRepository.deleteAll();
+        Mockito.clearInvocations(notificationMatchingService);
+
+        // When the same requests are matched with raw matching enabled
+        ids = createRequests();
+        Mockito.clearInvocations(notificationRequestRepositorySpy);
+        notificationMatchingService.matchRequestNRecipient();
+
+        // Then
+        Mockito.verify(notificationMatchingService).matchRawRequestsConcurrent(Mockito.anyList());
+        Mockito.verify(notificationMatchingService, Mockito.never())
+               .matchRequestNRecipientConcurrent(Mockito.anyList());
+        Assert.assertEquals(entityMatchingState, getMatchingState(ids));
+        // Only requests linked to the rule that is not compiled are matched again from their entity
+        Set<Long> notCompiledIds = notificationRequestRepository.findAllById(ids)
+                                                                .stream()
+                                                                .filter(request -> request.getRequestId()
+                                                                                          .startsWith(
+                                                                                              NOT_COMPILED_PREFIX))
+                                                                .map(NotificationRequest::getId)
+                                                                .collect(Collectors.toSet());
+        Assert.assertEquals(NB_REQUESTS_PER_ELEMENT, notCompiledIds.size());
+        Mockito.verify(notificationRequestRepositorySpy).findAllById(notCompiledIds);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service.rule;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import fr.cnes.regards.framework.utils.parser.RuleParser;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonPathExtractorTest {
+
+    private static final String FEATURE = "{\"type\":\"Feature\",\"id\":\"URN:FEATURE:DATA:1\","
+                                          + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[10.0,20.0]},"
+                                          + "\"properties\":{\"data\":{\"type\":\"L2_RAD\",\"flag\":true,"
+                                          + "\"files\":[{\"name\":\"a.nc\"},{\"name\":\"b.nc\"}]},\"level\":\"L1\"},"
+                                          + "\"model\":\"DATA\"}";
+
+    @Test
+    public void test_extract_only_paths() {
+        JsonPathExtractor extractor = extractor("model", "properties.data.type", "properties.data.missing");
+
+        JsonObject extracted = extractor.extract(FEATURE);
+
+        assertThat(extracted).isEqualTo(JsonParser.parseString(
+            "{\"properties\":{\"data\":{\"type\":\"L2_RAD\"}},\"model\":\"DATA\"}"));
+    }
+
+    @Test
+    public void test_extract_whole_values() {
+        JsonPathExtractor extractor = extractor("geometry", "properties.data.files", "properties.data");
+
+        JsonObject extracted = extractor.extract(FEATURE);
+
+        JsonObject feature = JsonParser.parseString(FEATURE).getAsJsonObject();
+        assertThat(extracted.get("geometry")).isEqualTo(feature.get("geometry"));
+        assertThat(extracted.getAsJsonObject("properties").get("data")).isEqualTo(feature.getAsJsonObject(
+            "properties").get("data"));
+    }
+
+    @Test
+    public void test_paths_through_other_values_than_objects() {
+        JsonPathExtractor extractor = extractor("id.value", "properties.data.files.name");
+
+        assertThat(extractor.extract(FEATURE)).isEqualTo(JsonParser.parseString("{\"properties\":{\"data\":{}}}"));
+    }
+
+    @Test
+    public void test_invalid_json() {
+        JsonPathExtractor extractor = extractor("model");
+
+        assertThatThrownBy(() -> extractor.extract("[1,2]")).isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> extractor.extract("{\"model\":")).isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    public void test_compiled_rules_match_extracted_objects_like_whole_objects() throws Exception {
+        List<String> expressions = List.of("model:DATA",
+                                           "properties.level:L1 AND NOT properties.data.type:L1_RAD",
+                                           "properties.data.type:/L[1-3]_RAD/",
+                                           "properties.data.flag:true OR type:Collection",
+                                           "properties.data:A",
+                                           "geometry.type:Point");
+        RuleParser parser = new RuleParser();
+        JsonObject feature = JsonParser.parseString(FEATURE).getAsJsonObject();
+        for (String expression : expressions) {
+            CompiledRule rule = CompiledRule.compile(parser.parse(expression, "defaultField"));
+            JsonObject extracted = new JsonPathExtractor(rule.getPaths()).extract(FEATURE);
+            assertThat(rule.matches(extracted)).as(expression).isEqualTo(rule.matches(feature));
+        }
+    }
+
+    private static JsonPathExtractor extractor(String... paths) {
+        return new JsonPathExtractor(List.of(paths)
+                                         .stream()
+                                         .map(JsonPropertyPath::new)
+                                         .collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service.rule;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import fr.cnes.regards.modules.notifier.domain.Rule;
+import fr.cnes.regards.modules.notifier.service.plugin.LuceneRuleMatcher;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static fr.cnes.regards.modules.notifier.service.PluginConfigurationTestBuilder.aPlugin;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare rule evaluation on whole parsed GeoJSON features with evaluation on values extracted from raw JSON
+ */
+@Ignore("Benchmark to run locally")
+public class RawRuleMatchingBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RawRuleMatchingBenchmarkTest.class);
+
+    private static final int NB_FEATURES = 20_000;
+
+    private static final int NB_POLYGON_POINTS = 1_000;
+
+    private static final int NB_FILES = 20;
+
+    private static final int NB_PROPERTIES = 50;
+
+    private static final int NB_ROUNDS = 5;
+
+    private static final String METADATA = "{\"action\":\"CREATE\",\"sessionOwner\":\"owner\",\"session\":\"session\"}";
+
+    @Test
+    public void benchmark() throws Exception {
+        Set<Rule> rules = new HashSet<>();
+        Map<Long, LuceneRuleMatcher> matchers = new HashMap<>();
+        addRule(rules, matchers, 1L, "action:CREATE", "properties.data.type:L1_RAD");
+        addRule(rules, matchers, 2L, null, "properties.data.type:L2_RAD AND properties.level:/L[1-2]/");
+        addRule(rules, matchers, 3L, null, "model:DATA OR model:DOC");
+        addRule(rules, matchers, 4L, "action:DELETE", "type:Feature");
+        RuleIndex ruleIndex = RuleIndex.compile(rules, rule -> Optional.ofNullable(matchers.get(rule.getId())));
+
+        List<String> features = new ArrayList<>(NB_FEATURES);
+        for (int i = 0; i < NB_FEATURES; i++) {
+            features.add(feature(i).toString());
+        }
+        LOGGER.info("{} features of {} characters", NB_FEATURES, features.get(0).length());
+
+        for (int round = 0; round < NB_ROUNDS; round++) {
+            long start = System.currentTimeMillis();
+            int parsedMatches = 0;
+            for (String feature : features) {
+                parsedMatches += match(ruleIndex,
+                                       JsonParser.parseString(METADATA).getAsJsonObject(),
+                                       JsonParser.parseString(feature).getAsJsonObject());
+            }
+            long parsedDuration = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            int extractedMatches = 0;
+            for (String feature : features) {
+                extractedMatches += match(ruleIndex,
+                                          ruleIndex.getMetadataExtractor().extract(METADATA),
+                                          ruleIndex.getPayloadExtractor().extract(feature));
+            }
+            long extractedDuration = System.currentTimeMillis() - start;
+
+            LOGGER.info("Round {} : parsed features matched in {} ms, extracted features matched in {} ms",
+                        round,
+                        parsedDuration,
+                        extractedDuration);
+            assertThat(extractedMatches).isEqualTo(parsedMatches);
+        }
+    }
+
+    private static int match(RuleIndex ruleIndex, JsonObject metadata, JsonObject payload) {
+        int matches = 0;
+        for (Long ruleId : ruleIndex.findCandidateRuleIds(metadata, payload)) {
+            if (ruleIndex.getCompiledRule(ruleId).orElseThrow().matches(metadata, payload)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static JsonObject feature(int index) {
+        JsonObject feature = new JsonObject();
+        feature.addProperty("type", "Feature");
+        feature.addProperty("id", "URN:FEATURE:DATA:project:" + UUID.randomUUID() + ":V1");
+        feature.addProperty("model", index % 2 == 0 ? "DATA" : "OTHER");
+
+        JsonArray ring = new JsonArray();
+        for (int i = 0; i < NB_POLYGON_POINTS; i++) {
+            double angle = 2 * Math.PI * i / NB_POLYGON_POINTS;
+            JsonArray point = new JsonArray();
+            point.add(Math.cos(angle) * 10 + index % 180);
+            point.add(Math.sin(angle) * 10);
+            ring.add(point);
+        }
+        ring.add(ring.get(0));
+        JsonArray coordinates = new JsonArray();
+        coordinates.add(ring);
+        JsonObject geometry = new JsonObject();
+        geometry.addProperty("type", "Polygon");
+        geometry.add("coordinates", coordinates);
+        feature.add("geometry", geometry);
+
+        JsonObject properties = new JsonObject();
+        properties.addProperty("level", "L" + (index % 3));
+        JsonObject data = new JsonObject();
+        data.addProperty("type", "L" + (index % 3) + "_RAD");
+        JsonArray files = new JsonArray();
+        for (int i = 0; i < NB_FILES; i++) {
+            JsonObject file = new JsonObject();
+            file.addProperty("filename", "file_" + index + "_" + i + ".nc");
+            file.addProperty("checksum", UUID.randomUUID().toString().replace("-", ""));
+            file.addProperty("algorithm", "MD5");
+            file.addProperty("filesize", 1_000_000L + i);
+            file.addProperty("url", "s3://bucket/data/file_" + index + "_" + i + ".nc");
+            files.add(file);
+        }
+        data.add("files", files);
+        properties.add("data", data);
+        for (int i = 0; i < NB_PROPERTIES; i++) {
+            properties.addProperty("property" + i, "value " + index + " " + i);
+        }
+        feature.add("properties", properties);
+        return feature;
+    }
+
+    private static void addRule(Set<Rule> rules,
+                                Map<Long, LuceneRuleMatcher> matchers,
+                                Long id,
+                                String metadataRule,
+                                String payloadRule) throws Exception {
+        LuceneRuleMatcher matcher = new LuceneRuleMatcher();
+        ReflectionTestUtils.setField(matcher, "metadataRule", metadataRule);
+        ReflectionTestUtils.setField(matcher, "payloadRule", payloadRule);
+        matcher.init();
+        Rule rule = Rule.build(aPlugin().identified("rule" + id).build(), Collections.emptySet());
+        rule.setId(id);
+        rules.add(rule);
+        matchers.put(id, matcher);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.notifier.service.rule;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import fr.cnes.regards.framework.utils.parser.JsonObjectMatchVisitor;
+import fr.cnes.regards.framework.utils.parser.RuleParser;
+import fr.cnes.regards.framework.utils.parser.rule.IRule;
+import fr.cnes.regards.modules.notifier.domain.Rule;
+import fr.cnes.regards.modules.notifier.service.plugin.LuceneRuleMatcher;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static fr.cnes.regards.modules.notifier.service.PluginConfigurationTestBuilder.aPlugin;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RuleIndexTest {
+
+    private static final JsonObject METADATA = JsonParser.parseString("{\"owner\":\"regards\"}").getAsJsonObject();
+
+    private final Map<Long, LuceneRuleMatcher> matchers = new HashMap<>();
+
+    private final Set<Rule> rules = new HashSet<>();
+
+    @Test
+    public void test_candidates() throws Exception {
+        aRule(1L, null, "type:A");
+        aRule(2L, null, "type:B OR type:C");
+        aRule(3L, null, "name:/re.*/");
+        aRule(4L, "owner:other", "type:A");
+        aRule(5L, null, "feature.properties.level:L1 AND NOT type:B");
+        RuleIndex ruleIndex = RuleIndex.compile(rules, rule -> Optional.ofNullable(matchers.get(rule.getId())));
+
+        assertThat(ruleIndex.findCandidateRuleIds(METADATA, payload("{\"type\":\"A\"}"))).containsOnly(1L, 3L);
+        assertThat(ruleIndex.findCandidateRuleIds(METADATA, payload("{\"type\":\"C\"}"))).containsOnly(2L, 3L);
+        assertThat(ruleIndex.findCandidateRuleIds(METADATA,
+                                                  payload("{\"type\":\"D\",\"feature\":{\"properties\":{\"level\":\"L1\"}}}")))
+            .containsOnly(3L, 5L);
+    }
+
+    @Test
+    public void test_not_compiled_rules_are_not_indexed() throws Exception {
+        aRule(1L, null, "type:A");
+        rules.add(aRule(2L));
+        RuleIndex ruleIndex = RuleIndex.compile(rules, rule -> Optional.ofNullable(matchers.get(rule.getId())));
+
+        assertThat(ruleIndex.getCompiledRule(1L)).isPresent();
+        assertThat(ruleIndex.getCompiledRule(2L)).isEmpty();
+        assertThat(ruleIndex.isCompiledFrom(rules)).isTrue();
+        assertThat(ruleIndex.isCompiledFrom(new HashSet<>(rules))).isFalse();
+    }
+
+    @Test
+    public void test_compiled_rule_matches_like_visitor() throws Exception {
+        List<String> expressions = List.of("type:A",
+                                           "type:A AND level:L1",
+                                           "NOT level:L1",
+                                           "data.type:/L[1-3]_RAD/",
+                                           "data.type:\"L2_RAD\" AND data.flag:true",
+                                           "data.missing.type:A",
+                                           "data:A");
+        List<JsonObject> objects = List.of(payload("{\"type\":\"A\",\"level\":\"L1\"}"),
+                                           payload("{\"type\":\"B\",\"level\":\"L2\"}"),
+                                           payload("{\"data\":{\"type\":\"L2_RAD\",\"flag\":true}}"),
+                                           payload("{\"data\":{\"type\":\"L4_RAD\",\"flag\":false}}"),
+                                           payload("{}"));
+        RuleParser parser = new RuleParser();
+        for (String expression : expressions) {
+            IRule rule = parser.parse(expression, "defaultField");
+            CompiledRule compiledRule = CompiledRule.compile(rule);
+            for (JsonObject object : objects) {
+                assertThat(compiledRule.matches(object)).as("%s on %s", expression, object)
+                                                        .isEqualTo(rule.accept(new JsonObjectMatchVisitor(object)));
+            }
+        }
+    }
+
+    private void aRule(Long id, String metadataRule, String payloadRule) throws Exception {
+        LuceneRuleMatcher matcher = new LuceneRuleMatcher();
+        ReflectionTestUtils.setField(matcher, "metadataRule", metadataRule);
+        ReflectionTestUtils.setField(matcher, "payloadRule", payloadRule);
+        matcher.init();
+        rules.add(aRule(id));
+        matchers.put(id, matcher);
+    }
+
+    private static Rule aRule(Long id) {
+        Rule rule = Rule.build(aPlugin().identified("rule" + id).build(), Collections.emptySet());
+        rule.setId(id);
+        return rule;
+    }
+
+    private static JsonObject payload(String json) {
+        return JsonParser.parseString(json).getAsJsonObject();
+    }
+}
@@ -20,6 +20,7 @@ package fr.cnes.regards.modules.order.dao;
 import fr.cnes.regards.framework.jpa.converters.OffsetDateTimeAttributeConverter;
 import fr.cnes.regards.framework.urn.UniformResourceName;
 import fr.cnes.regards.modules.order.domain.FileState;
+import fr.cnes.regards.modules.order.domain.IOrderDataFileDownloadInfo;
 import fr.cnes.regards.modules.order.domain.OrderDataFile;
 import jakarta.persistence.Convert;
 import org.hibernate.annotations.Parameter;
@@ -164,6 +165,24 @@ public interface IOrderDataFileRepository extends JpaRepository<OrderDataFile, L
 
     boolean existsByStateAndOrderId(FileState available, Long orderId);
 
+    /**
+     * Find download information of data files of an order with an id greater than the given one, ordered by id.
+     * Used to read all the files of an order page after page (keyset pagination) with a constant memory use.
+     */
+    List<IOrderDataFileDownloadInfo> findByOrderIdAndIdGreaterThanOrderByIdAsc(Long orderId,
+                                                                              Long id,
+                                                                              Pageable pageable);
+
     @Query("SELECT DISTINCT f.filesTaskId FROM OrderDataFile f WHERE f.id IN :ids")
     List<Long> findDistinctFilesTaskIdByIdIn(@Param("ids") List<Long> dataFilesIds);
+
+    /**
+     * Set the state of all given data files with a single set-based update.
+     *
+     * @param ids must not contain more identifiers than a database statement can bind
+     * @return number of updated data files
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OrderDataFile f SET f.state = :state WHERE f.id IN :ids")
+    int updateStateByIdIn(@Param("state") FileState state, @Param("ids") Collection<Long> ids);
 }
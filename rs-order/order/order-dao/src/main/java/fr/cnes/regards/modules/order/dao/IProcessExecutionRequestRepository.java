@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.order.dao;
+
+import fr.cnes.regards.modules.order.domain.ProcessExecutionRequest;
+import fr.cnes.regards.modules.order.domain.ProcessExecutionRequestStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository of process execution scheduling requests
+ */
+public interface IProcessExecutionRequestRepository extends JpaRepository<ProcessExecutionRequest, Long> {
+
+    Optional<ProcessExecutionRequest> findByJobId(UUID jobId);
+
+    List<ProcessExecutionRequest> findByOrderIdAndStatusOrderByIdAsc(Long orderId,
+                                                                     ProcessExecutionRequestStatus status,
+                                                                     Pageable pageable);
+
+    /**
+     * Find orders having at least one request ready to be launched. Orders with the fewest launched requests come
+     * first, then the oldest ones, so that scheduling goes round-robin between orders.
+     */
+    @Query("SELECT r.orderId FROM ProcessExecutionRequest r GROUP BY r.orderId"
+           + " HAVING SUM(CASE WHEN r.status = :ready THEN 1 ELSE 0 END) > 0"
+           + " ORDER BY SUM(CASE WHEN r.status = :launched THEN 1 ELSE 0 END) ASC, MIN(r.id) ASC")
+    List<Long> findOrderIdsWithReadyRequests(@Param("ready") ProcessExecutionRequestStatus ready,
+                                             @Param("launched") ProcessExecutionRequestStatus launched);
+
+    default List<Long> findOrderIdsWithReadyRequests() {
+        return findOrderIdsWithReadyRequests(ProcessExecutionRequestStatus.READY,
+                                             ProcessExecutionRequestStatus.LAUNCHED);
+    }
+
+    @Query("SELECT COALESCE(SUM(r.remainingExecutions), 0) FROM ProcessExecutionRequest r"
+           + " WHERE r.status = :status AND r.processBusinessId = :processBusinessId")
+    long sumRemainingExecutionsByProcess(@Param("processBusinessId") UUID processBusinessId,
+                                         @Param("status") ProcessExecutionRequestStatus status);
+
+    @Query("SELECT COALESCE(SUM(r.remainingExecutions), 0) FROM ProcessExecutionRequest r"
+           + " WHERE r.status = :status AND r.owner = :owner")
+    long sumRemainingExecutionsByOwner(@Param("owner") String owner,
+                                       @Param("status") ProcessExecutionRequestStatus status);
+
+    /**
+     * Count executions currently running on rs-processing for given process
+     */
+    default long countRunningExecutionsByProcess(UUID processBusinessId) {
+        return sumRemainingExecutionsByProcess(processBusinessId, ProcessExecutionRequestStatus.LAUNCHED);
+    }
+
+    /**
+     * Count executions currently running on rs-processing for given user
+     */
+    default long countRunningExecutionsByOwner(String owner) {
+        return sumRemainingExecutionsByOwner(owner, ProcessExecutionRequestStatus.LAUNCHED);
+    }
+
+    List<ProcessExecutionRequest> findByStatusAndLastUpdateDateBefore(ProcessExecutionRequestStatus status,
+                                                                      OffsetDateTime lastUpdateDate);
+
+    @Modifying
+    @Query("UPDATE ProcessExecutionRequest r SET r.remainingExecutions = r.remainingExecutions - 1,"
+           + " r.lastUpdateDate = :updateDate WHERE r.batchCorrelationId = :batchCorrelationId")
+    int decrementRemainingExecutions(@Param("batchCorrelationId") String batchCorrelationId,
+                                     @Param("updateDate") OffsetDateTime updateDate);
+
+    default int decrementRemainingExecutions(String batchCorrelationId) {
+        return decrementRemainingExecutions(batchCorrelationId, OffsetDateTime.now());
+    }
+
+    @Modifying
+    @Query("DELETE FROM ProcessExecutionRequest r WHERE r.batchCorrelationId = :batchCorrelationId"
+           + " AND r.remainingExecutions <= 0")
+    int deleteTerminated(@Param("batchCorrelationId") String batchCorrelationId);
+
+    @Modifying
+    @Query("UPDATE ProcessExecutionRequest r SET r.status = :status WHERE r.jobId = :jobId")
+    int updateStatusByJobId(@Param("jobId") UUID jobId, @Param("status") ProcessExecutionRequestStatus status);
+
+    void deleteByJobId(UUID jobId);
+
+    void deleteByOrderId(Long orderId);
+}
@@ -0,0 +1,7 @@
+-- Scheduling of process executions with concurrency limits per process and per user
+create sequence seq_process_exec_request start 1 increment 50;
+create table t_process_execution_request (id int8 not null, job_id uuid not null, batch_correlation_id varchar(128) not null, order_id int8 not null, owner varchar(100) not null, process_business_id uuid not null, remaining_executions int4 not null, status varchar(20) not null, creation_date timestamp not null, launch_date timestamp, last_update_date timestamp, primary key (id));
+alter table t_process_execution_request add constraint uk_process_exec_request_batch unique (batch_correlation_id);
+create index idx_process_exec_request_status on t_process_execution_request (status, order_id);
+create index idx_process_exec_request_job on t_process_execution_request (job_id);
+create index idx_process_exec_request_last_update on t_process_execution_request (status, last_update_date);
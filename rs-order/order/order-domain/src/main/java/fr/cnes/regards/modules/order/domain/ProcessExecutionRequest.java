@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.order.domain;
+
+import fr.cnes.regards.framework.jpa.IIdentifiable;
+import fr.cnes.regards.framework.jpa.converters.OffsetDateTimeAttributeConverter;
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Scheduling state of a ProcessExecutionJob. The job stays pending until the order processing scheduler finds a free
+ * slot for it, regarding concurrency limits of its process and of its owner. It is considered running until all the
+ * executions it sent to rs-processing are terminated, not only until the job itself ends.
+ */
+@Entity
+@Table(name = "t_process_execution_request",
+       indexes = { @Index(name = "idx_process_exec_request_status", columnList = "status, order_id"),
+                   @Index(name = "idx_process_exec_request_job", columnList = "job_id"),
+                   @Index(name = "idx_process_exec_request_last_update", columnList = "status, last_update_date") },
+       uniqueConstraints = @UniqueConstraint(name = "uk_process_exec_request_batch",
+                                             columnNames = "batch_correlation_id"))
+public class ProcessExecutionRequest implements IIdentifiable<Long> {
+
+    @Id
+    @SequenceGenerator(name = "processExecRequestSequence", sequenceName = "seq_process_exec_request")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "processExecRequestSequence")
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "batch_correlation_id", length = 128, nullable = false)
+    private String batchCorrelationId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "owner", length = 100, nullable = false)
+    private String owner;
+
+    @Column(name = "process_business_id", nullable = false)
+    private UUID processBusinessId;
+
+    /**
+     * Number of executions sent (or to be sent) to rs-processing and not yet terminated
+     */
+    @Column(name = "remaining_executions", nullable = false)
+    private int remainingExecutions;
+
+    @Column(name = "status", length = 20, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ProcessExecutionRequestStatus status;
+
+    @Column(name = "creation_date", nullable = false)
+    @Convert(converter = OffsetDateTimeAttributeConverter.class)
+    private OffsetDateTime creationDate = OffsetDateTime.now();
+
+    @Column(name = "launch_date")
+    @Convert(converter = OffsetDateTimeAttributeConverter.class)
+    private OffsetDateTime launchDate;
+
+    /**
+     * Date of the launch or of the last terminated execution
+     */
+    @Column(name = "last_update_date")
+    @Convert(converter = OffsetDateTimeAttributeConverter.class)
+    private OffsetDateTime lastUpdateDate;
+
+    public ProcessExecutionRequest() {
+        super();
+    }
+
+    public ProcessExecutionRequest(UUID jobId,
+                                   String batchCorrelationId,
+                                   Long orderId,
+                                   String owner,
+                                   UUID processBusinessId,
+                                   int executionCount,
+                                   ProcessExecutionRequestStatus status) {
+        this.jobId = jobId;
+        this.batchCorrelationId = batchCorrelationId;
+        this.orderId = orderId;
+        this.owner = owner;
+        this.processBusinessId = processBusinessId;
+        this.remainingExecutions = executionCount;
+        this.status = status;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public String getBatchCorrelationId() {
+        return batchCorrelationId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public UUID getProcessBusinessId() {
+        return processBusinessId;
+    }
+
+    public int getRemainingExecutions() {
+        return remainingExecutions;
+    }
+
+    public ProcessExecutionRequestStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ProcessExecutionRequestStatus status) {
+        this.status = status;
+    }
+
+    public OffsetDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    public OffsetDateTime getLaunchDate() {
+        return launchDate;
+    }
+
+    public OffsetDateTime getLastUpdateDate() {
+        return lastUpdateDate;
+    }
+
+    public void launch() {
+        this.status = ProcessExecutionRequestStatus.LAUNCHED;
+        this.launchDate = OffsetDateTime.now();
+        this.lastUpdateDate = launchDate;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessExecutionRequest{"
+               + "jobId="
+               + jobId
+               + ", batchCorrelationId='"
+               + batchCorrelationId
+               + '\''
+               + ", orderId="
+               + orderId
+               + ", owner='"
+               + owner
+               + '\''
+               + ", processBusinessId="
+               + processBusinessId
+               + ", remainingExecutions="
+               + remainingExecutions
+               + ", status="
+               + status
+               + '}';
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.order.domain;
+
+/**
+ * Lifecycle of a {@link ProcessExecutionRequest}
+ */
+public enum ProcessExecutionRequestStatus {
+
+    /**
+     * Process execution job is waiting for its input files to be retrieved from storage
+     */
+    WAITING_INPUTS,
+
+    /**
+     * Process execution job is ready to run, waiting for a free processing slot
+     */
+    READY,
+
+    /**
+     * Process execution job has been launched and its executions are not all terminated yet
+     */
+    LAUNCHED
+}
@@ -150,6 +150,8 @@ public class OrderController implements IResourceController<OrderDto> {
 
     public static final String PUBLIC_METALINK_DOWNLOAD_PATH = USER_ROOT_PATH + "/metalink/download";
 
+    public static final String URL_LIST_DOWNLOAD_PATH = USER_ROOT_PATH + "/{orderId}/urls/download";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderController.class);
 
     @Autowired
@@ -409,33 +411,36 @@ public class OrderController implements IResourceController<OrderDto> {
         return createMetalinkDownloadResponse(order, response);
     }
 
+    @ResourceAccess(description = "Download a text file containing download urls of all files, one per line",
+                    role = DefaultRole.REGISTERED_USER)
+    @RequestMapping(method = RequestMethod.GET, path = URL_LIST_DOWNLOAD_PATH)
+    public ResponseEntity<Void> downloadUrlListFile(@PathVariable("orderId") Long orderId,
+                                                    HttpServletResponse response) throws EntityNotFoundException {
+        Order order = orderService.loadSimple(orderId);
+        if (order == null) {
+            throw new EntityNotFoundException(orderId.toString(), Order.class);
+        }
+        if (!isDownloadLinksAvailable(order)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        response.addHeader(HttpHeaders.CONTENT_DISPOSITION,
+                           "attachment;filename=order_" + order.getId() + "_" + OffsetDateTime.now() + ".txt");
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        try {
+            orderDownloadService.downloadOrderUrlList(order.getId(), response.getOutputStream());
+        } catch (IOException | ModuleException e) {
+            LOGGER.error(e.getMessage(), e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        // Stream the response
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
     /**
      * Fill Response headers and create streaming response
      */
     private ResponseEntity<Void> createMetalinkDownloadResponse(Order order, HttpServletResponse response) {
-        String error = null;
-        switch (order.getStatus()) {
-            case DELETED:
-                error = "Order is deleted";
-                break;
-            case EXPIRED:
-                error = "Order is expired since " + order.getExpirationDate().toString();
-                break;
-            case PENDING:
-                error = "Order is not ready yet. Files calculation pending.";
-                break;
-            case FAILED:
-                error = "Order creation failed.";
-                break;
-            case RUNNING:
-            case DONE:
-            case DONE_WITH_WARNING:
-            case PAUSED:
-            default:
-                // All those status allow metalink download
-                break;
-        }
-        if (error != null) {
+        if (!isDownloadLinksAvailable(order)) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         } else {
             response.addHeader(HttpHeaders.CONTENT_DISPOSITION,
@@ -452,6 +457,18 @@ public class OrderController implements IResourceController<OrderDto> {
         }
     }
 
+    /**
+     * @return true if the order status allows to download links of its files (metalink, url list)
+     */
+    private boolean isDownloadLinksAvailable(Order order) {
+        return switch (order.getStatus()) {
+            // Order is deleted, expired, not ready yet (files calculation pending) or its creation failed
+            case DELETED, EXPIRED, PENDING, FAILED -> false;
+            // All other status allow links download
+            default -> true;
+        };
+    }
+
     @Override
     public EntityModel<OrderDto> toResource(OrderDto orderDto, Object... extras) {
 
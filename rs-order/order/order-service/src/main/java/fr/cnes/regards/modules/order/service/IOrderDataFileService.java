@@ -19,6 +19,7 @@
 package fr.cnes.regards.modules.order.service;
 
 import fr.cnes.regards.framework.urn.UniformResourceName;
+import fr.cnes.regards.modules.order.domain.IOrderDataFileDownloadInfo;
 import fr.cnes.regards.modules.order.domain.Order;
 import fr.cnes.regards.modules.order.domain.OrderDataFile;
 import fr.cnes.regards.modules.order.dto.dto.OrderDataFileDTO;
@@ -28,6 +29,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 
 import jakarta.annotation.Nullable;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -63,8 +65,23 @@ public interface IOrderDataFileService {
      */
     Iterable<OrderDataFile> save(Iterable<OrderDataFile> dataFiles);
 
+    /**
+     * Update state of given OrderDataFiles with set-based updates instead of saving each entity, then update
+     * associated files tasks end state and associated order waiting for user flag.
+     * Only the state of the given OrderDataFiles is updated.
+     */
+    void updateStates(Collection<OrderDataFile> dataFiles);
+
     void launchNextFilesTasks(Iterable<OrderDataFile> dataFiles);
 
+    /**
+     * Find download information of the next data files of given order, ordered by id (keyset pagination)
+     *
+     * @param lastId   id of the last data file of the previous page, null for the first page
+     * @param pageSize maximum number of data files returned
+     */
+    List<IOrderDataFileDownloadInfo> findNextDownloadInfos(Long orderId, @Nullable Long lastId, int pageSize);
+
     OrderDataFile load(Long dataFileId) throws NoSuchElementException;
 
     OrderDataFile find(Long orderId, UniformResourceName aipId, String checksum) throws NoSuchElementException;
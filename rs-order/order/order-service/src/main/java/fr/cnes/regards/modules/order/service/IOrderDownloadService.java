@@ -42,4 +42,11 @@ public interface IOrderDownloadService {
      */
     void downloadOrderMetalink(Long orderId, OutputStream os) throws ModuleException;
 
+    /**
+     * Create a plain text file with the download url of all files, one per line, as expected by download managers.
+     *
+     * @param orderId concerned order id
+     */
+    void downloadOrderUrlList(Long orderId, OutputStream os) throws ModuleException;
+
 }
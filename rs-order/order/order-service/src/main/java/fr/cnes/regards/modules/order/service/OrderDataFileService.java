@@ -46,6 +46,7 @@ import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -80,6 +81,11 @@ public class OrderDataFileService implements IOrderDataFileService, Initializing
 
     public static final String CONTENT_LENGTH_HEADER = "content-length";
 
+    /**
+     * Maximum number of data files updated by a single set-based update (limited by database bind parameters)
+     */
+    private static final int BULK_UPDATE_MAX_SIZE = 10_000;
+
     private final Set<String> noProxyHosts = Sets.newHashSet();
 
     private final IOrderDataFileRepository orderDataFileRepository;
@@ -204,6 +210,22 @@ public class OrderDataFileService implements IOrderDataFileService, Initializing
         return dataFiles;
     }
 
+    @Override
+    public void updateStates(Collection<OrderDataFile> dataFiles) {
+        Map<FileState, List<Long>> idsByState = dataFiles.stream()
+                                                         .collect(Collectors.groupingBy(OrderDataFile::getState,
+                                                                                        Collectors.mapping(
+                                                                                            OrderDataFile::getId,
+                                                                                            Collectors.toList())));
+        idsByState.forEach((state, ids) -> {
+            for (List<Long> idsChunk : Lists.partition(ids, BULK_UPDATE_MAX_SIZE)) {
+                int updated = orderDataFileRepository.updateStateByIdIn(state, idsChunk);
+                LOGGER.debug("{} data files updated to state {}", updated, state);
+            }
+        });
+        launchNextFilesTasks(dataFiles);
+    }
+
     @Override
     public void launchNextFilesTasks(Iterable<OrderDataFile> dataFiles) {
         // Look at FilesTasks if they are ended (no more file to download)...
@@ -248,6 +270,15 @@ public class OrderDataFileService implements IOrderDataFileService, Initializing
         }
     }
 
+    @Override
+    public List<IOrderDataFileDownloadInfo> findNextDownloadInfos(Long orderId, @Nullable Long lastId, int pageSize) {
+        return orderDataFileRepository.findByOrderIdAndIdGreaterThanOrderByIdAsc(orderId,
+                                                                                 lastId == null ?
+                                                                                     Long.MIN_VALUE :
+                                                                                     lastId,
+                                                                                 PageRequest.of(0, pageSize));
+    }
+
     @Override
     public OrderDataFile load(Long dataFileId) throws NoSuchElementException {
         Optional<OrderDataFile> dataFile = orderDataFileRepository.findById(dataFileId);
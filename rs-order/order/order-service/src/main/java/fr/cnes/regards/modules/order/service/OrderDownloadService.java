@@ -35,6 +35,7 @@ import fr.cnes.regards.framework.utils.file.DownloadUtils;
 import fr.cnes.regards.modules.dam.client.entities.IAttachmentClient;
 import fr.cnes.regards.modules.order.dao.IOrderRepository;
 import fr.cnes.regards.modules.order.domain.FileState;
+import fr.cnes.regards.modules.order.domain.IOrderDataFileDownloadInfo;
 import fr.cnes.regards.modules.order.domain.Order;
 import fr.cnes.regards.modules.order.domain.OrderDataFile;
 import fr.cnes.regards.modules.order.dto.OrderControllerEndpointConfiguration;
@@ -44,6 +45,7 @@ import fr.cnes.regards.modules.project.client.rest.IProjectsClient;
 import fr.cnes.regards.modules.project.domain.Project;
 import fr.cnes.regards.modules.storage.client.IStorageRestClient;
 import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.Marshaller;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
@@ -59,12 +61,12 @@ import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.xml.sax.SAXException;
 
 import jakarta.annotation.Nullable;
-import javax.xml.XMLConstants;
-import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.SchemaFactory;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.*;
 import java.math.BigInteger;
 import java.net.InetSocketAddress;
@@ -72,6 +74,7 @@ import java.net.Proxy;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 @MultitenantTransactional
@@ -80,7 +83,15 @@ public class OrderDownloadService implements IOrderDownloadService, Initializing
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderDownloadService.class);
 
-    private static final String METALINK_XML_SCHEMA_NAME = "metalink.xsd";
+    private static final String METALINK_NAMESPACE = "http://www.metalinker.org/";
+
+    private static final QName METALINK_FILE_QNAME = new QName(METALINK_NAMESPACE, "file");
+
+    /**
+     * Number of order data files read at once to generate metalink and url list files
+     */
+    @Value("${regards.order.download.links.page.size:1000}")
+    private int downloadLinksPageSize = 1000;
 
     @Value("${http.proxy.host:#{null}}")
     private String proxyHost;
@@ -447,86 +458,133 @@ public class OrderDownloadService implements IOrderDownloadService, Initializing
 
     @Override
     public void downloadOrderMetalink(Long orderId, OutputStream os) throws ModuleException {
+        FileLinkBuilder linkBuilder = getFileLinkBuilder(orderId);
+        ObjectFactory factory = new ObjectFactory();
+        try {
+            // Metalink header and footer are written by hand so that files can be marshalled one by one as XML
+            // fragments while they are read, instead of building the whole document in memory.
+            Marshaller fileMarshaller = JAXBContext.newInstance(MetalinkType.class).createMarshaller();
+            fileMarshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            XMLStreamWriter writer = XMLOutputFactory.newInstance()
+                                                     .createXMLStreamWriter(os, StandardCharsets.UTF_8.name());
+            writer.setDefaultNamespace(METALINK_NAMESPACE);
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.writeStartElement(METALINK_NAMESPACE, "metalink");
+            writer.writeDefaultNamespace(METALINK_NAMESPACE);
+            writer.writeStartElement(METALINK_NAMESPACE, "files");
+            forEachOrderDataFile(orderId, file -> {
+                try {
+                    fileMarshaller.marshal(new JAXBElement<>(METALINK_FILE_QNAME,
+                                                             FileType.class,
+                                                             createXmlFile(factory, file, linkBuilder)), writer);
+                } catch (JAXBException e) {
+                    throw new RsRuntimeException(e);
+                }
+            });
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+            writer.close();
+            os.close();
+        } catch (JAXBException | XMLStreamException | IOException t) {
+            LOGGER.error("Error while generating metalink order file", t);
+            throw new RsRuntimeException(t);
+        }
+    }
+
+    @Override
+    public void downloadOrderUrlList(Long orderId, OutputStream os) throws ModuleException {
+        FileLinkBuilder linkBuilder = getFileLinkBuilder(orderId);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8))) {
+            forEachOrderDataFile(orderId, file -> {
+                try {
+                    writer.write(linkBuilder.build(file));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new RsRuntimeException(e);
+                }
+            });
+        } catch (IOException t) {
+            LOGGER.error("Error while generating url list order file", t);
+            throw new RsRuntimeException(t);
+        }
+    }
+
+    /**
+     * Read all data files of given order page after page, so that memory use does not depend on order size.
+     */
+    private void forEachOrderDataFile(Long orderId, Consumer<IOrderDataFileDownloadInfo> action) {
+        Long lastId = null;
+        List<IOrderDataFileDownloadInfo> page;
+        do {
+            page = dataFileService.findNextDownloadInfos(orderId, lastId, downloadLinksPageSize);
+            page.forEach(action);
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == downloadLinksPageSize);
+    }
+
+    private FileType createXmlFile(ObjectFactory factory,
+                                   IOrderDataFileDownloadInfo file,
+                                   FileLinkBuilder linkBuilder) {
+        FileType xmlFile = factory.createFileType();
+        String filename = file.getFilename() != null ?
+            file.getFilename() :
+            file.getUrl().substring(file.getUrl().lastIndexOf('/') + 1);
+        xmlFile.setIdentity(filename);
+        xmlFile.setName(filename);
+        if (file.getFilesize() != null) {
+            xmlFile.setSize(BigInteger.valueOf(file.getFilesize()));
+        }
+        if (file.getMimeType() != null) {
+            xmlFile.setMimetype(file.getMimeType().toString());
+        }
+        ResourcesType xmlResources = factory.createResourcesType();
+        ResourcesType.Url xmlUrl = factory.createResourcesTypeUrl();
+        xmlUrl.setValue(linkBuilder.build(file));
+        xmlResources.getUrl().add(xmlUrl);
+        xmlFile.setResources(xmlResources);
+        return xmlFile;
+    }
+
+    /**
+     * Retrieve once all information needed to build public download urls of the files of given order
+     */
+    private FileLinkBuilder getFileLinkBuilder(Long orderId) throws ModuleException {
         Order order = orderRepository.findSimpleById(orderId);
         String tokenRequestParam = IOrderService.ORDER_TOKEN + "=" + orderHelperService.generateToken4PublicEndpoint(
             order);
         String scopeRequestParam = IOrderService.SCOPE + "=" + runtimeTenantResolver.getTenant();
 
-        List<OrderDataFile> files = dataFileService.findAll(orderId);
-
         // Retrieve host for generating datafiles download urls
         FeignSecurityManager.asSystem();
-        ResponseEntity<EntityModel<Project>> clientResponse = projectClient.retrieveProject(runtimeTenantResolver.getTenant());
-        if (clientResponse == null
-            || clientResponse.getBody() == null
-            || clientResponse.getBody().getContent() == null
-            || clientResponse.getBody().getContent().getHost() == null) {
-            throw new ModuleException("Error retrieving project information from admin instance service");
-        }
-        Project project = clientResponse.getBody().getContent();
-        String host = project.getHost();
-        FeignSecurityManager.reset();
-
-        // Create XML metalink object
-        ObjectFactory factory = new ObjectFactory();
-        MetalinkType xmlMetalink = factory.createMetalinkType();
-        FilesType xmlFiles = factory.createFilesType();
-        // For all data files
-        for (OrderDataFile file : files) {
-            FileType xmlFile = factory.createFileType();
-            String filename = file.getFilename() != null ?
-                file.getFilename() :
-                file.getUrl().substring(file.getUrl().lastIndexOf('/') + 1);
-            xmlFile.setIdentity(filename);
-            xmlFile.setName(filename);
-            if (file.getFilesize() != null) {
-                xmlFile.setSize(BigInteger.valueOf(file.getFilesize()));
-            }
-            if (file.getMimeType() != null) {
-                xmlFile.setMimetype(file.getMimeType().toString());
+        try {
+            ResponseEntity<EntityModel<Project>> clientResponse = projectClient.retrieveProject(runtimeTenantResolver.getTenant());
+            if (clientResponse == null
+                || clientResponse.getBody() == null
+                || clientResponse.getBody().getContent() == null
+                || clientResponse.getBody().getContent().getHost() == null) {
+                throw new ModuleException("Error retrieving project information from admin instance service");
             }
-            ResourcesType xmlResources = factory.createResourcesType();
-            ResourcesType.Url xmlUrl = factory.createResourcesTypeUrl();
-            // Build URL to publicdownloadFile
-            String buff = host
-                          + orderHelperService.buildUrl()
-                          + OrderControllerEndpointConfiguration.ORDERS_PUBLIC_FILES_MAPPING
-                          + "/"
-                          + file.getId()
-                          + "?"
-                          + tokenRequestParam
-                          + "&"
-                          + scopeRequestParam;
-            xmlUrl.setValue(buff);
-            xmlResources.getUrl().add(xmlUrl);
-            xmlFile.setResources(xmlResources);
-            xmlFiles.getFile().add(xmlFile);
+            String host = clientResponse.getBody().getContent().getHost();
+            return new FileLinkBuilder(host
+                                       + orderHelperService.buildUrl()
+                                       + OrderControllerEndpointConfiguration.ORDERS_PUBLIC_FILES_MAPPING
+                                       + "/", "?" + tokenRequestParam + "&" + scopeRequestParam);
+        } finally {
+            FeignSecurityManager.reset();
         }
-        xmlMetalink.setFiles(xmlFiles);
-        createXmlAndSendResponse(os, factory, xmlMetalink);
     }
 
-    private void createXmlAndSendResponse(OutputStream os, ObjectFactory factory, MetalinkType xmlMetalink) {
-        // Create XML and send reponse
-        try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(MetalinkType.class);
-            Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-
-            // Format output
-            jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-
-            // Enable validation
-            InputStream in = this.getClass().getClassLoader().getResourceAsStream(METALINK_XML_SCHEMA_NAME);
-            StreamSource xsdSource = new StreamSource(in);
-            jaxbMarshaller.setSchema(SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI)
-                                                  .newSchema(xsdSource));
+    /**
+     * Build the public download url of an order data file
+     */
+    private record FileLinkBuilder(String prefix, String suffix) {
 
-            // Marshall data
-            jaxbMarshaller.marshal(factory.createMetalink(xmlMetalink), os);
-            os.close();
-        } catch (JAXBException | SAXException | IOException t) {
-            LOGGER.error("Error while generating metalink order file", t);
-            throw new RsRuntimeException(t);
+        String build(IOrderDataFileDownloadInfo file) {
+            return prefix + file.getId() + suffix;
         }
     }
 
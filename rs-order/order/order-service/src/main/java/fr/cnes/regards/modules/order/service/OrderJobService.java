@@ -39,8 +39,10 @@ import fr.cnes.regards.modules.order.domain.Order;
 import fr.cnes.regards.modules.order.domain.OrderDataFile;
 import fr.cnes.regards.modules.order.dto.dto.OrderStatus;
 import fr.cnes.regards.modules.order.service.job.OrderJobPriority;
+import fr.cnes.regards.modules.order.service.job.ProcessExecutionJob;
 import fr.cnes.regards.modules.order.service.job.StorageFilesJob;
 import fr.cnes.regards.modules.order.service.job.parameters.FilesJobParameter;
+import fr.cnes.regards.modules.order.service.processing.IProcessExecutionScheduler;
 import fr.cnes.regards.modules.order.service.request.CancelOrderJob;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.DisposableBean;
@@ -90,6 +92,8 @@ public class OrderJobService implements IOrderJobService, IHandler<JobEvent>, Di
 
     private final IRuntimeTenantResolver tenantResolver;
 
+    private final IProcessExecutionScheduler processExecutionScheduler;
+
     public OrderJobService(IJobInfoRepository jobInfoRepository,
                            IFilesTasksRepository filesTasksRepository,
                            IOrderDataFileRepository orderDataFileRepository,
@@ -97,7 +101,8 @@ public class OrderJobService implements IOrderJobService, IHandler<JobEvent>, Di
                            ISubscriber subscriber,
                            IOrderJobService orderJobService,
                            IRuntimeTenantResolver tenantResolver,
-                           LockService lockService) {
+                           LockService lockService,
+                           IProcessExecutionScheduler processExecutionScheduler) {
         this.jobInfoRepository = jobInfoRepository;
         this.filesTasksRepository = filesTasksRepository;
         this.orderDataFileRepository = orderDataFileRepository;
@@ -106,6 +111,7 @@ public class OrderJobService implements IOrderJobService, IHandler<JobEvent>, Di
         this.self = orderJobService;
         this.lockService = lockService;
         this.tenantResolver = tenantResolver;
+        this.processExecutionScheduler = processExecutionScheduler;
     }
 
     @Override
@@ -174,6 +180,15 @@ public class OrderJobService implements IOrderJobService, IHandler<JobEvent>, Di
                         // saveAll method)
                         orderDataFileRepository.saveAll(errorDataFiles);
                     }
+                    if (ProcessExecutionJob.class.getName().equals(endedJobInfo.getClassName())) {
+                        // Release processing slots of the job, its executions will never be terminated
+                        processExecutionScheduler.jobFailed(endedJobInfo.getId());
+                    }
+                }
+                if (JobEventType.ABORTED == event.getJobEventType()
+                    && ProcessExecutionJob.class.getName().equals(endedJobInfo.getClassName())) {
+                    // Release processing slots of the job until it is resumed
+                    processExecutionScheduler.jobAborted(endedJobInfo.getId());
                 }
 
                 self.manageUserOrderStorageFilesJobInfos(endedJobInfo.getOwner());
@@ -226,6 +241,8 @@ public class OrderJobService implements IOrderJobService, IHandler<JobEvent>, Di
                                            e.getMessage()), e);
             }
         }
+        // Slots may have been released for processing jobs too
+        processExecutionScheduler.schedule();
     }
 
     @Override
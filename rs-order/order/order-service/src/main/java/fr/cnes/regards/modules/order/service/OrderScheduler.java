@@ -20,6 +20,7 @@ package fr.cnes.regards.modules.order.service;
 
 import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.framework.multitenant.ITenantResolver;
+import fr.cnes.regards.modules.order.service.processing.IProcessExecutionScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
@@ -44,12 +45,16 @@ public class OrderScheduler {
 
     private final ITenantResolver tenantResolver;
 
+    private final IProcessExecutionScheduler processExecutionScheduler;
+
     public OrderScheduler(OrderMaintenanceService orderMaintenanceService,
                           IRuntimeTenantResolver runtimeTenantResolver,
-                          ITenantResolver tenantResolver) {
+                          ITenantResolver tenantResolver,
+                          IProcessExecutionScheduler processExecutionScheduler) {
         this.orderMaintenanceService = orderMaintenanceService;
         this.runtimeTenantResolver = runtimeTenantResolver;
         this.tenantResolver = tenantResolver;
+        this.processExecutionScheduler = processExecutionScheduler;
     }
 
     /**
@@ -71,4 +76,21 @@ public class OrderScheduler {
         }
     }
 
+    /**
+     * Scheduled method to release slots of process executions never terminated
+     */
+    @Scheduled(fixedDelayString = "${regards.order.processing.stale.check.rate.ms:600000}")
+    public void releaseStaleProcessExecutions() {
+        for (String tenant : tenantResolver.getAllActiveTenants()) {
+            runtimeTenantResolver.forceTenant(tenant);
+            try {
+                processExecutionScheduler.releaseStaleRequests();
+            } catch (Exception e) {
+                LOGGER.warn("Failed to release stale process executions", e);
+            } finally {
+                runtimeTenantResolver.clearTenant();
+            }
+        }
+    }
+
 }
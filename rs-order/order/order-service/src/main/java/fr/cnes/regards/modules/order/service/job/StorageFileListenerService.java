@@ -21,7 +21,9 @@ package fr.cnes.regards.modules.order.service.job;
 import fr.cnes.regards.framework.jpa.multitenant.transactional.MultitenantTransactional;
 import fr.cnes.regards.modules.fileaccess.dto.FileReferenceUpdateDto;
 import fr.cnes.regards.modules.filecatalog.amqp.output.FileReferenceEvent;
+import fr.cnes.regards.modules.filecatalog.client.RequestInfo;
 import fr.cnes.regards.modules.filecatalog.client.listener.IStorageFileListener;
+import fr.cnes.regards.modules.filecatalog.client.listener.IStorageRequestListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
@@ -36,13 +38,17 @@ import java.util.stream.Collectors;
 
 /**
  * Handle storage AMQP message that can be received. Empty methods concerns messages that are of no importance for rs-order
+ * <p>
+ * Availability results are received both file by file and as a single response for each group of requests, so that
+ * jobs can handle all the files of a group at once.
  *
  * @author Sébastien Binda
  */
 @Service
 @MultitenantTransactional
 @Scope(proxyMode = ScopedProxyMode.TARGET_CLASS)
-public class StorageFileListenerService implements IStorageFileListener, IStorageFileListenerService {
+public class StorageFileListenerService
+    implements IStorageFileListener, IStorageRequestListener, IStorageFileListenerService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StorageFileListenerService.class);
 
@@ -74,6 +80,16 @@ public class StorageFileListenerService implements IStorageFileListener, IStorag
         subscribers.forEach(subscriber -> subscriber.notifyFilesUnavailable(inErrorChecksum));
     }
 
+    @Override
+    public void onAvailable(Set<RequestInfo> requests) {
+        subscribers.forEach(subscriber -> subscriber.notifyGroupsDone(requests));
+    }
+
+    @Override
+    public void onAvailabilityError(Set<RequestInfo> requests) {
+        subscribers.forEach(subscriber -> subscriber.notifyGroupsDone(requests));
+    }
+
     @Override
     public void subscribe(StorageFilesJob newSubscriber) {
         subscribers.add(newSubscriber);
@@ -103,4 +119,54 @@ public class StorageFileListenerService implements IStorageFileListener, IStorag
     public void onFileUpdated(List<FileReferenceUpdateDto> updatedReferences) {
         // Do nothing because message is of no importance for rs-order
     }
+
+    @Override
+    public void onRequestGranted(Set<RequestInfo> requests) {
+        // Do nothing because message is of no importance for rs-order
+    }
+
+    @Override
+    public void onRequestDenied(Set<RequestInfo> requests) {
+        // Do nothing because message is of no importance for rs-order
+    }
+
+    @Override
+    public void onCopySuccess(Set<RequestInfo> requests) {
+        // Do nothing because message is of no importance for rs-order
+    }
+
+    @Override
+    public void onCopyError(Set<RequestInfo> requests) {
+        // Do nothing because message is of no importance for rs-order
+    }
+
+    @Override
+    public void onDeletionSuccess(Set<RequestInfo> requests) {
+        // Do nothing because message is of no importance for rs-order
+    }
+
+    @Override
+    public void onDeletionError(Set<RequestInfo> requests) {
+        // Do nothing because message is of no importance for rs-order
+    }
+
+    @Override
+    public void onReferenceSuccess(Set<RequestInfo> requests) {
+        // Do nothing because message is of no importance for rs-order
+    }
+
+    @Override
+    public void onReferenceError(Set<RequestInfo> requests) {
+        // Do nothing because message is of no importance for rs-order
+    }
+
+    @Override
+    public void onStoreSuccess(Set<RequestInfo> requests) {
+        // Do nothing because message is of no importance for rs-order
+    }
+
+    @Override
+    public void onStoreError(Set<RequestInfo> requests) {
+        // Do nothing because message is of no importance for rs-order
+    }
 }
@@ -25,6 +25,8 @@ import fr.cnes.regards.framework.modules.jobs.domain.AbstractJob;
 import fr.cnes.regards.framework.modules.jobs.domain.JobParameter;
 import fr.cnes.regards.framework.modules.jobs.domain.exception.JobParameterInvalidException;
 import fr.cnes.regards.framework.modules.jobs.service.IJobInfoService;
+import fr.cnes.regards.modules.fileaccess.dto.request.RequestResultInfoDto;
+import fr.cnes.regards.modules.filecatalog.client.RequestInfo;
 import fr.cnes.regards.modules.order.dao.IOrderDataFileRepository;
 import fr.cnes.regards.modules.order.domain.FileState;
 import fr.cnes.regards.modules.order.domain.OrderDataFile;
@@ -93,6 +95,14 @@ public class StorageFilesJob extends AbstractJob<Void> {
 
     protected final Set<String> unavailableHandledFiles = Sets.newHashSet();
 
+    /**
+     * Identifiers of the availability request groups sent to storage by this job.
+     * Storage sends a single response event per group, used to handle all files of the group at once.
+     * Guarded by itself : a group response can be received before the end of the availability request, so it is
+     * only checked once all groups of the request are registered.
+     */
+    protected final Set<String> requestGroupIds = new HashSet<>();
+
     /**
      * The user.
      */
@@ -161,7 +171,10 @@ public class StorageFilesJob extends AbstractJob<Void> {
         subscriber.subscribe(this);
 
         try {
-            storageClient.makeAvailable(dataFilesMultimap.keySet(), subOrderAvailabilityDurationHours);
+            synchronized (requestGroupIds) {
+                storageClient.makeAvailable(dataFilesMultimap.keySet(), subOrderAvailabilityDurationHours)
+                             .forEach(requestInfo -> requestGroupIds.add(requestInfo.getGroupId()));
+            }
             dataFilesMultimap.forEach((cs, f) -> logger.debug("Order job is waiting for {} file {} - {} availability.",
                                                               dataFilesMultimap.size(),
                                                               f.getFilename(),
@@ -194,7 +207,7 @@ public class StorageFilesJob extends AbstractJob<Void> {
                                  .stream()
                                  .filter(e -> unavailableHandledFiles.contains(e.getKey()))
                                  .forEach(e -> e.getValue().setState(FileState.ERROR));
-                dataFileService.save(dataFilesMultimap.values());
+                dataFileService.updateStates(dataFilesMultimap.values());
             } else {
                 // With PROCESSING
                 processingService.enqueuedProcessingJob(processJobInfoId.get(), dataFilesMultimap.values(), user);
@@ -211,7 +224,31 @@ public class StorageFilesJob extends AbstractJob<Void> {
         notifyFiles(unavailableFilesChecksum, unavailableHandledFiles);
     }
 
-    private void notifyFiles(Collection<String> notifiedFiles, Collection<String> alreadyNotifiedFiles) {
+    /**
+     * Handle storage responses of availability request groups. Groups not sent by this job are ignored.
+     */
+    public void notifyGroupsDone(Collection<RequestInfo> groups) {
+        List<RequestInfo> groupsOfThisJob;
+        // Wait for the availability request to be sent, as storage may respond before its groups are registered
+        synchronized (requestGroupIds) {
+            groupsOfThisJob = groups.stream().filter(group -> requestGroupIds.contains(group.getGroupId())).toList();
+        }
+        for (RequestInfo group : groupsOfThisJob) {
+            notifyFilesAvailable(group.getSuccessRequests()
+                                      .stream()
+                                      .map(RequestResultInfoDto::getRequestChecksum)
+                                      .toList());
+            notifyFilesUnavailable(group.getErrorRequests()
+                                        .stream()
+                                        .map(RequestResultInfoDto::getRequestChecksum)
+                                        .toList());
+        }
+    }
+
+    /**
+     * Synchronized as files can be notified both by file events and by group events
+     */
+    private synchronized void notifyFiles(Collection<String> notifiedFiles, Collection<String> alreadyNotifiedFiles) {
         Set<String> unavailableFilesOrderedByThisJob = new HashSet<>(notifiedFiles);
         unavailableFilesOrderedByThisJob.retainAll(dataFilesMultimap.keySet());
         unavailableFilesOrderedByThisJob.removeAll(alreadyNotifiedFiles);
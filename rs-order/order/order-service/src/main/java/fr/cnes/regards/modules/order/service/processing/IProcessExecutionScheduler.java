@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.order.service.processing;
+
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.modules.order.domain.ProcessExecutionRequestStatus;
+
+import java.util.UUID;
+
+/**
+ * Schedule ProcessExecutionJobs of all orders, regarding the number of executions each process and each user can
+ * have running at the same time on rs-processing.
+ */
+public interface IProcessExecutionScheduler {
+
+    /**
+     * Register a new pending ProcessExecutionJob to be launched by the scheduler.
+     *
+     * @param processExecJob     saved pending ProcessExecutionJob
+     * @param orderId            order of the job
+     * @param processBusinessId  process the job sends executions to
+     * @param batchCorrelationId batch correlation id used by the job and found back in execution results
+     * @param executionCount     number of executions the job will send to rs-processing
+     * @param status             {@link ProcessExecutionRequestStatus#WAITING_INPUTS} if the job depends on storage
+     *                           files retrieval, {@link ProcessExecutionRequestStatus#READY} otherwise.
+     */
+    void register(JobInfo processExecJob,
+                  Long orderId,
+                  UUID processBusinessId,
+                  String batchCorrelationId,
+                  int executionCount,
+                  ProcessExecutionRequestStatus status);
+
+    /**
+     * Input files of given ProcessExecutionJob are available, the job can be launched as soon as a slot is free.
+     */
+    void markReady(UUID processJobId);
+
+    /**
+     * Launch as many ready ProcessExecutionJobs as concurrency limits allow, going round-robin between orders.
+     */
+    void schedule();
+
+    /**
+     * One execution of the given batch is terminated on rs-processing, release its slot.
+     */
+    void executionTerminated(String batchCorrelationId);
+
+    /**
+     * Given ProcessExecutionJob failed, its executions will never be terminated, release its slots.
+     */
+    void jobFailed(UUID processJobId);
+
+    /**
+     * Given ProcessExecutionJob has been aborted, by a pause of its order for example. Its slots are released and it
+     * is launched again by the scheduler once pending.
+     */
+    void jobAborted(UUID processJobId);
+
+    /**
+     * Release slots of launched ProcessExecutionJobs whose executions have not progressed for too long, their
+     * remaining executions being considered lost, then launch ready ProcessExecutionJobs on released slots.
+     */
+    void releaseStaleRequests();
+}
@@ -32,6 +32,7 @@ import fr.cnes.regards.modules.order.domain.DatasetTask;
 import fr.cnes.regards.modules.order.domain.FilesTask;
 import fr.cnes.regards.modules.order.domain.Order;
 import fr.cnes.regards.modules.order.domain.OrderDataFile;
+import fr.cnes.regards.modules.order.domain.ProcessExecutionRequestStatus;
 import fr.cnes.regards.modules.order.domain.basket.BasketDatasetSelection;
 import fr.cnes.regards.modules.order.domain.exception.TooManyItemsSelectedInBasketException;
 import fr.cnes.regards.modules.order.dto.dto.ProcessDatasetDescriptionDto;
@@ -111,6 +112,8 @@ public class OrderProcessingService implements IOrderProcessingService {
 
     protected final IJobInfoService jobInfoService;
 
+    protected final IProcessExecutionScheduler processExecutionScheduler;
+
     public OrderProcessingService(BasketSelectionPageSearch basketSelectionPageSearch,
                                   IProcessingRestClient processingClient,
                                   SuborderSizeCounter suborderSizeCounter,
@@ -118,7 +121,8 @@ public class OrderProcessingService implements IOrderProcessingService {
                                   IOrderDataFileRepository orderDataFileRepository,
                                   IOrderJobService orderJobService,
                                   OrderAttachmentDataSetService orderAttachmentDataSetService,
-                                  IJobInfoService jobInfoService) {
+                                  IJobInfoService jobInfoService,
+                                  IProcessExecutionScheduler processExecutionScheduler) {
         this.basketSelectionPageSearch = basketSelectionPageSearch;
         this.processingClient = processingClient;
         this.suborderSizeCounter = suborderSizeCounter;
@@ -127,6 +131,7 @@ public class OrderProcessingService implements IOrderProcessingService {
         this.orderJobService = orderJobService;
         this.orderAttachmentDataSetService = orderAttachmentDataSetService;
         this.jobInfoService = jobInfoService;
+        this.processExecutionScheduler = processExecutionScheduler;
     }
 
     /**
@@ -283,9 +288,10 @@ public class OrderProcessingService implements IOrderProcessingService {
     public void enqueuedProcessingJob(UUID processJobId, Collection<OrderDataFile> dataFiles, String user) {
         // Delete the OrderDataFiles which were only temporary input files
         orderDataFileRepository.deleteAll(dataFiles);
-        // Enqueue the processing job because all of its dependencies are ready (if there is a process to launch)
-        jobInfoService.enqueueJobForId(processJobId);
-        // Nudge the order job service to enqueue next storage files jobs.
+        // The processing job can be launched because all of its dependencies are ready (if there is a process to
+        // launch). It is enqueued by the scheduler as soon as its process and its user have a free slot.
+        processExecutionScheduler.markReady(processJobId);
+        // Nudge the order job service to enqueue next storage files jobs and ready processing jobs.
         orderJobService.manageUserOrderStorageFilesJobInfos(user);
     }
 
@@ -301,30 +307,16 @@ public class OrderProcessingService implements IOrderProcessingService {
         return windowAccordingToScopeAndSizeLimit(order.getId(),
                                                   pProcessDTO.getProcessId(),
                                                   featureGroup,
-                                                  orderProcessInfo).flatMap(features -> {
-            if (orderProcessInfo.getScope() == Scope.SUBORDER) {
-                return createProcessExecutionJobAndFilesTask(order,
-                                                             suborderCount,
-                                                             pProcessDTO,
-                                                             orderProcessInfo,
-                                                             dsSel,
-                                                             tenant,
-                                                             user,
-                                                             userRole,
-                                                             features);
-            } else {
-                return Flux.fromIterable(features)
-                           .flatMap(feature -> createProcessExecutionJobAndFilesTask(order,
-                                                                                     suborderCount,
-                                                                                     pProcessDTO,
-                                                                                     orderProcessInfo,
-                                                                                     dsSel,
-                                                                                     tenant,
-                                                                                     user,
-                                                                                     userRole,
-                                                                                     List.of(feature)));
-            }
-        });
+                                                  orderProcessInfo).flatMap(features -> createProcessExecutionJobAndFilesTask(
+            order,
+            suborderCount,
+            pProcessDTO,
+            orderProcessInfo,
+            dsSel,
+            tenant,
+            user,
+            userRole,
+            features));
     }
 
     protected Publisher<FilesTask> createProcessExecutionJobAndFilesTask(Order order,
@@ -345,7 +337,15 @@ public class OrderProcessingService implements IOrderProcessingService {
                                                                user,
                                                                userRole,
                                                                features);
-        jobInfoService.createAsQueued(jobInfo);
+        // Whatever the scope, features are batched into one job (one processing batch) per suborder : with a FEATURE
+        // scope, the job sends one execution per feature of the batch.
+        jobInfo = jobInfoService.createAsPending(jobInfo);
+        registerProcessExecution(jobInfo,
+                                 order,
+                                 pProcessDTO,
+                                 orderProcessInfo,
+                                 features,
+                                 ProcessExecutionRequestStatus.READY);
         OrderDataFile[] outputFiles = extractOutputFilesFromProcessExecJob(jobInfo);
 
         FilesTask filesTask = new FilesTask();
@@ -584,6 +584,12 @@ public class OrderProcessingService implements IOrderProcessingService {
                                                                              features);
         processExecJobUnsaved.setExpirationDate(order.getExpirationDate());
         JobInfo processExecJob = jobInfoService.createAsPending(processExecJobUnsaved);
+        registerProcessExecution(processExecJob,
+                                 order,
+                                 pProcessDTO,
+                                 orderProcessInfo,
+                                 features,
+                                 ProcessExecutionRequestStatus.WAITING_INPUTS);
 
         Long[] internalInputFiles = findInputFilesInStorage(order.getId(),
                                                             features,
@@ -612,6 +618,28 @@ public class OrderProcessingService implements IOrderProcessingService {
         return Mono.just(filesTask);
     }
 
+    /**
+     * Register given pending process execution job to the scheduler, which enqueues it when concurrency limits of its
+     * process and of its user allow it.
+     */
+    private void registerProcessExecution(JobInfo processExecJob,
+                                          Order order,
+                                          PProcessDTO pProcessDTO,
+                                          OrderProcessInfo orderProcessInfo,
+                                          List<EntityFeature> features,
+                                          ProcessExecutionRequestStatus status) {
+        String batchCorrelationId = processExecJob.getParametersAsMap()
+                                                  .get(ProcessBatchCorrelationIdJobParameter.NAME)
+                                                  .getValue();
+        int executionCount = orderProcessInfo.getScope() == Scope.SUBORDER ? 1 : features.size();
+        processExecutionScheduler.register(processExecJob,
+                                           order.getId(),
+                                           pProcessDTO.getProcessId(),
+                                           batchCorrelationId,
+                                           executionCount,
+                                           status);
+    }
+
     private OrderDataFile[] extractOutputFilesFromProcessExecJob(JobInfo processExecJob) {
         List<Long> ids = List.of(processExecJob.getParametersAsMap()
                                                .get(ProcessOutputFilesJobParameter.NAME)
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.order.service.processing;
+
+import fr.cnes.regards.framework.jpa.multitenant.lock.LockService;
+import fr.cnes.regards.framework.jpa.multitenant.lock.LockServiceResponse;
+import fr.cnes.regards.framework.jpa.multitenant.transactional.MultitenantTransactional;
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
+import fr.cnes.regards.framework.modules.jobs.service.IJobInfoService;
+import fr.cnes.regards.modules.order.dao.IOrderRepository;
+import fr.cnes.regards.modules.order.dao.IProcessExecutionRequestRepository;
+import fr.cnes.regards.modules.order.domain.Order;
+import fr.cnes.regards.modules.order.domain.ProcessExecutionRequest;
+import fr.cnes.regards.modules.order.domain.ProcessExecutionRequestStatus;
+import fr.cnes.regards.modules.order.dto.dto.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Schedule ProcessExecutionJobs so that :
+ * <ul>
+ *     <li>a process never has more than {@link #maxExecutionsPerProcess} executions running at the same time,</li>
+ *     <li>a user never has more than {@link #maxExecutionsPerUser} executions running at the same time, if set,</li>
+ *     <li>free slots are given in turn to each order (round-robin), orders with the fewest running jobs first, so
+ *     that a large order cannot starve small ones.</li>
+ * </ul>
+ * A ProcessExecutionJob alone exceeding a limit is launched anyway when nothing else is running for its process and
+ * its user, otherwise it would never be.
+ * <p>
+ * A launched ProcessExecutionJob whose executions have not progressed for {@link #launchedTimeoutHours} hours is
+ * considered lost (results never received from rs-processing for example) and its slots are released.
+ */
+@Service
+@MultitenantTransactional
+public class ProcessExecutionScheduler implements IProcessExecutionScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessExecutionScheduler.class);
+
+    private static final String SCHEDULE_LOCK = "schedule-process-executions";
+
+    /**
+     * Maximum number of ready requests of an order retrieved at each scheduling, without any concurrency limit
+     */
+    private static final int MAX_READY_REQUESTS_PER_ORDER = 1000;
+
+    private final IProcessExecutionRequestRepository requestRepository;
+
+    private final IOrderRepository orderRepository;
+
+    private final IJobInfoService jobInfoService;
+
+    private final LockService lockService;
+
+    /**
+     * Maximum number of executions running at the same time on rs-processing for one process, unlimited if not
+     * positive
+     */
+    @Value("${regards.order.processing.max.executions.per.process:20}")
+    private int maxExecutionsPerProcess = 20;
+
+    /**
+     * Maximum number of executions running at the same time on rs-processing for one user, unlimited if not positive
+     */
+    @Value("${regards.order.processing.max.executions.per.user:0}")
+    private int maxExecutionsPerUser = 0;
+
+    /**
+     * Number of hours after which a launched ProcessExecutionJob without any terminated execution releases its slots
+     */
+    @Value("${regards.order.processing.launched.timeout.hours:24}")
+    private int launchedTimeoutHours = 24;
+
+    public ProcessExecutionScheduler(IProcessExecutionRequestRepository requestRepository,
+                                     IOrderRepository orderRepository,
+                                     IJobInfoService jobInfoService,
+                                     LockService lockService) {
+        this.requestRepository = requestRepository;
+        this.orderRepository = orderRepository;
+        this.jobInfoService = jobInfoService;
+        this.lockService = lockService;
+    }
+
+    @Override
+    public void register(JobInfo processExecJob,
+                         Long orderId,
+                         UUID processBusinessId,
+                         String batchCorrelationId,
+                         int executionCount,
+                         ProcessExecutionRequestStatus status) {
+        requestRepository.save(new ProcessExecutionRequest(processExecJob.getId(),
+                                                           batchCorrelationId,
+                                                           orderId,
+                                                           processExecJob.getOwner(),
+                                                           processBusinessId,
+                                                           executionCount,
+                                                           status));
+    }
+
+    @Override
+    public void markReady(UUID processJobId) {
+        if (requestRepository.updateStatusByJobId(processJobId, ProcessExecutionRequestStatus.READY) == 0) {
+            // Job created before scheduling was introduced, launch it directly
+            jobInfoService.enqueueJobForId(processJobId);
+        }
+    }
+
+    @Override
+    public void schedule() {
+        try {
+            LockServiceResponse<Object> lockResponse = lockService.runWithLock(SCHEDULE_LOCK, this::doSchedule);
+            if (!lockResponse.isExecuted()) {
+                LOGGER.error("Wait too long for a lock to schedule process executions.");
+            }
+        } catch (InterruptedException e) {
+            LOGGER.error(String.format(
+                "Thread interrupted while waiting for lock to schedule process executions. Cause : %s",
+                e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public void executionTerminated(String batchCorrelationId) {
+        requestRepository.decrementRemainingExecutions(batchCorrelationId);
+        requestRepository.deleteTerminated(batchCorrelationId);
+    }
+
+    @Override
+    public void jobFailed(UUID processJobId) {
+        requestRepository.deleteByJobId(processJobId);
+    }
+
+    @Override
+    public void jobAborted(UUID processJobId) {
+        requestRepository.findByJobId(processJobId)
+                         .filter(request -> request.getStatus() == ProcessExecutionRequestStatus.LAUNCHED)
+                         .ifPresent(request -> {
+                             request.setStatus(ProcessExecutionRequestStatus.READY);
+                             requestRepository.save(request);
+                         });
+    }
+
+    @Override
+    public void releaseStaleRequests() {
+        OffsetDateTime limitDate = OffsetDateTime.now().minusHours(launchedTimeoutHours);
+        List<ProcessExecutionRequest> staleRequests = requestRepository.findByStatusAndLastUpdateDateBefore(
+            ProcessExecutionRequestStatus.LAUNCHED,
+            limitDate);
+        if (!staleRequests.isEmpty()) {
+            staleRequests.forEach(request -> LOGGER.warn("No execution of {} terminated for {} hours, its slots are "
+                                                         + "released", request, launchedTimeoutHours));
+            requestRepository.deleteAll(staleRequests);
+            schedule();
+        }
+    }
+
+    private Void doSchedule() {
+        Map<Long, Deque<ProcessExecutionRequest>> readyRequestsByOrder = findReadyRequestsByOrder();
+        if (readyRequestsByOrder.isEmpty()) {
+            return null;
+        }
+        Map<UUID, Long> runningByProcess = new HashMap<>();
+        Map<String, Long> runningByOwner = new HashMap<>();
+        int launchedCount = 0;
+        // Each round launches at most one job per order, until no order can launch anything anymore
+        while (!readyRequestsByOrder.isEmpty()) {
+            Iterator<Deque<ProcessExecutionRequest>> it = readyRequestsByOrder.values().iterator();
+            while (it.hasNext()) {
+                Deque<ProcessExecutionRequest> orderRequests = it.next();
+                boolean launched = launchFirstLaunchable(orderRequests, runningByProcess, runningByOwner);
+                if (launched) {
+                    launchedCount++;
+                }
+                if (!launched || orderRequests.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+        if (launchedCount > 0) {
+            LOGGER.info("{} process execution jobs launched", launchedCount);
+        }
+        return null;
+    }
+
+    /**
+     * Retrieve ready requests of orders that can be launched, orders being sorted for round-robin scheduling.
+     * Neither a user nor a process can run more than their limit of executions so there is no need to retrieve more
+     * requests per order.
+     */
+    private Map<Long, Deque<ProcessExecutionRequest>> findReadyRequestsByOrder() {
+        Map<Long, Deque<ProcessExecutionRequest>> readyRequestsByOrder = new LinkedHashMap<>();
+        for (Long orderId : requestRepository.findOrderIdsWithReadyRequests()) {
+            Order order = orderRepository.findSimpleById(orderId);
+            if ((order == null) || (order.getStatus() == OrderStatus.DELETED)) {
+                requestRepository.deleteByOrderId(orderId);
+            } else if (!order.getStatus().isOneOfStatuses(OrderStatus.PAUSED, OrderStatus.EXPIRED)) {
+                List<ProcessExecutionRequest> readyRequests = requestRepository.findByOrderIdAndStatusOrderByIdAsc(
+                    orderId,
+                    ProcessExecutionRequestStatus.READY,
+                    PageRequest.of(0, getReadyRequestsPageSize()));
+                readyRequestsByOrder.put(orderId, new ArrayDeque<>(readyRequests));
+            }
+        }
+        return readyRequestsByOrder;
+    }
+
+    /**
+     * Launch the first request of given ones fitting into concurrency limits
+     *
+     * @return true if a request has been launched
+     */
+    private boolean launchFirstLaunchable(Deque<ProcessExecutionRequest> requests,
+                                          Map<UUID, Long> runningByProcess,
+                                          Map<String, Long> runningByOwner) {
+        Iterator<ProcessExecutionRequest> it = requests.iterator();
+        while (it.hasNext()) {
+            ProcessExecutionRequest request = it.next();
+            long processRunning = runningByProcess.computeIfAbsent(request.getProcessBusinessId(),
+                                                                   requestRepository::countRunningExecutionsByProcess);
+            long ownerRunning = runningByOwner.computeIfAbsent(request.getOwner(),
+                                                               requestRepository::countRunningExecutionsByOwner);
+            int requested = request.getRemainingExecutions();
+            if (fits(processRunning, requested, maxExecutionsPerProcess) && fits(ownerRunning,
+                                                                                 requested,
+                                                                                 maxExecutionsPerUser)) {
+                it.remove();
+                if (launch(request)) {
+                    runningByProcess.merge(request.getProcessBusinessId(), (long) requested, Long::sum);
+                    runningByOwner.merge(request.getOwner(), (long) requested, Long::sum);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int getReadyRequestsPageSize() {
+        return IntStream.of(maxExecutionsPerProcess, maxExecutionsPerUser)
+                        .filter(max -> max > 0)
+                        .min()
+                        .orElse(MAX_READY_REQUESTS_PER_ORDER);
+    }
+
+    /**
+     * @param max limit of running executions, unlimited if not positive
+     */
+    private static boolean fits(long running, int requested, int max) {
+        return (max <= 0) || (running == 0) || (running + requested <= max);
+    }
+
+    private boolean launch(ProcessExecutionRequest request) {
+        JobInfo jobInfo = jobInfoService.retrieveJob(request.getJobId());
+        if (jobInfo == null) {
+            LOGGER.warn("Process execution job {} does not exist anymore, {} is removed", request.getJobId(), request);
+            requestRepository.delete(request);
+            return false;
+        }
+        if (jobInfo.getStatus().getStatus() != JobStatus.PENDING) {
+            // Job has been aborted by a pause of the order for example, it will be scheduled again once pending
+            return false;
+        }
+        jobInfo.updateStatus(JobStatus.QUEUED);
+        jobInfoService.save(jobInfo);
+        request.launch();
+        requestRepository.save(request);
+        return true;
+    }
+}
@@ -79,6 +79,8 @@ public class ProcessingExecutionResultEventHandler implements IProcessingExecuti
 
     private final IOrderDataFileService dataFileService;
 
+    private final IProcessExecutionScheduler processExecutionScheduler;
+
     private final ApplicationEventPublisher applicationPublisher;
 
     private final Gson gson;
@@ -89,6 +91,7 @@ public class ProcessingExecutionResultEventHandler implements IProcessingExecuti
                                                  IOrderDataFileRepository orderDataFileRepository,
                                                  IOrderJobService orderJobService,
                                                  IOrderDataFileService dataFileService,
+                                                 IProcessExecutionScheduler processExecutionScheduler,
                                                  ApplicationEventPublisher applicationPublisher,
                                                  Gson gson) {
         this.runtimeTenantResolver = runtimeTenantResolver;
@@ -96,6 +99,7 @@ public class ProcessingExecutionResultEventHandler implements IProcessingExecuti
         this.orderDataFileRepository = orderDataFileRepository;
         this.orderJobService = orderJobService;
         this.dataFileService = dataFileService;
+        this.processExecutionScheduler = processExecutionScheduler;
         this.applicationPublisher = applicationPublisher;
         this.gson = gson;
     }
@@ -162,6 +166,8 @@ public class ProcessingExecutionResultEventHandler implements IProcessingExecuti
         }
 
         dataFileService.save(updatedDataFiles);
+        // Release the processing slot of the execution, next processing jobs are launched by the order job service
+        processExecutionScheduler.executionTerminated(batchCorrelationId);
         orderJobService.manageUserOrderStorageFilesJobInfos(execCorrId.getUser());
         // Used by tests
         applicationPublisher.publishEvent(ExecResultHandlerResultEvent.event(evt, updatedDataFiles));
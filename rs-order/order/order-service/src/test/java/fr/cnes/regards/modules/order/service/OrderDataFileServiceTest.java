@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.order.service;
+
+import fr.cnes.regards.modules.order.dao.IFilesTasksRepository;
+import fr.cnes.regards.modules.order.dao.IOrderDataFileRepository;
+import fr.cnes.regards.modules.order.dao.IOrderRepository;
+import fr.cnes.regards.modules.order.domain.FileState;
+import fr.cnes.regards.modules.order.domain.OrderDataFile;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test for the bulk update of data file states with {@link OrderDataFileService}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class OrderDataFileServiceTest {
+
+    @Mock
+    private IOrderDataFileRepository orderDataFileRepository;
+
+    @Mock
+    private IFilesTasksRepository filesTasksRepository;
+
+    @Mock
+    private IOrderRepository orderRepository;
+
+    private OrderDataFileService orderDataFileService;
+
+    @Before
+    public void init() {
+        orderDataFileService = new OrderDataFileService(orderDataFileRepository,
+                                                        null,
+                                                        null,
+                                                        filesTasksRepository,
+                                                        orderRepository,
+                                                        null,
+                                                        null,
+                                                        null,
+                                                        null,
+                                                        null,
+                                                        null);
+    }
+
+    private static OrderDataFile createFile(long id, FileState state) {
+        OrderDataFile dataFile = new OrderDataFile();
+        dataFile.setId(id);
+        dataFile.setState(state);
+        return dataFile;
+    }
+
+    @Test
+    public void test_update_states_by_state() {
+        // Given
+        List<OrderDataFile> dataFiles = List.of(createFile(1L, FileState.AVAILABLE),
+                                                createFile(2L, FileState.ERROR),
+                                                createFile(3L, FileState.AVAILABLE));
+
+        // When
+        orderDataFileService.updateStates(dataFiles);
+
+        // Then files are updated with one request by state, without loading them
+        Mockito.verify(orderDataFileRepository).updateStateByIdIn(FileState.AVAILABLE, List.of(1L, 3L));
+        Mockito.verify(orderDataFileRepository).updateStateByIdIn(FileState.ERROR, List.of(2L));
+        Mockito.verify(orderDataFileRepository, Mockito.never()).saveAll(Mockito.anyIterable());
+        Mockito.verify(orderDataFileRepository).findDistinctFilesTaskIdByIdIn(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    public void test_update_states_by_chunk() {
+        // Given more files than the maximum size of an update
+        List<OrderDataFile> dataFiles = new ArrayList<>();
+        LongStream.rangeClosed(1, 10_001).forEach(id -> dataFiles.add(createFile(id, FileState.AVAILABLE)));
+
+        // When
+        orderDataFileService.updateStates(dataFiles);
+
+        // Then
+        ArgumentCaptor<List<Long>> idsCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(orderDataFileRepository, Mockito.times(2))
+               .updateStateByIdIn(Mockito.eq(FileState.AVAILABLE), idsCaptor.capture());
+        assertEquals(10_000, idsCaptor.getAllValues().get(0).size());
+        assertEquals(List.of(10_001L), idsCaptor.getAllValues().get(1));
+    }
+}
@@ -22,21 +22,46 @@ import fr.cnes.regards.framework.urn.DataType;
 import fr.cnes.regards.framework.urn.EntityType;
 import fr.cnes.regards.framework.urn.UniformResourceName;
 import fr.cnes.regards.modules.indexer.domain.DataFile;
+import fr.cnes.regards.modules.order.dao.IOrderRepository;
 import fr.cnes.regards.modules.order.domain.FileState;
+import fr.cnes.regards.modules.order.domain.IOrderDataFileDownloadInfo;
 import fr.cnes.regards.modules.order.domain.OrderDataFile;
+import fr.cnes.regards.modules.order.metalink.schema.FileType;
+import fr.cnes.regards.modules.order.metalink.schema.MetalinkType;
+import fr.cnes.regards.modules.order.metalink.schema.ObjectFactory;
 import fr.cnes.regards.modules.order.service.processing.IProcessingEventSender;
+import fr.cnes.regards.modules.project.client.rest.IProjectsClient;
+import fr.cnes.regards.modules.project.domain.Project;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.Unmarshaller;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.LongStream;
 import java.util.zip.ZipFile;
 
 /**
@@ -44,6 +69,10 @@ import java.util.zip.ZipFile;
  **/
 public class OrderDownloadServiceTest {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderDownloadServiceTest.class);
+
+    private static final Long ORDER_ID = 1L;
+
     private final IOrderDataFileService dataFileService = Mockito.mock(IOrderDataFileService.class);
 
     private final IOrderJobService orderJobService = Mockito.mock(IOrderJobService.class);
@@ -52,21 +81,35 @@ public class OrderDownloadServiceTest {
 
     private final IProcessingEventSender processingEventSender = Mockito.mock(IProcessingEventSender.class);
 
+    private final IOrderRepository orderRepository = Mockito.mock(IOrderRepository.class);
+
+    private final OrderHelperService orderHelperService = Mockito.mock(OrderHelperService.class);
+
+    private final IProjectsClient projectsClient = Mockito.mock(IProjectsClient.class);
+
     private OrderDownloadService service;
 
     @Before
     public void init() {
-        service = new OrderDownloadService(null,
+        service = new OrderDownloadService(orderRepository,
                                            dataFileService,
                                            orderJobService,
                                            null,
-                                           null,
-                                           null,
+                                           orderHelperService,
+                                           projectsClient,
                                            null,
                                            runtimeTenantResolver,
                                            processingEventSender,
                                            null);
         service.afterPropertiesSet();
+
+        Project project = new Project("desc", "icon", true, "project");
+        project.setHost("http://localhost");
+        Mockito.when(projectsClient.retrieveProject(Mockito.any()))
+               .thenReturn(ResponseEntity.ok(EntityModel.of(project)));
+        Mockito.when(orderHelperService.buildUrl()).thenReturn("/api/v1/rs-order");
+        Mockito.when(orderHelperService.generateToken4PublicEndpoint(Mockito.any())).thenReturn("token");
+        Mockito.when(runtimeTenantResolver.getTenant()).thenReturn("tenant");
     }
 
     @Test
@@ -121,6 +164,115 @@ public class OrderDownloadServiceTest {
 
     }
 
+    @Test
+    public void test_download_metalink_with_several_pages() throws Exception {
+        // GIVEN an order of 2500 files, read by pages of 1000 files
+        mockSyntheticOrderFiles(2500);
+
+        // WHEN
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        service.downloadOrderMetalink(ORDER_ID, os);
+
+        // THEN
+        Unmarshaller unmarshaller = JAXBContext.newInstance(ObjectFactory.class).createUnmarshaller();
+        @SuppressWarnings("unchecked") JAXBElement<MetalinkType> metalink = (JAXBElement<MetalinkType>) unmarshaller.unmarshal(
+            new ByteArrayInputStream(os.toByteArray()));
+        List<FileType> files = metalink.getValue().getFiles().getFile();
+        Assert.assertEquals(2500, files.size());
+        Assert.assertEquals("file_2500.dat", files.get(2499).getName());
+        Assert.assertEquals(
+            "http://localhost/api/v1/rs-order/orders/public/files/1?orderToken=token&scope=tenant",
+            files.get(0).getResources().getUrl().get(0).getValue());
+    }
+
+    @Test
+    public void test_download_url_list() throws Exception {
+        // GIVEN
+        mockSyntheticOrderFiles(1001);
+
+        // WHEN
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        service.downloadOrderUrlList(ORDER_ID, os);
+
+        // THEN
+        List<String> urls = os.toString(StandardCharsets.UTF_8).lines().toList();
+        Assert.assertEquals(1001, urls.size());
+        Assert.assertTrue(urls.get(1000).startsWith("http://localhost/api/v1/rs-order/orders/public/files/1001?"));
+    }
+
+    @Test
+    @Ignore("Benchmark meant to be run manually : generate metalink and url list files for a synthetic order of 1M "
+            + "files")
+    public void benchmark_download_links_of_1M_files() throws Exception {
+        int nbFiles = 1_000_000;
+        mockSyntheticOrderFiles(nbFiles);
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans()
+                                                            .stream()
+                                                            .filter(pool -> pool.getType() == MemoryType.HEAP)
+                                                            .toList();
+
+        for (String format : List.of("metalink", "url list")) {
+            // Peak heap usage is measured by the JVM, no need to force a collection before generation
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long start = System.currentTimeMillis();
+            CountingOutputStream os = new CountingOutputStream(OutputStream.nullOutputStream());
+            if ("metalink".equals(format)) {
+                service.downloadOrderMetalink(ORDER_ID, os);
+            } else {
+                service.downloadOrderUrlList(ORDER_ID, os);
+            }
+            LOGGER.info("{} of {} files generated in {}ms ({} bytes, peak heap used={}MB)",
+                        format,
+                        nbFiles,
+                        System.currentTimeMillis() - start,
+                        os.getByteCount(),
+                        heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() / 1024 / 1024);
+        }
+    }
+
+    /**
+     * Simulate keyset pagination on an order containing the given number of files, with ids from 1 to nbFiles
+     */
+    private void mockSyntheticOrderFiles(int nbFiles) {
+        Mockito.when(dataFileService.findNextDownloadInfos(Mockito.eq(ORDER_ID), Mockito.any(), Mockito.anyInt()))
+               .thenAnswer(invocation -> {
+                   Long lastId = invocation.getArgument(1);
+                   int pageSize = invocation.getArgument(2);
+                   long firstId = lastId == null ? 1 : lastId + 1;
+                   return LongStream.rangeClosed(firstId, Math.min(firstId + pageSize - 1, nbFiles))
+                                    .mapToObj(SyntheticFile::new)
+                                    .toList();
+               });
+    }
+
+    private record SyntheticFile(Long id) implements IOrderDataFileDownloadInfo {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getFilename() {
+            return "file_" + id + ".dat";
+        }
+
+        @Override
+        public String getUrl() {
+            return "file:/data/file_" + id + ".dat";
+        }
+
+        @Override
+        public Long getFilesize() {
+            return 1024L * id;
+        }
+
+        @Override
+        public MimeType getMimeType() {
+            return MimeTypeUtils.APPLICATION_OCTET_STREAM;
+        }
+    }
+
     private OrderDataFile initFile(String id, String file, String checksum) {
         Path filePath = Paths.get("src",
                                   "test",
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.order.service.job;
+
+import fr.cnes.regards.modules.fileaccess.dto.request.RequestResultInfoDto;
+import fr.cnes.regards.modules.filecatalog.client.RequestInfo;
+import fr.cnes.regards.modules.order.domain.FileState;
+import fr.cnes.regards.modules.order.domain.OrderDataFile;
+import fr.cnes.regards.modules.order.service.IOrderDataFileService;
+import fr.cnes.regards.modules.order.service.IOrderJobService;
+import fr.cnes.regards.modules.storage.client.IStorageClient;
+import org.awaitility.Awaitility;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test for the handling of storage responses by availability request group in {@link StorageFilesJob}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class StorageFilesJobTest {
+
+    private static final String GROUP_ID = "group";
+
+    @Mock
+    private IOrderDataFileService dataFileService;
+
+    @Mock
+    private IStorageFileListenerService subscriber;
+
+    @Mock
+    private IStorageClient storageClient;
+
+    @Mock
+    private IOrderJobService orderJobService;
+
+    private StorageFilesJob job;
+
+    private OrderDataFile availableFile;
+
+    private OrderDataFile unavailableFile;
+
+    @Before
+    public void init() {
+        job = new StorageFilesJob();
+        ReflectionTestUtils.setField(job, "dataFileService", dataFileService);
+        ReflectionTestUtils.setField(job, "subscriber", subscriber);
+        ReflectionTestUtils.setField(job, "storageClient", storageClient);
+        ReflectionTestUtils.setField(job, "orderJobService", orderJobService);
+        ReflectionTestUtils.setField(job, "orderId", 1L);
+        ReflectionTestUtils.setField(job, "subOrderAvailabilityDurationHours", 24);
+        availableFile = addFile(1L, "checksum1");
+        unavailableFile = addFile(2L, "checksum2");
+    }
+
+    private OrderDataFile addFile(Long id, String checksum) {
+        OrderDataFile dataFile = new OrderDataFile();
+        dataFile.setId(id);
+        dataFile.setChecksum(checksum);
+        job.dataFilesMultimap.put(checksum, dataFile);
+        return dataFile;
+    }
+
+    private static RequestInfo createGroup(String groupId,
+                                           Collection<String> successChecksums,
+                                           Collection<String> errorChecksums) {
+        return RequestInfo.build(groupId,
+                                 successChecksums.stream()
+                                                 .map(checksum -> RequestResultInfoDto.build(groupId,
+                                                                                             checksum,
+                                                                                             null,
+                                                                                             null,
+                                                                                             List.of(),
+                                                                                             null,
+                                                                                             null))
+                                                 .toList(),
+                                 errorChecksums.stream()
+                                               .map(checksum -> RequestResultInfoDto.build(groupId,
+                                                                                           checksum,
+                                                                                           null,
+                                                                                           null,
+                                                                                           List.of(),
+                                                                                           null,
+                                                                                           "error"))
+                                               .toList());
+    }
+
+    @Test(timeout = 10_000)
+    public void test_group_response_received_before_end_of_availability_request() {
+        // Given storage responds to the group before the availability request returns
+        Thread responseThread = new Thread(() -> job.notifyGroupsDone(List.of(createGroup(GROUP_ID,
+                                                                                          List.of("checksum1"),
+                                                                                          List.of("checksum2")))));
+        Mockito.when(storageClient.makeAvailable(Mockito.anyCollection(), Mockito.eq(24))).thenAnswer(invocation -> {
+            responseThread.start();
+            Awaitility.await()
+                      .atMost(5, TimeUnit.SECONDS)
+                      .until(() -> responseThread.getState() == Thread.State.BLOCKED);
+            return List.of(RequestInfo.build(GROUP_ID));
+        });
+
+        // When
+        job.run();
+
+        // Then the response is handled once the group is registered, so the job does not wait for it
+        Assert.assertEquals(FileState.AVAILABLE, availableFile.getState());
+        Assert.assertEquals(FileState.ERROR, unavailableFile.getState());
+        Mockito.verify(dataFileService).updateStates(job.dataFilesMultimap.values());
+        Mockito.verify(subscriber).unsubscribe(job);
+    }
+
+    @Test(timeout = 10_000)
+    public void test_group_responses_of_other_jobs_ignored() {
+        // Given a response of another job is received before the response of this job
+        Mockito.when(storageClient.makeAvailable(Mockito.anyCollection(), Mockito.eq(24))).thenAnswer(invocation -> {
+            new Thread(() -> {
+                job.notifyGroupsDone(List.of(createGroup("otherGroup", List.of("checksum2"), List.of())));
+                job.notifyGroupsDone(List.of(createGroup(GROUP_ID, List.of("checksum1"), List.of("checksum2"))));
+            }).start();
+            return List.of(RequestInfo.build(GROUP_ID));
+        });
+
+        // When
+        job.run();
+
+        // Then
+        Assert.assertEquals(FileState.AVAILABLE, availableFile.getState());
+        Assert.assertEquals(FileState.ERROR, unavailableFile.getState());
+        Assert.assertFalse(job.availableHandledFiles.contains("checksum2"));
+        Mockito.verify(dataFileService).updateStates(job.dataFilesMultimap.values());
+    }
+}
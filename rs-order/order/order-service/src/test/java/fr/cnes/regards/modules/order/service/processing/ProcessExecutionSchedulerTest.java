@@ -0,0 +1,276 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.order.service.processing;
+
+import fr.cnes.regards.framework.jpa.multitenant.lock.LockService;
+import fr.cnes.regards.framework.jpa.multitenant.lock.LockServiceResponse;
+import fr.cnes.regards.framework.jpa.multitenant.lock.LockServiceTask;
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
+import fr.cnes.regards.framework.modules.jobs.service.IJobInfoService;
+import fr.cnes.regards.modules.order.dao.IOrderRepository;
+import fr.cnes.regards.modules.order.dao.IProcessExecutionRequestRepository;
+import fr.cnes.regards.modules.order.domain.Order;
+import fr.cnes.regards.modules.order.domain.ProcessExecutionRequest;
+import fr.cnes.regards.modules.order.domain.ProcessExecutionRequestStatus;
+import fr.cnes.regards.modules.order.dto.dto.OrderStatus;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Test scheduling of process execution jobs regarding concurrency limits and fairness between orders
+ */
+public class ProcessExecutionSchedulerTest {
+
+    private static final String USER = "user@regards.fr";
+
+    private static final UUID PROCESS_ID = UUID.randomUUID();
+
+    private final IProcessExecutionRequestRepository requestRepository = Mockito.mock(
+        IProcessExecutionRequestRepository.class);
+
+    private final IOrderRepository orderRepository = Mockito.mock(IOrderRepository.class);
+
+    private final IJobInfoService jobInfoService = Mockito.mock(IJobInfoService.class);
+
+    private final LockService lockService = Mockito.mock(LockService.class);
+
+    private ProcessExecutionScheduler scheduler;
+
+    @Before
+    public void init() throws InterruptedException {
+        scheduler = new ProcessExecutionScheduler(requestRepository, orderRepository, jobInfoService, lockService);
+        ReflectionTestUtils.setField(scheduler, "maxExecutionsPerProcess", 3);
+        ReflectionTestUtils.setField(scheduler, "maxExecutionsPerUser", 5);
+
+        Mockito.when(lockService.runWithLock(Mockito.anyString(), Mockito.any()))
+               .thenAnswer(invocation -> new LockServiceResponse<>(true,
+                                                                   ((LockServiceTask<?>) invocation.getArgument(1)).run()));
+        Mockito.when(orderRepository.findSimpleById(Mockito.anyLong())).thenAnswer(invocation -> {
+            Order order = new Order();
+            order.setStatus(OrderStatus.RUNNING);
+            return order;
+        });
+        Mockito.when(jobInfoService.retrieveJob(Mockito.any())).thenAnswer(invocation -> {
+            JobInfo jobInfo = new JobInfo(false, 0, Set.of(), USER, "ProcessExecutionJob");
+            jobInfo.updateStatus(JobStatus.PENDING);
+            return jobInfo;
+        });
+        Mockito.when(requestRepository.countRunningExecutionsByProcess(Mockito.any())).thenReturn(0L);
+        Mockito.when(requestRepository.countRunningExecutionsByOwner(Mockito.any())).thenReturn(0L);
+    }
+
+    @Test
+    public void test_round_robin_between_orders() {
+        // GIVEN a large order with 5 ready suborders and a small one with 1 suborder, submitted after
+        List<ProcessExecutionRequest> largeOrderRequests = mockReadyRequests(1L, 5, 1);
+        List<ProcessExecutionRequest> smallOrderRequests = mockReadyRequests(2L, 1, 1);
+        Mockito.when(requestRepository.findOrderIdsWithReadyRequests()).thenReturn(List.of(1L, 2L));
+
+        // WHEN
+        scheduler.schedule();
+
+        // THEN the process limit (3) is shared between both orders
+        List<ProcessExecutionRequest> launched = captureLaunchedRequests(3);
+        Assert.assertEquals(largeOrderRequests.get(0), launched.get(0));
+        Assert.assertEquals(smallOrderRequests.get(0), launched.get(1));
+        Assert.assertEquals(largeOrderRequests.get(1), launched.get(2));
+        Assert.assertEquals(ProcessExecutionRequestStatus.READY, largeOrderRequests.get(2).getStatus());
+    }
+
+    @Test
+    public void test_user_limit_counts_executions() {
+        // GIVEN suborders of 3 executions each, with a user limit of 5 executions
+        ReflectionTestUtils.setField(scheduler, "maxExecutionsPerProcess", 10);
+        List<ProcessExecutionRequest> requests = mockReadyRequests(1L, 2, 3);
+        Mockito.when(requestRepository.findOrderIdsWithReadyRequests()).thenReturn(List.of(1L));
+
+        // WHEN
+        scheduler.schedule();
+
+        // THEN
+        captureLaunchedRequests(1);
+        Assert.assertEquals(ProcessExecutionRequestStatus.LAUNCHED, requests.get(0).getStatus());
+        Assert.assertEquals(ProcessExecutionRequestStatus.READY, requests.get(1).getStatus());
+    }
+
+    @Test
+    public void test_user_unlimited_by_default() {
+        // GIVEN suborders of 3 executions each, without user limit
+        ReflectionTestUtils.setField(scheduler, "maxExecutionsPerProcess", 10);
+        ReflectionTestUtils.setField(scheduler, "maxExecutionsPerUser", 0);
+        List<ProcessExecutionRequest> requests = mockReadyRequests(1L, 3, 3);
+        Mockito.when(requestRepository.findOrderIdsWithReadyRequests()).thenReturn(List.of(1L));
+
+        // WHEN
+        scheduler.schedule();
+
+        // THEN only the process limit applies
+        captureLaunchedRequests(3);
+        requests.forEach(request -> Assert.assertEquals(ProcessExecutionRequestStatus.LAUNCHED, request.getStatus()));
+    }
+
+    @Test
+    public void test_release_stale_requests() {
+        // GIVEN a launched suborder whose executions never terminated
+        ProcessExecutionRequest staleRequest = new ProcessExecutionRequest(UUID.randomUUID(),
+                                                                           "order-1_dsSel-1_subOrder-0",
+                                                                           1L,
+                                                                           USER,
+                                                                           PROCESS_ID,
+                                                                           3,
+                                                                           ProcessExecutionRequestStatus.LAUNCHED);
+        Mockito.when(requestRepository.findByStatusAndLastUpdateDateBefore(Mockito.eq(
+                   ProcessExecutionRequestStatus.LAUNCHED), Mockito.any()))
+               .thenReturn(List.of(staleRequest));
+
+        // WHEN
+        scheduler.releaseStaleRequests();
+
+        // THEN its slots are released and ready suborders are scheduled
+        Mockito.verify(requestRepository).deleteAll(List.of(staleRequest));
+        Mockito.verify(requestRepository).findOrderIdsWithReadyRequests();
+    }
+
+    @Test
+    public void test_no_stale_requests() {
+        // WHEN
+        scheduler.releaseStaleRequests();
+
+        // THEN
+        Mockito.verify(requestRepository, Mockito.never()).deleteAll(Mockito.anyIterable());
+        Mockito.verify(requestRepository, Mockito.never()).findOrderIdsWithReadyRequests();
+    }
+
+    @Test
+    public void test_large_suborder_launched_alone() {
+        // GIVEN a suborder of more executions than allowed, with nothing running
+        List<ProcessExecutionRequest> requests = mockReadyRequests(1L, 1, 10);
+        Mockito.when(requestRepository.findOrderIdsWithReadyRequests()).thenReturn(List.of(1L));
+
+        // WHEN
+        scheduler.schedule();
+
+        // THEN it is launched anyway, otherwise it would never be
+        captureLaunchedRequests(1);
+        Assert.assertEquals(ProcessExecutionRequestStatus.LAUNCHED, requests.get(0).getStatus());
+    }
+
+    @Test
+    public void test_paused_order_not_scheduled() {
+        // GIVEN
+        List<ProcessExecutionRequest> requests = mockReadyRequests(1L, 1, 1);
+        Mockito.when(requestRepository.findOrderIdsWithReadyRequests()).thenReturn(List.of(1L));
+        Order order = new Order();
+        order.setStatus(OrderStatus.PAUSED);
+        Mockito.when(orderRepository.findSimpleById(1L)).thenReturn(order);
+
+        // WHEN
+        scheduler.schedule();
+
+        // THEN
+        Mockito.verify(requestRepository, Mockito.never()).save(Mockito.any());
+        Assert.assertEquals(ProcessExecutionRequestStatus.READY, requests.get(0).getStatus());
+    }
+
+    @Test
+    public void test_aborted_job_launched_again_on_resume() {
+        // GIVEN a launched suborder
+        ProcessExecutionRequest request = mockReadyRequests(1L, 1, 1).get(0);
+        Mockito.when(requestRepository.findOrderIdsWithReadyRequests()).thenReturn(List.of(1L));
+        Mockito.when(requestRepository.findByJobId(request.getJobId())).thenReturn(Optional.of(request));
+        scheduler.schedule();
+        Assert.assertEquals(ProcessExecutionRequestStatus.LAUNCHED, request.getStatus());
+
+        // WHEN its order is paused, which aborts its job
+        Order pausedOrder = new Order();
+        pausedOrder.setStatus(OrderStatus.PAUSED);
+        Mockito.when(orderRepository.findSimpleById(1L)).thenReturn(pausedOrder);
+        scheduler.jobAborted(request.getJobId());
+        scheduler.schedule();
+
+        // THEN its slots are released but it is not launched again while the order is paused
+        Assert.assertEquals(ProcessExecutionRequestStatus.READY, request.getStatus());
+        Mockito.verify(requestRepository, Mockito.times(2)).save(request);
+
+        // WHEN the order is resumed, its job being pending again
+        Order resumedOrder = new Order();
+        resumedOrder.setStatus(OrderStatus.RUNNING);
+        Mockito.when(orderRepository.findSimpleById(1L)).thenReturn(resumedOrder);
+        scheduler.schedule();
+
+        // THEN it is launched again
+        Assert.assertEquals(ProcessExecutionRequestStatus.LAUNCHED, request.getStatus());
+        Mockito.verify(requestRepository, Mockito.times(3)).save(request);
+    }
+
+    @Test
+    public void test_abort_of_not_launched_job_ignored() {
+        // GIVEN a suborder waiting for its input files
+        ProcessExecutionRequest request = new ProcessExecutionRequest(UUID.randomUUID(),
+                                                                      "order-1_dsSel-1_subOrder-0",
+                                                                      1L,
+                                                                      USER,
+                                                                      PROCESS_ID,
+                                                                      1,
+                                                                      ProcessExecutionRequestStatus.WAITING_INPUTS);
+        Mockito.when(requestRepository.findByJobId(request.getJobId())).thenReturn(Optional.of(request));
+
+        // WHEN
+        scheduler.jobAborted(request.getJobId());
+
+        // THEN
+        Assert.assertEquals(ProcessExecutionRequestStatus.WAITING_INPUTS, request.getStatus());
+        Mockito.verify(requestRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    private List<ProcessExecutionRequest> mockReadyRequests(Long orderId, int count, int executionCount) {
+        List<ProcessExecutionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(new ProcessExecutionRequest(UUID.randomUUID(),
+                                                     String.format("order-%d_dsSel-1_subOrder-%d", orderId, i),
+                                                     orderId,
+                                                     USER,
+                                                     PROCESS_ID,
+                                                     executionCount,
+                                                     ProcessExecutionRequestStatus.READY));
+        }
+        Mockito.when(requestRepository.findByOrderIdAndStatusOrderByIdAsc(Mockito.eq(orderId),
+                                                                          Mockito.eq(ProcessExecutionRequestStatus.READY),
+                                                                          Mockito.any())).thenReturn(requests);
+        return requests;
+    }
+
+    private List<ProcessExecutionRequest> captureLaunchedRequests(int expectedCount) {
+        ArgumentCaptor<ProcessExecutionRequest> captor = ArgumentCaptor.forClass(ProcessExecutionRequest.class);
+        Mockito.verify(requestRepository, Mockito.times(expectedCount)).save(captor.capture());
+        Mockito.verify(jobInfoService, Mockito.times(expectedCount)).save(Mockito.any());
+        return captor.getAllValues();
+    }
+}
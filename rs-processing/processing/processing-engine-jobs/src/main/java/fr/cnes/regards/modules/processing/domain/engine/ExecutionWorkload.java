@@ -0,0 +1,44 @@
+/* Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.processing.domain.engine;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * An execution to run in a {@link LaunchExecutionJob}, with its duration expected by the process forecast.
+ */
+public class ExecutionWorkload {
+
+    private final UUID execId;
+
+    private final Duration expectedDuration;
+
+    public ExecutionWorkload(UUID execId, Duration expectedDuration) {
+        this.execId = execId;
+        this.expectedDuration = expectedDuration;
+    }
+
+    public UUID getExecId() {
+        return execId;
+    }
+
+    public Duration getExpectedDuration() {
+        return expectedDuration;
+    }
+}
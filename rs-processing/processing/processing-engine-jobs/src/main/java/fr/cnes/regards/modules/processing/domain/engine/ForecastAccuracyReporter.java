@@ -0,0 +1,126 @@
+/* Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.processing.domain.engine;
+
+import fr.cnes.regards.modules.processing.domain.PExecution;
+import fr.cnes.regards.modules.processing.domain.PInputFile;
+import fr.cnes.regards.modules.processing.domain.repository.IPOutputFilesRepository;
+import fr.cnes.regards.modules.processing.domain.repository.IPProcessRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class compares the duration and result size of executions to the forecasts of their process,
+ * and logs the accuracy of these forecasts, as they are used to pack executions in jobs by the {@link JobWorkloadEngine}.
+ */
+@Component
+public class ForecastAccuracyReporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ForecastAccuracyReporter.class);
+
+    private final IPProcessRepository processRepo;
+
+    private final IPOutputFilesRepository outputFilesRepo;
+
+    private final Map<UUID, ForecastAccuracy> accuracyByProcess = new ConcurrentHashMap<>();
+
+    public ForecastAccuracyReporter(IPProcessRepository processRepo, IPOutputFilesRepository outputFilesRepo) {
+        this.processRepo = processRepo;
+        this.outputFilesRepo = outputFilesRepo;
+    }
+
+    public Mono<PExecution> report(PExecution exec, Duration actualDuration) {
+        long inputSize = exec.getInputFiles().map(PInputFile::getBytes).fold(0L, Long::sum);
+        return outputFilesRepo.findByExecId(exec.getId())
+                              .map(file -> file.getSize() == null ? 0L : file.getSize())
+                              .reduce(0L, Long::sum)
+                              .zipWith(processRepo.findByTenantAndProcessBusinessID(exec.getTenant(),
+                                                                                    exec.getProcessBusinessId())
+                                                  .map(process -> process.getResultSizeForecast()
+                                                                         .expectedResultSizeInBytes(inputSize)))
+                              .doOnNext(sizes -> {
+                                  ForecastAccuracy accuracy = accuracyByProcess.computeIfAbsent(exec.getProcessBusinessId(),
+                                                                                                id -> new ForecastAccuracy());
+                                  accuracy.record(exec.getExpectedDuration(),
+                                                  actualDuration,
+                                                  sizes.getT2(),
+                                                  sizes.getT1());
+                                  LOGGER.info("exec={} process={} - Forecast accuracy: duration {} expected / {} actual, "
+                                              + "result size {} expected / {} actual bytes. {}",
+                                              exec.getId(),
+                                              exec.getProcessBusinessId(),
+                                              exec.getExpectedDuration(),
+                                              actualDuration,
+                                              sizes.getT2(),
+                                              sizes.getT1(),
+                                              accuracy);
+                              })
+                              .onErrorResume(t -> {
+                                  LOGGER.warn("exec={} - Unable to report forecast accuracy: {}",
+                                              exec.getId(),
+                                              t.getMessage());
+                                  return Mono.empty();
+                              })
+                              .thenReturn(exec);
+    }
+
+    /**
+     * Mean ratios of actual over expected values of the executions of a process
+     */
+    private static class ForecastAccuracy {
+
+        private int durationCount;
+
+        private double durationRatioSum;
+
+        private int sizeCount;
+
+        private double sizeRatioSum;
+
+        private synchronized void record(Duration expectedDuration,
+                                         Duration actualDuration,
+                                         long expectedSize,
+                                         long actualSize) {
+            if ((expectedDuration != null) && (expectedDuration.toMillis() > 0)) {
+                durationCount++;
+                durationRatioSum += (double) actualDuration.toMillis() / expectedDuration.toMillis();
+            }
+            if (expectedSize > 0) {
+                sizeCount++;
+                sizeRatioSum += (double) actualSize / expectedSize;
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("Mean actual/expected ratio is %.2f for duration (%d executions) and %.2f for result "
+                                 + "size (%d executions)",
+                                 durationCount == 0 ? 0d : durationRatioSum / durationCount,
+                                 durationCount,
+                                 sizeCount == 0 ? 0d : sizeRatioSum / sizeCount,
+                                 sizeCount);
+        }
+    }
+}
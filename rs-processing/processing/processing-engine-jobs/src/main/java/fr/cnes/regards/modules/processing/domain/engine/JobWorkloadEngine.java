@@ -30,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
@@ -41,6 +42,10 @@ import static fr.cnes.regards.modules.processing.utils.TimeUtils.nowUtc;
  * In order to launch an execution, the engine creation a {@link JobInfo} referencing
  * a {@link LaunchExecutionJob}. The actual execution (calling the process' executable on the
  * execution parameters) will be done by this job.
+ * <p>
+ * Each execution gets its own queued job, so that no execution is lost if the service stops. Executions are packed
+ * when their jobs are picked up : a starting job takes over the executions of the queued jobs of the same process
+ * and user (see {@link QueuedExecutionJobPacker}) and runs them with a configurable parallelism.
  *
  * @author gandrieu
  */
@@ -55,13 +60,17 @@ public class JobWorkloadEngine implements IWorkloadEngine, InitializingBean {
 
     private final IRuntimeTenantResolver runtimeTenantResolver;
 
+    private final int parallelism;
+
     @Autowired
     public JobWorkloadEngine(IJobInfoService jobInfoService,
                              IWorkloadEngineRepository engineRepo,
-                             IRuntimeTenantResolver runtimeTenantResolver) {
+                             IRuntimeTenantResolver runtimeTenantResolver,
+                             @Value("${regards.processing.engine.jobs.parallelism:4}") int parallelism) {
         this.jobInfoService = jobInfoService;
         this.engineRepo = engineRepo;
         this.runtimeTenantResolver = runtimeTenantResolver;
+        this.parallelism = Math.max(1, parallelism);
     }
 
     @Override
@@ -78,29 +87,34 @@ public class JobWorkloadEngine implements IWorkloadEngine, InitializingBean {
     @Override
     public Mono<PExecution> run(ExecutionContext context) {
         return Mono.fromCallable(() -> {
-            try {
-                JobInfo jobInfo = new JobInfo(false,
-                                              0,
-                                              List.of(new JobParameter(LaunchExecutionJob.EXEC_ID_PARAM,
-                                                                       context.getExec().getId())).toJavaSet(),
-                                              context.getBatch().getUser(),
-                                              LaunchExecutionJob.class.getName());
+            PExecution exec = context.getExec();
+            JobInfo jobInfo = new JobInfo(false,
+                                          0,
+                                          List.of(new JobParameter(LaunchExecutionJob.EXEC_IDS_PARAM,
+                                                                   List.of(exec.getId()).toJavaList()),
+                                                  new JobParameter(LaunchExecutionJob.EXPECTED_DURATIONS_PARAM,
+                                                                   List.of(exec.getExpectedDuration().toMillis())
+                                                                       .toJavaList()),
+                                                  new JobParameter(LaunchExecutionJob.PROCESS_PARAM,
+                                                                   exec.getProcessBusinessId()),
+                                                  new JobParameter(LaunchExecutionJob.PARALLELISM_PARAM,
+                                                                   parallelism)).toJavaSet(),
+                                          context.getBatch().getUser(),
+                                          LaunchExecutionJob.class.getName());
 
-                jobInfo.setExpirationDate(nowUtc().plus(context.getExec().getExpectedDuration()));
-                String tenant = context.getExec().getTenant();
-                runtimeTenantResolver.forceTenant(tenant);
+            jobInfo.setExpirationDate(nowUtc().plus(exec.getExpectedDuration()));
+            runtimeTenantResolver.forceTenant(exec.getTenant());
+            try {
                 JobInfo pendingJob = jobInfoService.createAsQueued(jobInfo);
 
                 LOGGER.info("batch={} exec={} - Job created with ID {}",
                             context.getBatch().getId(),
-                            context.getExec().getId(),
+                            exec.getId(),
                             pendingJob.getId());
-
-                return context.getExec();
+                return exec;
             } finally {
                 runtimeTenantResolver.clearTenant();
             }
         });
-
     }
 }
@@ -17,20 +17,44 @@
  */
 package fr.cnes.regards.modules.processing.domain.engine;
 
+import com.google.gson.reflect.TypeToken;
 import fr.cnes.regards.framework.modules.jobs.domain.AbstractJob;
+import fr.cnes.regards.framework.modules.jobs.domain.IJob;
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
 import fr.cnes.regards.framework.modules.jobs.domain.JobParameter;
 import fr.cnes.regards.framework.modules.jobs.domain.exception.JobParameterInvalidException;
 import fr.cnes.regards.framework.modules.jobs.domain.exception.JobParameterMissingException;
+import fr.cnes.regards.framework.modules.jobs.domain.exception.JobRuntimeException;
+import fr.cnes.regards.modules.processing.domain.PExecution;
+import fr.cnes.regards.modules.processing.domain.PStep;
 import fr.cnes.regards.modules.processing.domain.service.IExecutionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 /**
- * This class provides the job launching the actual execution's process' executable.
+ * This class provides the job launching the actual executions' process' executable.
+ * <p>
+ * When it starts, a job takes over the executions of queued jobs of the same process and user
+ * (see {@link QueuedExecutionJobPacker}), then runs all its executions with a given parallelism.
+ * It waits for them as long as their parallel schedule is expected to last. Executions not started yet
+ * when this delay is reached are cancelled and notified as failed.
  *
  * @author gandrieu
  */
@@ -38,26 +62,253 @@ public class LaunchExecutionJob extends AbstractJob<Void> {
 
     private static final Logger STATIC_LOGGER = LoggerFactory.getLogger(LaunchExecutionJob.class);
 
+    /**
+     * Single execution of jobs created before executions were packed
+     */
     public static final String EXEC_ID_PARAM = "execId";
 
+    public static final String EXEC_IDS_PARAM = "execIds";
+
+    /**
+     * Expected durations in milliseconds of the executions, in the same order than {@link #EXEC_IDS_PARAM}
+     */
+    public static final String EXPECTED_DURATIONS_PARAM = "expectedDurations";
+
+    public static final String PROCESS_PARAM = "processBusinessId";
+
+    public static final String PARALLELISM_PARAM = "parallelism";
+
+    /**
+     * Delay to wait for executions whose expected duration is unknown (jobs created before executions were packed)
+     */
+    static final Duration DEFAULT_EXPECTED_DURATION = Duration.ofDays(1);
+
+    private static final Type EXEC_IDS_TYPE = new TypeToken<List<UUID>>() {
+
+    }.getType();
+
+    private static final Type EXPECTED_DURATIONS_TYPE = new TypeToken<List<Long>>() {
+
+    }.getType();
+
     @Autowired
     private IExecutionService execService;
 
-    private UUID execId;
+    @Autowired
+    private ForecastAccuracyReporter forecastAccuracyReporter;
+
+    @Autowired
+    private QueuedExecutionJobPacker queuedExecutionJobPacker;
+
+    private final List<UUID> execIds = new ArrayList<>();
+
+    /**
+     * Expected durations of executions, empty if unknown
+     */
+    private final List<Duration> expectedDurations = new ArrayList<>();
+
+    private UUID processBusinessId;
+
+    private int parallelism;
+
+    /**
+     * Executions either launched (true) or cancelled because the job is timed out (false)
+     */
+    private final Map<UUID, Boolean> launchedExecs = new ConcurrentHashMap<>();
+
+    /**
+     * Parameters of the executions taken over, empty if none
+     */
+    private Map<String, JobParameter> updatedParameters = Map.of();
 
     @Override
     public void setParameters(Map<String, JobParameter> parameters)
         throws JobParameterMissingException, JobParameterInvalidException {
-        execId = getValue(parameters, EXEC_ID_PARAM);
+        Optional<List<UUID>> packedExecIds = getOptionalValue(parameters, EXEC_IDS_PARAM, EXEC_IDS_TYPE);
+        if (packedExecIds.isPresent()) {
+            execIds.addAll(packedExecIds.get());
+        } else {
+            execIds.add(getValue(parameters, EXEC_ID_PARAM));
+        }
+        this.<List<Long>>getOptionalValue(parameters, EXPECTED_DURATIONS_PARAM, EXPECTED_DURATIONS_TYPE)
+            .filter(durations -> durations.size() == execIds.size())
+            .ifPresent(durations -> durations.forEach(duration -> expectedDurations.add(Duration.ofMillis(duration))));
+        processBusinessId = this.<UUID>getOptionalValue(parameters, PROCESS_PARAM, UUID.class).orElse(null);
+        parallelism = Math.max(1,
+                               this.<Integer>getOptionalValue(parameters, PARALLELISM_PARAM, Integer.class)
+                                   .orElse(1));
+    }
+
+    /**
+     * @return the execution of a job that can be taken over by another job of the given process, if any
+     */
+    static Optional<ExecutionWorkload> readPackableWorkload(Map<String, JobParameter> parameters,
+                                                            UUID processBusinessId) {
+        Optional<UUID> jobProcessBusinessId = IJob.getOptionalValue(parameters, PROCESS_PARAM, UUID.class);
+        Optional<List<UUID>> jobExecIds = IJob.getOptionalValue(parameters, EXEC_IDS_PARAM, EXEC_IDS_TYPE);
+        Optional<List<Long>> jobExpectedDurations = IJob.getOptionalValue(parameters,
+                                                                          EXPECTED_DURATIONS_PARAM,
+                                                                          EXPECTED_DURATIONS_TYPE);
+        if (jobProcessBusinessId.filter(processBusinessId::equals).isEmpty()
+            || jobExecIds.filter(ids -> ids.size() == 1).isEmpty()
+            || jobExpectedDurations.filter(durations -> durations.size() == 1).isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new ExecutionWorkload(jobExecIds.get().get(0),
+                                                 Duration.ofMillis(jobExpectedDurations.get().get(0))));
+    }
+
+    /**
+     * Set the executions of a job, with their expected durations
+     */
+    static void setWorkloadParameters(JobInfo jobInfo, List<ExecutionWorkload> workloads) {
+        Map<String, JobParameter> parameters = jobInfo.getParametersAsMap();
+        parameters.putAll(workloadParameters(workloads));
+        jobInfo.setParameters(new HashSet<>(parameters.values()));
+    }
+
+    /**
+     * @return the parameters holding the given executions, with their expected durations
+     */
+    static Map<String, JobParameter> workloadParameters(List<ExecutionWorkload> workloads) {
+        return Map.of(EXEC_IDS_PARAM,
+                      new JobParameter(EXEC_IDS_PARAM,
+                                       workloads.stream()
+                                                .map(ExecutionWorkload::getExecId)
+                                                .collect(Collectors.toCollection(ArrayList::new))),
+                      EXPECTED_DURATIONS_PARAM,
+                      new JobParameter(EXPECTED_DURATIONS_PARAM,
+                                       workloads.stream()
+                                                .map(workload -> workload.getExpectedDuration().toMillis())
+                                                .collect(Collectors.toCollection(ArrayList::new))));
+    }
+
+    /**
+     * @return the delay to wait for executions run with the given parallelism : their total duration divided by the
+     * parallelism, but at least the longest execution duration.
+     */
+    static Duration expectedWait(List<Duration> expectedDurations, int parallelism) {
+        if (expectedDurations.isEmpty()) {
+            return DEFAULT_EXPECTED_DURATION;
+        }
+        Duration parallelDuration = expectedDurations.stream()
+                                                     .reduce(Duration.ZERO, Duration::plus)
+                                                     .dividedBy(Math.max(1, parallelism));
+        Duration longestDuration = expectedDurations.stream().max(Duration::compareTo).orElse(Duration.ZERO);
+        return parallelDuration.compareTo(longestDuration) > 0 ? parallelDuration : longestDuration;
+    }
+
+    List<UUID> getExecIds() {
+        return execIds;
+    }
+
+    List<Duration> getExpectedDurations() {
+        return expectedDurations;
+    }
+
+    @Override
+    public Map<String, JobParameter> getUpdatedParameters() {
+        return updatedParameters;
+    }
+
+    @Override
+    public int getCompletionCount() {
+        return execIds.size();
     }
 
     @Override
     public void run() {
-        STATIC_LOGGER.info("ExecId={} - LaunchExecutionJob start", execId);
-        execService.runExecutable(execId)
-                   .subscribe(exec -> STATIC_LOGGER.info("ExecId={} - LaunchExecutionJob success", execId),
-                              err -> STATIC_LOGGER.error("ExecId={} - LaunchExecutionJob failure: {}",
-                                                         execId,
-                                                         err.getMessage()));
+        takeOverQueuedExecutions();
+        Duration expectedWait = expectedWait(expectedDurations, parallelism);
+        STATIC_LOGGER.info("ExecIds={} - LaunchExecutionJob start with parallelism {}, expected to last {}",
+                           execIds,
+                           parallelism,
+                           expectedWait);
+        try {
+            Flux.fromIterable(execIds)
+                .flatMap(this::runExecution, parallelism)
+                .then()
+                .toFuture()
+                .get(expectedWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Launched executions go on, their timeout is handled by the execution service
+            List<UUID> cancelledExecIds = cancelNotLaunchedExecutions(expectedWait);
+            throw new JobRuntimeException(String.format(
+                "Executions still running after expected duration %s, %d executions not launched were cancelled",
+                expectedWait,
+                cancelledExecIds.size()));
+        } catch (ExecutionException e) {
+            STATIC_LOGGER.error("ExecIds={} - LaunchExecutionJob failure: {}", execIds, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void takeOverQueuedExecutions() {
+        // Jobs created before executions were packed cannot take over other executions
+        if ((processBusinessId == null) || (expectedDurations.size() != execIds.size())) {
+            return;
+        }
+        List<ExecutionWorkload> ownWorkloads = new ArrayList<>();
+        for (int i = 0; i < execIds.size(); i++) {
+            ownWorkloads.add(new ExecutionWorkload(execIds.get(i), expectedDurations.get(i)));
+        }
+        List<ExecutionWorkload> takenOver = queuedExecutionJobPacker.takeOverQueuedExecutions(getJobInfoId(),
+                                                                                             processBusinessId,
+                                                                                             ownWorkloads);
+        if (!takenOver.isEmpty()) {
+            takenOver.forEach(workload -> {
+                execIds.add(workload.getExecId());
+                expectedDurations.add(workload.getExpectedDuration());
+            });
+            // Job info saved at the end of the job must keep executions taken over
+            ownWorkloads.addAll(takenOver);
+            updatedParameters = workloadParameters(ownWorkloads);
+        }
+    }
+
+    private List<UUID> cancelNotLaunchedExecutions(Duration expectedWait) {
+        List<UUID> cancelledExecIds = execIds.stream()
+                                             .filter(execId -> launchedExecs.putIfAbsent(execId, Boolean.FALSE)
+                                                               == null)
+                                             .toList();
+        STATIC_LOGGER.warn("ExecIds={} - LaunchExecutionJob still running after expected duration {}, "
+                           + "executions {} not launched yet are cancelled", execIds, expectedWait, cancelledExecIds);
+        String message = String.format("Execution not launched within the expected duration %s of its job",
+                                       expectedWait);
+        Flux.fromIterable(cancelledExecIds)
+            .flatMap(execId -> execService.createContext(execId)
+                                          .flatMap(ctx -> ctx.sendEvent(ExecutionEvent.event(PStep.failure(message))))
+                                          .onErrorResume(err -> {
+                                              STATIC_LOGGER.error("ExecId={} - Failed to notify cancellation: {}",
+                                                                  execId,
+                                                                  err.getMessage());
+                                              return Mono.empty();
+                                          }))
+            .blockLast();
+        return cancelledExecIds;
+    }
+
+    private Mono<PExecution> runExecution(UUID execId) {
+        return Mono.defer(() -> {
+            if (launchedExecs.putIfAbsent(execId, Boolean.TRUE) != null) {
+                // Cancelled because the job is timed out
+                return Mono.empty();
+            }
+            STATIC_LOGGER.info("ExecId={} - LaunchExecutionJob start", execId);
+            long start = System.nanoTime();
+            return execService.runExecutable(execId)
+                              .flatMap(exec -> forecastAccuracyReporter.report(exec,
+                                                                               Duration.ofNanos(System.nanoTime()
+                                                                                                - start)))
+                              .doOnNext(exec -> STATIC_LOGGER.info("ExecId={} - LaunchExecutionJob success", execId))
+                              .onErrorResume(err -> {
+                                  STATIC_LOGGER.error("ExecId={} - LaunchExecutionJob failure: {}",
+                                                      execId,
+                                                      err.getMessage());
+                                  return Mono.empty();
+                              })
+                              .doFinally(signal -> advanceCompletion());
+        });
     }
 }
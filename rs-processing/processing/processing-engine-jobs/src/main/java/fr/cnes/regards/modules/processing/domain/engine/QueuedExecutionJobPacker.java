@@ -0,0 +1,136 @@
+/* Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.processing.domain.engine;
+
+import fr.cnes.regards.framework.jpa.multitenant.transactional.MultitenantTransactional;
+import fr.cnes.regards.framework.modules.jobs.dao.IJobInfoRepository;
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * This class packs executions when their {@link LaunchExecutionJob} is picked up : the starting job takes over
+ * the executions of queued jobs of the same process and user, chosen by {@link WorkloadPacker} so that the total
+ * expected duration of the job stays within a target duration.
+ * <p>
+ * Queued jobs are locked (skipping the ones locked by other instances) and deleted in the same transaction than the
+ * update of the parameters of the starting job, so an execution is never taken over by two jobs, and always belongs
+ * to exactly one job.
+ */
+@Component
+public class QueuedExecutionJobPacker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueuedExecutionJobPacker.class);
+
+    /**
+     * Maximum number of queued jobs examined at once
+     */
+    private static final int CANDIDATES_PAGE_SIZE = 500;
+
+    private final IJobInfoRepository jobInfoRepository;
+
+    private final Duration targetDuration;
+
+    private final int maxExecutionsPerJob;
+
+    public QueuedExecutionJobPacker(IJobInfoRepository jobInfoRepository,
+                                    @Value("${regards.processing.engine.jobs.packing.target.duration.seconds:3600}")
+                                    long targetDurationSeconds,
+                                    @Value("${regards.processing.engine.jobs.packing.max.executions:50}")
+                                    int maxExecutionsPerJob) {
+        this.jobInfoRepository = jobInfoRepository;
+        this.targetDuration = Duration.ofSeconds(targetDurationSeconds);
+        this.maxExecutionsPerJob = Math.max(1, maxExecutionsPerJob);
+    }
+
+    /**
+     * Take over the executions of queued jobs of the same process and user than the given starting job.
+     *
+     * @param jobInfoId         the starting job
+     * @param processBusinessId the process of the starting job executions
+     * @param ownWorkloads      the executions of the starting job
+     * @return the executions taken over, whose queued jobs have been deleted and which are added to the parameters of
+     * the starting job
+     */
+    @MultitenantTransactional
+    public List<ExecutionWorkload> takeOverQueuedExecutions(UUID jobInfoId,
+                                                           UUID processBusinessId,
+                                                           List<ExecutionWorkload> ownWorkloads) {
+        Duration availableDuration = targetDuration.minus(ownWorkloads.stream()
+                                                                      .map(ExecutionWorkload::getExpectedDuration)
+                                                                      .reduce(Duration.ZERO, Duration::plus));
+        int availableSlots = maxExecutionsPerJob - ownWorkloads.size();
+        Optional<JobInfo> startingJob = jobInfoRepository.findById(jobInfoId);
+        if (availableSlots <= 0 || !availableDuration.isPositive() || startingJob.isEmpty()) {
+            return List.of();
+        }
+        String owner = startingJob.get().getOwner();
+        OffsetDateTime now = OffsetDateTime.now();
+        List<JobInfo> queuedJobs = jobInfoRepository.findByStatusStatusAndClassNameInOrderByPriorityDesc(JobStatus.QUEUED,
+                                                                                                        Set.of(
+                                                                                                            LaunchExecutionJob.class.getName()),
+                                                                                                        PageRequest.ofSize(
+                                                                                                            CANDIDATES_PAGE_SIZE));
+        List<Tuple2<JobInfo, ExecutionWorkload>> candidates = new ArrayList<>();
+        for (JobInfo queuedJob : queuedJobs) {
+            // Expired jobs are left to the job service which fails them
+            boolean expired = (queuedJob.getExpirationDate() != null) && queuedJob.getExpirationDate().isBefore(now);
+            if (!expired && Objects.equals(owner, queuedJob.getOwner())) {
+                LaunchExecutionJob.readPackableWorkload(queuedJob.getParametersAsMap(), processBusinessId)
+                                  .filter(workload -> workload.getExpectedDuration().compareTo(availableDuration)
+                                                      <= 0)
+                                  .ifPresent(workload -> candidates.add(Tuple.of(queuedJob, workload)));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        // Every candidate fits alone, so the first bin is the best filled one within the available duration
+        List<Tuple2<JobInfo, ExecutionWorkload>> takenOver = WorkloadPacker.pack(candidates,
+                                                                                 candidate -> candidate._2.getExpectedDuration(),
+                                                                                 availableDuration,
+                                                                                 availableSlots)
+                                                                           .get(0);
+        jobInfoRepository.deleteAll(takenOver.stream().map(Tuple2::_1).toList());
+        // Executions taken over are run again with the starting job if it is restarted
+        List<ExecutionWorkload> jobWorkloads = new ArrayList<>(ownWorkloads);
+        takenOver.forEach(candidate -> jobWorkloads.add(candidate._2));
+        LaunchExecutionJob.setWorkloadParameters(startingJob.get(), jobWorkloads);
+        jobInfoRepository.save(startingJob.get());
+        LOGGER.info("Job {} takes over executions {} of {} queued jobs",
+                    jobInfoId,
+                    takenOver.stream().map(candidate -> candidate._2.getExecId()).toList(),
+                    takenOver.size());
+        return takenOver.stream().map(Tuple2::_2).toList();
+    }
+}
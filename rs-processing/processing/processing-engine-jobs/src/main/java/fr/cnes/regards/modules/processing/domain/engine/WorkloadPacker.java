@@ -0,0 +1,67 @@
+/* Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.processing.domain.engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * This class packs workloads into bins whose total forecast duration stays within a target duration,
+ * using the first fit decreasing heuristic. A workload longer than the target duration gets its own bin.
+ */
+public final class WorkloadPacker {
+
+    private WorkloadPacker() {
+    }
+
+    /**
+     * @param workloads  the workloads to pack
+     * @param durationFn the forecast duration of a workload
+     * @param target     the maximum total duration of a bin
+     * @param maxSize    the maximum number of workloads in a bin
+     * @return the bins of workloads
+     */
+    public static <T> List<List<T>> pack(Collection<T> workloads,
+                                         Function<T, Duration> durationFn,
+                                         Duration target,
+                                         int maxSize) {
+        List<T> sorted = new ArrayList<>(workloads);
+        sorted.sort(Comparator.comparing(durationFn).reversed());
+        List<List<T>> bins = new ArrayList<>();
+        List<Duration> binDurations = new ArrayList<>();
+        for (T workload : sorted) {
+            Duration duration = durationFn.apply(workload);
+            int binIndex = 0;
+            while ((binIndex < bins.size()) && ((bins.get(binIndex).size() >= maxSize) || (
+                binDurations.get(binIndex).plus(duration).compareTo(target) > 0))) {
+                binIndex++;
+            }
+            if (binIndex == bins.size()) {
+                bins.add(new ArrayList<>());
+                binDurations.add(Duration.ZERO);
+            }
+            bins.get(binIndex).add(workload);
+            binDurations.set(binIndex, binDurations.get(binIndex).plus(duration));
+        }
+        return bins;
+    }
+}
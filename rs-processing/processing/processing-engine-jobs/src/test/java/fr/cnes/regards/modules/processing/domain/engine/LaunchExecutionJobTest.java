@@ -0,0 +1,193 @@
+/* Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.processing.domain.engine;
+
+import fr.cnes.regards.framework.modules.jobs.domain.JobParameter;
+import fr.cnes.regards.framework.modules.jobs.domain.exception.JobRuntimeException;
+import fr.cnes.regards.modules.processing.domain.PExecution;
+import fr.cnes.regards.modules.processing.domain.execution.ExecutionContext;
+import fr.cnes.regards.modules.processing.domain.service.IExecutionService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LaunchExecutionJobTest {
+
+    @InjectMocks
+    private LaunchExecutionJob job;
+
+    @Mock
+    private IExecutionService execService;
+
+    @Mock
+    private ForecastAccuracyReporter forecastAccuracyReporter;
+
+    @Mock
+    private QueuedExecutionJobPacker queuedExecutionJobPacker;
+
+    private final UUID processBusinessId = UUID.randomUUID();
+
+    @Before
+    public void init() {
+        Mockito.lenient()
+               .when(forecastAccuracyReporter.report(Mockito.any(), Mockito.any()))
+               .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    private static Map<String, JobParameter> parameters(JobParameter... parameters) {
+        Map<String, JobParameter> parametersByName = new HashMap<>();
+        Arrays.stream(parameters).forEach(parameter -> parametersByName.put(parameter.getName(), parameter));
+        return parametersByName;
+    }
+
+    private Map<String, JobParameter> packedParameters(List<UUID> execIds, List<Long> expectedDurations) {
+        return parameters(new JobParameter(LaunchExecutionJob.EXEC_IDS_PARAM, new ArrayList<>(execIds)),
+                          new JobParameter(LaunchExecutionJob.EXPECTED_DURATIONS_PARAM,
+                                           new ArrayList<>(expectedDurations)),
+                          new JobParameter(LaunchExecutionJob.PROCESS_PARAM, processBusinessId),
+                          new JobParameter(LaunchExecutionJob.PARALLELISM_PARAM, 1));
+    }
+
+    @Test
+    public void set_parameters_of_legacy_job() throws Exception {
+        // Given a job created before executions were packed
+        UUID execId = UUID.randomUUID();
+
+        // When
+        job.setParameters(parameters(new JobParameter(LaunchExecutionJob.EXEC_ID_PARAM, execId)));
+
+        // Then
+        assertThat(job.getExecIds()).containsExactly(execId);
+        assertThat(job.getExpectedDurations()).isEmpty();
+        assertThat(job.getCompletionCount()).isEqualTo(1);
+        assertThat(LaunchExecutionJob.expectedWait(job.getExpectedDurations(), 1)).isEqualTo(
+            LaunchExecutionJob.DEFAULT_EXPECTED_DURATION);
+    }
+
+    @Test
+    public void set_parameters_of_packed_job() throws Exception {
+        // Given
+        UUID execId1 = UUID.randomUUID();
+        UUID execId2 = UUID.randomUUID();
+
+        // When
+        job.setParameters(packedParameters(List.of(execId1, execId2), List.of(1000L, 2000L)));
+
+        // Then
+        assertThat(job.getExecIds()).containsExactly(execId1, execId2);
+        assertThat(job.getExpectedDurations()).containsExactly(Duration.ofSeconds(1), Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void expected_wait_on_parallel_schedule() {
+        List<Duration> durations = List.of(Duration.ofMinutes(10),
+                                           Duration.ofMinutes(20),
+                                           Duration.ofMinutes(30),
+                                           Duration.ofMinutes(60));
+
+        // Total duration divided by parallelism
+        assertThat(LaunchExecutionJob.expectedWait(durations, 1)).isEqualTo(Duration.ofMinutes(120));
+        assertThat(LaunchExecutionJob.expectedWait(durations, 2)).isEqualTo(Duration.ofMinutes(60));
+        // But never less than the longest execution
+        assertThat(LaunchExecutionJob.expectedWait(durations, 4)).isEqualTo(Duration.ofMinutes(60));
+    }
+
+    @Test
+    public void read_packable_workload() {
+        UUID execId = UUID.randomUUID();
+        Map<String, JobParameter> parameters = packedParameters(List.of(execId), List.of(1000L));
+
+        assertThat(LaunchExecutionJob.readPackableWorkload(parameters, processBusinessId)).hasValueSatisfying(
+            workload -> {
+                assertThat(workload.getExecId()).isEqualTo(execId);
+                assertThat(workload.getExpectedDuration()).isEqualTo(Duration.ofSeconds(1));
+            });
+        // Other process
+        assertThat(LaunchExecutionJob.readPackableWorkload(parameters, UUID.randomUUID())).isEmpty();
+        // Legacy job
+        assertThat(LaunchExecutionJob.readPackableWorkload(parameters(new JobParameter(LaunchExecutionJob.EXEC_ID_PARAM,
+                                                                                       execId)),
+                                                           processBusinessId)).isEmpty();
+    }
+
+    @Test
+    public void run_with_taken_over_executions() throws Exception {
+        // Given
+        UUID execId = UUID.randomUUID();
+        UUID takenOverExecId = UUID.randomUUID();
+        job.setParameters(packedParameters(List.of(execId), List.of(1000L)));
+        Mockito.when(queuedExecutionJobPacker.takeOverQueuedExecutions(Mockito.any(),
+                                                                       Mockito.eq(processBusinessId),
+                                                                       Mockito.anyList()))
+               .thenReturn(List.of(new ExecutionWorkload(takenOverExecId, Duration.ofSeconds(2))));
+        Mockito.when(execService.runExecutable(Mockito.any()))
+               .thenAnswer(invocation -> Mono.just(PExecution.builder().id(invocation.getArgument(0)).build()));
+
+        // When
+        job.run();
+
+        // Then
+        assertThat(job.getExecIds()).containsExactly(execId, takenOverExecId);
+        Mockito.verify(execService).runExecutable(execId);
+        Mockito.verify(execService).runExecutable(takenOverExecId);
+        // Executions taken over are kept in the parameters saved at the end of the job
+        LaunchExecutionJob restartedJob = new LaunchExecutionJob();
+        restartedJob.setParameters(job.getUpdatedParameters());
+        assertThat(restartedJob.getExecIds()).containsExactly(execId, takenOverExecId);
+        assertThat(restartedJob.getExpectedDurations()).containsExactly(Duration.ofSeconds(1), Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void run_timed_out_cancels_not_launched_executions() throws Exception {
+        // Given two executions run one at a time, the first one never ending
+        UUID runningExecId = UUID.randomUUID();
+        UUID waitingExecId = UUID.randomUUID();
+        job.setParameters(packedParameters(List.of(runningExecId, waitingExecId), List.of(50L, 50L)));
+        Mockito.when(queuedExecutionJobPacker.takeOverQueuedExecutions(Mockito.any(), Mockito.any(), Mockito.anyList()))
+               .thenReturn(List.of());
+        Mockito.when(execService.runExecutable(runningExecId)).thenReturn(Mono.never());
+        ExecutionContext waitingContext = Mockito.mock(ExecutionContext.class);
+        Mockito.when(waitingContext.sendEvent(Mockito.any())).thenReturn(Mono.just(waitingContext));
+        Mockito.when(execService.createContext(waitingExecId)).thenReturn(Mono.just(waitingContext));
+
+        // When
+        assertThatThrownBy(() -> job.run()).isInstanceOf(JobRuntimeException.class);
+
+        // Then the waiting execution is never launched and is notified as failed
+        Mockito.verify(execService, Mockito.never()).runExecutable(waitingExecId);
+        Mockito.verify(waitingContext).sendEvent(Mockito.any(ExecutionEvent.FinalEvent.class));
+        Mockito.verify(execService, Mockito.never()).createContext(runningExecId);
+    }
+}
@@ -0,0 +1,159 @@
+/* Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.processing.domain.engine;
+
+import fr.cnes.regards.framework.modules.jobs.dao.IJobInfoRepository;
+import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
+import fr.cnes.regards.framework.modules.jobs.domain.JobParameter;
+import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QueuedExecutionJobPackerTest {
+
+    private static final String USER = "user";
+
+    @Mock
+    private IJobInfoRepository jobInfoRepository;
+
+    private QueuedExecutionJobPacker packer;
+
+    private JobInfo ownJob;
+
+    private final UUID jobInfoId = UUID.randomUUID();
+
+    private final UUID processBusinessId = UUID.randomUUID();
+
+    private final List<ExecutionWorkload> ownWorkloads = List.of(new ExecutionWorkload(UUID.randomUUID(),
+                                                                                       Duration.ofMinutes(20)));
+
+    @Before
+    public void init() {
+        // Jobs of at most one hour and three executions
+        packer = new QueuedExecutionJobPacker(jobInfoRepository, 3600, 3);
+        ownJob = new JobInfo(false,
+                             0,
+                             Set.of(new JobParameter(LaunchExecutionJob.PROCESS_PARAM, processBusinessId)),
+                             USER,
+                             LaunchExecutionJob.class.getName());
+        Mockito.lenient().when(jobInfoRepository.findById(jobInfoId)).thenReturn(Optional.of(ownJob));
+    }
+
+    private JobInfo queuedJob(String user, UUID process, long expectedMinutes) {
+        JobInfo jobInfo = new JobInfo(false,
+                                      0,
+                                      Set.of(new JobParameter(LaunchExecutionJob.EXEC_IDS_PARAM,
+                                                              new ArrayList<>(List.of(UUID.randomUUID()))),
+                                             new JobParameter(LaunchExecutionJob.EXPECTED_DURATIONS_PARAM,
+                                                              new ArrayList<>(List.of(Duration.ofMinutes(
+                                                                  expectedMinutes).toMillis()))),
+                                             new JobParameter(LaunchExecutionJob.PROCESS_PARAM, process)),
+                                      user,
+                                      LaunchExecutionJob.class.getName());
+        jobInfo.setId(UUID.randomUUID());
+        return jobInfo;
+    }
+
+    private void mockQueuedJobs(JobInfo... queuedJobs) {
+        Mockito.when(jobInfoRepository.findByStatusStatusAndClassNameInOrderByPriorityDesc(Mockito.eq(JobStatus.QUEUED),
+                                                                                           Mockito.eq(Set.of(
+                                                                                               LaunchExecutionJob.class.getName())),
+                                                                                           Mockito.any()))
+               .thenReturn(List.of(queuedJobs));
+    }
+
+    @Test
+    public void take_over_queued_executions_of_same_process_and_user() throws Exception {
+        // Given
+        JobInfo sameProcess = queuedJob(USER, processBusinessId, 30);
+        JobInfo otherUser = queuedJob("other", processBusinessId, 5);
+        JobInfo otherProcess = queuedJob(USER, UUID.randomUUID(), 5);
+        JobInfo tooLong = queuedJob(USER, processBusinessId, 50);
+        JobInfo expired = queuedJob(USER, processBusinessId, 5);
+        expired.setExpirationDate(OffsetDateTime.now().minusMinutes(1));
+        mockQueuedJobs(sameProcess, otherUser, otherProcess, tooLong, expired);
+
+        // When
+        List<ExecutionWorkload> takenOver = packer.takeOverQueuedExecutions(jobInfoId,
+                                                                            processBusinessId,
+                                                                            ownWorkloads);
+
+        // Then only the job of the same process and user fitting in the remaining duration is taken over and deleted
+        assertThat(takenOver).extracting(ExecutionWorkload::getExpectedDuration)
+                             .containsExactly(Duration.ofMinutes(30));
+        ArgumentCaptor<List<JobInfo>> deleted = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(jobInfoRepository).deleteAll(deleted.capture());
+        assertThat(deleted.getValue()).containsExactly(sameProcess);
+        // and its execution is added to the parameters of the starting job
+        Mockito.verify(jobInfoRepository).save(ownJob);
+        LaunchExecutionJob restartedJob = new LaunchExecutionJob();
+        restartedJob.setParameters(ownJob.getParametersAsMap());
+        assertThat(restartedJob.getExecIds()).containsExactly(ownWorkloads.get(0).getExecId(),
+                                                              takenOver.get(0).getExecId());
+        assertThat(restartedJob.getExpectedDurations()).containsExactly(Duration.ofMinutes(20),
+                                                                        Duration.ofMinutes(30));
+        assertThat(ownJob.getParametersAsMap()).containsKey(LaunchExecutionJob.PROCESS_PARAM);
+    }
+
+    @Test
+    public void take_over_queued_executions_within_max_executions() {
+        // Given
+        mockQueuedJobs(queuedJob(USER, processBusinessId, 5),
+                       queuedJob(USER, processBusinessId, 5),
+                       queuedJob(USER, processBusinessId, 5));
+
+        // When
+        List<ExecutionWorkload> takenOver = packer.takeOverQueuedExecutions(jobInfoId,
+                                                                            processBusinessId,
+                                                                            ownWorkloads);
+
+        // Then
+        assertThat(takenOver).hasSize(2);
+    }
+
+    @Test
+    public void take_over_nothing_when_job_is_full() {
+        // When
+        List<ExecutionWorkload> takenOver = packer.takeOverQueuedExecutions(jobInfoId,
+                                                                            processBusinessId,
+                                                                            List.of(new ExecutionWorkload(UUID.randomUUID(),
+                                                                                                          Duration.ofHours(
+                                                                                                              2))));
+
+        // Then
+        assertThat(takenOver).isEmpty();
+        Mockito.verify(jobInfoRepository, Mockito.never()).deleteAll(Mockito.anyIterable());
+        Mockito.verify(jobInfoRepository, Mockito.never()).save(Mockito.any());
+    }
+}
@@ -0,0 +1,57 @@
+/* Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.processing.domain.engine;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WorkloadPackerTest {
+
+    private static final Function<Integer, Duration> MINUTES = Duration::ofMinutes;
+
+    @Test
+    public void pack_first_fit_decreasing() {
+        List<List<Integer>> bins = WorkloadPacker.pack(List.of(20, 50, 40, 30, 10), MINUTES, Duration.ofMinutes(60), 10);
+
+        assertThat(bins).containsExactly(List.of(50, 10), List.of(40, 20), List.of(30));
+    }
+
+    @Test
+    public void pack_workload_longer_than_target_in_its_own_bin() {
+        List<List<Integer>> bins = WorkloadPacker.pack(List.of(30, 90, 20), MINUTES, Duration.ofMinutes(60), 10);
+
+        assertThat(bins).containsExactly(List.of(90), List.of(30, 20));
+    }
+
+    @Test
+    public void pack_respects_max_size() {
+        List<List<Integer>> bins = WorkloadPacker.pack(List.of(1, 1, 1, 1, 1), MINUTES, Duration.ofMinutes(60), 2);
+
+        assertThat(bins).containsExactly(List.of(1, 1), List.of(1, 1), List.of(1));
+    }
+
+    @Test
+    public void pack_nothing() {
+        assertThat(WorkloadPacker.pack(List.<Integer>of(), MINUTES, Duration.ofMinutes(60), 2)).isEmpty();
+    }
+}
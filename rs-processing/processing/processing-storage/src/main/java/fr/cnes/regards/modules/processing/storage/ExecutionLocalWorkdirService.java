@@ -26,10 +26,12 @@ import io.vavr.collection.Seq;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
@@ -55,10 +57,25 @@ public class ExecutionLocalWorkdirService implements IExecutionLocalWorkdirServi
 
     private final IDownloadService downloadService;
 
+    private final InputFileCacheService inputFileCache;
+
+    private final int downloadParallelism;
+
+    /**
+     * Scheduler shared by the input files downloads of all executions
+     */
+    private final Scheduler downloadScheduler;
+
     public ExecutionLocalWorkdirService(@Qualifier("executionWorkdirParentPath") Path basePath,
-                                        IDownloadService downloadService) {
+                                        IDownloadService downloadService,
+                                        InputFileCacheService inputFileCache,
+                                        @Value("${regards.processing.executionWorkdir.download.parallelism:8}")
+                                        int downloadParallelism) {
         this.basePath = basePath;
         this.downloadService = downloadService;
+        this.inputFileCache = inputFileCache;
+        this.downloadParallelism = downloadParallelism;
+        this.downloadScheduler = Schedulers.newParallel("download-parallel", downloadParallelism, true);
     }
 
     public Mono<ExecutionLocalWorkdir> makeWorkdir(PExecution exec) {
@@ -76,22 +93,30 @@ public class ExecutionLocalWorkdirService implements IExecutionLocalWorkdirServi
 
     public Mono<ExecutionLocalWorkdir> writeInputFilesToWorkdirInput(ExecutionLocalWorkdir workdir,
                                                                      Seq<PInputFile> inputFiles) {
-        return Unit.fromCallable(() -> {
-                       Files.createDirectories(workdir.inputFolder());
-                   })
-                   .flatMapMany(x -> Flux.fromIterable(inputFiles))
-                   .parallel(8)
-                   .runOn(Schedulers.newParallel("download-parallel", 8))
-                   .flatMap(f -> {
-                       Path dest = workdir.inputFolder().resolve(f.getLocalRelativePath());
-                       LOGGER.info("Attempt to download input file {} into input folder at {}", f, dest);
-                       return download(f, dest);
+        return Mono.defer(() -> {
+                       InputCacheStats stats = new InputCacheStats();
+                       return Unit.fromCallable(() -> {
+                                      Files.createDirectories(workdir.inputFolder());
+                                  })
+                                  .flatMapMany(x -> Flux.fromIterable(inputFiles))
+                                  .parallel(downloadParallelism)
+                                  .runOn(downloadScheduler)
+                                  .flatMap(f -> {
+                                      Path dest = workdir.inputFolder().resolve(f.getLocalRelativePath());
+                                      LOGGER.info("Attempt to download input file {} into input folder at {}",
+                                                  f,
+                                                  dest);
+                                      return inputFileCache.materialize(f, dest, this::download, stats);
+                                  })
+                                  .collectSortedList(Comparator.comparing(Path::toAbsolutePath))
+                                  .publishOn(Schedulers.boundedElastic())
+                                  .doOnNext(paths -> LOGGER.debug("Downloaded all these paths in workdir {}:\n{}",
+                                                                  workdir.getBasePath(),
+                                                                  paths))
+                                  .doOnNext(paths -> LOGGER.info("Input files of workdir {}: {}",
+                                                                 workdir.getBasePath(),
+                                                                 stats));
                    })
-                   .collectSortedList(Comparator.comparing(Path::toAbsolutePath))
-                   .publishOn(Schedulers.boundedElastic())
-                   .doOnNext(paths -> LOGGER.debug("Downloaded all these paths in workdir {}:\n{}",
-                                                   workdir.getBasePath(),
-                                                   paths))
                    .map(x -> workdir)
                    .onErrorResume(t -> cleanupWorkdir(workdir).flatMap(x -> Mono.error(t)))
                    .doOnTerminate(() -> LOGGER.debug("Finished preparing workdir {}", workdir.getBasePath()));
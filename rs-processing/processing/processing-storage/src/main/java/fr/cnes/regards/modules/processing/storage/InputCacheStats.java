@@ -0,0 +1,72 @@
+/* Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.processing.storage;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class counts, for one execution, the input files found in the {@link InputFileCacheService}
+ * and the ones which had to be downloaded.
+ */
+public class InputCacheStats {
+
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private final AtomicLong hitBytes = new AtomicLong();
+
+    private final AtomicLong missBytes = new AtomicLong();
+
+    public void record(boolean hit, Long bytes) {
+        long size = bytes == null ? 0L : bytes;
+        if (hit) {
+            hits.incrementAndGet();
+            hitBytes.addAndGet(size);
+        } else {
+            misses.incrementAndGet();
+            missBytes.addAndGet(size);
+        }
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public long getHitBytes() {
+        return hitBytes.get();
+    }
+
+    public long getMissBytes() {
+        return missBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d input files from cache (%d bytes), %d downloaded (%d bytes)",
+                             getHits(),
+                             getHitBytes(),
+                             getMisses(),
+                             getMissBytes());
+    }
+}
@@ -0,0 +1,331 @@
+/* Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.processing.storage;
+
+import fr.cnes.regards.framework.utils.file.ChecksumUtils;
+import fr.cnes.regards.modules.processing.domain.PInputFile;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * This class is a local cache of execution input files, shared by all the executions of this instance.
+ * <p>
+ * Files are keyed by their checksum, so that executions sharing inputs download them only once. The cache is
+ * bounded in size, least recently used files being evicted first. Cached files are read only, and are given to
+ * executions as hard links into their workdir, or as copies if the file system does not support hard links.
+ * A workdir keeps its inputs even if they are evicted from the cache meanwhile.
+ * <p>
+ * Downloaded files are checked against their expected size, and against their checksum when it is a MD5 one,
+ * before entering the cache. Files bigger than the cache are not cached.
+ * <p>
+ * Cache hits and misses are exposed as metrics regards.processing.input.cache.hits and
+ * regards.processing.input.cache.misses, and the cache size as regards.processing.input.cache.size.
+ *
+ * @see ExecutionLocalWorkdirService
+ */
+@Service
+public class InputFileCacheService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InputFileCacheService.class);
+
+    /**
+     * The cache folder is in the workdirs parent folder, so that hard links are on the same file system.
+     */
+    private static final String CACHE_FOLDER = ".input-cache";
+
+    private static final String PART_SUFFIX = ".part";
+
+    /**
+     * Checksums used as file names, other input files are not cached.
+     */
+    private static final Pattern CHECKSUM_PATTERN = Pattern.compile("[A-Za-z0-9]{8,128}");
+
+    private static final Pattern MD5_CHECKSUM_PATTERN = Pattern.compile("[A-Fa-f0-9]{32}");
+
+    private static final String MD5 = "MD5";
+
+    private static final String METRICS_PREFIX = "regards.processing.input.cache.";
+
+    private final Path cachePath;
+
+    private final boolean enabled;
+
+    private final long maxSize;
+
+    /**
+     * Sizes of the cached files by checksum, in access order
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size = 0L;
+
+    private final Map<String, Mono<Path>> pendingDownloads = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public InputFileCacheService(@Qualifier("executionWorkdirParentPath") Path basePath,
+                                 @Value("${regards.processing.executionWorkdir.inputCache.enabled:true}")
+                                 boolean enabled,
+                                 @Value("${regards.processing.executionWorkdir.inputCache.maxSize:10737418240}")
+                                 long maxSize,
+                                 ObjectProvider<MeterRegistry> meterRegistry) throws IOException {
+        this.cachePath = basePath.resolve(CACHE_FOLDER);
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        if (enabled) {
+            Files.createDirectories(cachePath);
+            loadEntries();
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            FunctionCounter.builder(METRICS_PREFIX + "hits", hits, AtomicLong::get)
+                           .description("Number of execution input files found in the local cache")
+                           .register(registry);
+            FunctionCounter.builder(METRICS_PREFIX + "misses", misses, AtomicLong::get)
+                           .description("Number of execution input files downloaded")
+                           .register(registry);
+            Gauge.builder(METRICS_PREFIX + "size", this, InputFileCacheService::getSize)
+                 .description("Size in bytes of the execution input files in the local cache")
+                 .baseUnit("bytes")
+                 .register(registry);
+        }
+    }
+
+    /**
+     * Put the given input file at the destination path, from the cache if possible.
+     *
+     * @param file     the input file
+     * @param dest     where to put the file
+     * @param download how to download a file to a given path, when not in cache
+     * @param stats    execution statistics to update
+     * @return the destination path
+     */
+    public Mono<Path> materialize(PInputFile file,
+                                  Path dest,
+                                  BiFunction<PInputFile, Path, Mono<Path>> download,
+                                  InputCacheStats stats) {
+        String checksum = file.getChecksum();
+        if (!enabled
+            || (checksum == null)
+            || !CHECKSUM_PATTERN.matcher(checksum).matches()
+            || ((file.getBytes() != null) && (file.getBytes() > maxSize))) {
+            return download.apply(file, dest).doOnNext(p -> record(false, file, stats));
+        }
+        return Mono.defer(() -> {
+            AtomicBoolean downloaded = new AtomicBoolean(false);
+            return Mono.fromCallable(() -> copyFromCache(checksum, dest)).flatMap(copied -> {
+                if (copied) {
+                    return Mono.just(dest);
+                }
+                // Executions needing the same file at the same time share its download
+                return pendingDownloads.computeIfAbsent(checksum, k -> {
+                                           downloaded.set(true);
+                                           return fetch(file, download).doOnTerminate(() -> pendingDownloads.remove(k))
+                                                                       .cache();
+                                       })
+                                       .flatMap(cached -> Mono.fromCallable(() -> copyFromCache(checksum, dest)))
+                                       // Already evicted by bigger downloads, download it directly
+                                       .flatMap(copiedAfterFetch -> copiedAfterFetch ?
+                                           Mono.just(dest) :
+                                           download.apply(file, dest));
+            }).doOnNext(p -> record(!downloaded.get(), file, stats));
+        });
+    }
+
+    private void record(boolean hit, PInputFile file, InputCacheStats stats) {
+        (hit ? hits : misses).incrementAndGet();
+        stats.record(hit, file.getBytes());
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Hard link (or copy) the cached file with the given checksum at the destination path.
+     *
+     * @return false if the file is not in cache
+     */
+    private boolean copyFromCache(String checksum, Path dest) throws IOException {
+        synchronized (this) {
+            if (entries.get(checksum) == null) {
+                return false;
+            }
+        }
+        Path cached = cachePath.resolve(checksum);
+        Files.createDirectories(dest.getParent());
+        Files.deleteIfExists(dest);
+        try {
+            createLink(dest, cached);
+        } catch (NoSuchFileException e) {
+            // Evicted meanwhile
+            return false;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            LOGGER.debug("Unable to link cached file {} to {}, copying it", cached, dest, e);
+            try {
+                Files.copy(cached, dest, StandardCopyOption.REPLACE_EXISTING);
+            } catch (NoSuchFileException ex) {
+                return false;
+            }
+        }
+        try {
+            // Keep access order on restart
+            Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            LOGGER.trace("Unable to update cached file {} last modification time", cached, e);
+        }
+        return true;
+    }
+
+    /**
+     * Create a hard link to an existing file.
+     */
+    void createLink(Path link, Path existing) throws IOException {
+        Files.createLink(link, existing);
+    }
+
+    /**
+     * Download a file into the cache, once checked.
+     */
+    private Mono<Path> fetch(PInputFile file, BiFunction<PInputFile, Path, Mono<Path>> download) {
+        String checksum = file.getChecksum();
+        Path part = cachePath.resolve(checksum + "." + UUID.randomUUID() + PART_SUFFIX);
+        return download.apply(file, part).flatMap(p -> Mono.fromCallable(() -> {
+            checkDownloadedFile(file, part);
+            Path cached = cachePath.resolve(checksum);
+            Files.move(part, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // Executions must not alter the cached content through their hard links
+            if (!cached.toFile().setReadOnly()) {
+                LOGGER.warn("Unable to set cached input file {} read only", cached);
+            }
+            add(checksum, Files.size(cached));
+            return cached;
+        })).doOnError(t -> deleteQuietly(part));
+    }
+
+    /**
+     * Check the downloaded file size, and its MD5 checksum if the checksum of the input file is a MD5 one.
+     *
+     * @throws IOException if the downloaded file does not match
+     */
+    private static void checkDownloadedFile(PInputFile file, Path downloaded) throws IOException {
+        long downloadedSize = Files.size(downloaded);
+        if ((file.getBytes() != null) && (file.getBytes() != downloadedSize)) {
+            throw new IOException(String.format("Downloaded input file %s size %d does not match expected size %d",
+                                                file.getFileName(),
+                                                downloadedSize,
+                                                file.getBytes()));
+        }
+        if (MD5_CHECKSUM_PATTERN.matcher(file.getChecksum()).matches()) {
+            String downloadedChecksum;
+            try {
+                downloadedChecksum = ChecksumUtils.computeHexChecksum(downloaded, MD5);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+            if (!file.getChecksum().equalsIgnoreCase(downloadedChecksum)) {
+                throw new IOException(String.format("Downloaded input file %s checksum %s does not match expected "
+                                                    + "checksum %s",
+                                                    file.getFileName(),
+                                                    downloadedChecksum,
+                                                    file.getChecksum()));
+            }
+        }
+    }
+
+    private synchronized void add(String checksum, long fileSize) {
+        Long previousSize = entries.put(checksum, fileSize);
+        size += fileSize - (previousSize == null ? 0L : previousSize);
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while ((size > maxSize) && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (!entry.getKey().equals(checksum)) {
+                LOGGER.debug("Evicting input file {} from cache", entry.getKey());
+                deleteQuietly(cachePath.resolve(entry.getKey()));
+                size -= entry.getValue();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Rebuild the cache index from the cache folder, least recently used files first.
+     */
+    private void loadEntries() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(cachePath)) {
+            files = paths.filter(Files::isRegularFile).toList();
+        }
+        files.stream()
+             .filter(p -> p.getFileName().toString().endsWith(PART_SUFFIX))
+             .forEach(InputFileCacheService::deleteQuietly);
+        files.stream()
+             .filter(p -> CHECKSUM_PATTERN.matcher(p.getFileName().toString()).matches())
+             .sorted(Comparator.comparing(p -> p.toFile().lastModified()))
+             .forEach(p -> add(p.getFileName().toString(), p.toFile().length()));
+        LOGGER.info("Input files cache at {} holds {} files ({} bytes)", cachePath, entries.size(), size);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete {}", path, e);
+        }
+    }
+
+}
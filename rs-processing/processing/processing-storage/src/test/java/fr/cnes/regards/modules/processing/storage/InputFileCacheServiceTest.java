@@ -0,0 +1,264 @@
+/* Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.processing.storage;
+
+import fr.cnes.regards.framework.utils.file.ChecksumUtils;
+import fr.cnes.regards.modules.processing.domain.PInputFile;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.collection.HashMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class InputFileCacheServiceTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final List<String> downloadedFiles = new ArrayList<>();
+
+    private Path basePath;
+
+    @Before
+    public void init() throws IOException {
+        basePath = temporaryFolder.newFolder("workdirs").toPath();
+    }
+
+    private InputFileCacheService cacheService(long maxSize) throws IOException {
+        return new InputFileCacheService(basePath, true, maxSize, meterRegistry());
+    }
+
+    private ObjectProvider<MeterRegistry> meterRegistry() {
+        return new StaticListableBeanFactory(Map.<String, Object>of("meterRegistry", registry)).getBeanProvider(
+            MeterRegistry.class);
+    }
+
+    private static PInputFile inputFile(String content) throws Exception {
+        return inputFile(content, content.length(), ChecksumUtils.computeHexChecksum(content, "MD5"));
+    }
+
+    private static PInputFile inputFile(String content, long bytes, String checksum) throws Exception {
+        return new PInputFile("param",
+                              content + ".txt",
+                              "text/plain",
+                              new URL("http://storage/" + checksum),
+                              bytes,
+                              checksum,
+                              content + ".txt",
+                              HashMap.empty(),
+                              null);
+    }
+
+    /**
+     * Download writing the file content, being the file name without extension
+     */
+    private BiFunction<PInputFile, Path, Mono<Path>> download(Duration delay) {
+        return (file, dest) -> Mono.delay(delay).then(Mono.fromCallable(() -> {
+            synchronized (downloadedFiles) {
+                downloadedFiles.add(file.getFileName());
+            }
+            Files.createDirectories(dest.getParent());
+            Files.writeString(dest, file.getFileName().replace(".txt", ""), StandardCharsets.UTF_8);
+            return dest;
+        }));
+    }
+
+    private BiFunction<PInputFile, Path, Mono<Path>> download() {
+        return download(Duration.ZERO);
+    }
+
+    private Path materialize(InputFileCacheService cacheService, PInputFile file, String workdir) {
+        return cacheService.materialize(file,
+                                        basePath.resolve(workdir).resolve(file.getLocalRelativePath()),
+                                        download(),
+                                        new InputCacheStats()).block();
+    }
+
+    private List<String> cachedFiles() throws IOException {
+        try (Stream<Path> paths = Files.list(basePath.resolve(".input-cache"))) {
+            return paths.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    public void materialize_from_cache_once_downloaded() throws Exception {
+        // Given
+        InputFileCacheService cacheService = cacheService(1000);
+        PInputFile file = inputFile("content");
+
+        // When
+        Path first = materialize(cacheService, file, "exec1");
+        Path second = materialize(cacheService, file, "exec2");
+
+        // Then the file is downloaded only once, each workdir has its own link to the cached file
+        assertThat(downloadedFiles).containsExactly("content.txt");
+        assertThat(first).hasContent("content");
+        assertThat(second).hasContent("content");
+        assertThat(Files.isSameFile(first, second)).isTrue();
+        assertThat(cachedFiles()).containsExactly(file.getChecksum());
+        assertThat(cacheService.getHits()).isEqualTo(1);
+        assertThat(cacheService.getMisses()).isEqualTo(1);
+        assertThat(registry.get("regards.processing.input.cache.hits").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("regards.processing.input.cache.misses").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("regards.processing.input.cache.size").gauge().value()).isEqualTo(7);
+    }
+
+    @Test
+    public void share_concurrent_downloads() throws Exception {
+        // Given
+        InputFileCacheService cacheService = cacheService(1000);
+        PInputFile file = inputFile("shared");
+        InputCacheStats stats = new InputCacheStats();
+
+        // When two executions need the same file at the same time
+        BiFunction<PInputFile, Path, Mono<Path>> slowDownload = download(Duration.ofMillis(200));
+        Mono.zip(cacheService.materialize(file, basePath.resolve("exec1/shared.txt"), slowDownload, stats),
+                 cacheService.materialize(file, basePath.resolve("exec2/shared.txt"), slowDownload, stats))
+            .block(Duration.ofSeconds(10));
+
+        // Then
+        assertThat(downloadedFiles).containsExactly("shared.txt");
+        assertThat(basePath.resolve("exec1/shared.txt")).hasContent("shared");
+        assertThat(basePath.resolve("exec2/shared.txt")).hasContent("shared");
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void evict_least_recently_used_files() throws Exception {
+        // Given a cache of 10 bytes, holding 2 files of 4 bytes
+        InputFileCacheService cacheService = cacheService(10);
+        PInputFile fileA = inputFile("aaaa");
+        PInputFile fileB = inputFile("bbbb");
+        PInputFile fileC = inputFile("cccc");
+        materialize(cacheService, fileA, "exec1");
+        materialize(cacheService, fileB, "exec1");
+        // A is more recently used than B
+        materialize(cacheService, fileA, "exec2");
+
+        // When
+        Path materializedC = materialize(cacheService, fileC, "exec2");
+
+        // Then B is evicted, and downloaded again when needed
+        assertThat(cachedFiles()).containsExactlyInAnyOrder(fileA.getChecksum(), fileC.getChecksum());
+        assertThat(cacheService.getSize()).isEqualTo(8);
+        assertThat(materializedC).hasContent("cccc");
+        assertThat(basePath.resolve("exec1/bbbb.txt")).as("workdirs keep evicted files").hasContent("bbbb");
+        materialize(cacheService, fileB, "exec3");
+        assertThat(downloadedFiles).containsExactly("aaaa.txt", "bbbb.txt", "cccc.txt", "bbbb.txt");
+    }
+
+    @Test
+    public void reload_cache_on_restart() throws Exception {
+        // Given
+        PInputFile file = inputFile("content");
+        materialize(cacheService(1000), file, "exec1");
+
+        // When
+        InputFileCacheService restarted = cacheService(1000);
+        materialize(restarted, file, "exec2");
+
+        // Then
+        assertThat(downloadedFiles).containsExactly("content.txt");
+        assertThat(restarted.getSize()).isEqualTo(7);
+    }
+
+    @Test
+    public void copy_cached_file_without_hard_link_support() throws Exception {
+        // Given a file system without hard links
+        InputFileCacheService cacheService = new InputFileCacheService(basePath, true, 1000, meterRegistry()) {
+
+            @Override
+            void createLink(Path link, Path existing) {
+                throw new UnsupportedOperationException("No hard links");
+            }
+        };
+        PInputFile file = inputFile("content");
+
+        // When
+        Path first = materialize(cacheService, file, "exec1");
+        Path second = materialize(cacheService, file, "exec2");
+
+        // Then workdirs get copies of the cached file
+        assertThat(downloadedFiles).containsExactly("content.txt");
+        assertThat(first).hasContent("content");
+        assertThat(second).hasContent("content");
+        assertThat(Files.isSameFile(first, second)).isFalse();
+        assertThat(cacheService.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void do_not_cache_file_with_unexpected_size() throws Exception {
+        // Given a file expected bigger than downloaded
+        InputFileCacheService cacheService = cacheService(1000);
+        PInputFile file = inputFile("content", 10, ChecksumUtils.computeHexChecksum("content", "MD5"));
+
+        // When, then
+        assertThatThrownBy(() -> materialize(cacheService, file, "exec1")).hasMessageContaining("size");
+        assertThat(cachedFiles()).isEmpty();
+        assertThat(cacheService.getSize()).isZero();
+    }
+
+    @Test
+    public void do_not_cache_file_with_unexpected_checksum() throws Exception {
+        // Given
+        InputFileCacheService cacheService = cacheService(1000);
+        PInputFile file = inputFile("content", 7, ChecksumUtils.computeHexChecksum("other", "MD5"));
+
+        // When, then
+        assertThatThrownBy(() -> materialize(cacheService, file, "exec1")).hasMessageContaining("checksum");
+        assertThat(cachedFiles()).isEmpty();
+    }
+
+    @Test
+    public void do_not_cache_file_bigger_than_cache() throws Exception {
+        // Given
+        InputFileCacheService cacheService = cacheService(5);
+        PInputFile file = inputFile("content");
+
+        // When
+        Path materialized = materialize(cacheService, file, "exec1");
+
+        // Then the file is downloaded directly in the workdir
+        assertThat(materialized).hasContent("content");
+        assertThat(cachedFiles()).isEmpty();
+        assertThat(cacheService.getMisses()).isEqualTo(1);
+    }
+}
@@ -30,6 +30,7 @@ import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
 import fr.cnes.regards.framework.modules.plugins.dto.PluginMetaData;
 import fr.cnes.regards.framework.modules.plugins.dto.parameter.parameter.IPluginParam;
 import fr.cnes.regards.framework.modules.plugins.service.IPluginService;
+import fr.cnes.regards.framework.modules.session.agent.client.ISessionAgentClient;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
 import fr.cnes.regards.framework.modules.session.agent.domain.step.StepProperty;
@@ -61,6 +62,8 @@ import fr.cnes.regards.modules.storage.service.session.SessionNotifierPropertyEn
 import fr.cnes.regards.modules.templates.dao.ITemplateRepository;
 import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -84,7 +87,10 @@ import java.util.concurrent.TimeoutException;
 /**
  * @author sbinda
  */
-@TestPropertySource(properties = { "regards.storage.schedule.initial.delay=100", "regards.storage.schedule.delay=100" })
+@TestPropertySource(properties = { "regards.storage.schedule.initial.delay=100",
+                                   "regards.storage.schedule.delay=100",
+                                   // Step events are flushed when tests check them
+                                   "regards.session.agent.client.flush.delay.ms=3600000" })
 public abstract class AbstractStorageIT extends AbstractMultitenantServiceIT {
 
     public static final String ONLINE_CONF_LABEL = "target";
@@ -104,6 +110,9 @@ public abstract class AbstractStorageIT extends AbstractMultitenantServiceIT {
     @SpyBean
     protected FileReferenceEventPublisher fileEventPublisher;
 
+    @Autowired
+    protected ISessionAgentClient sessionAgentClient;
+
     @Autowired
     protected FileReferenceEventHandler fileRefEventHandler;
 
@@ -620,10 +629,20 @@ public abstract class AbstractStorageIT extends AbstractMultitenantServiceIT {
         return evts;
     }
 
+    /**
+     * @param events events published one by one
+     * @return step events from given events and from the ones published in bulk. Increments and decrements are
+     * published in bulk, once summed up by step property, so the ones still buffered are flushed first.
+     */
     protected List<StepPropertyUpdateRequestEvent> getStepPropertyEvents(Collection<ISubscribable> events) {
+        sessionAgentClient.flush();
+        ArgumentCaptor<List<? extends ISubscribable>> bulkCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(publisher, Mockito.atLeast(0)).publish(bulkCaptor.capture());
+        List<ISubscribable> allEvents = new ArrayList<>(events);
+        bulkCaptor.getAllValues().forEach(allEvents::addAll);
         // get all events of type StepPropertyUpdateRequestEvent
         List<StepPropertyUpdateRequestEvent> stepList = new ArrayList<>();
-        for (ISubscribable e : events) {
+        for (ISubscribable e : allEvents) {
             if (e instanceof StepPropertyUpdateRequestEvent) {
                 stepList.add((StepPropertyUpdateRequestEvent) e);
             }
@@ -665,7 +684,10 @@ public abstract class AbstractStorageIT extends AbstractMultitenantServiceIT {
                                    int stored,
                                    int incErrors,
                                    int decErrors) {
-        List<StepPropertyUpdateRequestEvent> stepEventList = getPublishedEvents(StepPropertyUpdateRequestEvent.class);
+        ArgumentCaptor<ISubscribable> argumentCaptor = ArgumentCaptor.forClass(ISubscribable.class);
+        Mockito.verify(publisher, Mockito.atLeast(0)).publish(argumentCaptor.capture());
+        List<StepPropertyUpdateRequestEvent> stepEventList = getStepPropertyEvents(argumentCaptor.getAllValues());
+        clearPublishedEvents();
         Assert.assertEquals(total, stepEventList.size());
         checkPropertyCount(stepEventList,
                            incStore,
@@ -42,6 +42,13 @@ public abstract class WorkerHeartBeat {
      */
     private OffsetDateTime heartBeatDate;
 
+    /**
+     * Maximum number of requests the worker instance is able to handle at the same time, counting requests it
+     * has received and not answered yet. Null if the worker does not advertise its capacity, it is then considered
+     * as unlimited.
+     */
+    private Integer capacity;
+
     public String getId() {
         return id;
     }
@@ -65,4 +72,12 @@ public abstract class WorkerHeartBeat {
     public final void setHeartBeatDate(OffsetDateTime heartBeatDate) {
         this.heartBeatDate = heartBeatDate;
     }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public final void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
 }
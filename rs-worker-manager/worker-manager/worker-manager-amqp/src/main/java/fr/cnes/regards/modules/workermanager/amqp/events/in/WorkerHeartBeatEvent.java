@@ -39,4 +39,9 @@ public class WorkerHeartBeatEvent extends WorkerHeartBeat implements ISubscribab
         this.setType(type);
         this.setHeartBeatDate(heartBeatDate);
     }
+
+    public WorkerHeartBeatEvent(String id, String type, OffsetDateTime heartBeatDate, Integer capacity) {
+        this(id, type, heartBeatDate);
+        this.setCapacity(capacity);
+    }
 }
\ No newline at end of file
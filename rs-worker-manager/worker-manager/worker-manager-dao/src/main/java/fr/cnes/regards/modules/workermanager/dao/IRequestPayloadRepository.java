@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.workermanager.dao;
+
+import fr.cnes.regards.modules.workermanager.domain.request.RequestPayload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+/**
+ * Repository to access {@link RequestPayload}
+ */
+@Repository
+public interface IRequestPayloadRepository extends JpaRepository<RequestPayload, String> {
+
+    /**
+     * Insert a payload, or only refresh its last use date if a payload with the same digest already exists.
+     *
+     * @param lastUseDate UTC date, as stored by the OffsetDateTime converter
+     */
+    @Modifying
+    @Query(value = "insert into t_workermanager_payload (digest, size, data, last_use_date) "
+                   + "values (:digest, :size, :data, :lastUseDate) "
+                   + "on conflict (digest) do update set last_use_date = excluded.last_use_date",
+           nativeQuery = true)
+    void upsert(@Param("digest") String digest,
+                @Param("size") long size,
+                @Param("data") byte[] data,
+                @Param("lastUseDate") LocalDateTime lastUseDate);
+
+    /**
+     * Delete payloads not used since the given date and no longer referenced by any request
+     *
+     * @return number of deleted payloads
+     */
+    @Modifying
+    @Query("delete from RequestPayload p where p.lastUseDate < :date "
+           + "and not exists (select r.id from Request r "
+           + "where r.contentDigest = p.digest or r.originalContentDigest = p.digest)")
+    int deleteOrphansNotUsedSince(@Param("date") OffsetDateTime date);
+}
@@ -18,6 +18,9 @@
  */
 package fr.cnes.regards.modules.workermanager.dao;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -28,13 +31,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import fr.cnes.regards.modules.workermanager.domain.database.LightRequest;
 import fr.cnes.regards.modules.workermanager.domain.request.Request;
+import fr.cnes.regards.modules.workermanager.dto.requests.RequestDTO;
 import fr.cnes.regards.modules.workermanager.dto.requests.RequestStatus;
 
 /**
@@ -46,6 +52,8 @@ import fr.cnes.regards.modules.workermanager.dto.requests.RequestStatus;
 @Repository
 public interface IRequestRepository extends JpaRepository<Request, Long>, JpaSpecificationExecutor<Request> {
 
+    String UPGRADE_SKIPLOCKED = "-2";
+
     @Query("select requestId from Request where requestId in :requestIds")
     List<String> findRequestIdByRequestIdIn(@Param("requestIds") Collection<String> requestIds);
 
@@ -53,6 +61,15 @@ public interface IRequestRepository extends JpaRepository<Request, Long>, JpaSpe
 
     List<Request> findByIdIn(Collection<Long> ids);
 
+    /**
+     * Retrieve the state of requests without loading their content
+     */
+    @Query("select new fr.cnes.regards.modules.workermanager.dto.requests.RequestDTO(request.requestId, "
+           + "request.creationDate, request.contentType, request.stepNumber, request.stepWorkerType, request.source, "
+           + "request.session, request.status, request.dispatchedWorkerType, request.error) "
+           + "from Request request where request.requestId in :requestIds")
+    List<RequestDTO> findDtoByRequestIdIn(@Param("requestIds") Collection<String> requestIds);
+
     Optional<Request> findOneByRequestId(String requestId);
 
     Collection<Request> findByStatus(RequestStatus status);
@@ -73,7 +90,42 @@ public interface IRequestRepository extends JpaRepository<Request, Long>, JpaSpe
 
     long countByStepWorkerTypeAndStatus(String workerType, RequestStatus requestStatus);
 
+    /**
+     * Lock requests of the given worker type and status, skipping the ones already locked by another transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints({ @QueryHint(name = "jakarta.persistence.lock.timeout", value = UPGRADE_SKIPLOCKED) })
+    List<Request> findByStepWorkerTypeAndStatus(String workerType, RequestStatus requestStatus, Pageable pageable);
+
+    long countByDispatchedWorkerTypeAndStatusInAndDispatchDateAfter(String workerType,
+                                                                   Collection<RequestStatus> requestStatuses,
+                                                                   OffsetDateTime dispatchDate);
+
+    long countByDispatchedWorkerTypeAndStatusInAndDispatchDateAfterAndIdNotIn(String workerType,
+                                                                             Collection<RequestStatus> requestStatuses,
+                                                                             OffsetDateTime dispatchDate,
+                                                                             Collection<Long> excludedIds);
+
+    /**
+     * Wait for and take a lock on the dispatch of requests to the given worker type in the current tenant schema.
+     * The lock is released at the end of the current transaction.
+     */
+    @Query(value = "select count(*) from (select pg_advisory_xact_lock(hashtext(current_schema() || ':' || :workerType))) as dispatch_lock",
+           nativeQuery = true)
+    long lockDispatchToWorkerType(@Param("workerType") String workerType);
+
     @Modifying
     @Query("update Request request set request.status = :newStatus where request.id in :ids ")
     void updateStatus(@Param("newStatus") RequestStatus requestState, @Param("ids") Set<Long> ids);
+
+    @Modifying
+    @Query("update Request request set request.status = :newStatus, request.error = :error "
+           + "where request.requestId in :requestIds")
+    void updateStatusAndError(@Param("newStatus") RequestStatus requestState,
+                              @Param("error") String error,
+                              @Param("requestIds") Collection<String> requestIds);
+
+    @Modifying
+    @Query("delete from Request request where request.requestId in :requestIds")
+    void deleteByRequestIdIn(@Param("requestIds") Collection<String> requestIds);
 }
@@ -0,0 +1,17 @@
+-- compressed contents of requests too large to be inlined, shared by requests with identical content
+create table t_workermanager_payload
+(
+    digest        varchar(64)  not null,
+    size          int8         not null,
+    data          bytea        not null,
+    last_use_date timestamp    not null,
+    primary key (digest)
+);
+
+alter table t_workermanager_request
+    alter column content drop not null,
+    add column content_digest varchar(64),
+    add column original_content_digest varchar(64);
+
+create index idx_worker_request_content_digest on t_workermanager_request (content_digest);
+create index idx_worker_request_original_content_digest on t_workermanager_request (original_content_digest);
@@ -0,0 +1,4 @@
+-- requests waiting for worker credits are counted and scanned by worker type
+create index idx_worker_request_step_worker_type_status on t_workermanager_request (step_worker_type, status);
+-- requests in progress are counted by dispatched worker type against the capacity of workers
+create index idx_worker_request_dispatched_worker_type_status on t_workermanager_request (dispatched_worker_type, status);
@@ -0,0 +1,3 @@
+-- requests dispatched for too long are not counted anymore against the capacity of workers
+alter table t_workermanager_request
+    add column dispatch_date timestamp;
@@ -27,6 +27,9 @@ import java.util.Set;
 
 /**
  * An entry used by the cache, holds all references to workers {@link CacheWorkerInstance} handling a specific content type
+ * <p>
+ * Each instance may advertise in its heartbeats its capacity, the number of requests it is able to handle at the same
+ * time. Requests in progress are not counted here but in database, so that all manager instances share them.
  *
  * @author Léo Mieulet
  */
@@ -53,11 +56,12 @@ public class CacheEntry {
         this.removeOutdatedWorkerIns();
     }
 
-    public void addWorkers(Set<CacheWorkerInstance> workerInsList) {
+    public synchronized void addWorkers(Set<CacheWorkerInstance> workerInsList) {
         workerInsList.forEach(newInstance -> {
             Optional<CacheWorkerInstance> inst = findInstanceById(newInstance.getId());
             if (inst.isPresent()) {
                 inst.get().setLastHeartBeatDate(newInstance.getLastHeartBeatDate());
+                inst.get().setCapacity(newInstance.getCapacity());
             } else {
                 LOGGER.info("New instance for worker {} registered", newInstance.getWorkerType());
                 this.workerInsList.add(newInstance);
@@ -102,6 +106,21 @@ public class CacheEntry {
         return valid;
     }
 
+    /**
+     * @return sum of the capacities advertised by the instances, {@link Integer#MAX_VALUE} if one of the instances
+     * does not advertise its capacity
+     */
+    public synchronized int getCapacity() {
+        long capacity = 0;
+        for (CacheWorkerInstance instance : workerInsList) {
+            if (instance.getCapacity() == null) {
+                return Integer.MAX_VALUE;
+            }
+            capacity += Math.max(instance.getCapacity(), 0);
+        }
+        return (int) Math.min(capacity, Integer.MAX_VALUE);
+    }
+
     public Long getNbWorkerIns() {
         return Long.valueOf(workerInsList.size());
     }
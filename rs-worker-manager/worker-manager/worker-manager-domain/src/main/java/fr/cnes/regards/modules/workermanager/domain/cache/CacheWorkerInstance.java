@@ -43,16 +43,27 @@ public class CacheWorkerInstance {
 
     private final String workerType;
 
+    /**
+     * Capacity advertised by the last heart beat. Null if the worker does not advertise its capacity.
+     */
+    private Integer capacity;
+
     public CacheWorkerInstance(String id, String workerType, @NotNull OffsetDateTime heartBeatDate) {
+        this(id, workerType, heartBeatDate, null);
+    }
+
+    public CacheWorkerInstance(String id, String workerType, @NotNull OffsetDateTime heartBeatDate, Integer capacity) {
         this.id = id;
         this.lastHeartBeatDate = heartBeatDate;
         this.workerType = workerType;
+        this.capacity = capacity;
     }
 
     public static CacheWorkerInstance build(WorkerHeartBeatEvent workerHeartBeatEvent) {
         return new CacheWorkerInstance(workerHeartBeatEvent.getId(),
                                        workerHeartBeatEvent.getType(),
-                                       workerHeartBeatEvent.getHeartBeatDate());
+                                       workerHeartBeatEvent.getHeartBeatDate(),
+                                       workerHeartBeatEvent.getCapacity());
     }
 
     public String getId() {
@@ -71,6 +82,14 @@ public class CacheWorkerInstance {
         this.lastHeartBeatDate = lastHeartBeatDate;
     }
 
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
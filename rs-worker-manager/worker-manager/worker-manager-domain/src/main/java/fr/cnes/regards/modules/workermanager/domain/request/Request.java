@@ -45,7 +45,12 @@ import java.util.Objects;
 @Entity
 @Table(name = "t_workermanager_request",
        indexes = { @Index(name = "idx_worker_request_id", columnList = "request_id"),
-                   @Index(name = "idx_worker_request_content_type", columnList = "content_type") },
+                   @Index(name = "idx_worker_request_content_type", columnList = "content_type"),
+                   @Index(name = "idx_worker_request_content_digest", columnList = "content_digest"),
+                   @Index(name = "idx_worker_request_original_content_digest",
+                          columnList = "original_content_digest"),
+                   @Index(name = "idx_worker_request_step_worker_type_status",
+                          columnList = "step_worker_type, status") },
        uniqueConstraints = { @UniqueConstraint(name = "uk_t_workermanager_request_requestid",
                                                columnNames = { "request_id" }) })
 public class Request {
@@ -78,6 +83,13 @@ public class Request {
     @Column(name = "dispatched_worker_type")
     private String dispatchedWorkerType;
 
+    /**
+     * Date of the last dispatch of the request to a worker, null if never dispatched
+     */
+    @Column(name = "dispatch_date")
+    @Convert(converter = OffsetDateTimeAttributeConverter.class)
+    private OffsetDateTime dispatchDate;
+
     @Column(name = "headers", columnDefinition = "jsonb")
     @Type(value = JsonBinaryType.class,
           parameters = { @org.hibernate.annotations.Parameter(name = JsonTypeDescriptor.KEY_ARG_TYPE,
@@ -91,17 +103,39 @@ public class Request {
      * content below is mutated by the different steps of the workflow. In the future, we could consider allowing to
      * restart a workflow from scratch with this original content.
      * In single worker context, this property is set but can be ignored.
+     * Null if the original content is stored in a {@link RequestPayload}.
      */
-    @Column(name = "original_content", nullable = false)
+    @Column(name = "original_content")
     @JdbcType(VarbinaryJdbcType.class)
     @Lob
     private byte[] originalContent;
 
-    @Column(name = "content", nullable = false)
+    /**
+     * Digest of the {@link RequestPayload} holding the original content, if too large to be inlined.
+     */
+    @Column(name = "original_content_digest", length = 64)
+    private String originalContentDigest;
+
+    /**
+     * Inline content. Null if the content is stored in a {@link RequestPayload}.
+     */
+    @Column(name = "content")
     @JdbcType(VarbinaryJdbcType.class)
     @Lob
     private byte[] content;
 
+    /**
+     * Digest of the {@link RequestPayload} holding the content, if too large to be inlined.
+     */
+    @Column(name = "content_digest", length = 64)
+    private String contentDigest;
+
+    /**
+     * Content of the {@link RequestPayload} referenced by {@link #contentDigest}, once loaded or externalized.
+     */
+    @Transient
+    private byte[] externalContent;
+
     @Column(name = "error", columnDefinition = "text")
     private String error;
 
@@ -205,6 +239,14 @@ public class Request {
         this.dispatchedWorkerType = dispatchedWorkerType;
     }
 
+    public OffsetDateTime getDispatchDate() {
+        return dispatchDate;
+    }
+
+    public void setDispatchDate(OffsetDateTime dispatchDate) {
+        this.dispatchDate = dispatchDate;
+    }
+
     public Map<String, String> getAdditionalHeaders() {
         return additionalHeaders;
     }
@@ -213,20 +255,69 @@ public class Request {
         this.additionalHeaders = additionalHeaders;
     }
 
+    /**
+     * @return inline original content, null if stored in a {@link RequestPayload}
+     */
     public byte[] getOriginalContent() {
         return originalContent;
     }
 
     public void setOriginalContent(byte[] originalContent) {
         this.originalContent = originalContent;
+        this.originalContentDigest = null;
+    }
+
+    public String getOriginalContentDigest() {
+        return originalContentDigest;
     }
 
+    /**
+     * Replace the inline original content by a reference to the {@link RequestPayload} holding it
+     */
+    public void externalizeOriginalContent(String digest) {
+        this.originalContent = null;
+        this.originalContentDigest = digest;
+    }
+
+    /**
+     * @return inline content or content of the referenced {@link RequestPayload} if it has been loaded
+     */
     public byte[] getContent() {
-        return content;
+        return content != null ? content : externalContent;
     }
 
     public void setContent(byte[] content) {
         this.content = content;
+        this.contentDigest = null;
+        this.externalContent = null;
+    }
+
+    public String getContentDigest() {
+        return contentDigest;
+    }
+
+    /**
+     * Replace the inline content by a reference to the {@link RequestPayload} holding it. The content stays
+     * available through {@link #getContent()} until the request is reloaded from database.
+     */
+    public void externalizeContent(String digest) {
+        this.externalContent = getContent();
+        this.content = null;
+        this.contentDigest = digest;
+    }
+
+    /**
+     * @return true if the content is stored in a {@link RequestPayload} not loaded yet
+     */
+    public boolean isContentToLoad() {
+        return content == null && contentDigest != null && externalContent == null;
+    }
+
+    /**
+     * Set the content read from the {@link RequestPayload} referenced by {@link #getContentDigest()}
+     */
+    public void setExternalContent(byte[] externalContent) {
+        this.externalContent = externalContent;
     }
 
     public String getError() {
@@ -295,8 +386,14 @@ public class Request {
                + additionalHeaders
                + ", originalContent="
                + Arrays.toString(originalContent)
+               + ", originalContentDigest='"
+               + originalContentDigest
+               + '\''
                + ", content="
                + Arrays.toString(content)
+               + ", contentDigest='"
+               + contentDigest
+               + '\''
                + ", error='"
                + error
                + '\''
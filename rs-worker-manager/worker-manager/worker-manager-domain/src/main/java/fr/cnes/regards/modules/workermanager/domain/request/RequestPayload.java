@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.workermanager.domain.request;
+
+import fr.cnes.regards.framework.jpa.converters.OffsetDateTimeAttributeConverter;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcType;
+import org.hibernate.type.descriptor.jdbc.VarbinaryJdbcType;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Compressed content of {@link Request}s too large to be stored inline in the request table.<br/>
+ * Payloads are identified by the SHA-256 digest of their uncompressed content, so identical contents of many
+ * requests are stored only once.
+ */
+@Entity
+@Table(name = "t_workermanager_payload")
+public class RequestPayload {
+
+    @Id
+    @Column(name = "digest", length = 64)
+    private String digest;
+
+    /**
+     * Size of the uncompressed content
+     */
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    /**
+     * GZIP compressed content
+     */
+    @Column(name = "data", nullable = false)
+    @JdbcType(VarbinaryJdbcType.class)
+    @Lob
+    private byte[] data;
+
+    /**
+     * Last time a request has been linked to this payload. Used to keep orphan payloads long enough to be
+     * referenced by requests not committed yet.
+     */
+    @Column(name = "last_use_date", nullable = false)
+    @Convert(converter = OffsetDateTimeAttributeConverter.class)
+    private OffsetDateTime lastUseDate;
+
+    public RequestPayload() {
+    }
+
+    public RequestPayload(String digest, long size, byte[] data, OffsetDateTime lastUseDate) {
+        this.digest = digest;
+        this.size = size;
+        this.data = data;
+        this.lastUseDate = lastUseDate;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public OffsetDateTime getLastUseDate() {
+        return lastUseDate;
+    }
+}
@@ -87,6 +87,15 @@ public class RequestDTO {
         return contentType;
     }
 
+    public int getStepNumber() {
+        return stepNumber;
+    }
+
+    @Nullable
+    public String getStepWorkerType() {
+        return stepWorkerType;
+    }
+
     public String getSource() {
         return source;
     }
@@ -109,6 +118,22 @@ public class RequestDTO {
         return error;
     }
 
+    /**
+     * @return a copy of this request with the given status and error
+     */
+    public RequestDTO withStatus(RequestStatus newStatus, @Nullable String newError) {
+        return new RequestDTO(requestId,
+                              creationDate,
+                              contentType,
+                              stepNumber,
+                              stepWorkerType,
+                              source,
+                              session,
+                              newStatus,
+                              dispatchedWorkerType,
+                              newError);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -38,6 +38,12 @@ public enum RequestStatus {
      */
     NO_WORKER_AVAILABLE,
 
+    /**
+     * Request matches a registered worker, but its instances are already handling as many requests as the capacity
+     * they advertise. Request will be dispatched as soon as instances of the worker answer to requests in progress.
+     */
+    WAITING_CREDITS,
+
     /**
      * Request has been handled by a worker, and it sent back the granted status.
      */
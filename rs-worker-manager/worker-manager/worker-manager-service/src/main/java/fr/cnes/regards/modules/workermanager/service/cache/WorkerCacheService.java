@@ -108,6 +108,15 @@ public class WorkerCacheService implements InitializingBean {
         return cache.getIfPresent(workerType) != null;
     }
 
+    /**
+     * @return sum of the capacities advertised by alive instances of the given worker type, 0 if no instance is alive,
+     * {@link Integer#MAX_VALUE} if one of the instances does not advertise its capacity
+     */
+    public int getCapacity(String workerType) {
+        CacheEntry cacheEntry = cache.getIfPresent(workerType);
+        return cacheEntry != null ? cacheEntry.getCapacity() : 0;
+    }
+
     public List<WorkerTypeAlive> getWorkersInstance(List<String> contentTypes) {
         List<WorkerTypeAlive> result = new ArrayList<>();
         Set<String> workerTypesToKeep = new HashSet<>();
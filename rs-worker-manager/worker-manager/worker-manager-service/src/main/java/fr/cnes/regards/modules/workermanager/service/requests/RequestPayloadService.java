@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.workermanager.service.requests;
+
+import fr.cnes.regards.framework.jpa.multitenant.transactional.MultitenantTransactional;
+import fr.cnes.regards.framework.utils.RsRuntimeException;
+import fr.cnes.regards.modules.workermanager.dao.IRequestPayloadRepository;
+import fr.cnes.regards.modules.workermanager.domain.request.Request;
+import fr.cnes.regards.modules.workermanager.domain.request.RequestPayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Store of {@link Request} contents.<br/>
+ * Contents up to {@link #inlineMaxSize} bytes are kept inline in the request table. Larger ones are GZIP compressed
+ * into a {@link RequestPayload} identified by the digest of the content, so requests with identical contents share
+ * the same payload. Payloads are only read back when requests are dispatched to workers.
+ */
+@Service
+@MultitenantTransactional
+public class RequestPayloadService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestPayloadService.class);
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    @Autowired
+    private IRequestPayloadRepository payloadRepository;
+
+    @Value("${regards.workermanager.request.payload.inline.max.size:4096}")
+    private int inlineMaxSize;
+
+    @Value("${regards.workermanager.request.payload.orphan.retention.minutes:60}")
+    private long orphanRetentionMinutes;
+
+    /**
+     * Move contents larger than the inline limit of the given requests to payloads. Must be called before saving
+     * requests with a new content.
+     */
+    public void externalizeContents(Collection<Request> requests) {
+        Map<String, RequestPayload> payloads = new HashMap<>();
+        OffsetDateTime now = OffsetDateTime.now();
+        for (Request request : requests) {
+            if (isTooLarge(request.getOriginalContent())) {
+                request.externalizeOriginalContent(addPayload(request.getOriginalContent(), payloads, now));
+            }
+            // Content of a request already externalized and not modified since, has no inline value
+            if (request.getContentDigest() == null && isTooLarge(request.getContent())) {
+                request.externalizeContent(addPayload(request.getContent(), payloads, now));
+            }
+        }
+        payloads.values()
+                .forEach(payload -> payloadRepository.upsert(payload.getDigest(),
+                                                             payload.getSize(),
+                                                             payload.getData(),
+                                                             toUtcDateTime(payload.getLastUseDate())));
+        if (!payloads.isEmpty()) {
+            LOGGER.debug("{} request payloads stored", payloads.size());
+        }
+    }
+
+    /**
+     * Load the externalized contents of the given requests, so they are available through {@link Request#getContent()}
+     */
+    public void loadContents(Collection<Request> requests) {
+        Set<String> digests = requests.stream()
+                                      .filter(Request::isContentToLoad)
+                                      .map(Request::getContentDigest)
+                                      .collect(Collectors.toSet());
+        if (digests.isEmpty()) {
+            return;
+        }
+        Map<String, byte[]> contents = new HashMap<>();
+        payloadRepository.findAllById(digests)
+                         .forEach(payload -> contents.put(payload.getDigest(), decompress(payload.getData())));
+        for (Request request : requests) {
+            if (request.isContentToLoad()) {
+                byte[] content = contents.get(request.getContentDigest());
+                if (content == null) {
+                    throw new RsRuntimeException(String.format("Payload %s of request %s does not exist",
+                                                               request.getContentDigest(),
+                                                               request.getRequestId()));
+                }
+                request.setExternalContent(content);
+            }
+        }
+    }
+
+    /**
+     * Delete payloads no longer referenced by any request. Payloads used recently are kept as they may be referenced
+     * by requests of transactions not committed yet.
+     *
+     * @return number of deleted payloads
+     */
+    public int deleteOrphanPayloads() {
+        return payloadRepository.deleteOrphansNotUsedSince(OffsetDateTime.now()
+                                                                         .minus(orphanRetentionMinutes,
+                                                                                ChronoUnit.MINUTES));
+    }
+
+    private boolean isTooLarge(byte[] content) {
+        return content != null && content.length > inlineMaxSize;
+    }
+
+    private String addPayload(byte[] content, Map<String, RequestPayload> payloads, OffsetDateTime now) {
+        String digest = digest(content);
+        payloads.computeIfAbsent(digest, d -> new RequestPayload(d, content.length, compress(content), now));
+        return digest;
+    }
+
+    private static LocalDateTime toUtcDateTime(OffsetDateTime date) {
+        return date.truncatedTo(ChronoUnit.MICROS).atZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    private static String digest(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(DIGEST_ALGORITHM).digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RsRuntimeException(e);
+        }
+    }
+
+    private static byte[] compress(byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4);
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new RsRuntimeException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] data) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new RsRuntimeException(e);
+        }
+    }
+}
@@ -65,13 +65,16 @@ import org.springframework.amqp.core.Message;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -94,6 +97,14 @@ public class RequestService {
 
     private static final String DELAYED_MESSAGE = "Your request has been delayed as no worker is currently matching content type <%s>.";
 
+    private static final String WAITING_CREDITS_MESSAGE = "Your request has been delayed as all <%s> workers are currently busy.";
+
+    /**
+     * Status of requests sent to a worker and not answered yet, using its capacity
+     */
+    private static final Set<RequestStatus> IN_PROGRESS_STATUSES = Set.of(RequestStatus.DISPATCHED,
+                                                                          RequestStatus.RUNNING);
+
     private static final String INVALID_MESSAGE = "Your request is not valid (invalidated by the"
                                                   + " matching worker <%s>). %s";
 
@@ -140,6 +151,9 @@ public class RequestService {
     @Autowired
     private WorkerConfigService workerConfigService;
 
+    @Autowired
+    private RequestPayloadService requestPayloadService;
+
     @Value("${worker.request.queue.name.template:regards.worker.%s.request}")
     private String WORKER_REQUEST_QUEUE_NAME_TEMPLATE;
 
@@ -152,6 +166,19 @@ public class RequestService {
     @Value("${worker.routing.key:#}")
     private String ROUTING_KEY;
 
+    /**
+     * Maximum number of requests waiting for credits dispatched when worker responses release credits
+     */
+    @Value("${regards.workermanager.credits.dispatch.max:400}")
+    private int waitingCreditsDispatchMax;
+
+    /**
+     * Delay after which requests dispatched to a worker and not answered yet are not counted anymore against its
+     * capacity, so that credits of requests lost by a worker are released
+     */
+    @Value("${regards.workermanager.credits.release.delay.minutes:60}")
+    private long creditsReleaseDelayMinutes;
+
     /**
      * Get worker exchange name by his workerType
      *
@@ -268,18 +295,90 @@ public class RequestService {
                             request.getSession());
                 request.setStatus(RequestStatus.NO_WORKER_AVAILABLE);
             }
-            newRequestsInfo.addRequest(request.toDTO());
         }
+        // Only dispatch requests for which workers have credits left
+        holdRequestsWithoutCredits(toDispatchRequests, retry);
+        requests.forEach(request -> newRequestsInfo.addRequest(request.toDTO()));
         if (!retry) {
             sessionService.notifyNewRequests(newRequestsInfo);
         }
         // Save status update
+        requestPayloadService.externalizeContents(requests);
         requestRepository.saveAll(requests);
 
         dispatchRequests(requests, requestInfo, newRequestsInfo, toDispatchRequests);
         return newRequestsInfo;
     }
 
+    /**
+     * Remove from the requests to dispatch the ones exceeding the capacity advertised by workers, and set them in
+     * {@link RequestStatus#WAITING_CREDITS} status. New requests also wait if older requests are already waiting
+     * for the same worker type, so that waiting requests are dispatched first.
+     * <p>
+     * Requests in progress are counted in database so that all manager instances share the capacity of workers. The
+     * count is serialized between manager instances by a transaction lock on the worker type, held until the requests
+     * dispatched by the current transaction are committed.
+     *
+     * @param toDispatchRequests requests to dispatch by worker type
+     * @param retry              true if requests are re-dispatched by a scan job
+     */
+    private void holdRequestsWithoutCredits(Multimap<String, Request> toDispatchRequests, boolean retry) {
+        for (String workerType : Set.copyOf(toDispatchRequests.keySet())) {
+            if (workerCacheService.getCapacity(workerType) == Integer.MAX_VALUE) {
+                // Capacity of workers is unlimited
+                continue;
+            }
+            List<Request> requestsByWorkerType = new ArrayList<>(toDispatchRequests.get(workerType));
+            int granted = 0;
+            if (retry || !hasRequestsMatchingStepWorkerTypeAndStatus(workerType, RequestStatus.WAITING_CREDITS)) {
+                requestRepository.lockDispatchToWorkerType(workerType);
+                // Requests to dispatch are already in DISPATCHED status, so they are excluded from the count
+                granted = Math.min(getAvailableCredits(workerType,
+                                                       requestsByWorkerType.stream()
+                                                                           .map(Request::getId)
+                                                                           .filter(Objects::nonNull)
+                                                                           .collect(Collectors.toSet())),
+                                   requestsByWorkerType.size());
+            }
+            if (granted < requestsByWorkerType.size()) {
+                List<Request> waitingRequests = requestsByWorkerType.subList(granted, requestsByWorkerType.size());
+                LOGGER.debug("{} requests waiting for {} worker credits", waitingRequests.size(), workerType);
+                waitingRequests.forEach(request -> {
+                    request.setStatus(RequestStatus.WAITING_CREDITS);
+                    request.setDispatchedWorkerType(null);
+                    toDispatchRequests.remove(workerType, request);
+                });
+            }
+        }
+    }
+
+    /**
+     * @return number of requests that can be dispatched to the given worker type : capacity advertised by its alive
+     * instances minus requests dispatched to them and not answered yet, {@link Integer#MAX_VALUE} if capacity is
+     * unlimited. Requests dispatched for longer than {@link #creditsReleaseDelayMinutes} are considered lost by the
+     * worker and are not counted.
+     */
+    public int getAvailableCredits(String workerType) {
+        return getAvailableCredits(workerType, Set.of());
+    }
+
+    private int getAvailableCredits(String workerType, Set<Long> excludedRequestIds) {
+        int capacity = workerCacheService.getCapacity(workerType);
+        if (capacity == Integer.MAX_VALUE) {
+            return capacity;
+        }
+        OffsetDateTime minDispatchDate = OffsetDateTime.now().minusMinutes(creditsReleaseDelayMinutes);
+        long inProgress = excludedRequestIds.isEmpty() ?
+            requestRepository.countByDispatchedWorkerTypeAndStatusInAndDispatchDateAfter(workerType,
+                                                                                         IN_PROGRESS_STATUSES,
+                                                                                         minDispatchDate) :
+            requestRepository.countByDispatchedWorkerTypeAndStatusInAndDispatchDateAfterAndIdNotIn(workerType,
+                                                                                                   IN_PROGRESS_STATUSES,
+                                                                                                   minDispatchDate,
+                                                                                                   excludedRequestIds);
+        return (int) Math.max(capacity - inProgress, 0);
+    }
+
     /**
      * Add a request to a map of requests to dispatch only if it is linked to an alive worker.
      *
@@ -290,6 +389,7 @@ public class RequestService {
             // Matching a worker alive
             request.setStatus(RequestStatus.DISPATCHED);
             request.setDispatchedWorkerType(workerType);
+            request.setDispatchDate(OffsetDateTime.now());
             return toDispatchRequests.put(workerType, request);
         }).orElse(false);
     }
@@ -353,6 +453,7 @@ public class RequestService {
                                   if (workerCacheService.isWorkerTypeInCache(workerType)) {
                                       request.setStatus(RequestStatus.DISPATCHED);
                                       request.setDispatchedWorkerType(workerType);
+                                      request.setDispatchDate(OffsetDateTime.now());
                                       isRequestDispatched = toDispatchRequests.put(workerType, request);
                                   }
                                   return isRequestDispatched;
@@ -364,6 +465,8 @@ public class RequestService {
                                   SessionsRequestsInfo requestInfo,
                                   SessionsRequestsInfo newRequestsInfo,
                                   Multimap<String, Request> toDispatchRequests) {
+        // Contents stored as payloads are only read to be sent to workers
+        requestPayloadService.loadContents(toDispatchRequests.values());
         // Publish requests to corresponding workers
         for (String workerType : toDispatchRequests.keySet()) {
             Collection<Request> requestsByWorkerType = toDispatchRequests.get(workerType);
@@ -406,7 +509,9 @@ public class RequestService {
     }
 
     /**
-     * Handle workerResponseEvents received from workers to inform about a request status changed
+     * Handle workerResponseEvents received from workers to inform about a request status changed.<br/>
+     * Responses are handled in bulk : requests states are updated with one statement per new status, and requests
+     * going on to their next workflow step are dispatched together.
      *
      * @param workerResponseEvents {@link WorkerResponseEvent} to handle
      * @return SessionsRequestsInfo containing information about requests updated
@@ -414,88 +519,142 @@ public class RequestService {
     public SessionsRequestsInfo handleWorkersResponses(Collection<WorkerResponseEvent> workerResponseEvents) {
         SessionsRequestsInfo requestInfo = new SessionsRequestsInfo();
         SessionsRequestsInfo newRequestInfo = new SessionsRequestsInfo();
-        // Retrieve requests matching worker responses
-        List<Request> requests = requestRepository.findByRequestIdIn(workerResponseEvents.stream()
-                                                                                         .map(WorkerResponseEvent::getRequestIdHeader)
-                                                                                         .collect(Collectors.toList()));
-        requestInfo.addRequests(requests.stream().map(Request::toDTO).collect(Collectors.toList()));
-        // For each worker response update matching request status
-        workerResponseEvents.forEach(workerResponseEvent -> {
-            Optional<Request> oRequest = requests.stream()
-                                                 .filter(r -> workerResponseEvent.getRequestIdHeader()
-                                                                                 .equals(r.getRequestId()))
-                                                 .findFirst();
-
-            if (oRequest.isPresent()) {
-                Request request = oRequest.get();
-                LOGGER.debug("Handling request {} with workerResponseEvent in {}",
-                             request.getRequestId(),
-                             workerResponseEvent.getStatus());
-                // update request according to response status
-                switch (workerResponseEvent.getStatus()) {
-                    case RUNNING, INVALID_CONTENT, ERROR -> {
-                        request.setStatus(fromWorkerResponseStatus(workerResponseEvent.getStatus()));
-                        if (workerResponseEvent.getMessages() != null && !workerResponseEvent.getMessages().isEmpty()) {
-                            request.setError(String.join(",", workerResponseEvent.getMessages()));
-                        } else {
-                            // Invalidate error if no message is provided
-                            request.setError(null);
-                        }
-                    }
-                    case SUCCESS -> handleRequestSuccess(request, workerResponseEvent);
-                }
+        // Only the last response received for a request gives its new state
+        Map<String, WorkerResponseEvent> responsesByRequestId = new LinkedHashMap<>();
+        workerResponseEvents.forEach(event -> responsesByRequestId.put(event.getRequestIdHeader(), event));
+        // Retrieve state of requests matching worker responses, without their content
+        Map<String, RequestDTO> requests = requestRepository.findDtoByRequestIdIn(responsesByRequestId.keySet())
+                                                            .stream()
+                                                            .collect(Collectors.toMap(RequestDTO::getRequestId,
+                                                                                      request -> request));
+        requestInfo.addRequests(requests.values());
+        // Worker types of requests ended by the responses, that can accept requests waiting for their credits
+        Set<String> releasingWorkerTypes = workerResponseEvents.stream()
+                                                               .filter(event -> event.getStatus()
+                                                                                != WorkerResponseStatus.RUNNING)
+                                                               .map(event -> requests.get(event.getRequestIdHeader()))
+                                                               .filter(request -> request != null
+                                                                                  && request.getDispatchedWorkerType()
+                                                                                     != null)
+                                                               .map(RequestDTO::getDispatchedWorkerType)
+                                                               .collect(Collectors.toSet());
+        // Group responses by status to compute the new state of their requests
+        Map<WorkerResponseStatus, List<WorkerResponseEvent>> responsesByStatus = new EnumMap<>(WorkerResponseStatus.class);
+        responsesByRequestId.forEach((requestId, event) -> {
+            if (requests.containsKey(requestId)) {
+                LOGGER.debug("Handling request {} with workerResponseEvent in {}", requestId, event.getStatus());
+                responsesByStatus.computeIfAbsent(event.getStatus(), status -> new ArrayList<>()).add(event);
             } else {
                 LOGGER.warn("Request id {} from worker {} does not match any known request on manager.",
-                            workerResponseEvent.getRequestIdHeader(),
-                            workerResponseEvent.getRequestIdHeader());
+                            requestId,
+                            requestId);
             }
         });
-        // Save updated requests and notify clients
-        requestRepository.saveAll(requests);
-
-        // Handle requests to dispatch to workflow next step if any
-        List<Request> requestsToDispatch = requests.stream()
-                                                   .filter(r -> r.getStatus().equals(RequestStatus.TO_DISPATCH))
-                                                   .toList();
+        List<RequestDTO> updatedRequests = new ArrayList<>();
+        Map<String, byte[]> successContents = new HashMap<>();
+        Map<String, Pair<WorkflowStep, WorkerResponseEvent>> nextStepResponses = new HashMap<>();
+        responsesByStatus.forEach((status, events) -> {
+            if (status == WorkerResponseStatus.SUCCESS) {
+                handleRequestsSuccess(events, requests, updatedRequests, successContents, nextStepResponses);
+            } else {
+                events.forEach(event -> updatedRequests.add(requests.get(event.getRequestIdHeader())
+                                                                    .withStatus(fromWorkerResponseStatus(status),
+                                                                                getResponseError(event))));
+            }
+        });
+        // Set-based update of the requests state, before loading the ones to dispatch to their next step
+        updateRequestsStates(updatedRequests);
+
+        // Handle requests to dispatch to workflow next step if any, all together to send one message batch by step
+        List<Request> requestsToDispatch = new ArrayList<>();
+        if (!nextStepResponses.isEmpty()) {
+            requestsToDispatch = requestRepository.findByRequestIdIn(nextStepResponses.keySet());
+            requestsToDispatch.forEach(request -> {
+                Pair<WorkflowStep, WorkerResponseEvent> nextStepResponse = nextStepResponses.get(request.getRequestId());
+                updateRequestWithNextStep(request, nextStepResponse.getSecond(), nextStepResponse.getFirst());
+            });
+        }
         this.handleRequests(requestsToDispatch, requestInfo, false);
+        // Handle requests waiting for the released credits
+        dispatchWaitingCreditsRequests(releasingWorkerTypes);
 
-        // only notify requests not in TO_DISPATCH status
-        requests.removeAll(requestsToDispatch);
-        notifyStatus(requests);
-        newRequestInfo.addRequests(requests.stream().map(Request::toDTO).collect(Collectors.toList()));
+        // only notify requests not dispatched to a next step
+        notifyStatus(updatedRequests, successContents);
+        newRequestInfo.addRequests(updatedRequests);
         sessionService.notifySessions(requestInfo, newRequestInfo);
 
-        deleteRequestsIfNeeded(requests);
-
         return newRequestInfo;
     }
 
-    private void deleteRequestsIfNeeded(List<Request> requests) {
-        // Delete succeeded requests. Success requests do not need to be persisted
-        Set<Request> requestsToDelete = requests.stream()
-                                                .filter(r -> r.getStatus().equals(RequestStatus.SUCCESS))
-                                                .collect(Collectors.toSet());
+    /**
+     * Dispatch requests waiting for credits of the given worker types, up to the credits available
+     */
+    private void dispatchWaitingCreditsRequests(Set<String> workerTypes) {
+        for (String workerType : workerTypes) {
+            int credits = Math.min(getAvailableCredits(workerType), waitingCreditsDispatchMax);
+            if (credits > 0) {
+                List<Request> waitingRequests = searchWaitingCreditsRequests(workerType, credits);
+                if (!waitingRequests.isEmpty()) {
+                    LOGGER.debug("Dispatching {} requests waiting for {} worker credits",
+                                 waitingRequests.size(),
+                                 workerType);
+                    SessionsRequestsInfo waitingRequestsInfo = new SessionsRequestsInfo(waitingRequests.stream()
+                                                                                                       .map(Request::toDTO)
+                                                                                                       .toList());
+                    handleRequests(waitingRequests, waitingRequestsInfo, true);
+                }
+            }
+        }
+    }
 
-        // Delete requests in an error status if the error is not managed by the worker manager.
-        // This applies to requests whose responses are handled by another microservice,
-        // which will implement its own error management.
-        // That information depends on worker or workflow config (keep errors configuration)
-        List<Request> errors = requests.stream()
-                                       .filter(r -> r.getStatus()
-                                                     .isOneOfStatuses(RequestStatus.ERROR,
-                                                                      RequestStatus.INVALID_CONTENT))
-                                       .toList();
-        requestsToDelete.addAll(getRequestsInErrorToDiscard(errors));
-        requestRepository.deleteAllInBatch(requestsToDelete);
+    /**
+     * Persist the new state of the given requests with one update by status and error.<br/>
+     * Succeeded requests do not need to be persisted, so they are deleted, as requests in an error status if the error
+     * is not managed by the worker manager. This applies to requests whose responses are handled by another
+     * microservice, which will implement its own error management. That information depends on worker or workflow
+     * config (keep errors configuration).
+     */
+    private void updateRequestsStates(List<RequestDTO> requests) {
+        Set<String> requestIdsToDelete = requests.stream()
+                                                 .filter(r -> r.getStatus().equals(RequestStatus.SUCCESS))
+                                                 .map(RequestDTO::getRequestId)
+                                                 .collect(Collectors.toSet());
+        List<RequestDTO> errors = requests.stream()
+                                          .filter(r -> r.getStatus()
+                                                        .isOneOfStatuses(RequestStatus.ERROR,
+                                                                         RequestStatus.INVALID_CONTENT))
+                                          .toList();
+        requestIdsToDelete.addAll(getRequestIdsInErrorToDiscard(errors));
+        if (!requestIdsToDelete.isEmpty()) {
+            requestRepository.deleteByRequestIdIn(requestIdsToDelete);
+        }
+
+        Map<Pair<RequestStatus, Optional<String>>, Set<String>> requestIdsByState = new HashMap<>();
+        for (RequestDTO request : requests) {
+            if (!requestIdsToDelete.contains(request.getRequestId())) {
+                requestIdsByState.computeIfAbsent(Pair.of(request.getStatus(), Optional.ofNullable(request.getError())),
+                                                  state -> new HashSet<>()).add(request.getRequestId());
+            }
+        }
+        requestIdsByState.forEach((state, requestIds) -> requestRepository.updateStatusAndError(state.getFirst(),
+                                                                                                state.getSecond()
+                                                                                                     .orElse(null),
+                                                                                                requestIds));
     }
 
-    private Set<Request> getRequestsInErrorToDiscard(List<Request> requestsInError) {
-        Set<String> contentTypes = requestsInError.stream().map(Request::getContentType).collect(Collectors.toSet());
+    private Set<String> getRequestIdsInErrorToDiscard(List<RequestDTO> requestsInError) {
+        if (requestsInError.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> contentTypes = requestsInError.stream()
+                                                  .map(RequestDTO::getContentType)
+                                                  .collect(Collectors.toSet());
         // retrieve all contentType deletable by workflow/worker config among current requests
         List<String> deletableRequestContentTypes = getNoKeepErrorContentTypes(contentTypes);
         // return the list of requests that can be deleted
         return requestsInError.stream()
                               .filter(request -> deletableRequestContentTypes.contains(request.getContentType()))
+                              .map(RequestDTO::getRequestId)
                               .collect(Collectors.toSet());
     }
 
@@ -534,49 +693,76 @@ public class RequestService {
     }
 
     /**
-     * Handle request state in case of {@link WorkerResponseEvent} in success.
-     **/
-    private void handleRequestSuccess(Request request, WorkerResponseEvent e) {
-        // check if request is linked to a workflowConfig,
-        workflowService.findWorkflowByType(request.getContentType())
-                       .ifPresentOrElse(workflowConfig -> updateRequestWithNextStep(request, e, workflowConfig), () -> {
-                           request.setStatus(RequestStatus.SUCCESS);
-                           request.setContent(getSuccessContent(e.getContent()));
-                       });
-    }
-
-    /**
-     * Update a request linked to a workflowConfig. The request will be redispatched if there are still valid
-     * steps to be executed.
-     */
-    private void updateRequestWithNextStep(Request request, WorkerResponseEvent event, WorkflowConfig workflowConfig) {
-        // check if workflow is finished
-        workflowService.getNextWorkflowStepIndex(workflowConfig, request.getStepNumber())
-                       .ifPresentOrElse((nextStepInd) -> {
-                           byte[] content = event.getContent();
-                           // dispatch to next workflow step only if content response is valid
-                           if (content != null) {
-                               request.setAdditionalHeaders(event.getAdditionalHeaders());
-                               request.setContent(event.getContent());
-                               request.setStatus(RequestStatus.TO_DISPATCH);
-                               request.setDispatchedWorkerType(null);
-                               WorkflowStep nextStep = workflowConfig.getSteps().get(nextStepInd);
-                               request.setStepNumber(nextStep.getStepNumber());
-                               request.setStepWorkerType(nextStep.getWorkerType());
-                           } else {
-                               request.setStatus(RequestStatus.ERROR);
-                               request.setError(String.format("""
-                                                                  An error occurred at step %d of the workflow "%s". \
-                                                                  The workerResponseEvent %s did not return any content while it is \
-                                                                  required by the next worker. Workflow is therefore stopped at this step.""",
-                                                              request.getStepNumber(),
-                                                              workflowConfig.getWorkflowType(),
-                                                              event.getRequestIdHeader()));
-                           }
-                       }, () -> {
-                           request.setStatus(RequestStatus.SUCCESS);
-                           request.setContent(getSuccessContent(event.getContent()));
-                       });
+     * Compute the new state of requests in case of {@link WorkerResponseEvent}s in success.<br/>
+     * Responses are grouped by workflow step so that the next step is only resolved once for each group.
+     *
+     * @param events            success responses
+     * @param requests          requests matching the responses by request id
+     * @param updatedRequests   requests with their new state, not to dispatch anymore
+     * @param successContents   contents of the succeeded requests by request id
+     * @param nextStepResponses responses of requests to dispatch to the next step of their workflow by request id
+     */
+    private void handleRequestsSuccess(List<WorkerResponseEvent> events,
+                                       Map<String, RequestDTO> requests,
+                                       List<RequestDTO> updatedRequests,
+                                       Map<String, byte[]> successContents,
+                                       Map<String, Pair<WorkflowStep, WorkerResponseEvent>> nextStepResponses) {
+        Map<Pair<String, Integer>, List<WorkerResponseEvent>> eventsByStep = new HashMap<>();
+        for (WorkerResponseEvent event : events) {
+            RequestDTO request = requests.get(event.getRequestIdHeader());
+            eventsByStep.computeIfAbsent(Pair.of(request.getContentType(), request.getStepNumber()),
+                                         step -> new ArrayList<>()).add(event);
+        }
+        eventsByStep.forEach((step, stepEvents) -> {
+            // check if request is linked to a workflowConfig and if workflow is finished
+            Optional<WorkflowConfig> workflowConfig = workflowService.findWorkflowByType(step.getFirst());
+            OptionalInt nextStepInd = workflowConfig.map(config -> workflowService.getNextWorkflowStepIndex(config,
+                                                                                                           step.getSecond()))
+                                                    .orElseGet(OptionalInt::empty);
+            for (WorkerResponseEvent event : stepEvents) {
+                RequestDTO request = requests.get(event.getRequestIdHeader());
+                if (nextStepInd.isEmpty()) {
+                    updatedRequests.add(request.withStatus(RequestStatus.SUCCESS, request.getError()));
+                    successContents.put(request.getRequestId(), getSuccessContent(event.getContent()));
+                } else if (event.getContent() != null) {
+                    // dispatch to next workflow step only if content response is valid
+                    nextStepResponses.put(request.getRequestId(),
+                                          Pair.of(workflowConfig.get().getSteps().get(nextStepInd.getAsInt()),
+                                                  event));
+                } else {
+                    String error = String.format("""
+                                                     An error occurred at step %d of the workflow "%s". \
+                                                     The workerResponseEvent %s did not return any content while it is \
+                                                     required by the next worker. Workflow is therefore stopped at this step.""",
+                                                 request.getStepNumber(),
+                                                 workflowConfig.get().getWorkflowType(),
+                                                 event.getRequestIdHeader());
+                    updatedRequests.add(request.withStatus(RequestStatus.ERROR, error));
+                }
+            }
+        });
+    }
+
+    /**
+     * Update a request linked to a workflowConfig to be redispatched to the next step of its workflow.
+     */
+    private void updateRequestWithNextStep(Request request, WorkerResponseEvent event, WorkflowStep nextStep) {
+        request.setAdditionalHeaders(event.getAdditionalHeaders());
+        request.setContent(event.getContent());
+        request.setStatus(RequestStatus.TO_DISPATCH);
+        request.setDispatchedWorkerType(null);
+        request.setStepNumber(nextStep.getStepNumber());
+        request.setStepWorkerType(nextStep.getWorkerType());
+    }
+
+    /**
+     * Get the error of a request from the worker response messages. Error is invalidated if no message is provided.
+     */
+    private String getResponseError(WorkerResponseEvent event) {
+        if (event.getMessages() != null && !event.getMessages().isEmpty()) {
+            return String.join(",", event.getMessages());
+        }
+        return null;
     }
 
     /**
@@ -621,6 +807,7 @@ public class RequestService {
                 switch (request.getStatus()) {
                     case DISPATCHED:
                     case NO_WORKER_AVAILABLE:
+                    case WAITING_CREDITS:
                     case RUNNING:
                     case INVALID_CONTENT:
                     case SUCCESS:
@@ -757,18 +944,34 @@ public class RequestService {
      */
     private void notifyStatus(Collection<Request> requests) {
         publisher.publish(requests.stream()
-                                  .map(this::generateResponseFromRequest)
+                                  .map(request -> generateResponseFromRequest(request.toDTO(), request.getContent()))
                                   .filter(Optional::isPresent)
                                   .map(Optional::get)
                                   .collect(Collectors.toList()));
     }
 
     /**
-     * Generates a {@link ResponseEvent} associated to the current status of the given {@link Request}
+     * Send {@link ResponseEvent}s for each given request to inform of the status of their request
      *
-     * @param request {@link Request}
+     * @param requests state of the requests
+     * @param contents contents of the succeeded requests by request id
      */
-    private Optional<ResponseEvent> generateResponseFromRequest(Request request) {
+    private void notifyStatus(List<RequestDTO> requests, Map<String, byte[]> contents) {
+        publisher.publish(requests.stream()
+                                  .map(request -> generateResponseFromRequest(request,
+                                                                              contents.get(request.getRequestId())))
+                                  .filter(Optional::isPresent)
+                                  .map(Optional::get)
+                                  .collect(Collectors.toList()));
+    }
+
+    /**
+     * Generates a {@link ResponseEvent} associated to the current status of the given request
+     *
+     * @param request state of the request
+     * @param content content of the request, only sent back in case of success
+     */
+    private Optional<ResponseEvent> generateResponseFromRequest(RequestDTO request, byte[] content) {
         ResponseEvent event = null;
         String errorMessage = StringUtils.defaultString(request.getError(), "");
         switch (request.getStatus()) {
@@ -788,6 +991,13 @@ public class RequestService {
                                             request.getSource())
                                      .withMessage(String.format(DELAYED_MESSAGE, request.getContentType()));
                 break;
+            case WAITING_CREDITS:
+                event = ResponseEvent.build(ResponseStatus.DELAYED,
+                                            request.getRequestId(),
+                                            getRequestTypeForSds(),
+                                            request.getSource())
+                                     .withMessage(String.format(WAITING_CREDITS_MESSAGE, request.getStepWorkerType()));
+                break;
             case INVALID_CONTENT:
                 event = ResponseEvent.build(ResponseStatus.INVALID_CONTENT,
                                             request.getRequestId(),
@@ -803,7 +1013,7 @@ public class RequestService {
                                             getRequestTypeForSds(),
                                             request.getSource())
                                      .withMessage(String.format(SUCCESS_MESSAGE, request.getDispatchedWorkerType()))
-                                     .withContent(request.getContent());
+                                     .withContent(content);
                 break;
             case ERROR:
                 event = ResponseEvent.build(ResponseStatus.ERROR,
@@ -907,9 +1117,26 @@ public class RequestService {
      * Return true when there is at least one request with NO_WORKER_AVAILABLE
      */
     public boolean hasRequestsMatchingStepWorkerTypeAndNoWorkerAvailable(String workerType) {
-        long nbWaitingRequests = requestRepository.countByStepWorkerTypeAndStatus(workerType,
-                                                                                  RequestStatus.NO_WORKER_AVAILABLE);
-        return nbWaitingRequests > 0;
+        return hasRequestsMatchingStepWorkerTypeAndStatus(workerType, RequestStatus.NO_WORKER_AVAILABLE);
+    }
+
+    /**
+     * Return true when there is at least one request of the given worker type with the given status
+     */
+    public boolean hasRequestsMatchingStepWorkerTypeAndStatus(String workerType, RequestStatus status) {
+        return requestRepository.countByStepWorkerTypeAndStatus(workerType, status) > 0;
+    }
+
+    /**
+     * Search and lock requests of the given worker type waiting for worker credits, oldest first.
+     * Requests already locked by another transaction are skipped.
+     */
+    public List<Request> searchWaitingCreditsRequests(String workerType, int maxRequests) {
+        return requestRepository.findByStepWorkerTypeAndStatus(workerType,
+                                                               RequestStatus.WAITING_CREDITS,
+                                                               PageRequest.of(0,
+                                                                              maxRequests,
+                                                                              Sort.by(Sort.Direction.ASC, "id")));
     }
 
     public void updateRequestsStatusTo(Page<Request> requests, RequestStatus newRequestStatus) {
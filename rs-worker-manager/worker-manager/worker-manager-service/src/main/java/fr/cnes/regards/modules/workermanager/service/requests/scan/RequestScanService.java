@@ -32,6 +32,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -58,6 +59,7 @@ import fr.cnes.regards.modules.workermanager.service.requests.job.DispatchReques
 import fr.cnes.regards.modules.workermanager.service.sessions.SessionService;
 import fr.cnes.regards.modules.workermanager.service.sessions.SessionsRequestsInfo;
 import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockingTaskExecutor.Task;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -143,6 +145,89 @@ public class RequestScanService {
         }
     }
 
+    /**
+     * Check if requests with state {@link RequestStatus#WAITING_CREDITS} exist for worker types having credits
+     * available. If there are, schedule a job to dispatch as many of them as available credits, oldest first.
+     * Requests waiting for a worker type without any alive instance are set back to
+     * {@link RequestStatus#NO_WORKER_AVAILABLE}, as no response of the worker will release credits for them.
+     */
+    public void scanWaitingCreditsRequests() throws Throwable {
+        for (WorkerConfig workerConfig : workerConfigRepo.findAll()) {
+            String workerType = workerConfig.getWorkerType();
+            Task task = null;
+            if (!workerCacheService.isWorkerTypeInCache(workerType)) {
+                if (requestService.hasRequestsMatchingStepWorkerTypeAndStatus(workerType,
+                                                                              RequestStatus.WAITING_CREDITS)) {
+                    task = () -> {
+                        lockingTaskExecutors.assertLocked();
+                        int nbRequests;
+                        do {
+                            nbRequests = self.updateWaitingCreditsRequestsToNoWorkerAvailable(workerType,
+                                                                                              scanPageSize);
+                        } while (nbRequests > 0);
+                    };
+                }
+            } else {
+                int credits = Math.min(requestService.getAvailableCredits(workerType), scanPageSize);
+                if (credits > 0 && requestService.hasRequestsMatchingStepWorkerTypeAndStatus(workerType,
+                                                                                             RequestStatus.WAITING_CREDITS)) {
+                    task = () -> {
+                        lockingTaskExecutors.assertLocked();
+                        self.updateWaitingCreditsRequestsAndScheduleJob(workerType, credits);
+                    };
+                }
+            }
+            if (task != null) {
+                lockingTaskExecutors.executeWithLock(task,
+                                                     new LockConfiguration(Instant.now(),
+                                                                           RequestScanService.REQUEST_SCAN_LOCK,
+                                                                           Duration.ofSeconds(
+                                                                               MAX_TASK_WAIT_DURING_SCHEDULE),
+                                                                           Duration.ZERO));
+            }
+        }
+    }
+
+    /**
+     * Open a transaction that updates up to the given number of requests waiting for credits of the given worker type
+     * to {@link RequestStatus#TO_DISPATCH}, then submit them on a job
+     */
+    @MultitenantTransactional(propagation = Propagation.REQUIRES_NEW)
+    public int updateWaitingCreditsRequestsAndScheduleJob(String workerType, int maxRequests) throws ModuleException {
+        Page<Request> requests = new PageImpl<>(requestService.searchWaitingCreditsRequests(workerType, maxRequests));
+        SessionsRequestsInfo info = new SessionsRequestsInfo(requests.stream()
+                                                                     .map(Request::toDTO)
+                                                                     .collect(Collectors.toList()));
+        if (requests.getNumberOfElements() > 0) {
+            scheduleJob(RequestStatus.TO_DISPATCH, requests);
+            requestService.updateRequestsStatusTo(requests, RequestStatus.TO_DISPATCH);
+        }
+        sessionService.notifyScannedRequests(info, RequestStatus.TO_DISPATCH);
+        return requests.getNumberOfElements();
+    }
+
+    /**
+     * Open a transaction that updates up to the given number of requests waiting for credits of the given worker type
+     * to {@link RequestStatus#NO_WORKER_AVAILABLE}. They are dispatched by the scan of requests without worker once an
+     * instance of the worker type is alive again.
+     */
+    @MultitenantTransactional(propagation = Propagation.REQUIRES_NEW)
+    public int updateWaitingCreditsRequestsToNoWorkerAvailable(String workerType, int maxRequests) {
+        Page<Request> requests = new PageImpl<>(requestService.searchWaitingCreditsRequests(workerType, maxRequests));
+        if (requests.getNumberOfElements() > 0) {
+            LOGGER.info("{} requests waiting for credits of {} worker set back to {} as no instance is alive",
+                        requests.getNumberOfElements(),
+                        workerType,
+                        RequestStatus.NO_WORKER_AVAILABLE);
+            requestService.updateRequestsStatusTo(requests, RequestStatus.NO_WORKER_AVAILABLE);
+            sessionService.notifyScannedRequests(new SessionsRequestsInfo(requests.stream()
+                                                                                  .map(Request::toDTO)
+                                                                                  .collect(Collectors.toList())),
+                                                 RequestStatus.NO_WORKER_AVAILABLE);
+        }
+        return requests.getNumberOfElements();
+    }
+
     public void scanUsingFilters(SearchRequestParameters filters, RequestStatus newStatus, Long lockAtMostUntilSec)
         throws Throwable {
         lockingTaskExecutors.executeWithLock(new RequestScanTask(this, filters, newStatus, lockingTaskExecutors),
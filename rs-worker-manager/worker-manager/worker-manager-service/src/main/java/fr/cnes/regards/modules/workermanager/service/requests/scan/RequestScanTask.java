@@ -38,6 +38,7 @@ public class RequestScanTask implements Task {
     // Statuses of requests that can are deletable/re-dispatchable
     public static final List<RequestStatus> BLOCKED_REQUESTS_STATUSES = Lists.newArrayList(RequestStatus.ERROR,
                                                                                            RequestStatus.NO_WORKER_AVAILABLE,
+                                                                                           RequestStatus.WAITING_CREDITS,
                                                                                            RequestStatus.INVALID_CONTENT);
 
     private final RequestScanService requestScanService;
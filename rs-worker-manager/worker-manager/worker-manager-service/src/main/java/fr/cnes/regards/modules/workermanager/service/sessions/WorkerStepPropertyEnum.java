@@ -33,6 +33,12 @@ public enum WorkerStepPropertyEnum {
                         false,
                         false,
                         false),
+    WAITING_CREDITS("workers.waiting_credits",
+                    RequestStatus.WAITING_CREDITS,
+                    StepPropertyStateEnum.WAITING,
+                    false,
+                    false,
+                    false),
     RUNNING("workers.%s.running", RequestStatus.RUNNING, StepPropertyStateEnum.RUNNING, true, false, false),
     DISPATCHED("workers.%s.dispatched", RequestStatus.DISPATCHED, StepPropertyStateEnum.RUNNING, true, false, false),
     ERROR("workers.%s.error", RequestStatus.ERROR, StepPropertyStateEnum.ERROR, true, false, false),
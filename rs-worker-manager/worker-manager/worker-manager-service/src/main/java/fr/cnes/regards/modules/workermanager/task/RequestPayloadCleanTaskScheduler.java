@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.workermanager.task;
+
+import fr.cnes.regards.framework.jpa.multitenant.lock.AbstractTaskScheduler;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import fr.cnes.regards.framework.multitenant.ITenantResolver;
+import fr.cnes.regards.modules.workermanager.domain.request.RequestPayload;
+import fr.cnes.regards.modules.workermanager.service.requests.RequestPayloadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delete {@link RequestPayload}s no longer referenced by any request
+ */
+@Component
+@Profile("!noscheduler")
+@EnableScheduling
+public class RequestPayloadCleanTaskScheduler extends AbstractTaskScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestPayloadCleanTaskScheduler.class);
+
+    private static final String NOTIFICATION_TITLE = "Clean request payloads scheduler";
+
+    private static final String CLEAN_REQUEST_PAYLOADS = "CLEAN REQUEST PAYLOADS";
+
+    private static final String DEFAULT_INITIAL_DELAY = "60000";
+
+    private static final String DEFAULT_SCHEDULING_DELAY = "600000";
+
+    @Autowired
+    private RequestPayloadService requestPayloadService;
+
+    @Autowired
+    private ITenantResolver tenantResolver;
+
+    @Autowired
+    private IRuntimeTenantResolver runtimeTenantResolver;
+
+    @Scheduled(initialDelayString = "${regards.workermanager.request.payload.clean.initial.delay:"
+                                    + DEFAULT_INITIAL_DELAY
+                                    + "}",
+               fixedDelayString = "${regards.workermanager.request.payload.clean.delay:"
+                                  + DEFAULT_SCHEDULING_DELAY
+                                  + "}")
+    public void scheduleCleanRequestPayloads() {
+        for (String tenant : tenantResolver.getAllActiveTenants()) {
+            try {
+                runtimeTenantResolver.forceTenant(tenant);
+                traceScheduling(tenant, CLEAN_REQUEST_PAYLOADS);
+                int nbDeleted = requestPayloadService.deleteOrphanPayloads();
+                LOGGER.debug("{} orphan request payloads deleted", nbDeleted);
+            } catch (Throwable e) {
+                handleSchedulingError(CLEAN_REQUEST_PAYLOADS, NOTIFICATION_TITLE, e);
+            } finally {
+                runtimeTenantResolver.clearTenant();
+            }
+        }
+    }
+
+    @Override
+    protected Logger getLogger() {
+        return LOGGER;
+    }
+
+}
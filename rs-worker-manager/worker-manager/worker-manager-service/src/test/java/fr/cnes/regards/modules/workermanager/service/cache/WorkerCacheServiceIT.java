@@ -159,6 +159,41 @@ public class WorkerCacheServiceIT extends AbstractWorkerManagerServiceUtilsIT {
                                                                      contentType)));
     }
 
+    @Test
+    public void testWorkerCapacity() {
+        String workerTypeWithCapacity = "workerTypeWithCapacity";
+        String workerId1 = UUID.randomUUID().toString();
+        String workerId2 = UUID.randomUUID().toString();
+
+        workerCacheService.registerWorkers(Lists.list(new WorkerHeartBeatEvent(workerId1,
+                                                                               workerTypeWithCapacity,
+                                                                               OffsetDateTime.now(),
+                                                                               3),
+                                                      new WorkerHeartBeatEvent(workerId2,
+                                                                               workerTypeWithCapacity,
+                                                                               OffsetDateTime.now(),
+                                                                               2)));
+        Assert.assertEquals("Capacities of all instances should be added",
+                            5,
+                            workerCacheService.getCapacity(workerTypeWithCapacity));
+
+        // New heartbeat refreshes the capacity of the instance
+        workerCacheService.registerWorkers(Lists.list(new WorkerHeartBeatEvent(workerId1,
+                                                                               workerTypeWithCapacity,
+                                                                               OffsetDateTime.now(),
+                                                                               1)));
+        Assert.assertEquals(3, workerCacheService.getCapacity(workerTypeWithCapacity));
+
+        // An instance not advertising its capacity makes it unlimited
+        workerCacheService.registerWorkers(Lists.list(new WorkerHeartBeatEvent(workerId2,
+                                                                               workerTypeWithCapacity,
+                                                                               OffsetDateTime.now())));
+        Assert.assertEquals(Integer.MAX_VALUE, workerCacheService.getCapacity(workerTypeWithCapacity));
+        Assert.assertEquals("Unknown worker type should not have capacity",
+                            0,
+                            workerCacheService.getCapacity("unknownWorkerType"));
+    }
+
     @Test
     @Ignore("testing the cache expiration is useless")
     public void testCacheExpiration() throws InterruptedException {
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.workermanager.service.cache;
+
+import com.google.common.collect.Sets;
+import fr.cnes.regards.modules.workermanager.domain.cache.CacheEntry;
+import fr.cnes.regards.modules.workermanager.domain.cache.CacheWorkerInstance;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Simulation of the dispatch of requests to fake workers of heterogeneous speeds, to compare throughput and latency
+ * of unlimited dispatch (workers prefetch requests round-robin) with credit based dispatch (the manager only sends
+ * requests while requests in progress are fewer than the capacity workers advertise in their heartbeats).
+ * <p>
+ * Time is simulated by ticks, so results only depend on the parameters below.
+ */
+public class WorkerCreditsDispatchSimulationTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerCreditsDispatchSimulationTest.class);
+
+    private static final String WORKER_TYPE = "simulatedWorker";
+
+    private static final long TICK_MS = 10;
+
+    /**
+     * Delay between two dispatches of pending requests by the manager, which handles batches of worker responses and
+     * new requests as they come
+     */
+    private static final long DISPATCH_PERIOD_MS = 20;
+
+    private static final int NB_REQUESTS = 5000;
+
+    /**
+     * Number of requests received by the manager at each tick (150 requests per second)
+     */
+    private static final double REQUESTS_PER_TICK = 1.5;
+
+    @Test
+    @Ignore("Simulation to run manually to compare dispatch strategies")
+    public void simulate_dispatch() {
+        log("Unlimited", simulate(false));
+        log("Credit based", simulate(true));
+    }
+
+    private SimulationResult simulate(boolean useCredits) {
+        // 2 fast and 2 slow workers of 4 slots each : 176 requests per second at most
+        List<FakeWorker> workers = List.of(new FakeWorker("fast-1", 50, 4),
+                                           new FakeWorker("fast-2", 50, 4),
+                                           new FakeWorker("slow-1", 500, 4),
+                                           new FakeWorker("slow-2", 500, 4));
+        CacheEntry cacheEntry = new CacheEntry(new HashSet<>(), 60);
+        workers.forEach(worker -> cacheEntry.addWorkers(Sets.newHashSet(new CacheWorkerInstance(worker.id,
+                                                                                               WORKER_TYPE,
+                                                                                               OffsetDateTime.now(),
+                                                                                               useCredits ?
+                                                                                                   worker.slots :
+                                                                                                   null))));
+        // Requests are represented by their reception date
+        Deque<Long> pendingRequests = new ArrayDeque<>();
+        Deque<Long> workerQueue = new ArrayDeque<>();
+        List<Long> latencies = new ArrayList<>(NB_REQUESTS);
+        // Requests dispatched and not answered yet, counted in database by the manager
+        long inProgress = 0;
+        int nbReceived = 0;
+        int nextWorker = 0;
+        long now = 0;
+        while (latencies.size() < NB_REQUESTS) {
+            while (nbReceived < NB_REQUESTS && nbReceived < (now / TICK_MS + 1) * REQUESTS_PER_TICK) {
+                pendingRequests.add(now);
+                nbReceived++;
+            }
+            if (now % DISPATCH_PERIOD_MS == 0) {
+                long granted = Math.min(Math.max(cacheEntry.getCapacity() - inProgress, 0), pendingRequests.size());
+                for (int i = 0; i < granted; i++) {
+                    if (useCredits) {
+                        workerQueue.add(pendingRequests.poll());
+                    } else {
+                        workers.get(nextWorker++ % workers.size()).prefetched.add(pendingRequests.poll());
+                    }
+                }
+                inProgress += granted;
+            }
+            for (FakeWorker worker : workers) {
+                // Responses of workers end requests in progress
+                inProgress -= worker.tick(now, useCredits ? workerQueue : worker.prefetched, latencies);
+            }
+            now += TICK_MS;
+        }
+        return new SimulationResult(now, latencies);
+    }
+
+    private void log(String strategy, SimulationResult result) {
+        LOGGER.info("{} dispatch : {} requests handled in {} ms ({} requests/s), latency p50={} ms, p95={} ms, max={} ms",
+                    strategy,
+                    NB_REQUESTS,
+                    result.durationMs(),
+                    NB_REQUESTS * 1000L / result.durationMs(),
+                    result.percentile(0.5),
+                    result.percentile(0.95),
+                    result.percentile(1));
+    }
+
+    private record SimulationResult(long durationMs, List<Long> latencies) {
+
+        long percentile(double percentile) {
+            List<Long> sorted = latencies.stream().sorted().toList();
+            return sorted.get(Math.max((int) Math.ceil(percentile * sorted.size()) - 1, 0));
+        }
+    }
+
+    /**
+     * Worker instance handling requests in a fixed time, with a fixed number of parallel slots
+     */
+    private static final class FakeWorker {
+
+        private final String id;
+
+        private final long processingMs;
+
+        private final int slots;
+
+        /**
+         * Requests received by this instance but not started yet
+         */
+        private final Deque<Long> prefetched = new ArrayDeque<>();
+
+        /**
+         * Reception and end dates of running requests
+         */
+        private final List<long[]> running = new ArrayList<>();
+
+        private FakeWorker(String id, long processingMs, int slots) {
+            this.id = id;
+            this.processingMs = processingMs;
+            this.slots = slots;
+        }
+
+        /**
+         * @return number of requests handled during the tick
+         */
+        private int tick(long now, Deque<Long> queue, List<Long> latencies) {
+            int nbHandled = latencies.size();
+            running.removeIf(request -> {
+                boolean ended = request[1] <= now;
+                if (ended) {
+                    latencies.add(request[1] - request[0]);
+                }
+                return ended;
+            });
+            while (running.size() < slots && !queue.isEmpty()) {
+                running.add(new long[] { queue.poll(), now + processingMs });
+            }
+            return latencies.size() - nbHandled;
+        }
+    }
+}
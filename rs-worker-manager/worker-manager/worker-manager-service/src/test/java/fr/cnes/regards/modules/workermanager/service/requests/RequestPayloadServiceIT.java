@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.workermanager.service.requests;
+
+import fr.cnes.regards.framework.test.report.annotation.Purpose;
+import fr.cnes.regards.modules.workermanager.dao.IRequestPayloadRepository;
+import fr.cnes.regards.modules.workermanager.domain.request.Request;
+import fr.cnes.regards.modules.workermanager.domain.request.RequestPayload;
+import fr.cnes.regards.modules.workermanager.dto.requests.RequestStatus;
+import fr.cnes.regards.modules.workermanager.service.cache.AbstractWorkerManagerServiceUtilsIT;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Test the storage of large request contents as shared payloads with {@link RequestPayloadService} on PostgreSQL :
+ * upsert of identical contents and deletion of orphan payloads.
+ */
+@ActiveProfiles("noscheduler")
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.default_schema=request_payload_it",
+                                   "regards.workermanager.request.payload.inline.max.size=16",
+                                   "regards.workermanager.request.payload.orphan.retention.minutes=0" })
+public class RequestPayloadServiceIT extends AbstractWorkerManagerServiceUtilsIT {
+
+    @Autowired
+    private RequestPayloadService requestPayloadService;
+
+    @Autowired
+    private IRequestPayloadRepository payloadRepository;
+
+    @Override
+    protected void doInit() {
+        payloadRepository.deleteAll();
+    }
+
+    private static byte[] largeContent(char character) {
+        byte[] content = new byte[1024];
+        Arrays.fill(content, (byte) character);
+        return content;
+    }
+
+    private static Request createRequest(String requestId, byte[] originalContent, byte[] content) {
+        Request request = new Request();
+        request.setRequestId(requestId);
+        request.setCreationDate(OffsetDateTime.now());
+        request.setContentType("contentType");
+        request.setSource("source");
+        request.setSession("session");
+        request.setStatus(RequestStatus.TO_DISPATCH);
+        request.setOriginalContent(originalContent);
+        request.setContent(content);
+        return request;
+    }
+
+    /**
+     * Externalize contents of the given requests then save them, as done on request creation
+     */
+    private List<Request> saveRequests(Request... requests) {
+        List<Request> toSave = List.of(requests);
+        requestPayloadService.externalizeContents(toSave);
+        return requestRepository.saveAll(toSave);
+    }
+
+    @Test
+    @Purpose("Test that identical contents are stored once and that storing them again only refreshes the payload")
+    public void upsert_identical_contents() {
+        // --- GIVEN ---
+        byte[] content = largeContent('a');
+        List<Request> first = saveRequests(createRequest("request1", content, content),
+                                           createRequest("request2", content.clone(), content.clone()));
+        String digest = first.get(0).getContentDigest();
+        OffsetDateTime firstUseDate = payloadRepository.findById(digest).orElseThrow().getLastUseDate();
+
+        // --- WHEN ---
+        saveRequests(createRequest("request3", content.clone(), content.clone()));
+
+        // --- THEN ---
+        Assertions.assertThat(payloadRepository.count()).isEqualTo(1);
+        RequestPayload payload = payloadRepository.findById(digest).orElseThrow();
+        Assertions.assertThat(payload.getSize()).isEqualTo(content.length);
+        Assertions.assertThat(payload.getData().length).isLessThan(content.length);
+        Assertions.assertThat(payload.getLastUseDate()).isAfter(firstUseDate);
+        // All requests share the payload and get back their content
+        List<Request> reloaded = requestRepository.findAll();
+        Assertions.assertThat(reloaded).hasSize(3).allMatch(request -> digest.equals(request.getContentDigest()));
+        requestPayloadService.loadContents(reloaded);
+        Assertions.assertThat(reloaded).allMatch(request -> Arrays.equals(content, request.getContent()));
+    }
+
+    @Test
+    @Purpose("Test that only payloads no longer referenced by any request are deleted")
+    public void delete_orphan_payloads() {
+        // --- GIVEN ---
+        Request withContent = createRequest("withContent", largeContent('a'), largeContent('a'));
+        // Only the original content of this request is externalized, its current content is inline
+        Request withOriginalContent = createRequest("withOriginalContent", largeContent('b'), "small".getBytes());
+        Request deleted = createRequest("deleted", largeContent('c'), largeContent('c'));
+        saveRequests(withContent, withOriginalContent, deleted);
+        String orphanDigest = deleted.getContentDigest();
+        requestRepository.delete(deleted);
+        Assertions.assertThat(payloadRepository.count()).isEqualTo(3);
+
+        // --- WHEN ---
+        int nbDeleted = requestPayloadService.deleteOrphanPayloads();
+
+        // --- THEN ---
+        Assertions.assertThat(nbDeleted).isEqualTo(1);
+        Assertions.assertThat(payloadRepository.findAll()
+                                               .stream()
+                                               .map(RequestPayload::getDigest)
+                                               .collect(Collectors.toSet()))
+                  .containsExactlyInAnyOrder(withContent.getContentDigest(),
+                                             withOriginalContent.getOriginalContentDigest())
+                  .doesNotContain(orphanDigest);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.workermanager.service.requests;
+
+import fr.cnes.regards.framework.test.report.annotation.Purpose;
+import fr.cnes.regards.modules.workermanager.dao.IRequestPayloadRepository;
+import fr.cnes.regards.modules.workermanager.domain.request.Request;
+import fr.cnes.regards.modules.workermanager.domain.request.RequestPayload;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Tests for {@link RequestPayloadService}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RequestPayloadServiceTest {
+
+    private static final int INLINE_MAX_SIZE = 16;
+
+    @InjectMocks
+    private RequestPayloadService requestPayloadService;
+
+    @Mock
+    private IRequestPayloadRepository payloadRepository;
+
+    @Before
+    public void init() {
+        ReflectionTestUtils.setField(requestPayloadService, "inlineMaxSize", INLINE_MAX_SIZE);
+    }
+
+    @Test
+    @Purpose("Test that small contents stay inline and large ones are stored once per distinct content")
+    public void externalize_large_contents() {
+        // --- GIVEN ---
+        byte[] largeContent = "a large content to store as a compressed payload".getBytes();
+        Request small = createRequest("small", "small".getBytes());
+        Request large1 = createRequest("large1", largeContent);
+        Request large2 = createRequest("large2", largeContent.clone());
+
+        // --- WHEN ---
+        requestPayloadService.externalizeContents(List.of(small, large1, large2));
+
+        // --- THEN ---
+        Assertions.assertThat(small.getContentDigest()).isNull();
+        Assertions.assertThat(small.getOriginalContentDigest()).isNull();
+        Assertions.assertThat(large1.getContentDigest()).isNotNull().isEqualTo(large2.getContentDigest());
+        Assertions.assertThat(large1.getOriginalContentDigest()).isEqualTo(large1.getContentDigest());
+        Assertions.assertThat(large1.getOriginalContent()).isNull();
+        // Content is still available until the request is reloaded
+        Assertions.assertThat(large1.getContent()).isEqualTo(largeContent);
+        Assertions.assertThat(large1.isContentToLoad()).isFalse();
+        // Identical contents are stored once
+        Mockito.verify(payloadRepository)
+               .upsert(ArgumentMatchers.eq(large1.getContentDigest()),
+                       ArgumentMatchers.eq((long) largeContent.length),
+                       ArgumentMatchers.any(),
+                       ArgumentMatchers.any(LocalDateTime.class));
+        Mockito.verifyNoMoreInteractions(payloadRepository);
+    }
+
+    @Test
+    @Purpose("Test that externalized contents are loaded back uncompressed")
+    public void load_externalized_contents() {
+        // --- GIVEN ---
+        byte[] largeContent = "a large content to store as a compressed payload".getBytes();
+        Request request = createRequest("large", largeContent);
+        requestPayloadService.externalizeContents(List.of(request));
+        ArgumentCaptor<byte[]> dataCaptor = ArgumentCaptor.forClass(byte[].class);
+        Mockito.verify(payloadRepository)
+               .upsert(ArgumentMatchers.anyString(),
+                       ArgumentMatchers.anyLong(),
+                       dataCaptor.capture(),
+                       ArgumentMatchers.any(LocalDateTime.class));
+        // Simulate a request read from database
+        Request reloaded = createRequest("large", null);
+        reloaded.externalizeContent(request.getContentDigest());
+        reloaded.setExternalContent(null);
+        Mockito.when(payloadRepository.findAllById(ArgumentMatchers.anyIterable()))
+               .thenReturn(List.of(new RequestPayload(request.getContentDigest(),
+                                                      largeContent.length,
+                                                      dataCaptor.getValue(),
+                                                      OffsetDateTime.now())));
+        Assertions.assertThat(reloaded.isContentToLoad()).isTrue();
+
+        // --- WHEN ---
+        requestPayloadService.loadContents(List.of(reloaded));
+
+        // --- THEN ---
+        Assertions.assertThat(reloaded.getContent()).isEqualTo(largeContent);
+    }
+
+    private Request createRequest(String requestId, byte[] content) {
+        Request request = new Request();
+        request.setRequestId(requestId);
+        request.setContent(content);
+        request.setOriginalContent(content);
+        return request;
+    }
+}
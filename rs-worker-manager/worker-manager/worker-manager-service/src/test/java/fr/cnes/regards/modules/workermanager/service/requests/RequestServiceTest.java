@@ -21,13 +21,18 @@ package fr.cnes.regards.modules.workermanager.service.requests;
 import fr.cnes.regards.framework.amqp.IPublisher;
 import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.framework.test.report.annotation.Purpose;
+import fr.cnes.regards.modules.workercommon.dto.WorkerResponseStatus;
+import fr.cnes.regards.modules.workermanager.amqp.events.EventHeadersHelper;
+import fr.cnes.regards.modules.workermanager.amqp.events.in.WorkerResponseEvent;
 import fr.cnes.regards.modules.workermanager.dao.IRequestRepository;
 import fr.cnes.regards.modules.workermanager.domain.config.WorkflowConfig;
 import fr.cnes.regards.modules.workermanager.domain.config.WorkflowStep;
 import fr.cnes.regards.modules.workermanager.domain.request.Request;
+import fr.cnes.regards.modules.workermanager.dto.requests.RequestDTO;
 import fr.cnes.regards.modules.workermanager.dto.requests.RequestStatus;
 import fr.cnes.regards.modules.workermanager.service.cache.WorkerCacheService;
 import fr.cnes.regards.modules.workermanager.service.config.WorkerConfigCacheService;
+import fr.cnes.regards.modules.workermanager.service.config.WorkerConfigService;
 import fr.cnes.regards.modules.workermanager.service.sessions.SessionService;
 import fr.cnes.regards.modules.workermanager.service.sessions.SessionsRequestsInfo;
 import org.assertj.core.api.Assertions;
@@ -47,6 +52,8 @@ import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 
 /**
  * Tests for {@link RequestService}
@@ -92,6 +99,10 @@ public class RequestServiceTest {
     @Mock
     private WorkerConfigCacheService workerConfigCacheService;
 
+    @Mock
+    @SuppressWarnings("unused")
+    private WorkerConfigService workerConfigService;
+
     @Mock
     private WorkflowService workflowService;
 
@@ -106,6 +117,10 @@ public class RequestServiceTest {
     @SuppressWarnings("unused")
     private IPublisher publisher;
 
+    @Mock
+    @SuppressWarnings("unused")
+    private RequestPayloadService requestPayloadService;
+
     @Before
     public void init() {
         Mockito.when(runtimeTenantResolver.getTenant()).thenReturn("defaultTenant");
@@ -131,6 +146,8 @@ public class RequestServiceTest {
         Mockito.when(workflowService.getWorkerTypeInWorkflow(workflowConfig, INIT_STEP))
                .thenReturn(Optional.of(WORKER_TYPE_2));
         Mockito.when(workerCacheService.isWorkerTypeInCache(WORKER_TYPE_2)).thenReturn(true);
+        // Workers do not advertise their capacity
+        Mockito.when(workerCacheService.getCapacity(Mockito.anyString())).thenReturn(Integer.MAX_VALUE);
 
         // --- WHEN ---
         requestService.handleRequests(requests, new SessionsRequestsInfo(), false);
@@ -143,6 +160,91 @@ public class RequestServiceTest {
 
     }
 
+    @Test
+    @Purpose("Test if requests are held until their workers advertise available credits")
+    @SuppressWarnings("unchecked")
+    public void handle_requests_waiting_credits() {
+        // --- GIVEN ---
+        List<Request> requests = initRequests();
+        Request secondRequestWithWorker = createRequest("secondRequestIdWithWorker",
+                                                        OffsetDateTime.now(),
+                                                        CONTENT_TYPE_WORKER_1,
+                                                        "sourceWorker",
+                                                        "sessionWorker",
+                                                        "lorem ipsum sine workflow 2".getBytes());
+        secondRequestWithWorker.setStepWorkerType(WORKER_TYPE_1);
+        requests.add(secondRequestWithWorker);
+        Mockito.when(workerCacheService.getWorkerTypeByContentType(CONTENT_TYPE_WORKER_1))
+               .thenReturn(Optional.of(WORKER_TYPE_1));
+        Mockito.when(workerCacheService.getWorkerTypeByContentType(WORKFLOW_TYPE_1)).thenReturn(Optional.empty());
+        WorkflowConfig workflowConfig = new WorkflowConfig(WORKFLOW_TYPE_1,
+                                                           List.of(new WorkflowStep(INIT_STEP, WORKER_TYPE_2)),
+                                                           true);
+        Mockito.when(workflowService.findWorkflowByType(WORKFLOW_TYPE_1)).thenReturn(Optional.of(workflowConfig));
+        Mockito.when(workflowService.getWorkerTypeInWorkflow(workflowConfig, INIT_STEP))
+               .thenReturn(Optional.of(WORKER_TYPE_2));
+        Mockito.when(workerCacheService.isWorkerTypeInCache(WORKER_TYPE_2)).thenReturn(true);
+        // Only one credit left for the first worker, none for the workflow one
+        requests.get(0).setId(1L);
+        Mockito.when(workerCacheService.getCapacity(WORKER_TYPE_1)).thenReturn(4);
+        Mockito.when(workerCacheService.getCapacity(WORKER_TYPE_2)).thenReturn(2);
+        Mockito.when(requestRepository.countByDispatchedWorkerTypeAndStatusInAndDispatchDateAfterAndIdNotIn(Mockito.eq(
+                   WORKER_TYPE_1), Mockito.anyCollection(), Mockito.any(), Mockito.eq(Set.of(1L))))
+               .thenReturn(3L);
+        Mockito.when(requestRepository.countByDispatchedWorkerTypeAndStatusInAndDispatchDateAfter(Mockito.eq(WORKER_TYPE_2),
+                                                                                                 Mockito.anyCollection(),
+                                                                                                 Mockito.any()))
+               .thenReturn(2L);
+
+        // --- WHEN ---
+        requestService.handleRequests(requests, new SessionsRequestsInfo(), false);
+
+        // --- THEN ---
+        ArgumentCaptor<List<Request>> requestsUpdatedCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(requestRepository).saveAll(requestsUpdatedCaptor.capture());
+        List<Request> actualRequestsUpdated = requestsUpdatedCaptor.getValue();
+        Assertions.assertThat(actualRequestsUpdated.get(0).getStatus()).isEqualTo(RequestStatus.DISPATCHED);
+        Assertions.assertThat(actualRequestsUpdated.get(0).getDispatchedWorkerType()).isEqualTo(WORKER_TYPE_1);
+        Assertions.assertThat(actualRequestsUpdated.get(1).getStatus()).isEqualTo(RequestStatus.WAITING_CREDITS);
+        Assertions.assertThat(actualRequestsUpdated.get(1).getDispatchedWorkerType()).isNull();
+        Assertions.assertThat(actualRequestsUpdated.get(2).getStatus()).isEqualTo(RequestStatus.WAITING_CREDITS);
+        // Requests in progress are counted under a lock shared by all manager instances
+        Mockito.verify(requestRepository).lockDispatchToWorkerType(WORKER_TYPE_1);
+        Mockito.verify(requestRepository).lockDispatchToWorkerType(WORKER_TYPE_2);
+    }
+
+    @Test
+    @Purpose("Test if available credits are the capacity of workers minus the requests in progress in database")
+    public void available_credits() {
+        ReflectionTestUtils.setField(requestService, "creditsReleaseDelayMinutes", 60L);
+        Mockito.when(workerCacheService.getCapacity(WORKER_TYPE_1)).thenReturn(5);
+        Set<RequestStatus> inProgressStatuses = Set.of(RequestStatus.DISPATCHED, RequestStatus.RUNNING);
+        Mockito.when(requestRepository.countByDispatchedWorkerTypeAndStatusInAndDispatchDateAfter(Mockito.eq(WORKER_TYPE_1),
+                                                                                                 Mockito.eq(
+                                                                                                     inProgressStatuses),
+                                                                                                 Mockito.any()))
+               .thenReturn(2L, 7L);
+        OffsetDateTime beforeCount = OffsetDateTime.now();
+        Assertions.assertThat(requestService.getAvailableCredits(WORKER_TYPE_1)).isEqualTo(3);
+        // Requests dispatched before the release delay are considered lost by the worker and are not counted
+        ArgumentCaptor<OffsetDateTime> minDispatchDateCaptor = ArgumentCaptor.forClass(OffsetDateTime.class);
+        Mockito.verify(requestRepository)
+               .countByDispatchedWorkerTypeAndStatusInAndDispatchDateAfter(Mockito.eq(WORKER_TYPE_1),
+                                                                           Mockito.eq(inProgressStatuses),
+                                                                           minDispatchDateCaptor.capture());
+        Assertions.assertThat(minDispatchDateCaptor.getValue())
+                  .isBetween(beforeCount.minusMinutes(60), OffsetDateTime.now().minusMinutes(60));
+        // More requests in progress than capacity, after a decrease of the capacity
+        Assertions.assertThat(requestService.getAvailableCredits(WORKER_TYPE_1)).isZero();
+        // Capacity not advertised
+        Mockito.when(workerCacheService.getCapacity(WORKER_TYPE_2)).thenReturn(Integer.MAX_VALUE);
+        Assertions.assertThat(requestService.getAvailableCredits(WORKER_TYPE_2)).isEqualTo(Integer.MAX_VALUE);
+        Mockito.verify(requestRepository, Mockito.never())
+               .countByDispatchedWorkerTypeAndStatusInAndDispatchDateAfter(Mockito.eq(WORKER_TYPE_2),
+                                                                           Mockito.anyCollection(),
+                                                                           Mockito.any());
+    }
+
     @Test
     @Purpose("Test if requests are not dispatched if corresponding workers were not found.")
     @SuppressWarnings("unchecked")
@@ -161,15 +263,95 @@ public class RequestServiceTest {
 
     }
 
+    @Test
+    @Purpose("Test if worker responses are handled in bulk, with one update by new request state")
+    @SuppressWarnings("unchecked")
+    public void handle_workers_responses_bulk() {
+        // --- GIVEN ---
+        // Two running requests, one request in error and one request at the first step of a two steps workflow
+        List<RequestDTO> requests = List.of(createRequestDTO("running1", CONTENT_TYPE_WORKER_1, WORKER_TYPE_1),
+                                            createRequestDTO("running2", CONTENT_TYPE_WORKER_1, WORKER_TYPE_1),
+                                            createRequestDTO("error", CONTENT_TYPE_WORKER_1, WORKER_TYPE_1),
+                                            createRequestDTO(REQUEST_ID_WITH_WORKFLOW_1,
+                                                             WORKFLOW_TYPE_1,
+                                                             WORKER_TYPE_1));
+        Mockito.when(requestRepository.findDtoByRequestIdIn(Mockito.anyCollection())).thenReturn(requests);
+        Request requestWithWorkflow = initRequests().get(1);
+        Mockito.when(requestRepository.findByRequestIdIn(Set.of(REQUEST_ID_WITH_WORKFLOW_1)))
+               .thenReturn(new ArrayList<>(List.of(requestWithWorkflow)));
+        WorkflowConfig workflowConfig = new WorkflowConfig(WORKFLOW_TYPE_1,
+                                                           List.of(new WorkflowStep(INIT_STEP, WORKER_TYPE_1),
+                                                                   new WorkflowStep(INIT_STEP + 1, WORKER_TYPE_2)),
+                                                           true);
+        Mockito.when(workflowService.findWorkflowByType(WORKFLOW_TYPE_1)).thenReturn(Optional.of(workflowConfig));
+        Mockito.when(workflowService.getNextWorkflowStepIndex(workflowConfig, INIT_STEP)).thenReturn(OptionalInt.of(1));
+        Mockito.when(workflowService.getWorkerTypeInWorkflow(workflowConfig, INIT_STEP + 1))
+               .thenReturn(Optional.of(WORKER_TYPE_2));
+        Mockito.when(workerCacheService.getWorkerTypeByContentType(WORKFLOW_TYPE_1)).thenReturn(Optional.empty());
+        Mockito.when(workerCacheService.isWorkerTypeInCache(WORKER_TYPE_2)).thenReturn(true);
+        Mockito.when(workerCacheService.getCapacity(Mockito.anyString())).thenReturn(Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(requestService, "waitingCreditsDispatchMax", 10);
+
+        // --- WHEN ---
+        requestService.handleWorkersResponses(List.of(createResponse("running1", WorkerResponseStatus.RUNNING, null),
+                                                      createResponse("running2", WorkerResponseStatus.RUNNING, null),
+                                                      createResponse("error", WorkerResponseStatus.ERROR, null),
+                                                      createResponse(REQUEST_ID_WITH_WORKFLOW_1,
+                                                                     WorkerResponseStatus.SUCCESS,
+                                                                     "next step".getBytes())));
+
+        // --- THEN ---
+        // One update by new request state
+        Mockito.verify(requestRepository)
+               .updateStatusAndError(RequestStatus.RUNNING, null, Set.of("running1", "running2"));
+        Mockito.verify(requestRepository).updateStatusAndError(RequestStatus.ERROR, null, Set.of("error"));
+        Mockito.verify(requestRepository, Mockito.never()).deleteByRequestIdIn(Mockito.anyCollection());
+        // Request with workflow is dispatched to its next step
+        ArgumentCaptor<List<Request>> requestsUpdatedCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(requestRepository).saveAll(requestsUpdatedCaptor.capture());
+        Assertions.assertThat(requestsUpdatedCaptor.getValue()).containsExactly(requestWithWorkflow);
+        Assertions.assertThat(requestWithWorkflow.getStatus()).isEqualTo(RequestStatus.DISPATCHED);
+        Assertions.assertThat(requestWithWorkflow.getStepNumber()).isEqualTo(INIT_STEP + 1);
+        Assertions.assertThat(requestWithWorkflow.getDispatchedWorkerType()).isEqualTo(WORKER_TYPE_2);
+        // Requests not running anymore leave room for requests waiting for credits of their worker
+        Mockito.verify(requestRepository)
+               .findByStepWorkerTypeAndStatus(Mockito.eq(WORKER_TYPE_1),
+                                              Mockito.eq(RequestStatus.WAITING_CREDITS),
+                                              Mockito.any());
+    }
+
+    private RequestDTO createRequestDTO(String requestId, String contentType, String workerType) {
+        return new RequestDTO(requestId,
+                              OffsetDateTime.now(),
+                              contentType,
+                              INIT_STEP,
+                              workerType,
+                              "source",
+                              "session",
+                              RequestStatus.DISPATCHED,
+                              workerType,
+                              null);
+    }
+
+    private WorkerResponseEvent createResponse(String requestId, WorkerResponseStatus status, byte[] content) {
+        WorkerResponseEvent response = new WorkerResponseEvent();
+        response.setHeader(EventHeadersHelper.REQUEST_ID_HEADER, requestId);
+        response.setStatus(status);
+        response.setContent(content);
+        return response;
+    }
+
     private void checkRequestsDispatched(List<Request> actualRequestsUpdated) {
         // Request with worker directly available
         Request requestWithWorker = actualRequestsUpdated.get(0);
         Assertions.assertThat(requestWithWorker.getStatus()).isEqualTo(RequestStatus.DISPATCHED);
         Assertions.assertThat(requestWithWorker.getDispatchedWorkerType()).isEqualTo(WORKER_TYPE_1);
+        Assertions.assertThat(requestWithWorker.getDispatchDate()).isNotNull();
         // Request with workflow of workers
         Request requestWithWorkflow = actualRequestsUpdated.get(1);
         Assertions.assertThat(requestWithWorkflow.getStatus()).isEqualTo(RequestStatus.DISPATCHED);
         Assertions.assertThat(requestWithWorkflow.getDispatchedWorkerType()).isEqualTo(WORKER_TYPE_2);
+        Assertions.assertThat(requestWithWorkflow.getDispatchDate()).isNotNull();
     }
 
     private void checkRequestsNotDispatched(List<Request> actualRequestsUpdated) {
@@ -18,12 +18,15 @@
  */
 package fr.cnes.regards.modules.workermanager.service.requests.scan;
 
+import com.google.common.collect.Sets;
 import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
 import fr.cnes.regards.framework.modules.jobs.domain.JobStatus;
 import fr.cnes.regards.modules.workermanager.domain.request.Request;
 import fr.cnes.regards.modules.workermanager.domain.request.SearchRequestParameters;
+import fr.cnes.regards.modules.workermanager.dto.WorkerConfigDto;
 import fr.cnes.regards.modules.workermanager.dto.requests.RequestStatus;
 import fr.cnes.regards.modules.workermanager.service.WorkerManagerJobsPriority;
+import fr.cnes.regards.modules.workermanager.service.config.WorkerConfigService;
 import fr.cnes.regards.modules.workermanager.service.requests.job.DispatchRequestJob;
 import org.junit.Assert;
 import org.junit.Ignore;
@@ -42,9 +45,16 @@ import java.util.Optional;
 @TestPropertySource(properties = { "spring.jpa.properties.hibernate.default_schema=request_scan_test" })
 public class RequestScanServiceIT extends AbstractRequestJobIT {
 
+    private static final String LOST_WORKER_TYPE = "lostWorkerType";
+
+    private static final String LOST_CONTENT_TYPE = "lost_content";
+
     @Autowired
     private RequestScanService requestScanService;
 
+    @Autowired
+    private WorkerConfigService workerConfigService;
+
     @Test
     public void testScanThenDispatch() throws Throwable {
         int nbRequests = 5;
@@ -76,6 +86,35 @@ public class RequestScanServiceIT extends AbstractRequestJobIT {
         Assert.assertEquals("expect all requests running", nbRequests, runningRequests.getTotalElements());
     }
 
+    @Test
+    public void testScanWaitingCreditsOfWorkerWithoutInstance() throws Throwable {
+        // Requests waiting for credits of a worker whose instances have all left the cache
+        workerConfigService.importConfiguration(Sets.newHashSet(new WorkerConfigDto(LOST_WORKER_TYPE,
+                                                                                    Sets.newHashSet(LOST_CONTENT_TYPE),
+                                                                                    null,
+                                                                                    true)));
+        int nbRequests = 3;
+        createRequests(nbRequests);
+        List<Request> requests = requestRepository.findAll();
+        requests.forEach(request -> {
+            request.setStatus(RequestStatus.WAITING_CREDITS);
+            request.setStepWorkerType(LOST_WORKER_TYPE);
+        });
+        requestRepository.saveAll(requests);
+
+        // Scan
+        requestScanService.scanWaitingCreditsRequests();
+
+        // Check requests wait for an instance of the worker, without any dispatch
+        Page<Request> noWorkerRequests = requestService.searchRequests(new SearchRequestParameters().withStatusesIncluded(
+            RequestStatus.NO_WORKER_AVAILABLE), PageRequest.of(0, 5));
+        Assert.assertEquals("expect all requests without worker available",
+                            nbRequests,
+                            noWorkerRequests.getTotalElements());
+        Assert.assertTrue("no dispatch job expected",
+                          this.getJobTestUtils().retrieveFullJobInfos(DispatchRequestJob.class).isEmpty());
+    }
+
     @Test
     @Ignore
     public void testScanPerformance() throws Throwable {